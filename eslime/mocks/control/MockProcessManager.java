@@ -37,6 +37,11 @@ public class MockProcessManager extends ProcessManager {
         return triggeredProcesses;
     }
 
+    @Override
+    public int getNextStep(int n) {
+        return n;
+    }
+
     @Override
     public StepState doTriggeredProcesses(StepState stepState) throws HaltCondition {
         timesIterated++;
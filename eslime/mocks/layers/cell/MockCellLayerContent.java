@@ -12,7 +12,7 @@ import geometry.Geometry;
 import java.util.HashSet;
 import java.util.Set;
 
-public class MockCellLayerContent extends CellLayerContent {
+public class MockCellLayerContent extends InfiniteCellLayerContent {
 
     private Set<Coordinate> imaginarySites;
     private int[] stateVector;
@@ -64,7 +64,7 @@ public class MockCellLayerContent extends CellLayerContent {
     }
 
     @Override
-    public CellLayerContent clone() {
+    public MockCellLayerContent clone() {
         MockCellLayerContent clone = new MockCellLayerContent(geom, indices);
         clone.imaginarySites = new HashSet<>(imaginarySites);
         clone.stateVector = stateVector.clone();
@@ -28,6 +28,8 @@ public class MockProcess extends EcoProcess {
     // testing.
     private int timesFired = 0;
 
+    private boolean closed = false;
+
     public MockProcess(BaseProcessArguments arguments, String identifier, double weight, int count) {
         super(arguments);
         this.count = count;
@@ -80,6 +82,15 @@ public class MockProcess extends EcoProcess {
         this.timesFired = timesFired;
     }
 
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
     public String getIdentifier() {
         return identifier;
     }
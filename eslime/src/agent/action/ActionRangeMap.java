@@ -29,12 +29,9 @@ public class ActionRangeMap extends RangeMap<Action> {
         int n = keys.size();
         ActionRangeMap cloned = new ActionRangeMap(n);
 
-        for (int i = 1; i < floors.size(); i++) {
-            Action key = keys.get(i - 1);
-            Action clonedKey = key.clone(child);
-            Double weight = floors.get(i) - floors.get(i - 1);
-
-            cloned.add(clonedKey, weight);
+        for (int i = 0; i < n; i++) {
+            Action clonedKey = keys.get(i).clone(child);
+            cloned.add(clonedKey, weights.get(i));
         }
 
         return cloned;
@@ -8,52 +8,83 @@ package agent.action;
 import agent.action.stochastic.ProbabilitySupplier;
 import cells.BehaviorCell;
 import layers.LayerManager;
+import structural.AliasTable;
+import structural.WeightedSampler;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by dbborens on 4/27/14.
+ * <p/>
+ * Weighted choice among actions whose weights are supplied by functions.
+ * The weights are held in a WeightedSampler, and refresh() updates only
+ * those weights whose supplied value has changed. If every weight is
+ * constant, an AliasTable is built once instead, and refresh() does
+ * nothing.
  */
 public class DynamicActionRangeMap {
 
-    private Map<Action, ProbabilitySupplier> functionMap;
-    private ActionRangeMap valueMap;
+    private List<Action> actions;
+    private List<ProbabilitySupplier> suppliers;
     private LayerManager layerManager;
 
+    // Exactly one of these is built on the first refresh.
+    private WeightedSampler sampler;
+    private AliasTable aliasTable;
+
     public DynamicActionRangeMap(LayerManager layerManager) {
-        functionMap = new HashMap<>();
+        actions = new ArrayList<>();
+        suppliers = new ArrayList<>();
         this.layerManager = layerManager;
     }
 
     public void add(Action action, ProbabilitySupplier supplier) {
-        functionMap.put(action, supplier);
+        actions.add(action);
+        suppliers.add(supplier);
+        sampler = null;
+        aliasTable = null;
     }
 
     public void refresh() {
-        valueMap = new ActionRangeMap(functionMap.size());
-        functionMap.forEach((action, supplier) -> {
-            double value = supplier.get();
-            valueMap.add(action, value);
-        });
+        if (aliasTable != null) {
+            return;
+        }
+
+        if (sampler != null) {
+            for (int i = 0; i < suppliers.size(); i++) {
+                sampler.set(i, suppliers.get(i).get());
+            }
+            return;
+        }
+
+        boolean constant = suppliers.stream().allMatch(ProbabilitySupplier::isConstant);
+        if (constant) {
+            double[] values = suppliers.stream().mapToDouble(ProbabilitySupplier::get).toArray();
+            aliasTable = new AliasTable(values);
+        } else {
+            sampler = new WeightedSampler(suppliers.size());
+            suppliers.forEach(supplier -> sampler.add(supplier.get()));
+        }
     }
 
     public Action selectTarget(double x) {
-        return valueMap.selectTarget(x);
+        int index = (aliasTable != null) ? aliasTable.select(x) : sampler.select(x);
+        return actions.get(index);
     }
 
     public double getTotalWeight() {
-        return valueMap.getTotalWeight();
+        return (aliasTable != null) ? aliasTable.getTotalWeight() : sampler.getTotalWeight();
     }
 
     public DynamicActionRangeMap clone(BehaviorCell child) {
         DynamicActionRangeMap cloned = new DynamicActionRangeMap(layerManager);
 
-        functionMap.forEach((action, supplier) -> {
-            Action clonedKey = action.clone(child);
-            ProbabilitySupplier clonedValue = supplier.clone(child);
+        for (int i = 0; i < actions.size(); i++) {
+            Action clonedKey = actions.get(i).clone(child);
+            ProbabilitySupplier clonedValue = suppliers.get(i).clone(child);
             cloned.add(clonedKey, clonedValue);
-        });
+        }
 
         return cloned;
     }
@@ -26,4 +26,9 @@ public class ConstantProbabilitySupplier extends ProbabilitySupplier {
     public Double get() {
         return value;
     }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
 }
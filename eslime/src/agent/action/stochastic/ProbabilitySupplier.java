@@ -15,4 +15,11 @@ import java.util.function.Supplier;
 public abstract class ProbabilitySupplier implements Supplier<Double> {
 
     public abstract ProbabilitySupplier clone(BehaviorCell child);
+
+    /**
+     * Returns true if the supplied value never changes.
+     */
+    public boolean isConstant() {
+        return false;
+    }
 }
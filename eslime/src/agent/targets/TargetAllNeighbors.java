@@ -7,11 +7,9 @@ package agent.targets;
 
 import cells.BehaviorCell;
 import control.identifiers.Coordinate;
-import geometry.Geometry;
 import layers.LayerManager;
 import processes.discrete.filter.Filter;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -28,19 +26,11 @@ public class TargetAllNeighbors extends TargetRule {
 
     @Override
     protected List<Coordinate> getCandidates(BehaviorCell caller) {
-        // Get geometry
-        Geometry geom = layerManager.getCellLayer().getGeometry();
-
         // Get self coordinate
         Coordinate self = layerManager.getCellLayer().getLookupManager().getCellLocation(callback);
 
-        // Get coordinates of neighbors from geometry
-        Coordinate[] neighbors = geom.getNeighbors(self, Geometry.APPLY_BOUNDARIES);
-
-        List<Coordinate> ret = Arrays.asList(neighbors);
-
-        // Return the array
-        return ret;
+        // Return coordinates of neighbors
+        return getNeighbors(self);
     }
 
     @Override
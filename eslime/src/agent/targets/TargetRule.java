@@ -7,9 +7,13 @@ package agent.targets;
 
 import cells.BehaviorCell;
 import control.identifiers.Coordinate;
+import geometry.Geometry;
+import geometry.NeighborTable;
 import layers.LayerManager;
 import processes.discrete.filter.Filter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -114,4 +118,28 @@ public abstract class TargetRule {
     }
 
     protected abstract List<Coordinate> getCandidates(BehaviorCell caller);
+
+    /**
+     * Returns the neighbors of the specified coordinate, with boundary
+     * conditions applied. Uses the geometry's precomputed neighbor table
+     * where one is available.
+     */
+    protected List<Coordinate> getNeighbors(Coordinate self) {
+        Geometry geom = layerManager.getCellLayer().getGeometry();
+        NeighborTable table = geom.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        int site = (table == null) ? -1 : geom.getSiteIndex().indexOf(self);
+
+        if (site < 0) {
+            Coordinate[] neighbors = geom.getNeighbors(self, Geometry.APPLY_BOUNDARIES);
+            return new ArrayList<>(Arrays.asList(neighbors));
+        }
+
+        int degree = table.getDegree(site);
+        List<Coordinate> ret = new ArrayList<>(degree);
+        for (int k = 0; k < degree; k++) {
+            ret.add(geom.getSiteIndex().getSite(table.getNeighbor(site, k)));
+        }
+
+        return ret;
+    }
 }
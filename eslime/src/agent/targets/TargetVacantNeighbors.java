@@ -7,7 +7,6 @@ package agent.targets;
 
 import cells.BehaviorCell;
 import control.identifiers.Coordinate;
-import geometry.Geometry;
 import layers.LayerManager;
 import layers.cell.CellLayerViewer;
 import processes.discrete.filter.Filter;
@@ -34,20 +33,17 @@ public class TargetVacantNeighbors extends TargetRule {
 
     @Override
     protected List<Coordinate> getCandidates(BehaviorCell caller) {
-        // Get geometry
-        Geometry geom = layerManager.getCellLayer().getGeometry();
-
         // Get cell layer viewer
         CellLayerViewer viewer = layerManager.getCellLayer().getViewer();
 
         // Get self coordinate
         Coordinate self = layerManager.getCellLayer().getLookupManager().getCellLocation(callback);
 
-        // Get coordinates of neighbors from geometry
-        Coordinate[] neighbors = geom.getNeighbors(self, Geometry.APPLY_BOUNDARIES);
+        // Get coordinates of neighbors
+        List<Coordinate> neighbors = getNeighbors(self);
 
         // Create an array list of neighbors that are vacant
-        ArrayList<Coordinate> vacNeighbors = new ArrayList<>(neighbors.length);
+        ArrayList<Coordinate> vacNeighbors = new ArrayList<>(neighbors.size());
 
         for (Coordinate neighbor : neighbors) {
             if (!viewer.isOccupied(neighbor)) {
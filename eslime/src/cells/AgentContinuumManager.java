@@ -10,7 +10,9 @@ import factory.cell.Reaction;
 import layers.continuum.ContinuumAgentLinker;
 import layers.continuum.RelationshipTuple;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -32,6 +34,7 @@ public class AgentContinuumManager {
     private Supplier<Coordinate> locator;
     private Function<String, ContinuumAgentLinker> linkerLookup;
     private HashSet<String> reactionIds;
+    private List<Runnable> relocators;
 
     public AgentContinuumManager(BehaviorCell cell,
                                  RemoverIndex index,
@@ -43,6 +46,7 @@ public class AgentContinuumManager {
         this.locator = locator;
         this.linkerLookup = linkerLookup;
         reactionIds = new HashSet<>();
+        relocators = new ArrayList<>();
     }
 
     public void schedule(Reaction reaction) {
@@ -51,6 +55,7 @@ public class AgentContinuumManager {
         Supplier<RelationshipTuple> supplier = () -> getRelationshipTuple(reaction);
         linker.getNotifier().add(cell, supplier);
         index.add(() -> linker.getNotifier().remove(cell));
+        relocators.add(() -> linker.getNotifier().relocate(cell));
         reactionIds.add(id);
     }
 
@@ -61,6 +66,15 @@ public class AgentContinuumManager {
 
     public void removeFromAll() {
         index.removeFromAll();
+        relocators.clear();
+    }
+
+    /**
+     * Notify each continuum with which the cell has a relationship that the
+     * cell has been placed at a new location.
+     */
+    public void relocate() {
+        relocators.forEach(Runnable::run);
     }
 
     public Stream<String> getReactionIds() {
@@ -122,6 +122,14 @@ public class BehaviorCell extends Cell {
         dispatcher.trigger(behaviorName, caller);
     }
 
+    @Override
+    public void relocate() {
+        // Cells constructed for testing have no reactions
+        if (reactionManager != null) {
+            reactionManager.relocate();
+        }
+    }
+
     @Override
     public void die() {
         reactionManager.removeFromAll();
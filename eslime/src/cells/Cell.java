@@ -106,4 +106,11 @@ public abstract class Cell {
     public abstract void trigger(String behaviorName, Coordinate caller) throws HaltCondition;
 
     public abstract void die();
+
+    /**
+     * Called by the cell layer whenever the cell is placed at a site, so
+     * that anything tracking the location of the cell can be updated.
+     */
+    public void relocate() {
+    }
 }
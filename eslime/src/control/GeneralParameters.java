@@ -25,6 +25,8 @@ public class GeneralParameters {
     // Dimensions
     private int maxStep;
     private int instances;
+    // Number of instances to run concurrently
+    private int threads;
     // Path variables
     private String basePath;        // Path as specified
     private String path;            // May contain a time stamp
@@ -48,6 +50,46 @@ public class GeneralParameters {
         calcEpsilon();
     }
 
+    /**
+     * Copy constructor for a single instance of a parallel run. The
+     * instance receives its own random number generator, seeded from
+     * the master seed.
+     */
+    private GeneralParameters(GeneralParameters master, int instance) {
+        epsilon = master.epsilon;
+        maxStep = master.maxStep;
+        instances = master.instances;
+        threads = master.threads;
+        basePath = master.basePath;
+        path = master.path;
+        this.instance = instance;
+        updateInstancePath();
+        randomSeed = deriveSeed(master.randomSeed, instance);
+        random = new Random(randomSeed);
+    }
+
+    /**
+     * Returns an independent copy of these parameters for the specified
+     * instance, with a random number seed derived deterministically from
+     * this object's seed. Unlike advance(), this does not modify the
+     * original, so instances can be set up and run in any order.
+     */
+    public GeneralParameters forInstance(int instance) {
+        return new GeneralParameters(this, instance);
+    }
+
+    /**
+     * Derives the random number seed of an instance from a master seed.
+     * Consecutive instances receive well-separated seeds (the mixing
+     * function is the finalizer of the SplitMix64 generator).
+     */
+    public static long deriveSeed(long masterSeed, int instance) {
+        long z = masterSeed + (instance + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     private void updateInstancePath() {
         if (instances == 1) {
             instancePath = path;
@@ -88,6 +130,9 @@ public class GeneralParameters {
         // Load dimensions
         loadDimensions(g);
 
+        // Load degree of parallelism
+        loadThreads(g);
+
         // Load base path and (if applicable) time stamped path
         loadPaths(g);
 
@@ -101,8 +146,8 @@ public class GeneralParameters {
             randomSeed = System.currentTimeMillis();
             random = new Random(randomSeed);
         } else {
-            if (instances != 1) {
-                throw new IllegalArgumentException("You may only specify a random number seed if you are running a single replicate.");
+            if (instances != 1 && threads == 1) {
+                throw new IllegalArgumentException("You may only specify a random number seed if you are running a single replicate, or running replicates in parallel.");
             }
             randomSeed = Long.valueOf(rseed);
             random = new Random(randomSeed);
@@ -122,6 +167,18 @@ public class GeneralParameters {
         }
     }
 
+    /**
+     * Replicates are run one after another unless a number of threads is
+     * specified.
+     */
+    private void loadThreads(Element g) {
+        threads = XmlUtil.getThreads(g, "threads");
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+        }
+    }
+
     private void loadDimensions(Element g) {
         //width = Integer.valueOf(get(g, "width"));
         //height = Integer.valueOf(get(g, "height"));
@@ -208,6 +265,10 @@ public class GeneralParameters {
         return instances;
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
     public String getBasePath() {
         return basePath;
     }
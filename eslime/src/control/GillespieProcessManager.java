@@ -0,0 +1,202 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control;
+
+import control.halt.HaltCondition;
+import control.halt.StasisEvent;
+import layers.LayerManager;
+import processes.EcoProcess;
+import processes.StepState;
+import processes.gillespie.DependencyGraph;
+import processes.gillespie.GillespieState;
+import structural.IndexedPriorityQueue;
+
+import java.util.List;
+
+/**
+ * Process manager for stochastic simulations, using the next-reaction
+ * method of Gibson and Bruck (J Phys Chem A 104:1876, 2000). In addition
+ * to the periodically triggered processes of an ordinary process manager,
+ * it keeps a list of reactions, whose propensity is the total weight that
+ * each reports to target(...). Every step, after the triggered processes
+ * have fired, exactly one reaction fires, and the clock advances to the
+ * time at which it fired. The start and period of reactions are ignored.
+ * <p/>
+ * Each reaction has a putative firing time, kept in an indexed priority
+ * queue. When a process fires, only those reactions that depend on it (see
+ * DependencyGraph) are re-targeted, and their firing times rescaled by the
+ * ratio of old to new propensity; the reaction that fired draws a new
+ * exponential waiting time. Each step therefore costs O(log M) in the
+ * number of reactions M, plus the cost of re-targeting its dependents.
+ * <p/>
+ * If no reaction has a positive propensity, a StasisEvent is thrown.
+ *
+ * @test GillespieProcessManagerTest
+ */
+public class GillespieProcessManager extends ProcessManager {
+
+    private final List<EcoProcess> reactions;
+    private final DependencyGraph dependencies;
+    private final GeneralParameters p;
+
+    private final IndexedPriorityQueue queue;
+    private final double[] propensities;
+
+    // False until the propensities of all reactions have been computed
+    // for the current instance
+    private boolean started;
+
+    public GillespieProcessManager(List<EcoProcess> processes, List<EcoProcess> reactions,
+                                   DependencyGraph dependencies, LayerManager layerManager,
+                                   GeneralParameters p) {
+        super(processes, layerManager);
+
+        if (dependencies.getReactionCount() != reactions.size()) {
+            throw new IllegalArgumentException("Dependency graph does not match the list of reactions.");
+        }
+
+        this.reactions = reactions;
+        this.dependencies = dependencies;
+        this.p = p;
+
+        queue = new IndexedPriorityQueue(reactions.size());
+        propensities = new double[reactions.size()];
+    }
+
+    @Override
+    protected void fire(StepState stepState) throws HaltCondition {
+        List<EcoProcess> triggeredProcesses = getTriggeredProcesses(stepState.getFrame());
+        for (EcoProcess process : triggeredProcesses) {
+            process.iterate();
+        }
+
+        double now = stepState.getTime();
+        if (!started) {
+            for (int k = 0; k < reactions.size(); k++) {
+                update(k, now);
+            }
+            started = true;
+        } else {
+            for (EcoProcess process : triggeredProcesses) {
+                for (int k : dependencies.getAffected(process)) {
+                    update(k, now);
+                }
+            }
+        }
+
+        if (reactions.isEmpty() || queue.getKey(queue.peek()) == Double.POSITIVE_INFINITY) {
+            throw new StasisEvent();
+        }
+
+        int mu = queue.peek();
+        double tau = queue.getKey(mu);
+        stepState.advanceClock(tau - now);
+
+        EcoProcess reaction = reactions.get(mu);
+        reaction.fire(stepState);
+
+        // The reaction that fired needs a new waiting time regardless of
+        // whether its propensity changed.
+        propensities[mu] = 0.0;
+        queue.set(mu, Double.POSITIVE_INFINITY);
+        update(mu, tau);
+        for (int k : dependencies.getAffected(reaction)) {
+            if (k != mu) {
+                update(k, tau);
+            }
+        }
+    }
+
+    /**
+     * A reaction may fire at every step.
+     */
+    @Override
+    public int getNextStep(int n) throws HaltCondition {
+        if (!reactions.isEmpty()) {
+            return n;
+        }
+
+        return super.getNextStep(n);
+    }
+
+    /**
+     * Re-targets a reaction and updates its putative firing time to
+     * reflect its new propensity.
+     */
+    private void update(int k, double now) throws HaltCondition {
+        double previous = propensities[k];
+        double current = propensity(reactions.get(k));
+        propensities[k] = current;
+
+        double key = queue.getKey(k);
+        if (current <= 0.0) {
+            queue.set(k, Double.POSITIVE_INFINITY);
+        } else if (previous > 0.0 && key != Double.POSITIVE_INFINITY) {
+            // Rescaling the remaining waiting time preserves its
+            // exponential distribution without drawing a new number.
+            queue.set(k, now + (previous / current) * (key - now));
+        } else {
+            queue.set(k, now + waitingTime(current));
+        }
+    }
+
+    private double propensity(EcoProcess reaction) throws HaltCondition {
+        Integer id = reaction.getID();
+        GillespieState gs = new GillespieState(new Integer[]{id});
+        reaction.target(gs);
+        gs.close();
+
+        if (gs.getEventCount(id) == 0) {
+            return 0.0;
+        }
+
+        return gs.getWeight(id);
+    }
+
+    /**
+     * Returns an exponentially distributed waiting time.
+     */
+    private double waitingTime(double propensity) {
+        // Get a random number between 0 (inc) and 1 (exc)
+        double u = p.getRandom().nextDouble();
+
+        // Inverse of exponential CDF
+        return -Math.log(1 - u) / propensity;
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        for (EcoProcess reaction : reactions) {
+            reaction.init();
+        }
+
+        for (int k = 0; k < reactions.size(); k++) {
+            propensities[k] = 0.0;
+            queue.set(k, Double.POSITIVE_INFINITY);
+        }
+        started = false;
+    }
+
+    public List<EcoProcess> getReactions() {
+        return reactions;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof GillespieProcessManager) || !super.equals(obj)) {
+            return false;
+        }
+
+        GillespieProcessManager other = (GillespieProcessManager) obj;
+        return reactions.equals(other.reactions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + reactions.size();
+    }
+}
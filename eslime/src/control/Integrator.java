@@ -35,6 +35,19 @@ public class Integrator {
      */
     private HaltCondition go() {
         for (int n = 0; n < p.T(); n++) {
+            // Skip over steps in which no process fires; nothing would
+            // change, and nothing would be recorded.
+            try {
+                n = processManager.getNextStep(n);
+            } catch (HaltCondition haltCondition) {
+                haltCondition.setGillespie(time);
+                return haltCondition;
+            }
+
+            if (n >= p.T()) {
+                break;
+            }
+
             StepState state = new StepState(time, n);
             try {
                 state = processManager.doTriggeredProcesses(state);
@@ -76,6 +89,14 @@ public class Integrator {
         return ex;
     }
 
+    /**
+     * Releases any resources held by the simulation once every instance
+     * has been run.
+     */
+    public void close() {
+        processManager.close();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
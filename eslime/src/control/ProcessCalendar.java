@@ -0,0 +1,153 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control;
+
+import control.arguments.Argument;
+import control.halt.HaltCondition;
+import processes.EcoProcess;
+import structural.IndexedPriorityQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event calendar for processes with a constant start and period. The next
+ * step at which each such process fires is kept in a priority queue, so
+ * that finding the processes due at a step costs O(log n) per process
+ * that fires, rather than a check of every process. One-time processes are
+ * retired once they have fired (or their step has passed).
+ * <p/>
+ * Processes whose start or period is drawn at random cannot be scheduled
+ * ahead of time. These are reported as dynamic, and must be checked at
+ * every step by the caller.
+ *
+ * @test ProcessCalendarTest
+ */
+class ProcessCalendar {
+
+    private static final double RETIRED = Double.POSITIVE_INFINITY;
+
+    private final List<EcoProcess> processes;
+    private final IndexedPriorityQueue queue;
+    private final int[] periods;
+
+    // Indices of processes that must be checked at every step
+    private final List<Integer> dynamic;
+    private final boolean[] scheduled;
+
+    public ProcessCalendar(List<EcoProcess> processes) throws HaltCondition {
+        this.processes = processes;
+        int n = processes.size();
+        queue = new IndexedPriorityQueue(n);
+        periods = new int[n];
+        dynamic = new ArrayList<>();
+        scheduled = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            scheduled[i] = isSchedulable(processes.get(i));
+            if (!scheduled[i]) {
+                dynamic.add(i);
+            }
+        }
+        reset();
+    }
+
+    private static boolean isSchedulable(EcoProcess process) throws HaltCondition {
+        Argument<Integer> period = process.getPeriod();
+        Argument<Integer> start = process.getStart();
+        return period.isConstant() && start.isConstant() && period.next() >= 0;
+    }
+
+    /**
+     * Schedules each process for its first firing at or after step 0.
+     */
+    public void reset() throws HaltCondition {
+        for (int i = 0; i < processes.size(); i++) {
+            queue.set(i, RETIRED);
+        }
+
+        for (int i = 0; i < processes.size(); i++) {
+            if (!scheduled[i]) {
+                continue;
+            }
+
+            EcoProcess process = processes.get(i);
+            periods[i] = process.getPeriod().next();
+            int start = process.getStart().next();
+            schedule(i, start, 0);
+        }
+    }
+
+    /**
+     * Schedules a process for its first firing at or after the specified
+     * step, given that it fires at step "from" and every period thereafter.
+     */
+    private void schedule(int i, int from, int n) {
+        int period = periods[i];
+        if (from >= n) {
+            queue.set(i, from);
+        } else if (period == 0) {
+            queue.set(i, RETIRED);
+        } else {
+            long elapsed = (long) n - from;
+            long next = from + ((elapsed + period - 1) / period) * period;
+            queue.set(i, next > Integer.MAX_VALUE ? RETIRED : next);
+        }
+    }
+
+    /**
+     * Returns the indices of the scheduled processes that fire at step n,
+     * in ascending order, and reschedules them. Steps must be visited in
+     * ascending order; processes that were due at skipped steps are
+     * rescheduled without being reported.
+     */
+    public List<Integer> advance(int n) {
+        List<Integer> due = new ArrayList<>();
+        if (processes.isEmpty()) {
+            return due;
+        }
+
+        while (queue.getKey(queue.peek()) <= n) {
+            int i = queue.peek();
+            int step = (int) queue.getKey(i);
+
+            // Catch up over skipped steps; the process may then be due now.
+            if (step < n) {
+                schedule(i, step, n);
+                continue;
+            }
+
+            due.add(i);
+            schedule(i, n, n + 1);
+        }
+
+        return due;
+    }
+
+    /**
+     * Returns the first step at or after n at which a scheduled process
+     * fires, or Integer.MAX_VALUE if there is none.
+     */
+    public int getNextStep(int n) {
+        if (processes.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+
+        double next = queue.getKey(queue.peek());
+        if (next == RETIRED) {
+            return Integer.MAX_VALUE;
+        }
+
+        return Math.max(n, (int) next);
+    }
+
+    /**
+     * Returns the indices of processes that are not scheduled by the
+     * calendar, in ascending order.
+     */
+    public List<Integer> getDynamic() {
+        return dynamic;
+    }
+}
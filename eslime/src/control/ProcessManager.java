@@ -21,22 +21,73 @@ public class ProcessManager {
     private List<EcoProcess> processes;
     private LayerManager layerManager;
 
+    // Built on first use, and discarded when the manager is reset
+    private ProcessCalendar calendar;
+
     public ProcessManager(List<EcoProcess> processes, LayerManager layerManager) {
         this.processes = processes;
         this.layerManager = layerManager;
     }
 
+    /**
+     * Returns the processes that fire at step n, in the order in which
+     * they were specified. Steps must be queried in ascending order.
+     */
     protected List<EcoProcess> getTriggeredProcesses(int n) throws HaltCondition {
+        ProcessCalendar calendar = getCalendar();
+        List<Integer> due = calendar.advance(n);
+        List<Integer> dynamic = calendar.getDynamic();
+
+        ArrayList<EcoProcess> triggeredProcesses = new ArrayList<>(due.size());
+
+        // Merge the processes due on the calendar with those that must be
+        // checked at every step, preserving their order.
+        int j = 0;
+        for (int i : due) {
+            j = addDynamic(n, dynamic, j, i, triggeredProcesses);
+            triggeredProcesses.add(processes.get(i));
+        }
+        addDynamic(n, dynamic, j, processes.size(), triggeredProcesses);
 
-        ArrayList<EcoProcess> triggeredProcesses = new ArrayList<>(processes.size());
+        return triggeredProcesses;
+    }
 
-        for (EcoProcess process : processes) {
+    /**
+     * Adds the dynamic processes that are triggered at step n, starting
+     * from the j-th dynamic process and ending before the specified index.
+     * Returns the position of the first dynamic process not considered.
+     */
+    private int addDynamic(int n, List<Integer> dynamic, int j, int end,
+                           List<EcoProcess> triggeredProcesses) throws HaltCondition {
+        for (; j < dynamic.size() && dynamic.get(j) < end; j++) {
+            EcoProcess process = processes.get(dynamic.get(j));
             if (triggered(n, process)) {
                 triggeredProcesses.add(process);
             }
         }
+        return j;
+    }
 
-        return triggeredProcesses;
+    /**
+     * Returns the first step at or after n at which any process might
+     * fire, or Integer.MAX_VALUE if no process will ever fire again. Steps
+     * in between can be skipped, as nothing would happen in them.
+     */
+    public int getNextStep(int n) throws HaltCondition {
+        ProcessCalendar calendar = getCalendar();
+        if (!calendar.getDynamic().isEmpty()) {
+            return n;
+        }
+
+        return calendar.getNextStep(n);
+    }
+
+    private ProcessCalendar getCalendar() throws HaltCondition {
+        if (calendar == null) {
+            calendar = new ProcessCalendar(processes);
+        }
+
+        return calendar;
     }
 
     protected boolean triggered(int n, EcoProcess process) throws HaltCondition {
@@ -80,13 +131,11 @@ public class ProcessManager {
         // and processes can access it.
         layerManager.setStepState(stepState);
 
-        // Get triggered events.
-        List<EcoProcess> triggeredProcesses = getTriggeredProcesses(stepState.getFrame());
+        fire(stepState);
 
-        // Fire each triggered cell event.
-        for (EcoProcess process : triggeredProcesses) {
-            process.iterate();
-        }
+        // Lazily solved continuum layers are brought up to date at the end
+        // of each step.
+        layerManager.flush();
 
         // There's no reason for the layer manager to touch the StepState
         // object until the next cycle. If it does, the program should blow up,
@@ -96,17 +145,42 @@ public class ProcessManager {
         return stepState;
     }
 
+    /**
+     * Fires the processes that are triggered in the current step.
+     */
+    protected void fire(StepState stepState) throws HaltCondition {
+        // Get triggered events.
+        List<EcoProcess> triggeredProcesses = getTriggeredProcesses(stepState.getFrame());
+
+        // Fire each triggered cell event.
+        for (EcoProcess process : triggeredProcesses) {
+            process.iterate();
+        }
+    }
+
     /**
      * Resets all layers and processes to their original
      * configurations.
      */
     public void init() {
+        calendar = null;
         layerManager.reset();
         for (EcoProcess process : processes) {
             process.init();
         }
     }
 
+    /**
+     * Releases any resources held by the processes and layers once the
+     * simulation has concluded.
+     */
+    public void close() {
+        for (EcoProcess process : processes) {
+            process.close();
+        }
+        layerManager.close();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) {
@@ -134,4 +208,13 @@ public class ProcessManager {
 
         return true;
     }
+
+    /**
+     * Processes do not in general define a hash code consistent with their
+     * notion of equality, so only the number of processes is hashed.
+     */
+    @Override
+    public int hashCode() {
+        return processes.size();
+    }
 }
@@ -20,4 +20,11 @@ public abstract class Argument<T> {
     public abstract boolean equals(Object obj);
 
     public abstract T next() throws HaltCondition;
+
+    /**
+     * Returns true if every call to next() returns the same value.
+     */
+    public boolean isConstant() {
+        return false;
+    }
 }
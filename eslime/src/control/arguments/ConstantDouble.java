@@ -40,4 +40,9 @@ public class ConstantDouble extends Argument<Double> {
 
         return true;
     }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
 }
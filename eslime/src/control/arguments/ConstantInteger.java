@@ -35,4 +35,9 @@ public class ConstantInteger extends Argument<Integer> {
 
         return true;
     }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
 }
@@ -0,0 +1,15 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control.halt;
+
+/**
+ * Signals that no stochastic reaction can fire: the total propensity of
+ * the system is zero, so its state can no longer change.
+ */
+public class StasisEvent extends HaltCondition {
+
+    private static final long serialVersionUID = 1L;
+}
@@ -199,11 +199,17 @@ public class Coordinate implements Comparable<Coordinate> {
 
     /**
      * Return a coordinate with same location as this one, and all
-     * flags cleared except for the PLANAR flag.
+     * flags cleared except for the PLANAR flag. Since coordinates are
+     * immutable, a coordinate that is already canonical is returned
+     * as-is rather than copied.
      *
      * @return
      */
     public Coordinate canonicalize() {
+        if (isCanonical()) {
+            return this;
+        }
+
         Coordinate ret;
 
         if (hasFlag(Flags.PLANAR)) {
@@ -215,4 +221,20 @@ public class Coordinate implements Comparable<Coordinate> {
         return ret;
     }
 
+    /**
+     * Returns true if this coordinate is equal to its own canonical form.
+     */
+    public boolean isCanonical() {
+        // Subclasses carry additional state, so they are never canonical.
+        if (getClass() != Coordinate.class) {
+            return false;
+        }
+
+        if (hasFlag(Flags.PLANAR)) {
+            return flags == Flags.PLANAR && z == 0;
+        } else {
+            return flags == 0;
+        }
+    }
+
 }
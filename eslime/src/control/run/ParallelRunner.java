@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control.run;
+
+import control.GeneralParameters;
+import control.Integrator;
+import io.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs the instances of a project concurrently on a fixed pool of worker
+ * threads. Each instance is given its own parameters, with a random number
+ * seed derived from the master seed, and its own integrator (and hence its
+ * own layers, processes and serializers), so instances share no mutable
+ * state other than the writers that aggregate over all instances. These
+ * are built once for the project, shared through a SynchronizedSerializer,
+ * and closed once every instance has concluded. The result of each
+ * instance depends only on the master seed and the instance number, not
+ * on the order in which instances are run.
+ *
+ * @test ParallelRunnerTest
+ */
+public class ParallelRunner extends Runner {
+
+    private GeneralParameters p;
+
+    // Builds the object graph for a single instance.
+    private Function<GeneralParameters, Integrator> integratorFactory;
+
+    // Writers that aggregate over all instances
+    private List<Serializer> sharedWriters;
+
+    public ParallelRunner(GeneralParameters p, Function<GeneralParameters, Integrator> integratorFactory) {
+        this(p, integratorFactory, new ArrayList<>());
+    }
+
+    public ParallelRunner(GeneralParameters p, Function<GeneralParameters, Integrator> integratorFactory,
+                          List<Serializer> sharedWriters) {
+        super(p, null);
+        this.p = p;
+        this.integratorFactory = integratorFactory;
+        this.sharedWriters = sharedWriters;
+    }
+
+    @Override
+    public void run() {
+        int n = p.getNumInstances();
+        int threads = Math.min(p.getThreads(), n);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> results = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                GeneralParameters instanceParameters = p.forInstance(i);
+                results.add(pool.submit(() -> {
+                    Integrator integrator = integratorFactory.apply(instanceParameters);
+                    try {
+                        integrator.doNext();
+                    } finally {
+                        integrator.close();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < n; i++) {
+                await(results.get(i), i);
+            }
+        } finally {
+            pool.shutdownNow();
+            sharedWriters.forEach(Serializer::close);
+        }
+    }
+
+    private void await(Future<?> result, int instance) {
+        try {
+            result.get();
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Instance " + instance + " failed.", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -33,5 +33,7 @@ public class Runner implements Runnable {
                 p.advance();
             }
         }
+
+        integrator.close();
     }
 }
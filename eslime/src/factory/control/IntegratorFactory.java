@@ -10,25 +10,40 @@ import control.Integrator;
 import control.ProcessManager;
 import factory.io.serialize.SerializationFactory;
 import io.serialize.SerializationManager;
+import io.serialize.Serializer;
 import layers.LayerManager;
 import org.dom4j.Element;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Created by dbborens on 11/26/14.
  */
 public abstract class IntegratorFactory {
 
     public static Integrator instantiate(Element root, GeneralParameters p, LayerManager lm) {
+        return instantiate(root, p, lm, new ArrayList<>());
+    }
+
+    /**
+     * Builds the integrator for one of several concurrently running
+     * instances, using the specified shared writers for those writers
+     * that aggregate over all instances.
+     */
+    public static Integrator instantiate(Element root, GeneralParameters p, LayerManager lm,
+                                         List<Serializer> sharedWriters) {
         ProcessManager processManager = makeProcessManager(root, p, lm);
-        SerializationManager serializationManager = makeSerializationManager(root, p, lm);
+        SerializationManager serializationManager = makeSerializationManager(root, p, lm, sharedWriters);
         Integrator integrator = new Integrator(p, processManager, serializationManager);
         return integrator;
     }
 
 
-    private static SerializationManager makeSerializationManager(Element root, GeneralParameters p, LayerManager lm) {
+    private static SerializationManager makeSerializationManager(Element root, GeneralParameters p, LayerManager lm,
+                                                                 List<Serializer> sharedWriters) {
         Element writers = root.element("writers");
-        SerializationManager mgr = SerializationFactory.makeManager(writers, lm, p);
+        SerializationManager mgr = SerializationFactory.makeManager(writers, lm, p, sharedWriters);
         return mgr;
     }
 
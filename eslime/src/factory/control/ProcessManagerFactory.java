@@ -6,11 +6,14 @@
 package factory.control;
 
 import control.GeneralParameters;
+import control.GillespieProcessManager;
 import control.ProcessManager;
 import factory.processes.ProcessListFactory;
 import layers.LayerManager;
 import org.dom4j.Element;
 import processes.EcoProcess;
+import processes.gillespie.DependencyGraph;
+import structural.utilities.XmlUtil;
 
 import java.util.List;
 
@@ -25,6 +28,12 @@ public abstract class ProcessManagerFactory {
         }
         Element processElem = root.element("processes");
         List<EcoProcess> processes = ProcessListFactory.instantiate(processElem, lm, p);
+
+        Element reactionElem = root.element("reactions");
+        if (reactionElem != null) {
+            return gillespie(processElem, processes, reactionElem, lm, p);
+        }
+
         ProcessManager processManager = new ProcessManager(processes, lm);
         return processManager;
     }
@@ -35,4 +44,35 @@ public abstract class ProcessManagerFactory {
         return processManager;
     }
 
+    /**
+     * Builds a process manager that fires one stochastic reaction per step.
+     * Each process or reaction may list the reactions it affects, by
+     * position, in an "affects" element; those that do not are assumed to
+     * affect every reaction. Reactions are numbered after the last process,
+     * so that process and reaction IDs are distinct.
+     */
+    private static ProcessManager gillespie(Element processElem, List<EcoProcess> processes,
+                                            Element reactionElem, LayerManager lm, GeneralParameters p) {
+        List<EcoProcess> reactions = ProcessListFactory.instantiate(reactionElem, lm, p, processes.size());
+        DependencyGraph dependencies = new DependencyGraph(reactions.size());
+        loadDependencies(processElem, processes, dependencies);
+        loadDependencies(reactionElem, reactions, dependencies);
+        return new GillespieProcessManager(processes, reactions, dependencies, lm, p);
+    }
+
+    private static void loadDependencies(Element root, List<EcoProcess> processes, DependencyGraph dependencies) {
+        if (root == null) {
+            return;
+        }
+
+        int i = 0;
+        for (Object o : root.elements()) {
+            Element affects = ((Element) o).element("affects");
+            if (affects != null) {
+                int[] reactions = XmlUtil.getIntegerArray(affects, "reaction");
+                dependencies.declare(processes.get(i), reactions);
+            }
+            i++;
+        }
+    }
 }
@@ -8,13 +8,18 @@ package factory.control.run;
 import control.GeneralParameters;
 import control.Integrator;
 import control.arguments.GeometryDescriptor;
+import control.run.ParallelRunner;
 import control.run.Runner;
 import factory.control.IntegratorFactory;
 import factory.control.arguments.GeometryDescriptorFactory;
+import factory.io.serialize.SerializationFactory;
 import factory.layers.LayerManagerFactory;
+import io.serialize.Serializer;
 import layers.LayerManager;
 import org.dom4j.Element;
 
+import java.util.List;
+
 /**
  * Created by dbborens on 11/23/14.
  */
@@ -30,13 +35,34 @@ public abstract class RunnerFactory {
         Element root = DocumentFactory.instantiate(projectPath);
         validate(root);
         GeneralParameters p = makeGeneralParameters(root);
-        GeometryDescriptor geometryDescriptor = makeGeometryDescriptor(root);
-        LayerManager layerManager = makeLayerManager(root, geometryDescriptor);
-        Integrator integrator = makeIntegrator(root, p, layerManager);
+
+        // Each parallel instance builds its own object graph from a fresh
+        // copy of the project. Writers that aggregate over all instances
+        // are built once, and shared.
+        if (p.getThreads() > 1 && p.getNumInstances() > 1) {
+            List<Serializer> sharedWriters = SerializationFactory.makeSharedWriters(root.element("writers"), p);
+            return new ParallelRunner(p, instanceParameters ->
+                    makeIntegrator(DocumentFactory.instantiate(projectPath), instanceParameters, sharedWriters),
+                    sharedWriters);
+        }
+
+        Integrator integrator = makeIntegrator(root, p);
         Runner runner = new Runner(p, integrator);
         return runner;
     }
 
+    private static Integrator makeIntegrator(Element root, GeneralParameters p) {
+        GeometryDescriptor geometryDescriptor = makeGeometryDescriptor(root);
+        LayerManager layerManager = makeLayerManager(root, geometryDescriptor);
+        return makeIntegrator(root, p, layerManager);
+    }
+
+    private static Integrator makeIntegrator(Element root, GeneralParameters p, List<Serializer> sharedWriters) {
+        GeometryDescriptor geometryDescriptor = makeGeometryDescriptor(root);
+        LayerManager layerManager = makeLayerManager(root, geometryDescriptor);
+        return IntegratorFactory.instantiate(root, p, layerManager, sharedWriters);
+    }
+
     private static LayerManager makeLayerManager(Element root, GeometryDescriptor geometryDescriptor) {
         Element layerRoot = root.element("layers");
         LayerManager layerManager = LayerManagerFactory.instantiate(layerRoot, geometryDescriptor);
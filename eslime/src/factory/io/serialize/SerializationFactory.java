@@ -12,6 +12,8 @@ import factory.control.arguments.IntegerArgumentFactory;
 import factory.io.visual.VisualizationFactory;
 import io.serialize.SerializationManager;
 import io.serialize.Serializer;
+import io.serialize.SynchronizedSerializer;
+import io.serialize.binary.CellStateWriter;
 import io.serialize.binary.ContinuumStateWriter;
 import io.serialize.binary.HighlightWriter;
 import io.serialize.binary.TimeWriter;
@@ -39,6 +41,9 @@ public abstract class SerializationFactory {
         if (writerClass.equalsIgnoreCase("cell-state-writer")) {
             ret = new LegacyCellStateWriter(p, lm);
             return ret;
+        } else if (writerClass.equalsIgnoreCase("binary-cell-state-writer")) {
+            ret = cellStateWriter(e, p, lm);
+            return ret;
         } else if (writerClass.equalsIgnoreCase("halt-time-writer")) {
             ret = new HaltTimeWriter(p, lm);
             return ret;
@@ -95,6 +100,17 @@ public abstract class SerializationFactory {
     }
 
     public static SerializationManager makeManager(Element we, LayerManager layerManager, GeneralParameters p) {
+        return makeManager(we, layerManager, p, new ArrayList<>());
+    }
+
+    /**
+     * Builds the serialization manager for one of several concurrently
+     * running instances. Writers that aggregate over all instances are
+     * taken, in order, from the shared writers (see makeSharedWriters)
+     * rather than built again for the instance.
+     */
+    public static SerializationManager makeManager(Element we, LayerManager layerManager, GeneralParameters p,
+                                                   List<Serializer> shared) {
         List<Serializer> writers = new ArrayList<>();
 
         // No writers? No problem -- return an empty manager.
@@ -102,9 +118,15 @@ public abstract class SerializationFactory {
             return new SerializationManager(p, layerManager, writers);
         }
 
+        int next = 0;
         for (Object o : we.elements()) {
             Element e = (Element) o;
-            Serializer w = SerializationFactory.instantiate(e, p, layerManager);
+            Serializer w;
+            if (isShared(e) && next < shared.size()) {
+                w = shared.get(next++);
+            } else {
+                w = SerializationFactory.instantiate(e, p, layerManager);
+            }
             writers.add(w);
         }
 
@@ -112,6 +134,48 @@ public abstract class SerializationFactory {
         return manager;
     }
 
+    /**
+     * Builds, once for the project, the writers that aggregate over all
+     * instances, for use by instances that run concurrently. Each is
+     * wrapped in a SynchronizedSerializer. Aggregating writers that keep
+     * per-instance state cannot be shared, and are rejected.
+     */
+    public static List<Serializer> makeSharedWriters(Element we, GeneralParameters p) {
+        List<Serializer> shared = new ArrayList<>();
+        if (we == null) {
+            return shared;
+        }
+
+        for (Object o : we.elements()) {
+            Element e = (Element) o;
+            String writerClass = e.getName();
+            if (writerClass.equalsIgnoreCase("correlation-writer") ||
+                    writerClass.equalsIgnoreCase("parameter-writer")) {
+                throw new IllegalArgumentException("Serialization '" + writerClass +
+                        "' cannot be used when instances are run on more than one thread.");
+            }
+
+            if (isShared(e)) {
+                Serializer w = SerializationFactory.instantiate(e, p, null);
+                shared.add(new SynchronizedSerializer(w));
+            }
+        }
+
+        return shared;
+    }
+
+    private static boolean isShared(Element e) {
+        return e.getName().equalsIgnoreCase("halt-time-writer");
+    }
+
+    private static CellStateWriter cellStateWriter(Element e, GeneralParameters p, LayerManager lm) {
+        boolean deltas = XmlUtil.getBoolean(e, "deltas");
+        boolean singlePrecision = XmlUtil.getBoolean(e, "single-precision");
+        int keyframeInterval = XmlUtil.getInteger(e, "keyframe-interval",
+                CellStateWriter.DEFAULT_KEYFRAME_INTERVAL);
+        return new CellStateWriter(p, lm, deltas, singlePrecision, keyframeInterval);
+    }
+
     private static CorrelationWriter correlationWriter(Element e, GeneralParameters p, LayerManager lm) {
         Argument<Double> triggerTimeArg = DoubleArgumentFactory.instantiate(e, "trigger-time", 0.0, p.getRandom());
         String filename = XmlUtil.getString(e, "filename", "correlation.txt");
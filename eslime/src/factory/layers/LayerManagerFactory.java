@@ -11,6 +11,7 @@ import factory.layers.continuum.ContinuumLayerFactory;
 import layers.LayerManager;
 import layers.cell.CellLayer;
 import org.dom4j.Element;
+import structural.utilities.XmlUtil;
 
 import java.util.List;
 
@@ -28,6 +29,10 @@ public abstract class LayerManagerFactory {
         }
 
         addContinuumLayers(root, geometryDescriptor, ret);
+
+        // Lazy continuum layers that are stale at the end of a step are
+        // solved concurrently if solver threads are specified.
+        ret.setSolverThreads(XmlUtil.getThreads(root, "solver-threads"));
         return ret;
 
     }
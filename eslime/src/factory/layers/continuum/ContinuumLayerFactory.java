@@ -13,11 +13,28 @@ import geometry.boundaries.Boundary;
 import layers.continuum.ContinuumLayer;
 import layers.continuum.ContinuumLayerContent;
 import layers.continuum.ContinuumLayerScheduler;
+import layers.continuum.solve.LinearSolver;
+import layers.continuum.solve.StateSolver;
+import layers.continuum.solve.SteadyState;
+import layers.continuum.solve.Transient;
 import org.dom4j.Element;
+import structural.utilities.XmlUtil;
 
 import java.util.function.Function;
 
 /**
+ * Builds a continuum layer. By default, the layer jumps to its steady state
+ * whenever it is solved. Slowly equilibrating layers may instead be
+ * integrated through time, using
+ *
+ *     <integration>backward-euler</integration>
+ *
+ * or crank-nicolson, in which case each solve advances the field by the
+ * simulation time elapsed since the last.
+ *
+ * If the layer is marked <lazy/>, scheduled operations are not solved
+ * until the layer is read, or until the end of the step.
+ *
  * Created by dbborens on 1/8/15.
  */
 public abstract class ContinuumLayerFactory {
@@ -29,11 +46,28 @@ public abstract class ContinuumLayerFactory {
         String id = root.element("id").getText();
 
         ContinuumLayerContent content = new ContinuumLayerContent(indexer, geom.getCanonicalSites().length);
-        ContinuumLayerScheduler scheduler = ContinuumLayerSchedulerFactory.instantiate(content, indexer, n, id);
+        LinearSolver solver = LinearSolverFactory.instantiate(root.element("solver"), geom, id);
+        StateSolver stateSolver = makeStateSolver(root, solver);
+        boolean lazy = XmlUtil.getBoolean(root, "lazy");
+        ContinuumLayerScheduler scheduler = ContinuumLayerSchedulerFactory.instantiate(content, indexer, n, id, stateSolver, lazy);
 
         return new ContinuumLayer(scheduler, content, geom);
     }
 
+    private static StateSolver makeStateSolver(Element root, LinearSolver solver) {
+        String integration = XmlUtil.getString(root, "integration", "steady-state");
+        if (integration.equalsIgnoreCase("steady-state")) {
+            return new SteadyState(solver);
+        } else if (integration.equalsIgnoreCase("backward-euler")) {
+            return new Transient(solver, Transient.BACKWARD_EULER);
+        } else if (integration.equalsIgnoreCase("crank-nicolson")) {
+            return new Transient(solver, Transient.CRANK_NICOLSON);
+        } else {
+            String msg = "Unrecognized continuum integration '" + integration + "'.";
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
     private static Geometry makeGeometry(Element root, GeometryDescriptor geometryDescriptor) {
         Boundary boundary = makeBoundary(root, geometryDescriptor);
         Geometry geom = geometryDescriptor.make(boundary);
@@ -8,8 +8,7 @@ package factory.layers.continuum;
 import cells.BehaviorCell;
 import control.identifiers.Coordinate;
 import layers.continuum.*;
-import layers.continuum.solve.SteadyState;
-import no.uib.cipr.matrix.DenseMatrix;
+import layers.continuum.solve.StateSolver;
 import no.uib.cipr.matrix.DenseVector;
 
 import java.util.IdentityHashMap;
@@ -22,19 +21,18 @@ import java.util.function.Supplier;
  */
 public abstract class ContinuumLayerSchedulerFactory {
 
-    public static ContinuumLayerScheduler instantiate(ContinuumLayerContent content, Function<Coordinate, Integer> indexer, int n, String id) {
+    public static ContinuumLayerScheduler instantiate(ContinuumLayerContent content, Function<Coordinate, Integer> indexer, int n, String id, StateSolver stateSolver, boolean lazy) {
         ScheduledOperations so = new ScheduledOperations(indexer, n);
         AgentToOperatorHelper helper = new AgentToOperatorHelper(indexer, n);
         ContinuumAgentManager agentManager = buildAgentManager(helper, so, id);
-        SteadyState steadyState = new SteadyState();
-        ContinuumSolver solver = new ContinuumSolver(content, so, steadyState);
-        HoldManager holdManager = new HoldManager(agentManager, solver);
+        ContinuumSolver solver = new ContinuumSolver(content, so, stateSolver);
+        HoldManager holdManager = new HoldManager(agentManager, solver, lazy);
         return new ContinuumLayerScheduler(so, holdManager);
     }
 
     private static ContinuumAgentManager buildAgentManager(AgentToOperatorHelper agentHelper, ScheduledOperations so, String id) {
         Consumer<DenseVector> injector = vector -> so.inject(vector);
-        Consumer<DenseMatrix> exponentiator = matrix -> so.apply(matrix);
+        Consumer<DenseVector> exponentiator = vector -> so.exp(vector);
         ReactionLoader agentScheduler = new ReactionLoader(injector, exponentiator, agentHelper);
 
         IdentityHashMap<BehaviorCell, Supplier<RelationshipTuple>> map = new IdentityHashMap<>();
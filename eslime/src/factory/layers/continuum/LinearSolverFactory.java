@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package factory.layers.continuum;
+
+import geometry.Geometry;
+import layers.continuum.solve.*;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.*;
+import org.dom4j.Element;
+import structural.utilities.XmlUtil;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Builds the solver for the steady state system of a continuum layer from
+ * its (optional) solver element, e.g.
+ *
+ *     <solver>
+ *         <class>bicgstab</class>
+ *         <preconditioner>ilu</preconditioner>
+ *         <tolerance>1e-8</tolerance>
+ *         <max-iterations>500</max-iterations>
+ *         <verbose/>
+ *     </solver>
+ *
+ * Krylov classes are cg, bicgstab, gmres and cgs; preconditioners are
+ * none, jacobi, ssor and ilu (ILU(0)). The multigrid class instead accepts
+ * tolerance, max-cycles and sweeps, and the spectral class (for periodic
+ * arenas) accepts only tolerance. If verbose is set, every solve is
+ * reported; otherwise, only solves that fail to converge are reported. If
+ * no solver is specified, Jacobi-preconditioned CGS is used.
+ *
+ * @test LinearSolverFactoryTest
+ */
+public abstract class LinearSolverFactory {
+
+    public static LinearSolver instantiate(Element e, Geometry geometry, String id) {
+        if (e == null) {
+            return new KrylovSolver();
+        }
+
+        Consumer<SolveReport> reporter = makeReporter(e, id);
+        String className = XmlUtil.getString(e, "class");
+        if (className.equalsIgnoreCase("multigrid")) {
+            return multigrid(e, geometry, reporter);
+        } else if (className.equalsIgnoreCase("spectral")) {
+            double tolerance = XmlUtil.getDouble(e, "tolerance", SpectralSolver.DEFAULT_TOLERANCE);
+            return new SpectralSolver(geometry, tolerance, reporter);
+        }
+
+        Function<Vector, AbstractIterativeSolver> method = getMethod(className);
+        Function<Matrix, Preconditioner> preconditioner = getPreconditioner(e);
+        double tolerance = XmlUtil.getDouble(e, "tolerance", KrylovSolver.DEFAULT_TOLERANCE);
+        int maxIterations = XmlUtil.getInteger(e, "max-iterations", KrylovSolver.DEFAULT_MAX_ITERATIONS);
+        return new KrylovSolver(className.toLowerCase(), method, preconditioner, tolerance, maxIterations, reporter);
+    }
+
+    private static Consumer<SolveReport> makeReporter(Element e, String id) {
+        String label = "Continuum layer \"" + id + "\"";
+        if (XmlUtil.getBoolean(e, "verbose")) {
+            return SolveReport.printAll(label);
+        } else {
+            return SolveReport.warnOnFailure(label);
+        }
+    }
+
+    private static Function<Vector, AbstractIterativeSolver> getMethod(String className) {
+        if (className.equalsIgnoreCase("cg")) {
+            return CG::new;
+        } else if (className.equalsIgnoreCase("bicgstab")) {
+            return BiCGstab::new;
+        } else if (className.equalsIgnoreCase("gmres")) {
+            return GMRES::new;
+        } else if (className.equalsIgnoreCase("cgs")) {
+            return CGS::new;
+        } else {
+            String msg = "Unrecognized continuum solver class '" + className + "'.";
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    private static Function<Matrix, Preconditioner> getPreconditioner(Element e) {
+        String name = XmlUtil.getString(e, "preconditioner", "jacobi");
+        if (name.equalsIgnoreCase("none")) {
+            return null;
+        } else if (name.equalsIgnoreCase("jacobi")) {
+            return Preconditioners::jacobi;
+        } else if (name.equalsIgnoreCase("ssor")) {
+            return Preconditioners::ssor;
+        } else if (name.equalsIgnoreCase("ilu")) {
+            return Preconditioners::ilu;
+        } else {
+            String msg = "Unrecognized preconditioner '" + name + "'.";
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    private static MultigridSolver multigrid(Element e, Geometry geometry, Consumer<SolveReport> reporter) {
+        double tolerance = XmlUtil.getDouble(e, "tolerance", MultigridSolver.DEFAULT_TOLERANCE);
+        int maxCycles = XmlUtil.getInteger(e, "max-cycles", MultigridSolver.DEFAULT_MAX_CYCLES);
+        int sweeps = XmlUtil.getInteger(e, "sweeps", MultigridSolver.DEFAULT_SWEEPS);
+        return new MultigridSolver(geometry, tolerance, maxCycles, sweeps, reporter);
+    }
+}
@@ -15,13 +15,15 @@ import factory.geometry.set.CoordinateSetFactory;
 import factory.processes.discrete.FillProcessFactory;
 import factory.processes.discrete.MockProcessFactory;
 import factory.processes.discrete.ScatterProcessFactory;
+import factory.processes.discrete.SynchronousUpdateFactory;
 import factory.processes.discrete.TriggerProcessFactory;
 import factory.processes.discrete.filter.FilterFactory;
 import geometry.Geometry;
 import geometry.set.CoordinateSet;
 import layers.LayerManager;
 import layers.continuum.ContinuumLayer;
-import no.uib.cipr.matrix.DenseMatrix;
+import layers.continuum.solve.StencilOperator;
+import no.uib.cipr.matrix.Matrix;
 import org.dom4j.Element;
 import processes.BaseProcessArguments;
 import processes.EcoProcess;
@@ -57,7 +59,7 @@ public abstract class ProcessFactory {
 
         } else if (processClass.equalsIgnoreCase("divide")) {
             CellProcessArguments cpArguments = makeCellProcessArguments(e, layerManager, p);
-            return new Divide(arguments, cpArguments);
+            return new Divide(arguments, cpArguments, XmlUtil.getThreads(e, "threads"));
 
         } else if (processClass.equalsIgnoreCase("occupied-neighbor-swap")) {
             CellProcessArguments cpArguments = makeCellProcessArguments(e, layerManager, p);
@@ -79,6 +81,9 @@ public abstract class ProcessFactory {
         } else if (processClass.equalsIgnoreCase("trigger")) {
             return TriggerProcessFactory.instantiate(e, layerManager, p, id);
 
+        } else if (processClass.equalsIgnoreCase("synchronous-update")) {
+            return SynchronousUpdateFactory.instantiate(e, layerManager, p, id);
+
         } else if (processClass.equalsIgnoreCase("cull")) {
             double threshold = XmlUtil.getDouble(e, "threshold", 0.0);
             CellProcessArguments cpArguments = makeCellProcessArguments(e, layerManager, p);
@@ -148,8 +153,8 @@ public abstract class ProcessFactory {
         DiffusionConstantHelper helper = new DiffusionConstantHelper(constant,
                 geometry.getConnectivity(),
                 geometry.getDimensionality());
-        DiffusionOperator operator = new DiffusionOperator(helper, geometry);
-        Consumer<DenseMatrix> target = matrix -> layer.getScheduler().apply(matrix);
+        StencilOperator operator = DiffusionOperator.stencil(helper, geometry);
+        Consumer<Matrix> target = matrix -> layer.getScheduler().apply(matrix);
         OperatorProcess process = new OperatorProcess(arguments, operator, target);
         return process;
     }
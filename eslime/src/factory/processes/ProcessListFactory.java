@@ -19,11 +19,20 @@ import java.util.List;
 public abstract class ProcessListFactory {
 
     public static List<EcoProcess> instantiate(Element root, LayerManager layerManager, GeneralParameters p) {
+        return instantiate(root, layerManager, p, 0);
+    }
+
+    /**
+     * Instantiates a list of processes whose IDs are numbered consecutively
+     * from firstId, so that they do not collide with the IDs of another
+     * list of processes in the same simulation.
+     */
+    public static List<EcoProcess> instantiate(Element root, LayerManager layerManager, GeneralParameters p, int firstId) {
         ArrayList<EcoProcess> processes = new ArrayList<>();
         if (root == null) {
             return processes;
         }
-        int id = 0;
+        int id = firstId;
         for (Object o : root.elements()) {
             Element e = (Element) o;
             EcoProcess process = ProcessFactory.instantiate(e, layerManager, p, id);
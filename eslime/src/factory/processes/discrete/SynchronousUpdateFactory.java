@@ -0,0 +1,42 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package factory.processes.discrete;
+
+import control.GeneralParameters;
+import factory.processes.ProcessFactory;
+import layers.LayerManager;
+import org.dom4j.Element;
+import processes.BaseProcessArguments;
+import processes.discrete.CellProcessArguments;
+import processes.discrete.SynchronousUpdate;
+import processes.discrete.synchronous.DivideToVacancy;
+import processes.discrete.synchronous.MoveToVacancy;
+import processes.discrete.synchronous.UpdateRule;
+import structural.utilities.XmlUtil;
+
+/**
+ * Builds a synchronous update process. The rule element is "divide" (the
+ * default) or "move".
+ */
+public abstract class SynchronousUpdateFactory extends ProcessFactory {
+    public static SynchronousUpdate instantiate(Element e, LayerManager layerManager, GeneralParameters p, int id) {
+        BaseProcessArguments arguments = makeProcessArguments(e, layerManager, p, id);
+        CellProcessArguments cpArguments = makeCellProcessArguments(e, layerManager, p);
+        UpdateRule rule = getRule(XmlUtil.getString(e, "rule", "divide"));
+        int threads = XmlUtil.getThreads(e, "threads");
+        return new SynchronousUpdate(arguments, cpArguments, rule, threads);
+    }
+
+    private static UpdateRule getRule(String name) {
+        if (name.equalsIgnoreCase("divide")) {
+            return new DivideToVacancy();
+        } else if (name.equalsIgnoreCase("move")) {
+            return new MoveToVacancy();
+        } else {
+            throw new IllegalArgumentException("Unrecognized synchronous update rule '" + name + "'.");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package geometry;
+
+import control.identifiers.Coordinate;
+import control.identifiers.Flags;
+
+import java.util.Arrays;
+
+/**
+ * Dense lookup table from lattice positions to the index of the
+ * corresponding canonical site. The table spans the bounding box of
+ * the canonical sites, so that a coordinate can be resolved to its
+ * index by arithmetic alone -- no canonical copy of the coordinate
+ * is constructed and nothing is hashed.
+ *
+ * As with canonicalization, flags other than PLANAR are ignored
+ * when resolving a coordinate. The index also serves as an intern pool:
+ * each canonical site is represented by a single shared instance.
+ */
+public class CanonicalSiteIndex {
+
+    // Canonical form of each site, in canonical site order
+    private final Coordinate[] sites;
+
+    private final boolean planar;
+
+    // Origin and extent of the bounding box
+    private final int xMin, yMin, zMin;
+    private final int xSpan, ySpan, zSpan;
+
+    // Bounding box position --> site index, or -1 if not a site
+    private final int[] table;
+
+    public CanonicalSiteIndex(Coordinate[] coords) {
+        sites = new Coordinate[coords.length];
+        for (int i = 0; i < coords.length; i++) {
+            sites[i] = coords[i].canonicalize();
+        }
+
+        planar = isPlanar(sites);
+
+        if (sites.length == 0) {
+            xMin = yMin = zMin = 0;
+            xSpan = ySpan = zSpan = 0;
+            table = new int[0];
+            return;
+        }
+
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, z0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE, z1 = Integer.MIN_VALUE;
+        for (Coordinate c : sites) {
+            x0 = Math.min(x0, c.x());
+            y0 = Math.min(y0, c.y());
+            z0 = Math.min(z0, z(c));
+            x1 = Math.max(x1, c.x());
+            y1 = Math.max(y1, c.y());
+            z1 = Math.max(z1, z(c));
+        }
+
+        xMin = x0;
+        yMin = y0;
+        zMin = z0;
+        xSpan = x1 - x0 + 1;
+        ySpan = y1 - y0 + 1;
+        zSpan = z1 - z0 + 1;
+
+        long volume = (long) xSpan * ySpan * zSpan;
+        if (volume > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Canonical sites span too large a region to index.");
+        }
+
+        table = new int[(int) volume];
+        Arrays.fill(table, -1);
+        for (int i = 0; i < sites.length; i++) {
+            table[offset(sites[i])] = i;
+        }
+    }
+
+    private static boolean isPlanar(Coordinate[] sites) {
+        if (sites.length == 0) {
+            return true;
+        }
+
+        boolean planar = sites[0].hasFlag(Flags.PLANAR);
+        for (Coordinate c : sites) {
+            if (c.hasFlag(Flags.PLANAR) != planar) {
+                throw new IllegalArgumentException("Canonical sites must be either all planar or all non-planar.");
+            }
+        }
+
+        return planar;
+    }
+
+    /**
+     * Returns the index of the canonical site at the specified
+     * position, or -1 if there is no canonical site there.
+     */
+    public int indexOf(Coordinate c) {
+        if (c.hasFlag(Flags.PLANAR) != planar) {
+            return -1;
+        }
+
+        int dx = c.x() - xMin;
+        int dy = c.y() - yMin;
+        int dz = z(c) - zMin;
+
+        if (dx < 0 || dx >= xSpan || dy < 0 || dy >= ySpan || dz < 0 || dz >= zSpan) {
+            return -1;
+        }
+
+        return table[dx + xSpan * (dy + ySpan * dz)];
+    }
+
+    /**
+     * Returns the shared canonical instance for the specified coordinate
+     * if it lies on a canonical site; otherwise, returns its canonical
+     * form.
+     */
+    public Coordinate canonicalize(Coordinate c) {
+        int i = indexOf(c);
+
+        if (i < 0) {
+            return c.canonicalize();
+        }
+
+        return sites[i];
+    }
+
+    /**
+     * Returns the canonical form of the site with the specified index.
+     */
+    public Coordinate getSite(int index) {
+        return sites[index];
+    }
+
+    public int size() {
+        return sites.length;
+    }
+
+    private int offset(Coordinate c) {
+        int dx = c.x() - xMin;
+        int dy = c.y() - yMin;
+        int dz = z(c) - zMin;
+        return dx + xSpan * (dy + ySpan * dz);
+    }
+
+    // Planar coordinates do not have a meaningful z component.
+    private int z(Coordinate c) {
+        return planar ? 0 : c.z();
+    }
+}
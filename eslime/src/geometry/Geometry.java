@@ -12,7 +12,6 @@ import geometry.lattice.Lattice;
 import geometry.shape.Shape;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.function.Function;
 
 public class Geometry {
@@ -37,7 +36,10 @@ public class Geometry {
     protected Boundary boundary;
     protected Shape shape;
 
-    private HashMap<Coordinate, Integer> coordinateIndex = new HashMap<Coordinate, Integer>();
+    private CanonicalSiteIndex siteIndex;
+
+    // Precomputed neighbor tables, by lookup mode. Null where unavailable.
+    private NeighborTable[] neighborTables;
 
     public Geometry(Lattice lattice, Shape shape, Boundary boundary) {
         this.boundary = boundary;
@@ -164,7 +166,7 @@ public class Geometry {
             Coordinate res = applyBoundaries(coord);
 
             if (res != null) {
-                applied.add(res);
+                applied.add(intern(res));
             }
         }
 
@@ -232,43 +234,90 @@ public class Geometry {
     }
 
     private Integer coordToIndex(Coordinate coord) {
-        Coordinate canonical = coord.canonicalize();
+        int index = siteIndex.indexOf(coord);
 
-        if (!coordinateIndex.containsKey(canonical)) {
-//            System.out.println("I don't think I contain the coordinate " + canonical);
+        if (index < 0) {
             return null;
         } else {
-            return coordinateIndex.get(canonical);
+            return index;
         }
     }
 
-    public void rebuildIndex() {
-        //System.out.println("In rebuildIndex. Coordinate index: " + coordinateIndex.size());
-        coordinateIndex.clear();
-        //System.out.println("   Cleared. Coordinate index: " + coordinateIndex.size());
-        //System.out.println("   Rebuilding.");
+    /**
+     * Returns the shared canonical instance of the specified coordinate
+     * if it lies on a canonical site, or a canonical copy otherwise.
+     */
+    public Coordinate canonicalize(Coordinate coord) {
+        return siteIndex.canonicalize(coord);
+    }
+
+    /**
+     * If the coordinate is already canonical, substitute the shared
+     * instance so that short-lived copies are not retained. Coordinates
+     * carrying flags are returned unchanged.
+     */
+    private Coordinate intern(Coordinate c) {
+        if (!c.isCanonical()) {
+            return c;
+        }
+
+        int index = siteIndex.indexOf(c);
+
+        if (index < 0) {
+            return c;
+        }
 
+        return siteIndex.getSite(index);
+    }
 
+    /**
+     * Returns the precomputed neighbor table for the specified lookup mode,
+     * or null if none is available. Tables are built for finite geometries
+     * in APPLY_BOUNDARIES and EXCLUDE_BOUNDARIES modes, provided that every
+     * neighbor in that mode resolves to a canonical site. Callers must fall
+     * back to getNeighbors(...) when no table is available.
+     */
+    public NeighborTable getNeighborTable(int mode) {
+        if (mode < 0 || mode >= neighborTables.length) {
+            throw new IllegalArgumentException("Unrecognized mode " + mode + ".");
+        }
+
+        return neighborTables[mode];
+    }
+
+    /**
+     * Returns the table that maps coordinates to canonical site indices.
+     */
+    public CanonicalSiteIndex getSiteIndex() {
+        return siteIndex;
+    }
+
+    public void rebuildIndex() {
         // dependencies are sometimes left uninitialized for mock testing.
-        // In these cases, there is nothing to index, so return.
+        // In these cases, there is nothing to index.
         if (getCanonicalSites() == null) {
-            //System.out.println("      canonicalSites is null; returning.");
+            siteIndex = new CanonicalSiteIndex(new Coordinate[0]);
+            neighborTables = new NeighborTable[4];
             return;
         }
 
-        Coordinate[] sites = getCanonicalSites();
-
+        // Coordinate index is for canonical coordinates only
+        siteIndex = new CanonicalSiteIndex(getCanonicalSites());
+        buildNeighborTables();
+    }
 
-        for (Integer i = 0; i < sites.length; i++) {
-            Coordinate c = sites[i];
+    private void buildNeighborTables() {
+        neighborTables = new NeighborTable[4];
 
-            // Coordinate index is for canonical coordinates only
-            Coordinate cc = c.canonicalize();
-            //System.out.println("      Adding " + c);
-            coordinateIndex.put(cc, i);
+        if (lattice == null || boundary == null || boundary.isInfinite()) {
+            return;
         }
-        //System.out.println("   Rebuild complete. Coordinate index: " + coordinateIndex.size());
 
+        neighborTables[APPLY_BOUNDARIES] = NeighborTable.build(siteIndex,
+                c -> applyBoundaries(lattice.getNeighbors(c)));
+
+        neighborTables[EXCLUDE_BOUNDARIES] = NeighborTable.build(siteIndex,
+                c -> excludeBoundaries(lattice.getNeighbors(c)));
     }
 
     public Coordinate getCenter() {
@@ -342,8 +391,7 @@ public class Geometry {
     }
 
     public boolean contains(Coordinate coordinate) {
-        Coordinate canonicalized = coordinate.canonicalize();
-        return (coordinateIndex.containsKey(canonicalized));
+        return (siteIndex.indexOf(coordinate) >= 0);
     }
 
     public Coordinate getZeroVector() {
@@ -0,0 +1,159 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package geometry;
+
+import control.identifiers.Coordinate;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Immutable table of the neighbors of each canonical site, expressed as
+ * canonical site indices and stored in compressed-row form. Neighbors are
+ * listed in the order reported by the geometry, including any repeats
+ * (e.g., a reflecting boundary may report a site as its own neighbor).
+ *
+ * Tables are built once per geometry, so that hot paths can visit the
+ * neighborhood of a site without applying boundary conditions or
+ * allocating coordinates.
+ */
+public class NeighborTable {
+
+    // Neighbors of site i are targets[offsets[i]] ... targets[offsets[i+1] - 1]
+    private final int[] offsets;
+    private final int[] targets;
+
+    // Reverse neighbor table, built on first request
+    private NeighborTable transpose;
+
+    private NeighborTable(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Build a neighbor table over the specified sites. Returns null if any
+     * reported neighbor does not resolve to a canonical site, in which case
+     * the neighborhood cannot be expressed as a table.
+     *
+     * @param siteIndex the canonical sites of the geometry
+     * @param neighbors supplies the neighbors of a canonical site
+     */
+    public static NeighborTable build(CanonicalSiteIndex siteIndex,
+                                      Function<Coordinate, Coordinate[]> neighbors) {
+        int n = siteIndex.size();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[0];
+
+        for (int i = 0; i < n; i++) {
+            Coordinate[] row = neighbors.apply(siteIndex.getSite(i));
+            int start = offsets[i];
+
+            if (start + row.length > targets.length) {
+                targets = Arrays.copyOf(targets, Math.max(2 * targets.length, start + row.length));
+            }
+
+            for (int k = 0; k < row.length; k++) {
+                int j = siteIndex.indexOf(row[k]);
+                if (j < 0) {
+                    return null;
+                }
+                targets[start + k] = j;
+            }
+
+            offsets[i + 1] = start + row.length;
+        }
+
+        return new NeighborTable(offsets, Arrays.copyOf(targets, offsets[n]));
+    }
+
+    /**
+     * Build a neighbor table from explicit rows of site indices. Element
+     * [i] contains the indices of the neighbors of site i.
+     */
+    public static NeighborTable fromRows(int[][] rows) {
+        int n = rows.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + rows[i].length;
+        }
+
+        int[] targets = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(rows[i], 0, targets, offsets[i], rows[i].length);
+        }
+
+        return new NeighborTable(offsets, targets);
+    }
+
+    /**
+     * Returns the table of reverse neighbors: site j lists site i once
+     * for each time that i lists j as a neighbor. For symmetric
+     * neighborhoods, the transpose contains the same neighbors as the
+     * original table (though not necessarily in the same order).
+     */
+    public NeighborTable transpose() {
+        if (transpose == null) {
+            transpose = buildTranspose();
+        }
+
+        return transpose;
+    }
+
+    private NeighborTable buildTranspose() {
+        int n = size();
+        int[] tOffsets = new int[n + 1];
+        for (int target : targets) {
+            tOffsets[target + 1]++;
+        }
+
+        for (int j = 0; j < n; j++) {
+            tOffsets[j + 1] += tOffsets[j];
+        }
+
+        int[] tTargets = new int[targets.length];
+        int[] cursor = Arrays.copyOf(tOffsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                tTargets[cursor[targets[k]]++] = i;
+            }
+        }
+
+        return new NeighborTable(tOffsets, tTargets);
+    }
+
+    /**
+     * Returns the number of neighbors of the specified site.
+     */
+    public int getDegree(int site) {
+        return offsets[site + 1] - offsets[site];
+    }
+
+    /**
+     * Returns the index of the k-th neighbor of the specified site.
+     */
+    public int getNeighbor(int site, int k) {
+        if (k < 0 || k >= getDegree(site)) {
+            throw new IndexOutOfBoundsException("Site " + site + " has no neighbor " + k + ".");
+        }
+
+        return targets[offsets[site] + k];
+    }
+
+    /**
+     * Returns a copy of the indices of the neighbors of the specified site.
+     */
+    public int[] getNeighbors(int site) {
+        return Arrays.copyOfRange(targets, offsets[site], offsets[site + 1]);
+    }
+
+    /**
+     * Returns the number of canonical sites covered by the table.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+}
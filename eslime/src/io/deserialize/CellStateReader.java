@@ -0,0 +1,325 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import io.serialize.binary.CellStateWriter;
+import layers.LightweightSystemState;
+import structural.utilities.FileConventions;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads cell state and health from the binary file written by the
+ * CellStateWriter. The frames are memory-mapped and located using the
+ * index at the end of the file, so they can be loaded in any order. A delta
+ * frame is reconstructed from the nearest preceding keyframe, unless the
+ * frame before it is already loaded; whole frames are therefore read most
+ * cheaply in sequence.
+ * <p/>
+ * The state or health of an individual site can also be read without
+ * reconstructing the frame, by searching back through the deltas for the
+ * most recent change to that site.
+ *
+ * @test CellStateReaderTest
+ */
+public class CellStateReader {
+
+    // Bytes preceding the columns of each frame: kind, frame and time
+    private static final int FRAME_HEADER_SIZE = 13;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+
+    private final int numSites;
+    private final int healthWidth;
+
+    // Kind of each frame in the file
+    private final byte[] kinds;
+
+    // For each frame, the index of the most recent keyframe
+    private final int[] keyframes;
+
+    private final MappedRecords records;
+
+    // The most recently loaded frame, and its contents
+    private int current = -1;
+    private int[] states;
+    private double[] health;
+
+    // The next frame to be loaded by populate()
+    private int cursor = 0;
+
+    public CellStateReader(String root) {
+        try {
+            file = new RandomAccessFile(root + FileConventions.CELL_STATE_FILENAME, "r");
+            channel = file.getChannel();
+
+            ByteBuffer header = read(0, CellStateWriter.HEADER_SIZE);
+            checkMagic(header.getInt());
+            int version = header.getInt();
+            if (version != CellStateWriter.VERSION) {
+                throw new IllegalStateException("Unsupported cell state file version " + version);
+            }
+            numSites = header.getInt();
+            healthWidth = header.get();
+
+            long trailerOffset = channel.size() - CellStateWriter.TRAILER_SIZE;
+            ByteBuffer trailer = read(trailerOffset, CellStateWriter.TRAILER_SIZE);
+            long indexOffset = trailer.getLong();
+            checkMagic(trailer.getInt());
+
+            ByteBuffer index = read(indexOffset, (int) (trailerOffset - indexOffset));
+            int frameCount = index.getInt();
+            long[] offsets = new long[frameCount];
+            kinds = new byte[frameCount];
+            keyframes = new int[frameCount];
+            int keyframe = -1;
+            for (int i = 0; i < frameCount; i++) {
+                offsets[i] = index.getLong();
+                kinds[i] = index.get();
+                if (kinds[i] == CellStateWriter.KEYFRAME) {
+                    keyframe = i;
+                }
+                keyframes[i] = keyframe;
+            }
+
+            records = new MappedRecords(channel, offsets, indexOffset);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        states = new int[numSites];
+        health = new double[numSites];
+    }
+
+    /**
+     * Returns true if a binary cell state file exists in the specified
+     * directory.
+     */
+    public static boolean exists(String root) {
+        return new File(root + FileConventions.CELL_STATE_FILENAME).exists();
+    }
+
+    private void checkMagic(int magic) {
+        if (magic != CellStateWriter.MAGIC) {
+            throw new IllegalStateException("Not a complete cell state file.");
+        }
+    }
+
+    public int getFrameCount() {
+        return kinds.length;
+    }
+
+    public int getNumSites() {
+        return numSites;
+    }
+
+    /**
+     * Returns the state of each site in the specified frame, in canonical
+     * site order. The index refers to the order in which frames were
+     * written, not to the simulation frame number.
+     */
+    public int[] getStateVector(int index) {
+        load(index);
+        return states.clone();
+    }
+
+    /**
+     * Returns the health of each site in the specified frame, in canonical
+     * site order.
+     */
+    public double[] getHealthVector(int index) {
+        load(index);
+        return health.clone();
+    }
+
+    /**
+     * Returns the simulation frame number of the specified frame.
+     */
+    public int getFrame(int index) {
+        return records.get(index).getInt(1);
+    }
+
+    /**
+     * Returns the simulation time of the specified frame.
+     */
+    public double getTime(int index) {
+        return records.get(index).getDouble(5);
+    }
+
+    /**
+     * Returns the state of a single site in the specified frame.
+     */
+    public int getState(int index, int site) {
+        checkIndex(index);
+        for (int i = index; i > keyframes[i]; i--) {
+            ByteBuffer buf = records.get(i);
+            int m = buf.getInt(FRAME_HEADER_SIZE);
+            int k = findSite(buf, m, site);
+            if (k >= 0) {
+                return buf.getInt(FRAME_HEADER_SIZE + 4 + 4 * (m + k));
+            }
+        }
+
+        ByteBuffer buf = records.get(keyframes[index]);
+        return buf.getInt(FRAME_HEADER_SIZE + 4 * site);
+    }
+
+    /**
+     * Returns the health of a single site in the specified frame.
+     */
+    public double getHealth(int index, int site) {
+        checkIndex(index);
+        for (int i = index; i > keyframes[i]; i--) {
+            ByteBuffer buf = records.get(i);
+            int m = buf.getInt(FRAME_HEADER_SIZE);
+            int k = findSite(buf, m, site);
+            if (k >= 0) {
+                return readHealth(buf, FRAME_HEADER_SIZE + 4 + 8 * m, k);
+            }
+        }
+
+        ByteBuffer buf = records.get(keyframes[index]);
+        return readHealth(buf, FRAME_HEADER_SIZE + 4 * numSites, site);
+    }
+
+    private double readHealth(ByteBuffer buf, int start, int k) {
+        if (healthWidth == 4) {
+            return buf.getFloat(start + 4 * k);
+        } else {
+            return buf.getDouble(start + 8 * k);
+        }
+    }
+
+    /**
+     * Returns the position of the specified site in the list of sites
+     * changed by a delta frame, or -1 if it is not listed. Sites are
+     * listed in ascending order.
+     */
+    private int findSite(ByteBuffer buf, int m, int site) {
+        int lo = 0;
+        int hi = m - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = buf.getInt(FRAME_HEADER_SIZE + 4 + 4 * mid);
+            if (value < site) {
+                lo = mid + 1;
+            } else if (value > site) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Loads the next frame into the specified system state.
+     */
+    public void populate(LightweightSystemState state) {
+        load(cursor);
+        cursor++;
+        state.initCellLayer(states.clone(), health.clone());
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= kinds.length) {
+            throw new IndexOutOfBoundsException("No frame " + index + " in cell state file.");
+        }
+
+        if (keyframes[index] < 0) {
+            throw new IllegalStateException("Frame " + index + " does not follow any keyframe.");
+        }
+    }
+
+    private void load(int index) {
+        checkIndex(index);
+
+        if (index == current) {
+            return;
+        }
+
+        int keyframe = keyframes[index];
+        int start;
+        if (current >= keyframe && current < index) {
+            start = current + 1;
+        } else {
+            readKeyframe(keyframe);
+            start = keyframe + 1;
+        }
+
+        for (int i = start; i <= index; i++) {
+            applyDelta(i);
+        }
+
+        current = index;
+    }
+
+    private void readKeyframe(int index) {
+        ByteBuffer buf = records.get(index);
+        buf.position(FRAME_HEADER_SIZE);
+        buf.slice().asIntBuffer().get(states);
+        buf.position(FRAME_HEADER_SIZE + 4 * numSites);
+        readHealth(buf, null);
+    }
+
+    private void applyDelta(int index) {
+        ByteBuffer buf = records.get(index);
+        buf.position(FRAME_HEADER_SIZE);
+        int m = buf.getInt();
+
+        int[] sites = new int[m];
+        buf.slice().asIntBuffer().get(sites);
+        buf.position(FRAME_HEADER_SIZE + 4 + 4 * m);
+        for (int site : sites) {
+            states[site] = buf.getInt();
+        }
+        readHealth(buf, sites);
+    }
+
+    /**
+     * Read health values from the buffer into the specified sites, or into
+     * all sites if the list of sites is null.
+     */
+    private void readHealth(ByteBuffer buf, int[] sites) {
+        int m = (sites == null) ? numSites : sites.length;
+        for (int k = 0; k < m; k++) {
+            double value = (healthWidth == 4) ? buf.getFloat() : buf.getDouble();
+            if (sites == null) {
+                health[k] = value;
+            } else {
+                health[sites[k]] = value;
+            }
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) {
+                throw new EOFException("Unexpected end of cell state file.");
+            }
+        }
+
+        buf.flip();
+        return buf;
+    }
+
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import control.identifiers.Coordinate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view of a single frame loaded by a MappedSystemStateReader.
+ * Values are read from the underlying files as they are requested; no
+ * cells are constructed. Sites may be specified either by coordinate or by
+ * index, in canonical site order.
+ */
+public class FrameViewer {
+
+    private final MappedSystemStateReader reader;
+    private final int frameIndex;
+
+    FrameViewer(MappedSystemStateReader reader, int frameIndex) {
+        this.reader = reader;
+        this.frameIndex = frameIndex;
+    }
+
+    /**
+     * Returns the position of this frame in the sequence of frames written.
+     */
+    public int getIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * Returns the simulation frame number.
+     */
+    public int getFrame() {
+        return reader.getFrame(frameIndex);
+    }
+
+    public double getTime() {
+        return reader.getTime(frameIndex);
+    }
+
+    public int getNumSites() {
+        return reader.getNumSites();
+    }
+
+    public int getState(int site) {
+        return reader.getCellStateReader().getState(frameIndex, site);
+    }
+
+    public int getState(Coordinate coord) {
+        return getState(indexOf(coord));
+    }
+
+    public double getHealth(int site) {
+        return reader.getCellStateReader().getHealth(frameIndex, site);
+    }
+
+    public double getHealth(Coordinate coord) {
+        return getHealth(indexOf(coord));
+    }
+
+    public boolean isOccupied(int site) {
+        return getState(site) != 0;
+    }
+
+    public boolean isOccupied(Coordinate coord) {
+        return isOccupied(indexOf(coord));
+    }
+
+    /**
+     * Returns the state of every site, in canonical site order.
+     */
+    public int[] getStateVector() {
+        return reader.getCellStateReader().getStateVector(frameIndex);
+    }
+
+    /**
+     * Returns the health of every site, in canonical site order.
+     */
+    public double[] getHealthVector() {
+        return reader.getCellStateReader().getHealthVector(frameIndex);
+    }
+
+    public boolean isHighlighted(int channel, int site) {
+        ByteBuffer buf = reader.getHighlights(channel, frameIndex);
+        int n = buf.getInt(0);
+        for (int k = 0; k < n; k++) {
+            if (buf.getInt(4 + 4 * k) == site) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isHighlighted(int channel, Coordinate coord) {
+        return isHighlighted(channel, indexOf(coord));
+    }
+
+    /**
+     * Returns the indices of the sites highlighted on the specified channel.
+     */
+    public int[] getHighlights(int channel) {
+        ByteBuffer buf = reader.getHighlights(channel, frameIndex);
+        int[] ret = new int[buf.getInt(0)];
+        buf.position(4);
+        buf.asIntBuffer().get(ret);
+        return ret;
+    }
+
+    public Coordinate getCoordinate(int site) {
+        return reader.getDeindexer().getCoordinate(site);
+    }
+
+    private int indexOf(Coordinate coord) {
+        Integer index = reader.getDeindexer().getIndex(coord);
+        if (index == null) {
+            throw new IllegalArgumentException("Coordinate " + coord + " is not a site.");
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Read-only, memory-mapped view of a sequence of variable-length records
+ * in a file. A single mapping cannot exceed 2GB, so the file is mapped as
+ * a series of segments, each of which holds a whole number of records.
+ *
+ * @test MappedRecordsTest
+ */
+class MappedRecords {
+
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private final MappedByteBuffer[] segments;
+
+    // Segment containing each record, and its offset and length therein
+    private final int[] segmentOf;
+    private final int[] localOffsets;
+    private final int[] lengths;
+
+    /**
+     * @param offsets the offset of each record within the file.
+     * @param end     the offset at which the last record ends.
+     */
+    public MappedRecords(FileChannel channel, long[] offsets, long end) throws IOException {
+        this(channel, offsets, end, MAX_SEGMENT_SIZE);
+    }
+
+    MappedRecords(FileChannel channel, long[] offsets, long end, long maxSegmentSize) throws IOException {
+        int n = offsets.length;
+        segmentOf = new int[n];
+        localOffsets = new int[n];
+        lengths = new int[n];
+
+        ArrayList<MappedByteBuffer> mapped = new ArrayList<>();
+        long segmentStart = (n == 0) ? end : offsets[0];
+        for (int i = 0; i < n; i++) {
+            long recordEnd = (i + 1 < n) ? offsets[i + 1] : end;
+            long length = recordEnd - offsets[i];
+
+            if (length < 0 || length > maxSegmentSize) {
+                throw new IllegalStateException("Record " + i + " has invalid length " + length);
+            }
+
+            // Close the current segment if this record would overrun it
+            if (recordEnd - segmentStart > maxSegmentSize) {
+                mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, offsets[i] - segmentStart));
+                segmentStart = offsets[i];
+            }
+
+            segmentOf[i] = mapped.size();
+            localOffsets[i] = (int) (offsets[i] - segmentStart);
+            lengths[i] = (int) length;
+        }
+
+        mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, end - segmentStart));
+        segments = mapped.toArray(new MappedByteBuffer[mapped.size()]);
+    }
+
+    /**
+     * Returns a buffer spanning the specified record, with position zero at
+     * the start of the record. Each call returns an independent buffer.
+     */
+    public ByteBuffer get(int index) {
+        ByteBuffer buf = segments[segmentOf[index]].duplicate();
+        buf.position(localOffsets[index]);
+        buf.limit(localOffsets[index] + lengths[index]);
+        return buf.slice();
+    }
+
+    public int size() {
+        return lengths.length;
+    }
+
+    int getSegmentCount() {
+        return segments.length;
+    }
+}
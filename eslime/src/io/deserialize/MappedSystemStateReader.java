@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import structural.utilities.FileConventions;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Random-access counterpart to the SystemStateReader. The cell state, time
+ * and highlight files are memory-mapped and indexed by frame, so any frame
+ * can be visited directly. Frames are exposed as FrameViewers, which read
+ * individual sites on request rather than reconstructing a cell layer.
+ * <p/>
+ * Requires cell state to have been written by the (binary) CellStateWriter.
+ *
+ * @test MappedSystemStateReaderTest
+ */
+public class MappedSystemStateReader implements Iterable<FrameViewer> {
+
+    // Bytes per entry in the time file: int frame, double time
+    private static final int TIME_RECORD_SIZE = 12;
+
+    private final CoordinateDeindexer deindexer;
+    private final CellStateReader cellStateReader;
+
+    private final RandomAccessFile timeFile;
+    private final MappedRecords times;
+
+    private final Map<Integer, RandomAccessFile> highlightFiles;
+    private final Map<Integer, MappedRecords> highlights;
+
+    public MappedSystemStateReader(int[] channelIds, String fileRoot) {
+        deindexer = new CoordinateDeindexer(fileRoot);
+
+        if (!CellStateReader.exists(fileRoot)) {
+            throw new IllegalArgumentException("No binary cell state file found in " + fileRoot +
+                    ". Random access requires output from <cell-state-writer>.");
+        }
+
+        cellStateReader = new CellStateReader(fileRoot);
+
+        try {
+            timeFile = new RandomAccessFile(fileRoot + FileConventions.TIME_FILENAME, "r");
+            times = mapTimes(timeFile);
+
+            highlightFiles = new HashMap<>(channelIds.length);
+            highlights = new HashMap<>(channelIds.length);
+            for (int channel : channelIds) {
+                String path = fileRoot + FileConventions.makeHighlightFilename(channel);
+                RandomAccessFile file = new RandomAccessFile(path, "r");
+                highlightFiles.put(channel, file);
+                highlights.put(channel, mapHighlights(path, file));
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        if (times.size() != cellStateReader.getFrameCount()) {
+            throw new IllegalStateException("Time file and cell state file disagree on number of frames.");
+        }
+    }
+
+    private MappedRecords mapTimes(RandomAccessFile file) throws IOException {
+        int n = (int) (file.length() / TIME_RECORD_SIZE);
+        long[] offsets = new long[n];
+        for (int i = 0; i < n; i++) {
+            offsets[i] = (long) i * TIME_RECORD_SIZE;
+        }
+
+        return new MappedRecords(file.getChannel(), offsets, (long) n * TIME_RECORD_SIZE);
+    }
+
+    /**
+     * Each highlight record is a length, followed by that many site
+     * indices. Only the lengths need to be read to locate the records.
+     */
+    private MappedRecords mapHighlights(String path, RandomAccessFile file) throws IOException {
+        ArrayList<Long> offsetList = new ArrayList<>();
+        long position = 0;
+        try (DataInputStream input = FileConventions.makeDataInputStream(path)) {
+            while (true) {
+                int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException ex) {
+                    break;
+                }
+                offsetList.add(position);
+                input.skipBytes(4 * length);
+                position += 4 + 4 * length;
+            }
+        }
+
+        long[] offsets = new long[offsetList.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = offsetList.get(i);
+        }
+
+        return new MappedRecords(file.getChannel(), offsets, position);
+    }
+
+    /**
+     * Returns the number of frames available.
+     */
+    public int size() {
+        return times.size();
+    }
+
+    /**
+     * Returns a view of the specified frame. The index refers to the order
+     * in which frames were written, not to the simulation frame number.
+     */
+    public FrameViewer get(int frameIndex) {
+        if (frameIndex < 0 || frameIndex >= size()) {
+            throw new IndexOutOfBoundsException("No frame " + frameIndex);
+        }
+
+        return new FrameViewer(this, frameIndex);
+    }
+
+    public int getNumSites() {
+        return cellStateReader.getNumSites();
+    }
+
+    CoordinateDeindexer getDeindexer() {
+        return deindexer;
+    }
+
+    CellStateReader getCellStateReader() {
+        return cellStateReader;
+    }
+
+    int getFrame(int frameIndex) {
+        return times.get(frameIndex).getInt(0);
+    }
+
+    double getTime(int frameIndex) {
+        return times.get(frameIndex).getDouble(4);
+    }
+
+    /**
+     * Returns the highlight record of the specified channel and frame. The
+     * buffer begins with the number of highlighted sites.
+     */
+    ByteBuffer getHighlights(int channel, int frameIndex) {
+        MappedRecords records = highlights.get(channel);
+        if (records == null) {
+            throw new IllegalArgumentException("Highlight channel " + channel + " was not loaded.");
+        }
+
+        return records.get(frameIndex);
+    }
+
+    public void close() {
+        cellStateReader.close();
+        try {
+            timeFile.close();
+            for (RandomAccessFile file : highlightFiles.values()) {
+                file.close();
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public Iterator<FrameViewer> iterator() {
+        return new Iterator<FrameViewer>() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size();
+            }
+
+            @Override
+            public FrameViewer next() {
+                return get(cursor++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -30,7 +30,8 @@ public class SystemStateReader implements Iterable<LightweightSystemState> {
 
     /* Data handles */
     private HighlightReader highlightReader;
-    private LegacyCellStateReader cellStateReader;
+    private CellStateReader cellStateReader;
+    private LegacyCellStateReader legacyCellStateReader;
 //    private ContinuumStateReaderManager continuumStateReaderManager;
 
     private Geometry geometry;
@@ -51,8 +52,13 @@ public class SystemStateReader implements Iterable<LightweightSystemState> {
         // Open handle to data file for each highlght channel.
         highlightReader = new HighlightReader(fileRoot, channelIds, deindexer);
 
-        // Open handle to data file for cell state vector.
-        cellStateReader = new LegacyCellStateReader(fileRoot, deindexer);
+        // Open handle to data file for cell state vector. Output written
+        // before the binary format was introduced is read as text.
+        if (CellStateReader.exists(fileRoot)) {
+            cellStateReader = new CellStateReader(fileRoot);
+        } else {
+            legacyCellStateReader = new LegacyCellStateReader(fileRoot, deindexer);
+        }
 
         this.geometry = geometry;
     }
@@ -96,7 +102,11 @@ public class SystemStateReader implements Iterable<LightweightSystemState> {
             setTimeAndFrame(state);
 
             // Populate cell states
-            cellStateReader.populate(state);
+            if (cellStateReader != null) {
+                cellStateReader.populate(state);
+            } else {
+                legacyCellStateReader.populate(state);
+            }
 
             // Populate state of continuum fields
 //            continuumStateReaderManager.populate(state);
@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.serialize;
+
+import control.halt.HaltCondition;
+import processes.StepState;
+
+/**
+ * Shares a serializer that aggregates over all instances (such as the
+ * HaltTimeWriter) among instances that run concurrently. Calls from
+ * different instances are serialized, so that each writes whole records.
+ * The shared serializer is built once for the project, and is closed by
+ * the runner once every instance has concluded.
+ *
+ * @test SynchronizedSerializerTest
+ */
+public class SynchronizedSerializer extends Serializer {
+
+    private final Serializer delegate;
+
+    public SynchronizedSerializer(Serializer delegate) {
+        super(null, null);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void init() {
+        synchronized (delegate) {
+            delegate.init();
+        }
+    }
+
+    @Override
+    public void flush(StepState stepState) {
+        synchronized (delegate) {
+            delegate.flush(stepState);
+        }
+    }
+
+    @Override
+    public void dispatchHalt(HaltCondition ex) {
+        synchronized (delegate) {
+            delegate.dispatchHalt(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (delegate) {
+            delegate.close();
+        }
+    }
+
+    public Serializer getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SynchronizedSerializer)) {
+            return false;
+        }
+
+        SynchronizedSerializer other = (SynchronizedSerializer) obj;
+        return delegate.equals(other.delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.serialize.binary;
+
+import control.GeneralParameters;
+import control.halt.HaltCondition;
+import control.identifiers.Coordinate;
+import control.identifiers.Extrema;
+import io.serialize.Serializer;
+import layers.LayerManager;
+import layers.cell.CellLayer;
+import processes.StepState;
+import structural.utilities.FileConventions;
+
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes the state and health of every cell to a single binary file, one
+ * frame per flush. Each frame is stored as a pair of packed columns, in
+ * canonical site order: an int per site for state, followed by a double
+ * (or, optionally, a float) per site for health.
+ * <p/>
+ * If delta encoding is enabled, a frame may instead list only those sites
+ * whose state or health changed since the previous frame. A full frame
+ * (keyframe) is still written at a fixed interval, and whenever the list
+ * of changes would be larger than a keyframe, so that any frame can be
+ * reconstructed from a bounded number of its predecessors.
+ * <p/>
+ * When the instance halts, an index of frame offsets is appended to the
+ * file so that readers can seek directly to any frame. The file layout is:
+ * <p/>
+ * header:   int MAGIC, int VERSION, int sites, byte bytes per health value
+ * keyframe: byte KEYFRAME, int frame, double time, int[sites] state,
+ * health[sites]
+ * delta:    byte DELTA, int frame, double time, int m, int[m] site
+ * (ascending), int[m] state, health[m]
+ * index:    int frames, then for each frame: long offset, byte kind
+ * trailer:  long offset of index, int MAGIC
+ * <p/>
+ * Health extrema are written in the same format as by the
+ * LegacyCellStateWriter, but to a separate metadata file, so that both
+ * writers can be used in the same project.
+ *
+ * @test CellStateWriterTest
+ */
+public class CellStateWriter extends Serializer {
+
+    public static final int MAGIC = 0x45534353;
+    public static final int VERSION = 1;
+
+    public static final byte KEYFRAME = 0;
+    public static final byte DELTA = 1;
+
+    public static final int HEADER_SIZE = 13;
+    public static final int TRAILER_SIZE = 12;
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    private final boolean deltas;
+    private final boolean singlePrecision;
+    private final int keyframeInterval;
+
+    private DataOutputStream stream;
+
+    // Number of bytes written to the current file
+    private long position;
+
+    // Offset and kind of each frame written to the current file
+    private long[] offsets;
+    private byte[] kinds;
+    private int frameCount;
+
+    // Contents of the previous frame, for delta encoding
+    private int[] prevStates;
+    private double[] prevHealth;
+    private int sinceKeyframe;
+
+    private ByteBuffer buffer;
+
+    private Extrema ef;
+
+    public CellStateWriter(GeneralParameters p, LayerManager lm) {
+        this(p, lm, false, false, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param deltas           if true, frames may list only the sites that
+     *                         changed since the previous frame.
+     * @param singlePrecision  if true, health is stored as a float rather
+     *                         than a double.
+     * @param keyframeInterval the maximum number of frames between keyframes
+     *                         when delta encoding is enabled.
+     */
+    public CellStateWriter(GeneralParameters p, LayerManager lm, boolean deltas,
+                           boolean singlePrecision, int keyframeInterval) {
+        super(p, lm);
+
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive.");
+        }
+
+        this.deltas = deltas;
+        this.singlePrecision = singlePrecision;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        makeFiles();
+
+        String path = p.getInstancePath() + FileConventions.CELL_STATE_FILENAME;
+        stream = FileConventions.makeDataOutputStream(path);
+
+        int n = lm.getCellLayer().getGeometry().getCanonicalSites().length;
+        position = 0;
+        offsets = new long[16];
+        kinds = new byte[16];
+        frameCount = 0;
+        prevStates = null;
+        prevHealth = null;
+        sinceKeyframe = 0;
+        ef = new Extrema();
+
+        // Large enough for the columns of a keyframe
+        buffer = ByteBuffer.allocate(n * (4 + healthWidth()));
+
+        try {
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeInt(n);
+            stream.writeByte(healthWidth());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        position += HEADER_SIZE;
+        closed = false;
+    }
+
+    private int healthWidth() {
+        return singlePrecision ? 4 : 8;
+    }
+
+    @Override
+    public void flush(StepState stepState) {
+        CellLayer layer = stepState.getRecordedCellLayer();
+        int[] states = layer.getViewer().getStateVector();
+        double[] health = layer.getViewer().getHealthVector();
+        Coordinate[] coords = layer.getGeometry().getCanonicalSites();
+        double time = stepState.getTime();
+
+        int[] changed = deltas ? findChanges(states, health) : null;
+
+        try {
+            if (changed == null) {
+                considerAll(health, coords, time);
+                writeKeyframe(stepState.getFrame(), time, states, health);
+            } else {
+                considerChanged(changed, health, coords, time);
+                writeDelta(stepState.getFrame(), time, changed, states, health);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        if (deltas) {
+            prevStates = states;
+            prevHealth = health;
+        }
+    }
+
+    /**
+     * Returns the sites that changed since the previous frame, or null if
+     * the current frame should be written as a keyframe.
+     */
+    private int[] findChanges(int[] states, double[] health) {
+        if (prevStates == null || sinceKeyframe >= keyframeInterval - 1) {
+            return null;
+        }
+
+        int n = states.length;
+
+        // Past this many changes, a delta is larger than a keyframe.
+        int width = healthWidth();
+        int limit = (n * (4 + width) - 4) / (8 + width);
+
+        int[] changed = new int[Math.min(n, limit + 1)];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (states[i] != prevStates[i] || Double.compare(health[i], prevHealth[i]) != 0) {
+                if (m == limit) {
+                    return null;
+                }
+                changed[m++] = i;
+            }
+        }
+
+        return Arrays.copyOf(changed, m);
+    }
+
+    private void considerAll(double[] health, Coordinate[] coords, double time) {
+        for (int i = 0; i < health.length; i++) {
+            ef.consider(health[i], coords[i], time);
+        }
+    }
+
+    // Unchanged values were already considered when they were first written.
+    private void considerChanged(int[] changed, double[] health, Coordinate[] coords, double time) {
+        for (int i : changed) {
+            ef.consider(health[i], coords[i], time);
+        }
+    }
+
+    private void writeKeyframe(int frame, double time, int[] states, double[] health) throws IOException {
+        beginFrame(KEYFRAME, frame, time);
+
+        buffer.clear();
+        buffer.asIntBuffer().put(states);
+        buffer.position(4 * states.length);
+        putHealth(health, null);
+        writeBuffer();
+
+        sinceKeyframe = 0;
+    }
+
+    private void writeDelta(int frame, double time, int[] changed, int[] states, double[] health) throws IOException {
+        beginFrame(DELTA, frame, time);
+        stream.writeInt(changed.length);
+        position += 4;
+
+        buffer.clear();
+        for (int i : changed) {
+            buffer.putInt(i);
+        }
+        for (int i : changed) {
+            buffer.putInt(states[i]);
+        }
+        putHealth(health, changed);
+        writeBuffer();
+
+        sinceKeyframe++;
+    }
+
+    private void beginFrame(byte kind, int frame, double time) throws IOException {
+        if (frameCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * frameCount);
+            kinds = Arrays.copyOf(kinds, 2 * frameCount);
+        }
+
+        offsets[frameCount] = position;
+        kinds[frameCount] = kind;
+        frameCount++;
+
+        stream.writeByte(kind);
+        stream.writeInt(frame);
+        stream.writeDouble(time);
+        position += 13;
+    }
+
+    /**
+     * Append the health of the specified sites to the buffer, or of all
+     * sites if the list of sites is null.
+     */
+    private void putHealth(double[] health, int[] sites) {
+        int m = (sites == null) ? health.length : sites.length;
+        for (int k = 0; k < m; k++) {
+            double value = (sites == null) ? health[k] : health[sites[k]];
+            if (singlePrecision) {
+                buffer.putFloat((float) value);
+            } else {
+                buffer.putDouble(value);
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        stream.write(buffer.array(), 0, buffer.position());
+        position += buffer.position();
+    }
+
+    private void writeIndex() throws IOException {
+        long indexOffset = position;
+        stream.writeInt(frameCount);
+        for (int i = 0; i < frameCount; i++) {
+            stream.writeLong(offsets[i]);
+            stream.writeByte(kinds[i]);
+        }
+
+        stream.writeLong(indexOffset);
+        stream.writeInt(MAGIC);
+    }
+
+    private void writeMetadata() {
+        String path = p.getInstancePath() + FileConventions.CELL_METADATA_FILENAME;
+        BufferedWriter bw = makeBufferedWriter(path);
+        StringBuilder line = new StringBuilder();
+        line.append("health>");
+        line.append(ef.toString());
+        line.append('\n');
+        hAppend(bw, line);
+        hClose(bw);
+    }
+
+    @Override
+    public void dispatchHalt(HaltCondition ex) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            writeIndex();
+            stream.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        writeMetadata();
+
+        // Release the buffers held for this instance.
+        buffer = null;
+        prevStates = null;
+        prevHealth = null;
+        closed = true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -11,182 +11,234 @@ import control.identifiers.Coordinate;
 import control.identifiers.Extrema;
 import io.serialize.Serializer;
 import layers.LayerManager;
+import layers.continuum.ContinuumLayer;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Vector;
 import processes.StepState;
-import sun.reflect.generics.reflectiveObjects.NotImplementedException;
+import structural.utilities.FileConventions;
 
-import java.io.DataOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
 
 /**
  * Created by dbborens on 12/11/13.
  * <p/>
- * ContinuumStateWriter encodes a binary file containing the
- * state of the model at specified time points.
+ * ContinuumStateWriter encodes the state of every continuum layer to a
+ * binary file, one file per layer and one record per flush. Each record
+ * has the layout read by ContinuumStateReader:
+ * <p/>
+ * record: boolean[2] true, double time, int frame, int sites,
+ * double[sites] state (canonical site order), boolean[2] false
+ * <p/>
+ * Records have a fixed size, so the file is written through a memory-mapped
+ * window that is preallocated for a block of records and remapped as each
+ * block fills. When the instance halts, the file is truncated to the
+ * records actually written, and the extrema of each layer are written to
+ * its metadata file.
+ *
+ * @test ContinuumStateWriterTest
  */
 public class ContinuumStateWriter extends Serializer {
 
-//    private SoluteLayer layer;
-    private Extrema extrema;
-
+    // Number of records for which space is mapped at a time
+    public static final int RECORDS_PER_WINDOW = 64;
 
-    private DataOutputStream dataStream;
-
-    // Canonical sites (for this instance)
-    private Coordinate[] sites;
+    // Parity sequences, header and length
+    public static final int RECORD_OVERHEAD = 20;
 
+    private List<LayerOutput> outputs;
 
     public ContinuumStateWriter(GeneralParameters p, LayerManager lm) {
         super(p, lm);
-        throw new NotImplementedException();
     }
 
     @Override
     public void init() {
-//        super.init();
-//
-//        if (lm.getSoluteLayers().length == 0) {
-//            throw new IllegalArgumentException("Attempted to build a continuum state writer for a model that contains no continuum components.");
-//        }
-//
-//        if (lm.getSoluteLayers().length != 1) {
-//            throw new UnsupportedOperationException("Support not yet implemented for multiple solute layer serialization. To do this, all you need to do is turn all of the state variables into maps of ID --> whatever.");
-//        }
-//
-//        // We currently get an array of solute layers, but that array had better only have
-//        // one thing in it until multi-layer support is introduced.
-//        layer = lm.getSoluteLayers()[0];
-//
-//        initStructures();
-//
-//        makeFiles();
-//
-//        initFiles();
-    }
+        super.init();
+
+        if (lm.getContinuumLayerIds().isEmpty()) {
+            throw new IllegalArgumentException("Attempted to build a continuum state writer for a model that contains no continuum components.");
+        }
 
-//    private void initFiles() {
-//        String filename = FileConventions.makeContinuumStateFilename(layer.getId());
-//        String filepath = p.getInstancePath() + '/' + filename;
-//
-//        try {
-//
-//            File stateFile = new File(filepath);
-//
-//            FileOutputStream fileOutputStream = new FileOutputStream(stateFile);
-//            BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(fileOutputStream);
-//            dataStream = new DataOutputStream(bufferedOutputStream);
-//        } catch (IOException e) {
-//            throw new RuntimeException(e);
-//        }
-//    }
-//
-//
-//    public void initStructures() {
-//        sites = layer.getGeometry().getCanonicalSites();
-//
-//        // Initialize extrema
-//        extrema = new Extrema();
-//    }
+        makeFiles();
+
+        outputs = new ArrayList<>();
+        for (String id : new TreeSet<>(lm.getContinuumLayerIds())) {
+            ContinuumLayer layer = lm.getContinuumLayer(id);
+            String path = p.getInstancePath() + FileConventions.makeContinuumStateFilename(id);
+            outputs.add(new LayerOutput(layer, path));
+        }
+
+        closed = false;
+    }
 
     @Override
     public void flush(StepState stepState) {
-//        try {
-//            // Write opening parity sequence
-//            writeStartParitySequence();
-//
-//            // Write entry header
-//            dataStream.writeDouble(stepState.getTime());
-//            dataStream.writeInt(stepState.getFrame());
-//
-//            // Process state vector
-//            processData(stepState.getFrame());
-//
-//            // Write closing parity sequence
-//            writeEndParitySequence();
-//        } catch (IOException ex) {
-//            throw new RuntimeException(ex);
-//        }
+        try {
+            for (LayerOutput output : outputs) {
+                output.write(stepState.getFrame(), stepState.getTime());
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
     }
 
-    /**
-     * Write the state vector to the data stream and update extrema.
-     *
-     * @param frame
-     * @throws IOException
-     */
-//    private void processData(int frame) throws IOException {
-//        DenseVector data = layer.getState().getSolution();
-//        updateExtrema(data, frame);
-//
-//        PrimitiveSerializer.writeDoubleVector(dataStream, data.getData());
-//    }
-//
-//    private void updateExtrema(DenseVector data, int frame) {
-//        for (int i = 0; i < data.size(); i++) {
-//            double datum = data.get(i);
-//            extrema.consider(datum, sites[i], frame);
-//        }
-//    }
-//
-//    /**
-//     * Encode parity sequence for entry start
-//     */
-//    private void writeStartParitySequence() throws IOException {
-//        for (int i = 0; i < 2; i++) {
-//            dataStream.writeBoolean(true);
-//        }
-//    }
-
-    /**
-     * Encode parity sequence for entry end
-     */
-//    private void writeEndParitySequence() throws IOException {
-//        for (int i = 0; i < 2; i++) {
-//            dataStream.writeBoolean(false);
-//        }
-//    }
-//
-//    @Override
+    @Override
     public void dispatchHalt(HaltCondition ex) {
-//        conclude();
-//        closed = true;
+        if (closed) {
+            return;
+        }
+
+        try {
+            for (LayerOutput output : outputs) {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        for (LayerOutput output : outputs) {
+            writeMetadata(output);
+        }
+
+        outputs = null;
+        closed = true;
+    }
+
+    private void writeMetadata(LayerOutput output) {
+        String path = p.getInstancePath() + FileConventions.makeContinuumMetadataFilename(output.layer.getId());
+        BufferedWriter bw = makeBufferedWriter(path);
+        StringBuilder line = new StringBuilder();
+        line.append("extrema>");
+        line.append(output.extrema.toString());
+        line.append('\n');
+        hAppend(bw, line);
+        hClose(bw);
     }
-//
-//    private void conclude() {
-//        // Close the state data file.
-//        try {
-//            dataStream.close();
-//        } catch (IOException e) {
-//            throw new RuntimeException(e);
-//        }
-//
-//        writeMetadata();
-//
-//    }
-//
-//    private void writeMetadata() {
-//        // Write the extrema file.
-//        try {
-//            String filename = FileConventions.makeContinuumMetadataFilename(layer.getId());
-//            File metadata = new File(filename);
-//            String filepath = p.getInstancePath() + '/' + metadata;
-//            FileWriter mfw = new FileWriter(filepath);
-//            BufferedWriter mbw = new BufferedWriter(mfw);
-//
-//            mbw.write("extrema>");
-//            mbw.write(extrema.toString());
-//            mbw.write('\n');
-//
-//            mbw.close();
-//
-//        } catch (IOException e) {
-//            throw new RuntimeException(e);
-//        }
-//    }
-//
-//
+
     @Override
     public void close() {
-        // Doesn't do anything
     }
 
+    /**
+     * State file and running extrema for a single continuum layer.
+     */
+    private static class LayerOutput {
+        private final ContinuumLayer layer;
+        private final Coordinate[] sites;
+        private final int recordSize;
+
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+
+        // Mapped space for the next records, and the file offset at which
+        // the next record begins
+        private MappedByteBuffer window;
+        private long position;
+
+        private final Extrema extrema;
+
+        public LayerOutput(ContinuumLayer layer, String path) {
+            this.layer = layer;
+            sites = layer.getGeometry().getCanonicalSites();
+
+            long size = RECORD_OVERHEAD + 8L * sites.length;
+            if (size * RECORDS_PER_WINDOW > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Continuum layer " + layer.getId() + " is too large to serialize.");
+            }
+            recordSize = (int) size;
+
+            try {
+                file = new RandomAccessFile(path, "rw");
+                file.setLength(0);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+            channel = file.getChannel();
+            position = 0;
+            extrema = new Extrema();
+        }
+
+        public void write(int frame, double time) throws IOException {
+            double[] data = getData();
+            if (data.length != sites.length) {
+                throw new IllegalStateException("Continuum layer " + layer.getId() + " has " + data.length +
+                        " values, but its geometry has " + sites.length + " sites.");
+            }
+
+            if (window == null || window.remaining() < recordSize) {
+                window = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                        (long) recordSize * RECORDS_PER_WINDOW);
+            }
+
+            window.put((byte) 1);
+            window.put((byte) 1);
+            window.putDouble(time);
+            window.putInt(frame);
+            window.putInt(data.length);
+            window.asDoubleBuffer().put(data);
+            window.position(window.position() + 8 * data.length);
+            window.put((byte) 0);
+            window.put((byte) 0);
+            position += recordSize;
+
+            consider(data, time);
+        }
+
+        private double[] getData() {
+            Vector state = layer.getContent().getState();
+            if (state instanceof DenseVector) {
+                return ((DenseVector) state).getData();
+            }
+
+            return new DenseVector(state).getData();
+        }
+
+        /**
+         * Only the least and greatest values of a record can change the
+         * extrema, so each record is reduced to those before comparison.
+         */
+        private void consider(double[] data, double time) {
+            int argMin = -1;
+            int argMax = -1;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] < min) {
+                    min = data[i];
+                    argMin = i;
+                }
+
+                if (data[i] > max) {
+                    max = data[i];
+                    argMax = i;
+                }
+            }
+
+            if (argMin >= 0) {
+                extrema.consider(min, sites[argMin], time);
+            }
+
+            if (argMax >= 0) {
+                extrema.consider(max, sites[argMax], time);
+            }
+        }
+
+        public void close() throws IOException {
+            if (window != null) {
+                window.force();
+                window = null;
+            }
+
+            // Discard the unused remainder of the last window
+            channel.truncate(position);
+            file.close();
+        }
+    }
 }
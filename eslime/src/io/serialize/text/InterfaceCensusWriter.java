@@ -58,7 +58,7 @@ public class InterfaceCensusWriter extends Serializer {
         ArrayList<Coordinate> focalSites = new ArrayList<>();
 
         // Find all cells of focal type.
-        HashSet<Coordinate> sites = layer.getViewer().getOccupiedSites();
+        Set<Coordinate> sites = layer.getViewer().getOccupiedView();
 
         for (Coordinate site : sites) {
             Cell focalCell = layer.getViewer().getCell(site);
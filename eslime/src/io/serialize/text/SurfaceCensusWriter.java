@@ -13,6 +13,8 @@ package io.serialize.text;
 import control.GeneralParameters;
 import control.halt.HaltCondition;
 import control.identifiers.Coordinate;
+import geometry.Geometry;
+import geometry.NeighborTable;
 import io.serialize.Serializer;
 import layers.LayerManager;
 import layers.cell.CellLayer;
@@ -77,6 +79,21 @@ public class SurfaceCensusWriter extends Serializer {
     }
 
     private boolean isAtFront(Coordinate c, CellLayer layer) {
+        Geometry geom = layer.getGeometry();
+        NeighborTable table = geom.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        int site = (table == null) ? -1 : geom.getSiteIndex().indexOf(c);
+
+        if (site >= 0) {
+            // If any neighbor is vacant, the point is at the front
+            for (int k = 0; k < table.getDegree(site); k++) {
+                Coordinate neighbor = geom.getSiteIndex().getSite(table.getNeighbor(site, k));
+                if (!layer.getViewer().isOccupied(neighbor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         int[] neighborStates = layer.getLookupManager().getNeighborStates(c, false);
 
         // If any neighbor is 0 (vacant), the point is at the front
@@ -99,7 +116,7 @@ public class SurfaceCensusWriter extends Serializer {
         histo.put(stepState.getFrame(), observations);
 
         // Iterate over all occupied sites.
-        for (Coordinate c : layer.getViewer().getOccupiedSites()) {
+        for (Coordinate c : layer.getViewer().getOccupiedView()) {
             // Is it at the front? If so, count it.
             if (isAtFront(c, layer)) {
                 int state = layer.getViewer().getState(c);
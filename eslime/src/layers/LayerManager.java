@@ -10,18 +10,35 @@ import layers.continuum.ContinuumAgentLinker;
 import layers.continuum.ContinuumLayer;
 import processes.StepState;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Created by David B Borenstein on 12/29/13.
  */
 public class LayerManager {
 
+    // Time for which an idle solver thread is kept before it is released
+    private static final long SOLVER_KEEP_ALIVE_SECONDS = 10;
+
     protected CellLayer cellLayer;
 
     protected HashMap<String, ContinuumLayer> continuumLayers;
     private StepState stepState;
 
+    // Solves stale continuum layers concurrently, or null if they are to
+    // be solved one at a time
+    private ExecutorService solverPool;
+
     public LayerManager() {
         continuumLayers = new HashMap<>();
     }
@@ -29,6 +46,11 @@ public class LayerManager {
     public void addContinuumLayer(ContinuumLayer continuumLayer) {
         String id = continuumLayer.getId();
         continuumLayers.put(id, continuumLayer);
+        continuumLayer.setBatched(solverPool != null);
+    }
+
+    public Set<String> getContinuumLayerIds() {
+        return continuumLayers.keySet();
     }
 
     public CellLayer getCellLayer() {
@@ -93,6 +115,94 @@ public class LayerManager {
                 .forEach(ContinuumLayer::reset);
     }
 
+    /**
+     * Set the number of threads on which continuum layers are solved when
+     * flushed. Layers are independent of one another, so they can be
+     * solved concurrently. If more than one thread is specified, every
+     * layer that is released, or otherwise due to be solved, in the course
+     * of a step is left stale until it is read or the step ends, so that
+     * all of them are solved together.
+     */
+    public void setSolverThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of solver threads must be positive.");
+        }
+
+        close();
+
+        boolean batched = threads > 1;
+        continuumLayers.values().forEach(layer -> layer.setBatched(batched));
+
+        if (!batched) {
+            return;
+        }
+
+        // Idle threads time out, so that a layer manager that is no longer
+        // used (e.g., that of a concluded instance) holds no threads. They
+        // are daemons, so that an idle pool does not keep the JVM alive.
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                SOLVER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "continuum-solver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        solverPool = pool;
+    }
+
+    /**
+     * Releases the solver threads, if any, once the simulation has
+     * concluded. Subsequent flushes solve layers one at a time.
+     */
+    public void close() {
+        if (solverPool != null) {
+            solverPool.shutdown();
+            solverPool = null;
+        }
+    }
+
+    /**
+     * Solve any continuum layers with pending operations. If solver threads
+     * have been requested, the stale layers are solved concurrently, and
+     * this method returns once all of them have been solved.
+     */
+    public void flush() {
+        List<ContinuumLayer> stale = continuumLayers.values()
+                .stream()
+                .filter(ContinuumLayer::isStale)
+                .collect(Collectors.toList());
+
+        if (solverPool == null || stale.size() < 2) {
+            stale.forEach(ContinuumLayer::flush);
+            return;
+        }
+
+        List<Future<?>> results = new ArrayList<>(stale.size());
+        for (ContinuumLayer layer : stale) {
+            results.add(solverPool.submit(layer::flush));
+        }
+
+        for (int i = 0; i < stale.size(); i++) {
+            await(results.get(i), stale.get(i));
+        }
+    }
+
+    private void await(Future<?> result, ContinuumLayer layer) {
+        try {
+            result.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Continuum layer \"" + layer.getId() + "\" failed to solve.", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
     /**
      * Returns a linker through which agents can retrieve the state of a
      * continuum at their location, or notify the field of their birth or
@@ -19,6 +19,9 @@ public class CellIndex implements Set<Coordinate> {
 
     private Set<Coordinate> contents = new HashSet<>();
 
+    // Read-only view of this index, created on first request
+    private CellIndexViewer viewer;
+
     public CellIndex() {
     }
 
@@ -88,9 +91,63 @@ public class CellIndex implements Set<Coordinate> {
         return contents.iterator();
     }
 
+    /**
+     * Returns a read-only view of this index. The view reflects subsequent
+     * changes to the index.
+     */
     public CellIndexViewer set() {
-        CellIndexViewer copy = new CellIndexViewer(this);
-        return copy;
+        if (viewer == null) {
+            viewer = new CellIndexViewer(this);
+        }
+
+        return viewer;
+    }
+
+    /**
+     * Returns a member of the index, chosen uniformly at random. This
+     * implementation runs in time linear in the size of the index.
+     */
+    public Coordinate sample(Random random) {
+        if (isEmpty()) {
+            throw new IllegalStateException("Attempted to sample from an empty index.");
+        }
+
+        int target = random.nextInt(size());
+        Iterator<Coordinate> it = iterator();
+        for (int i = 0; i < target; i++) {
+            it.next();
+        }
+
+        return it.next();
+    }
+
+    /**
+     * Returns k distinct members of the index, chosen uniformly at random.
+     * If k is at least the size of the index, all members are returned in
+     * iteration order and no random numbers are drawn. The index itself is
+     * not modified. This implementation runs in time linear in the size of
+     * the index.
+     */
+    public List<Coordinate> sample(Random random, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Cannot sample a negative number of sites.");
+        }
+
+        Coordinate[] members = toArray(new Coordinate[0]);
+
+        if (k >= members.length) {
+            return new ArrayList<>(Arrays.asList(members));
+        }
+
+        // Partial Fisher-Yates shuffle
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(members.length - i);
+            Coordinate temp = members[i];
+            members[i] = members[j];
+            members[j] = temp;
+        }
+
+        return new ArrayList<>(Arrays.asList(members).subList(0, k));
     }
 
     @Override
@@ -9,8 +9,14 @@ import control.identifiers.Coordinate;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 
 /**
+ * Read-only view of a cell index. The view reflects changes to the
+ * underlying index, so that callers can count, iterate over or sample
+ * its members without making a copy.
+ *
  * Created by dbborens on 5/2/14.
  */
 public class CellIndexViewer extends CellIndex {
@@ -67,7 +73,33 @@ public class CellIndexViewer extends CellIndex {
 
     @Override
     public Iterator<Coordinate> iterator() {
-        return contents.iterator();
+        Iterator<Coordinate> it = contents.iterator();
+        return new Iterator<Coordinate>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Coordinate next() {
+                return it.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public Coordinate sample(Random random) {
+        return contents.sample(random);
+    }
+
+    @Override
+    public List<Coordinate> sample(Random random, int k) {
+        return contents.sample(random, k);
     }
 
     @Override
@@ -21,6 +21,11 @@ public class CellLayer extends Layer {
         reset();
     }
 
+    private CellLayer(Geometry geom, CellLayerContent content) {
+        geometry = geom;
+        this.content = content;
+    }
+
     public CellLookupManager getLookupManager() {
         return new CellLookupManager(geometry, content);
     }
@@ -54,9 +59,7 @@ public class CellLayer extends Layer {
     @Override
     public CellLayer clone() {
         CellLayerContent contentClone = content.clone();
-        CellLayer clone = new CellLayer(geometry);
-        clone.content = contentClone;
-        return clone;
+        return new CellLayer(geometry, contentClone);
     }
 
     @Override
@@ -66,16 +69,16 @@ public class CellLayer extends Layer {
 
     @Override
     public void reset() {
-        CellLayerIndices indices = new CellLayerIndices();
-
         // Oh man, do I hate the following two lines and the
         // "getComponentClasses" cloodge that makes them possible
         Class boundaryClass = geometry.getComponentClasses()[2];
         if (HaltBoundary.class.isAssignableFrom(boundaryClass)) {
-            content = new HaltCellLayerContent(geometry, indices);
+            content = new HaltCellLayerContent(geometry, new CellLayerIndices());
         } else if (geometry.isInfinite()) {
-            content = new InfiniteCellLayerContent(geometry, indices);
+            content = new InfiniteCellLayerContent(geometry, new CellLayerIndices());
         } else {
+            CellLayerIndices indices = new IndexedCellLayerIndices(geometry.getSiteIndex(),
+                    geometry.getNeighborTable(Geometry.APPLY_BOUNDARIES));
             content = new FiniteCellLayerContent(geometry, indices);
         }
     }
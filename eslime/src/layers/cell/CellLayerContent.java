@@ -9,9 +9,8 @@ import cells.Cell;
 import control.halt.BoundaryReachedEvent;
 import control.identifiers.Coordinate;
 import geometry.Geometry;
-import structural.CanonicalCellMap;
 
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,12 +19,6 @@ import java.util.Set;
  */
 public abstract class CellLayerContent {
 
-    // Mapping of sites to cell pointers -- the lattice itself.
-    protected CanonicalCellMap map;
-
-    // All sites (basically the keyset for the lattice map).
-    protected Set<Coordinate> canonicalSites;
-
     protected Geometry geom;
     protected CellLayerIndices indices;
 
@@ -34,37 +27,27 @@ public abstract class CellLayerContent {
         this.geom = geom;
 
         this.indices = indices;
-
-        // Get canonical site list.
-        canonicalSites = new HashSet<>(geom.getCanonicalSites().length);
-
-        Coordinate[] cc = geom.getCanonicalSites();
-        // Initialize map.
-        map = new CanonicalCellMap();
-        for (int i = 0; i < cc.length; i++) {
-            Coordinate coord = cc[i];
-
-            // Initialize each site to null (empty)
-            map.put(coord, null);
-            canonicalSites.add(coord);
-        }
     }
 
-    public Set<Coordinate> getOccupiedSites() {
+    public CellIndex getOccupiedSites() {
         return indices.getOccupiedSites();
     }
 
-    public Set<Coordinate> getDivisibleSites() {
+    public CellIndex getDivisibleSites() {
         return indices.getDivisibleSites();
     }
 
-    public Cell get(Coordinate coord) {
-
-        // Get pointer to cell and return it
-        Cell res = map.get(coord);
+    /**
+     * Returns the cell at the specified site, or null if the site
+     * is vacant.
+     */
+    public abstract Cell get(Coordinate coord);
 
-        return res;
-    }
+    /**
+     * Places the specified cell (or null) at the specified site, without
+     * updating the indices. Subclasses define the storage of the lattice.
+     */
+    protected abstract void store(Coordinate coord, Cell cell);
 
     public boolean has(Coordinate coord) {
         return (get(coord) != null);
@@ -85,15 +68,45 @@ public abstract class CellLayerContent {
     }
 
     public void put(Coordinate coord, Cell current) throws BoundaryReachedEvent {
-        Cell previous = map.get(coord);
+        Cell previous = get(coord);
         indices.refresh(coord, previous, current);
-        map.put(coord, current);
+        store(coord, current);
+
+        if (current != null) {
+            current.relocate();
+        }
+    }
+
+    /**
+     * Moves the contents of each site in the path to the next site, and
+     * the contents of the last site to the first. The result is the same
+     * as swapping each pair of consecutive sites, starting from the end of
+     * the path, but each cell's indices are updated only once. Sites may
+     * not appear more than once in the path.
+     */
+    public void shift(List<Coordinate> path) throws BoundaryReachedEvent {
+        int n = path.size();
+        Cell[] cells = new Cell[n];
+        for (int i = 0; i < n; i++) {
+            cells[i] = get(path.get(i));
+        }
+
+        indices.shift(path, cells);
+        for (int i = 0; i < n; i++) {
+            store(path.get((i + 1) % n), cells[i]);
+        }
+
+        for (Cell cell : cells) {
+            if (cell != null) {
+                cell.relocate();
+            }
+        }
     }
 
     public void remove(Coordinate coord) {
-        Cell previous = map.get(coord);
+        Cell previous = get(coord);
         indices.refresh(coord, previous, null);
-        map.put(coord, null);
+        store(coord, null);
     }
 
     public int[] getStateVector() {
@@ -102,11 +115,11 @@ public abstract class CellLayerContent {
         int[] sArr = new int[cArr.length];
 
         for (int i = 0; i < cArr.length; i++) {
-            Cell c = map.get(cArr[i]);
+            Cell c = get(cArr[i]);
             if (c == null) {
                 sArr[i] = 0;
             } else {
-                sArr[i] = map.get(cArr[i]).getState();
+                sArr[i] = c.getState();
             }
         }
 
@@ -118,9 +131,7 @@ public abstract class CellLayerContent {
      * in this geometry.
      */
     public boolean hasCanonicalForm(Coordinate coord) {
-        Coordinate canonical = coord.canonicalize();
-        boolean has = canonicalSites.contains(canonical);
-        return has;
+        return geom.contains(coord);
     }
 
     /**
@@ -132,11 +143,11 @@ public abstract class CellLayerContent {
         double[] fArr = new double[cArr.length];
 
         for (int i = 0; i < cArr.length; i++) {
-            Cell c = map.get(cArr[i]);
+            Cell c = get(cArr[i]);
             if (c == null) {
                 fArr[i] = 0D;
             } else {
-                fArr[i] = map.get(cArr[i]).getHealth();
+                fArr[i] = c.getHealth();
             }
         }
 
@@ -151,6 +162,10 @@ public abstract class CellLayerContent {
         return indices.locate(cell);
     }
 
+    public VacancyIndex getVacancyIndex() {
+        return indices.getVacancyIndex();
+    }
+
     public Map<Integer, Integer> getStateMap() {
         return indices.getStateMap();
     }
@@ -166,23 +181,17 @@ public abstract class CellLayerContent {
 
         CellLayerContent that = (CellLayerContent) o;
 
-        if (canonicalSites != null ? !canonicalSites.equals(that.canonicalSites) : that.canonicalSites != null)
-            return false;
         if (geom != null ? !geom.equals(that.geom) : that.geom != null)
             return false;
         if (indices != null ? !indices.equals(that.indices) : that.indices != null)
             return false;
-        if (map != null ? !map.equals(that.map) : that.map != null)
-            return false;
 
         return true;
     }
 
     @Override
     public int hashCode() {
-        int result = map != null ? map.hashCode() : 0;
-        result = 31 * result + (canonicalSites != null ? canonicalSites.hashCode() : 0);
-        result = 31 * result + (geom != null ? geom.hashCode() : 0);
+        int result = geom != null ? geom.hashCode() : 0;
         result = 31 * result + (indices != null ? indices.hashCode() : 0);
         return result;
     }
@@ -12,7 +12,9 @@ import structural.NonNullIntegerMap;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Direct representation of cell layer indices. Only the cell layer and
@@ -43,6 +45,9 @@ public class CellLayerIndices {
 
     protected CellLocationIndex cellLocationIndex;
 
+    // If non-null, builds the cell location index on first use
+    private Supplier<CellLocationIndex> locationIndexLoader;
+
     //protected CellLayerContent callback;
 
     // IdentityHashMap resolves the actual memory address of the
@@ -59,29 +64,20 @@ public class CellLayerIndices {
     }
 
     public Coordinate locate(Cell cell) {
-        return cellLocationIndex.locate(cell);
+        return getLocationIndex().locate(cell);
     }
 
     public boolean isIndexed(Cell cell) {
-        return cellLocationIndex.isIndexed(cell);
+        return getLocationIndex().isIndexed(cell);
     }
 
     public boolean isOccupied(Coordinate cell) {
-        Coordinate c = cell.canonicalize();
-        if (occupiedSites.contains(c)) {
-            return true;
-        } else {
-            return false;
-        }
+        // The index is responsible for canonicalizing the coordinate
+        return occupiedSites.contains(cell);
     }
 
     public boolean isDivisible(Coordinate cell) {
-        Coordinate c = cell.canonicalize();
-        if (divisibleSites.contains(c)) {
-            return true;
-        } else {
-            return false;
-        }
+        return divisibleSites.contains(cell);
     }
 
     /**
@@ -90,7 +86,7 @@ public class CellLayerIndices {
      *
      * @return
      */
-    public Set<Coordinate> getOccupiedSites() {
+    public CellIndex getOccupiedSites() {
         return occupiedSites.set();
     }
 
@@ -99,7 +95,7 @@ public class CellLayerIndices {
      *
      * @return
      */
-    public Set<Coordinate> getDivisibleSites() {
+    public CellIndex getDivisibleSites() {
         return divisibleSites.set();
     }
 
@@ -113,8 +109,36 @@ public class CellLayerIndices {
         }
     }
 
+    /**
+     * Updates the indices to reflect the shift of cells[i] from path[i]
+     * to path[i + 1], and of the last cell to the start of the path. Cells
+     * keep their states, so the state counts are unaffected, and only the
+     * ends of a run of occupied sites change occupancy.
+     */
+    public void shift(List<Coordinate> path, Cell[] cells) {
+        int n = path.size();
+        for (int i = 0; i < n; i++) {
+            Coordinate coord = path.get(i);
+            Cell leaving = cells[i];
+            Cell arriving = cells[(i + n - 1) % n];
+
+            if ((leaving == null) != (arriving == null)) {
+                setOccupied(coord, arriving != null);
+            }
+
+            boolean divisible = (arriving != null) && arriving.isDivisible();
+            if (divisibleSites.contains(coord) != divisible) {
+                setDivisible(coord, divisible);
+            }
+
+            if (arriving != null) {
+                getLocationIndex().put(arriving, coord);
+            }
+        }
+    }
+
     private void remove(Coordinate coord, Cell cell) {
-        cellLocationIndex.remove(cell);
+        getLocationIndex().remove(cell);
         decrStateCount(cell);
         setOccupied(coord, false);
         setDivisible(coord, false);
@@ -137,7 +161,7 @@ public class CellLayerIndices {
         }
     }
 
-    private void decrStateCount(Cell cell) {
+    protected void decrStateCount(Cell cell) {
         Integer currentState = cell.getState();
         Integer currentCount = stateMap.get(currentState);
         if (currentCount == 1) {
@@ -148,13 +172,13 @@ public class CellLayerIndices {
     }
 
     private void add(Coordinate coord, Cell cell) {
-        cellLocationIndex.add(cell, coord);
+        getLocationIndex().add(cell, coord);
         incrStateCount(cell);
         setOccupied(coord, true);
         setDivisible(coord, cell.isDivisible());
     }
 
-    private void incrStateCount(Cell cell) {
+    protected void incrStateCount(Cell cell) {
         Integer currentState = cell.getState();
 
         if (!stateMap.containsKey(currentState)) {
@@ -178,6 +202,56 @@ public class CellLayerIndices {
         return clone;
     }
 
+    /**
+     * Clone the indices without reference to the lattice contents. The
+     * location index is copied directly, since cloned lattices share
+     * references to the same cells.
+     */
+    @Override
+    public CellLayerIndices clone() {
+        CellLayerIndices clone = new CellLayerIndices();
+        clone.cellLocationIndex = copyLocationIndex();
+        clone.occupiedSites = new CellIndex(occupiedSites);
+        clone.divisibleSites = new CellIndex(divisibleSites);
+        clone.stateMap = new NonNullIntegerMap(stateMap);
+        return clone;
+    }
+
+    /**
+     * Clone the indices, except that the clone's cell location index is
+     * produced by the specified loader when it is first used. The loader
+     * must produce the index as it would stand at the time of first use.
+     */
+    public CellLayerIndices clone(Supplier<CellLocationIndex> locationIndexLoader) {
+        CellLayerIndices clone = clone();
+        clone.deferLocationIndex(locationIndexLoader);
+        return clone;
+    }
+
+    /**
+     * Defer construction of the cell location index until it is first
+     * used.
+     */
+    protected void deferLocationIndex(Supplier<CellLocationIndex> loader) {
+        cellLocationIndex = null;
+        locationIndexLoader = loader;
+    }
+
+    protected CellLocationIndex getLocationIndex() {
+        if (locationIndexLoader != null) {
+            cellLocationIndex = locationIndexLoader.get();
+            locationIndexLoader = null;
+        }
+
+        return cellLocationIndex;
+    }
+
+    protected CellLocationIndex copyLocationIndex() {
+        CellLocationIndex ret = new CellLocationIndex();
+        ret.putAll(getLocationIndex());
+        return ret;
+    }
+
     private CellLocationIndex buildLocationIndex(CanonicalCellMap cellMap) {
         CellLocationIndex ret = new CellLocationIndex();
         for (Coordinate key : cellMap.keySet()) {
@@ -190,6 +264,14 @@ public class CellLayerIndices {
         return ret;
     }
 
+    /**
+     * Returns the index of distances to the nearest vacancy, or null if
+     * these indices do not track it.
+     */
+    public VacancyIndex getVacancyIndex() {
+        return null;
+    }
+
     public NonNullIntegerMap getStateMap() {
         return stateMap;
     }
@@ -205,12 +287,12 @@ public class CellLayerIndices {
             return false;
         if (occupiedSites != null ? !occupiedSites.equals(indices.occupiedSites) : indices.occupiedSites != null)
             return false;
-        if (stateMap != null ? !stateMap.equals(indices.stateMap) : indices.stateMap != null)
+        if (!getStateMap().equals(indices.getStateMap()))
             return false;
 
         // We don't want true equality of the cell location index, because we
         // make a new copy of each cell as part of cloning the CellLayer.
-        if (!valuesEqual(cellLocationIndex, indices.cellLocationIndex)) {
+        if (!valuesEqual(getLocationIndex(), indices.getLocationIndex())) {
             return false;
         }
 
@@ -245,8 +327,8 @@ public class CellLayerIndices {
     public int hashCode() {
         int result = occupiedSites != null ? occupiedSites.hashCode() : 0;
         result = 31 * result + (divisibleSites != null ? divisibleSites.hashCode() : 0);
-        result = 31 * result + (stateMap != null ? stateMap.hashCode() : 0);
-        result = 31 * result + (cellLocationIndex != null ? cellLocationIndex.hashCode() : 0);
+        result = 31 * result + getStateMap().hashCode();
+        result = 31 * result + (getLocationIndex() != null ? getLocationIndex().hashCode() : 0);
         return result;
     }
 }
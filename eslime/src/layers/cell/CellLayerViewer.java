@@ -24,8 +24,9 @@ public class CellLayerViewer {
     }
 
     /**
-     * Returns a vector containing the canonical coordinate of each
-     * active site on the lattice.
+     * Returns a copy of the set of occupied sites. Callers that only
+     * need to count, iterate over or sample the occupied sites should
+     * use getOccupiedView() instead, which does not copy.
      *
      * @return
      */
@@ -38,7 +39,9 @@ public class CellLayerViewer {
     }
 
     /**
-     * Returns a list of divisible sites on the lattice.
+     * Returns a copy of the set of divisible sites. Callers that only
+     * need to count, iterate over or sample the divisible sites should
+     * use getDivisibleView() instead, which does not copy.
      *
      * @return
      */
@@ -50,6 +53,32 @@ public class CellLayerViewer {
         return res;
     }
 
+    /**
+     * Returns a read-only view of the occupied sites. The view reflects
+     * subsequent changes to the layer, so it must not be iterated while
+     * the layer is being modified.
+     */
+    public CellIndexViewer getOccupiedView() {
+        return content.getOccupiedSites().set();
+    }
+
+    /**
+     * Returns a read-only view of the divisible sites. The view reflects
+     * subsequent changes to the layer, so it must not be iterated while
+     * the layer is being modified.
+     */
+    public CellIndexViewer getDivisibleView() {
+        return content.getDivisibleSites().set();
+    }
+
+    public int getOccupiedCount() {
+        return content.getOccupiedSites().size();
+    }
+
+    public int getDivisibleCount() {
+        return content.getDivisibleSites().size();
+    }
+
     public Cell getCell(Coordinate coord) {
         return content.get(coord);
     }
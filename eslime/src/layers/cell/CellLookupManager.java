@@ -9,9 +9,12 @@ import cells.Cell;
 import control.identifiers.Coordinate;
 import control.identifiers.Flags;
 import geometry.Geometry;
+import geometry.NeighborTable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author David Bruce Borenstein
@@ -35,33 +38,48 @@ public class CellLookupManager {
     public int[] getNeighborStates(Coordinate coord, boolean ignoreVacancies) {
         content.sanityCheck(coord);
 
-        // Get set of neighbors
-        Coordinate[] neighbors = geom.getNeighbors(coord, Geometry.APPLY_BOUNDARIES);
+        NeighborTable table = geom.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        int site = (table == null) ? -1 : geom.getSiteIndex().indexOf(coord);
+
+        if (site < 0) {
+            return getNeighborStates(geom.getNeighbors(coord, Geometry.APPLY_BOUNDARIES), ignoreVacancies);
+        }
 
         // Allocate return vector
-        ArrayList<Integer> states = new ArrayList<>(neighbors.length);
+        int degree = table.getDegree(site);
+        int[] states = new int[degree];
+        int n = 0;
 
         // Check state of each neighbor
-        for (int i = 0; i < neighbors.length; i++) {
-            Coordinate query = neighbors[i];
+        for (int k = 0; k < degree; k++) {
+            Coordinate query = geom.getSiteIndex().getSite(table.getNeighbor(site, k));
             Cell neighbor = content.get(query);
-            if (ignoreVacancies && neighbor == null) {
-                continue;
-            } else if (neighbor == null) {
-                states.add(0);
-            } else {
-                states.add(content.get(query).getState());
+            if (neighbor != null) {
+                states[n++] = neighbor.getState();
+            } else if (!ignoreVacancies) {
+                states[n++] = 0;
             }
         }
 
-        // Convert to array and return
-        int[] ret = new int[states.size()];
-        int i = 0;
-        for (Integer state : states) {
-            ret[i] = state;
-            i++;
+        return (n == degree) ? states : Arrays.copyOf(states, n);
+    }
+
+    private int[] getNeighborStates(Coordinate[] neighbors, boolean ignoreVacancies) {
+        // Allocate return vector
+        int[] states = new int[neighbors.length];
+        int n = 0;
+
+        // Check state of each neighbor
+        for (Coordinate query : neighbors) {
+            Cell neighbor = content.get(query);
+            if (neighbor != null) {
+                states[n++] = neighbor.getState();
+            } else if (!ignoreVacancies) {
+                states[n++] = 0;
+            }
         }
-        return ret;
+
+        return (n == neighbors.length) ? states : Arrays.copyOf(states, n);
     }
 
     /**
@@ -69,6 +87,10 @@ public class CellLookupManager {
      * up to the specified maximum distance. If maxDistance is -1, the
      * search is unbounded.
      *
+     * Where the cell layer tracks distances to vacant sites, the search
+     * skips directly to the annulus at the distance of the nearest
+     * vacancy.
+     *
      * @param coord
      * @param maxDistance
      * @return
@@ -80,17 +102,23 @@ public class CellLookupManager {
 
         // If there are no vacancies, just return now. This should prevent infinite
         // loop even when searching without bound.
-        if (!geom.isInfinite() && (content.getOccupiedSites().size() > content.getCanonicalSites().length)) {
+        Set<Coordinate> occupied = content.getOccupiedSites();
+        if (!geom.isInfinite() && (occupied.size() > content.getCanonicalSites().length)) {
             throw new IllegalStateException("Consistency failure.");
-        } else if (!geom.isInfinite() && (content.getOccupiedSites().size() == content.getCanonicalSites().length)) {
+        } else if (!geom.isInfinite() && (occupied.size() == content.getCanonicalSites().length)) {
             return new Coordinate[0];
         }
 
         // Initialize return object
         ArrayList<Coordinate> res = new ArrayList();
 
-        // Loop through looking for vacancies (starting with target site)
-        int r = 0;
+        // Loop through looking for vacancies (starting with target site, or
+        // with the distance of the nearest vacancy if it is known)
+        int r = getVacancyDistance(coord);
+
+        if (r == VacancyIndex.UNREACHABLE) {
+            return new Coordinate[0];
+        }
 
         // I included this extra map so I could check for duplicates in best
         // case O(1) time, but if I have to do that, doesn't it seem like I should
@@ -111,7 +139,7 @@ public class CellLookupManager {
                 }
                 // Sanity check
 
-                if (!content.getOccupiedSites().contains(query) && !incl.contains(query)) {
+                if (!occupied.contains(query) && !incl.contains(query)) {
 
                     incl.add(query);
                     res.add(query);
@@ -131,6 +159,46 @@ public class CellLookupManager {
         return (res.toArray(new Coordinate[0]));
     }
 
+    /**
+     * Returns true if there is a vacant site within the specified distance
+     * of the specified coordinate (inclusive).
+     */
+    public boolean hasVacancyWithin(Coordinate coord, int maxDistance) {
+        if (content.getVacancyIndex() == null) {
+            return getNearestVacancies(coord, maxDistance).length > 0;
+        }
+
+        content.sanityCheck(coord);
+        return getVacancyDistance(coord) <= maxDistance;
+    }
+
+    /**
+     * Returns the number of neighbor steps to the nearest vacancy if the
+     * cell layer tracks it, or 0 (i.e., no lower bound) otherwise.
+     */
+    private int getVacancyDistance(Coordinate coord) {
+        VacancyIndex vacancyIndex = content.getVacancyIndex();
+        int site = (vacancyIndex == null) ? -1 : geom.getSiteIndex().indexOf(coord);
+
+        if (site < 0) {
+            return 0;
+        }
+
+        return vacancyIndex.getDistance(site);
+    }
+
+    /**
+     * Brings any lazily maintained indices up to date. Until the layer is
+     * next modified, lookups then do not modify any state, so they may be
+     * made from several threads at once.
+     */
+    public void refresh() {
+        VacancyIndex vacancyIndex = content.getVacancyIndex();
+        if (vacancyIndex != null) {
+            vacancyIndex.refresh();
+        }
+    }
+
     public Coordinate getCellLocation(Cell cell) {
         return content.locate(cell);
     }
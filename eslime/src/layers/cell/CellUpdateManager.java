@@ -9,6 +9,8 @@ import cells.Cell;
 import control.halt.HaltCondition;
 import control.identifiers.Coordinate;
 
+import java.util.List;
+
 /**
  * @author David Bruce Borenstein
  */
@@ -164,6 +166,29 @@ public class CellUpdateManager {
         content.put(qCoord, cell);
     }
 
+    /**
+     * Moves each cell in the path to the next site along it, such that the
+     * first site winds up vacant. The last site must be vacant. This has
+     * the same effect as swapping each pair of consecutive sites, starting
+     * from the end of the path, but updates the indices only once for each
+     * cell that moves.
+     *
+     * @param path
+     */
+    public void shift(List<Coordinate> path) throws HaltCondition {
+        for (Coordinate coord : path) {
+            content.sanityCheck(coord);
+        }
+
+        Coordinate last = path.get(path.size() - 1);
+        if (content.has(last)) {
+            throw new IllegalStateException("Attempted to shift cells into an " +
+                    "occupied site at " + last + ".");
+        }
+
+        content.shift(path);
+    }
+
     /**
      * Swap the cells at the specified locations.
      *
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import cells.Cell;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-length array of cells, stored in chunks that can be shared
+ * between copies. Taking a snapshot copies only the table of chunks;
+ * a chunk is copied the first time either array writes to it thereafter.
+ * The cost of a snapshot is therefore proportional to the number of
+ * chunks, plus the number of chunks subsequently modified.
+ */
+class CopyOnWriteCellArray {
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int length;
+    private final Cell[][] chunks;
+
+    // owned[c] is true if chunk c is referenced by this array alone
+    private final boolean[] owned;
+
+    public CopyOnWriteCellArray(int length) {
+        this.length = length;
+        int n = (length + CHUNK_SIZE - 1) >> CHUNK_BITS;
+        chunks = new Cell[n][];
+        owned = new boolean[n];
+
+        for (int c = 0; c < n; c++) {
+            chunks[c] = new Cell[Math.min(CHUNK_SIZE, length - (c << CHUNK_BITS))];
+            owned[c] = true;
+        }
+    }
+
+    private CopyOnWriteCellArray(CopyOnWriteCellArray other) {
+        length = other.length;
+        chunks = other.chunks.clone();
+        owned = new boolean[chunks.length];
+    }
+
+    public Cell get(int i) {
+        return chunks[i >> CHUNK_BITS][i & CHUNK_MASK];
+    }
+
+    public void set(int i, Cell cell) {
+        int c = i >> CHUNK_BITS;
+
+        if (!owned[c]) {
+            chunks[c] = chunks[c].clone();
+            owned[c] = true;
+        }
+
+        chunks[c][i & CHUNK_MASK] = cell;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns a copy of this array. Until either array is modified, the
+     * two share all of their storage.
+     */
+    public CopyOnWriteCellArray snapshot() {
+        Arrays.fill(owned, false);
+        return new CopyOnWriteCellArray(this);
+    }
+}
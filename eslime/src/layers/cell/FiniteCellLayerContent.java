@@ -5,19 +5,88 @@
 
 package layers.cell;
 
+import cells.Cell;
 import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
 import geometry.Geometry;
-import structural.CanonicalCellMap;
 
 import java.util.HashSet;
 import java.util.Set;
 
 /**
+ * Cell layer content for finite geometries. The lattice is stored as an
+ * array of cells indexed by canonical site, so that lookups require no
+ * allocation or hashing. The array is copy-on-write, so cloning the
+ * content (e.g., to record a frame) does not copy the whole lattice.
+ *
  * Created by David B Borenstein on 4/10/14.
  */
 public class FiniteCellLayerContent extends CellLayerContent {
+
+    private final CanonicalSiteIndex siteIndex;
+
+    // Element [i] is the cell at canonical site i, or null if vacant.
+    private CopyOnWriteCellArray cells;
+
     public FiniteCellLayerContent(Geometry geom, CellLayerIndices indices) {
+        this(geom, indices, new CopyOnWriteCellArray(geom.getSiteIndex().size()));
+    }
+
+    private FiniteCellLayerContent(Geometry geom, CellLayerIndices indices, CopyOnWriteCellArray cells) {
         super(geom, indices);
+        siteIndex = geom.getSiteIndex();
+        this.cells = cells;
+    }
+
+    @Override
+    public Cell get(Coordinate coord) {
+        int i = siteIndex.indexOf(coord);
+
+        if (i < 0) {
+            return null;
+        }
+
+        return cells.get(i);
+    }
+
+    @Override
+    protected void store(Coordinate coord, Cell cell) {
+        int i = siteIndex.indexOf(coord);
+
+        if (i < 0) {
+            sanityCheck(coord);
+        }
+
+        cells.set(i, cell);
+    }
+
+    @Override
+    public int[] getStateVector() {
+        int[] sArr = new int[cells.length()];
+
+        for (int i = 0; i < sArr.length; i++) {
+            Cell cell = cells.get(i);
+            sArr[i] = (cell == null) ? 0 : cell.getState();
+        }
+
+        return sArr;
+    }
+
+    @Override
+    public double[] getHealthVector() {
+        double[] fArr = new double[cells.length()];
+
+        for (int i = 0; i < fArr.length; i++) {
+            Cell cell = cells.get(i);
+            fArr[i] = (cell == null) ? 0D : cell.getHealth();
+        }
+
+        return fArr;
+    }
+
+    @Override
+    public boolean hasCanonicalForm(Coordinate coord) {
+        return siteIndex.indexOf(coord) >= 0;
     }
 
     @Override
@@ -33,17 +102,30 @@ public class FiniteCellLayerContent extends CellLayerContent {
         return true;
     }
 
+    /**
+     * Clones the content. The lattice itself is shared with the original
+     * until either is modified, and the clone's cell location index is
+     * only built if it is used.
+     */
     @Override
     public FiniteCellLayerContent clone() {
-        CanonicalCellMap clonedMap = new CanonicalCellMap(map);
-        HashSet<Coordinate> clonedSites = new HashSet<>(canonicalSites);
-        CellLayerIndices clonedIndices = indices.clone(clonedMap);
-        FiniteCellLayerContent clone = new FiniteCellLayerContent(geom, clonedIndices);
-        clone.map = clonedMap;
-        clone.canonicalSites = clonedSites;
+        FiniteCellLayerContent clone = new FiniteCellLayerContent(geom, null, cells.snapshot());
+        clone.indices = indices.clone(clone::buildLocationIndex);
         return clone;
     }
 
+    private CellLocationIndex buildLocationIndex() {
+        CellLocationIndex ret = new CellLocationIndex();
+        for (int i = 0; i < cells.length(); i++) {
+            Cell cell = cells.get(i);
+            if (cell != null) {
+                ret.add(cell, siteIndex.getSite(i));
+            }
+        }
+
+        return ret;
+    }
+
     @Override
     public void sanityCheck(Coordinate coord) {
 
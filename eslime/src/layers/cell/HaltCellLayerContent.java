@@ -16,6 +16,8 @@ import control.identifiers.Coordinate;
 import control.identifiers.Flags;
 import geometry.Geometry;
 
+import java.util.List;
+
 /**
  * A cell layer content object that throws a BoundaryReachedEvent
  * Created by David B Borenstein on 4/10/14.
@@ -33,4 +35,14 @@ public class HaltCellLayerContent extends InfiniteCellLayerContent {
         }
         super.put(coord, current);
     }
+
+    @Override
+    public void shift(List<Coordinate> path) throws BoundaryReachedEvent {
+        for (Coordinate coord : path) {
+            if (coord.hasFlag(Flags.END_OF_WORLD)) {
+                throw new BoundaryReachedEvent();
+            }
+        }
+        super.shift(path);
+    }
 }
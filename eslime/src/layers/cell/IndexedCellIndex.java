@@ -0,0 +1,311 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+
+import java.util.*;
+
+/**
+ * A coordinate set for finite geometries, backed by a bit set over the
+ * canonical site indices. Membership tests, additions and removals
+ * resolve coordinates through the geometry's site index, so they
+ * neither allocate nor hash. Iteration returns the canonical form of
+ * each member site, in canonical site order.
+ *
+ * Members are also kept in a dense array so that they can be sampled at
+ * random in constant time.
+ */
+public class IndexedCellIndex extends CellIndex {
+
+    private final CanonicalSiteIndex siteIndex;
+    private final BitSet bits;
+    private int count;
+
+    // members[0 ... count - 1] are the indices of the member sites, in no
+    // particular order. position[i] is the location of site i in members.
+    // Copies leave these null until they are needed.
+    private int[] members;
+    private int[] position;
+
+    public IndexedCellIndex(CanonicalSiteIndex siteIndex) {
+        this.siteIndex = siteIndex;
+        bits = new BitSet(siteIndex.size());
+        count = 0;
+        members = new int[siteIndex.size()];
+        position = new int[siteIndex.size()];
+    }
+
+    /**
+     * Copy constructor. Only the bit set is copied; the member array is
+     * rebuilt if the copy is later modified or sampled.
+     */
+    public IndexedCellIndex(IndexedCellIndex other) {
+        siteIndex = other.siteIndex;
+        bits = (BitSet) other.bits.clone();
+        count = other.count;
+    }
+
+    private void ensureMembers() {
+        if (members != null) {
+            return;
+        }
+
+        members = new int[siteIndex.size()];
+        position = new int[siteIndex.size()];
+        int k = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            members[k] = i;
+            position[i] = k;
+            k++;
+        }
+    }
+
+    @Override
+    public boolean add(Coordinate e) {
+        int i = resolve(e);
+
+        if (bits.get(i)) {
+            return false;
+        }
+
+        ensureMembers();
+        bits.set(i);
+        members[count] = i;
+        position[i] = count;
+        count++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Coordinate> toAdd) {
+        boolean changed = false;
+        for (Coordinate c : toAdd) {
+            changed |= add(c);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+        count = 0;
+    }
+
+    private void clear(int i) {
+        ensureMembers();
+        bits.clear(i);
+        count--;
+
+        // Move the last member into the vacated slot
+        int last = members[count];
+        members[position[i]] = last;
+        position[last] = position[i];
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Coordinate)) {
+            return false;
+        }
+
+        int i = siteIndex.indexOf((Coordinate) o);
+        return i >= 0 && bits.get(i);
+    }
+
+    /**
+     * Returns true if the site with the specified canonical index is
+     * a member of the set.
+     */
+    boolean contains(int index) {
+        return bits.get(index);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> elems) {
+        for (Object e : elems) {
+            if (!contains(e)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public Iterator<Coordinate> iterator() {
+        return new Iterator<Coordinate>() {
+            private int next = bits.nextSetBit(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Coordinate next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+
+                last = next;
+                next = bits.nextSetBit(next + 1);
+                return siteIndex.getSite(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0 || !bits.get(last)) {
+                    throw new IllegalStateException();
+                }
+
+                clear(last);
+            }
+        };
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Coordinate)) {
+            return false;
+        }
+
+        int i = siteIndex.indexOf((Coordinate) o);
+
+        if (i < 0 || !bits.get(i)) {
+            return false;
+        }
+
+        clear(i);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elems) {
+        boolean changed = false;
+        for (Object e : elems) {
+            changed |= remove(e);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> elems) {
+        boolean changed = false;
+        Iterator<Coordinate> it = iterator();
+        while (it.hasNext()) {
+            if (!elems.contains(it.next())) {
+                it.remove();
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns a member of the index, chosen uniformly at random, in
+     * constant time.
+     */
+    @Override
+    public Coordinate sample(Random random) {
+        if (count == 0) {
+            throw new IllegalStateException("Attempted to sample from an empty index.");
+        }
+
+        ensureMembers();
+        return siteIndex.getSite(members[random.nextInt(count)]);
+    }
+
+    /**
+     * Returns k distinct members of the index, chosen uniformly at random,
+     * in time linear in k. If k is at least the size of the index, all
+     * members are returned in iteration order and no random numbers are
+     * drawn. The index itself is not modified.
+     */
+    @Override
+    public List<Coordinate> sample(Random random, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Cannot sample a negative number of sites.");
+        }
+
+        if (k >= count) {
+            return new ArrayList<>(this);
+        }
+
+        // Partial Fisher-Yates shuffle of the member array. Rather than
+        // swapping members in place, which would reorder the index (and
+        // hence the outcome of later draws) merely by reading it, the
+        // slots that have been swapped are recorded in a local map.
+        ensureMembers();
+        HashMap<Integer, Integer> swapped = new HashMap<>();
+        List<Coordinate> ret = new ArrayList<>(k);
+        for (int a = 0; a < k; a++) {
+            int b = a + random.nextInt(count - a);
+            int p = swapped.getOrDefault(a, members[a]);
+            int q = swapped.getOrDefault(b, members[b]);
+            swapped.put(b, p);
+            ret.add(siteIndex.getSite(q));
+        }
+
+        return ret;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toArray(new Object[0]);
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        ArrayList<Coordinate> list = new ArrayList<>(count);
+        for (Coordinate c : this) {
+            list.add(c);
+        }
+
+        return list.toArray(a);
+    }
+
+    private int resolve(Coordinate c) {
+        int i = siteIndex.indexOf(c);
+
+        if (i < 0) {
+            throw new IllegalStateException("Consistency failure: coordinate " +
+                    c.stringForm() + " does not exist in this geometry.");
+        }
+
+        return i;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        IndexedCellIndex that = (IndexedCellIndex) o;
+
+        return bits.equals(that.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+}
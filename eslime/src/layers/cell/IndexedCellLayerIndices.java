@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import cells.Cell;
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+import geometry.NeighborTable;
+import structural.NonNullIntegerMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cell layer indices for finite geometries. Occupied and divisible sites
+ * are tracked as bit sets over the canonical site indices, and the number
+ * of cells in each state is tracked as an array indexed by state. If a
+ * neighbor table is supplied, the distance from each site to the nearest
+ * vacancy is also tracked.
+ *
+ * @test IndexedCellLayerIndicesTest
+ */
+public class IndexedCellLayerIndices extends CellLayerIndices {
+
+    private final CanonicalSiteIndex siteIndex;
+    private final NeighborTable neighbors;
+
+    // Element [s] is the number of cells with state s
+    private int[] stateCounts;
+
+    private VacancyIndex vacancyIndex;
+
+    public IndexedCellLayerIndices(CanonicalSiteIndex siteIndex) {
+        this(siteIndex, null);
+    }
+
+    /**
+     * @param neighbors the neighbor table over which distances to vacant
+     *                  sites are measured, or null to skip tracking them.
+     */
+    public IndexedCellLayerIndices(CanonicalSiteIndex siteIndex, NeighborTable neighbors) {
+        this.siteIndex = siteIndex;
+        this.neighbors = neighbors;
+        occupiedSites = new IndexedCellIndex(siteIndex);
+        divisibleSites = new IndexedCellIndex(siteIndex);
+        stateCounts = new int[0];
+        vacancyIndex = buildVacancyIndex();
+    }
+
+    /**
+     * Copy constructor. The location index is left empty.
+     */
+    private IndexedCellLayerIndices(IndexedCellLayerIndices other) {
+        siteIndex = other.siteIndex;
+        neighbors = other.neighbors;
+        occupiedSites = new IndexedCellIndex((IndexedCellIndex) other.occupiedSites);
+        divisibleSites = new IndexedCellIndex((IndexedCellIndex) other.divisibleSites);
+        stateCounts = other.stateCounts.clone();
+        vacancyIndex = buildVacancyIndex();
+    }
+
+    private VacancyIndex buildVacancyIndex() {
+        if (neighbors == null) {
+            return null;
+        }
+
+        return new VacancyIndex(neighbors, (IndexedCellIndex) occupiedSites);
+    }
+
+    @Override
+    public void refresh(Coordinate coord, Cell previous, Cell current) {
+        super.refresh(coord, previous, current);
+
+        if (vacancyIndex != null && (previous == null) != (current == null)) {
+            vacancyIndex.markChanged(siteIndex.indexOf(coord));
+        }
+    }
+
+    @Override
+    public void shift(List<Coordinate> path, Cell[] cells) {
+        super.shift(path, cells);
+
+        if (vacancyIndex == null) {
+            return;
+        }
+
+        int n = path.size();
+        for (int i = 0; i < n; i++) {
+            Cell leaving = cells[i];
+            Cell arriving = cells[(i + n - 1) % n];
+            if ((leaving == null) != (arriving == null)) {
+                vacancyIndex.markChanged(siteIndex.indexOf(path.get(i)));
+            }
+        }
+    }
+
+    @Override
+    public VacancyIndex getVacancyIndex() {
+        return vacancyIndex;
+    }
+
+    @Override
+    protected void incrStateCount(Cell cell) {
+        int state = cell.getState();
+
+        if (state < 0) {
+            throw new IllegalStateException("Attempted to index a cell with negative state " + state + ".");
+        }
+
+        if (state >= stateCounts.length) {
+            stateCounts = Arrays.copyOf(stateCounts, state + 1);
+        }
+
+        stateCounts[state]++;
+    }
+
+    @Override
+    protected void decrStateCount(Cell cell) {
+        stateCounts[cell.getState()]--;
+    }
+
+    /**
+     * Returns a map of state to the number of cells with that state. Only
+     * states with at least one cell are included.
+     */
+    @Override
+    public NonNullIntegerMap getStateMap() {
+        NonNullIntegerMap ret = new NonNullIntegerMap();
+        for (int state = 0; state < stateCounts.length; state++) {
+            if (stateCounts[state] > 0) {
+                ret.put(state, stateCounts[state]);
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public IndexedCellLayerIndices clone() {
+        IndexedCellLayerIndices clone = new IndexedCellLayerIndices(this);
+        clone.cellLocationIndex = copyLocationIndex();
+        return clone;
+    }
+
+    @Override
+    public IndexedCellLayerIndices clone(Supplier<CellLocationIndex> locationIndexLoader) {
+        IndexedCellLayerIndices clone = new IndexedCellLayerIndices(this);
+        clone.deferLocationIndex(locationIndexLoader);
+        return clone;
+    }
+}
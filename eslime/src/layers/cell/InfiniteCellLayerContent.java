@@ -5,6 +5,7 @@
 
 package layers.cell;
 
+import cells.Cell;
 import control.identifiers.Coordinate;
 import geometry.Geometry;
 import structural.CanonicalCellMap;
@@ -17,17 +18,31 @@ import java.util.Set;
  */
 public class InfiniteCellLayerContent extends CellLayerContent {
 
+    // Mapping of sites to cell pointers -- the lattice itself. A map is
+    // required because cells may occupy sites outside the canonical set.
+    protected CanonicalCellMap map;
+
     public InfiniteCellLayerContent(Geometry geom, CellLayerIndices indices) {
         super(geom, indices);
+        map = new CanonicalCellMap();
+    }
+
+    @Override
+    public Cell get(Coordinate coord) {
+        return map.get(coord);
     }
+
+    @Override
+    protected void store(Coordinate coord, Cell cell) {
+        map.put(coord, cell);
+    }
+
     @Override
     public InfiniteCellLayerContent clone() {
         CanonicalCellMap clonedMap = new CanonicalCellMap(map);
-        HashSet<Coordinate> clonedSites = new HashSet<>(canonicalSites);
         CellLayerIndices clonedIndices = indices.clone(clonedMap);
         InfiniteCellLayerContent clone = new InfiniteCellLayerContent(geom, clonedIndices);
         clone.map = clonedMap;
-        clone.canonicalSites = clonedSites;
         return clone;
     }
 
@@ -0,0 +1,262 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import geometry.NeighborTable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Tracks, for each canonical site of a finite geometry, the number of
+ * neighbor steps to the nearest vacant site. Vacancies have distance 0;
+ * sites from which no vacancy can be reached have distance UNREACHABLE.
+ *
+ * The distance field is built on the first query. Thereafter, changes in
+ * occupancy are recorded as they happen and applied in a batch at the next
+ * query, so the cost of an update is proportional to the region whose
+ * distance actually changed rather than to the size of the lattice.
+ *
+ * @test VacancyIndexTest
+ */
+public class VacancyIndex {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // Sites that each site lists as neighbors
+    private final NeighborTable neighbors;
+
+    // Sites that list each site as a neighbor
+    private final NeighborTable reverse;
+
+    private final IndexedCellIndex occupied;
+
+    // Distance from each site to the nearest vacancy, or null if not built
+    private int[] distance;
+
+    // Sites whose occupancy may have changed since the last query
+    private final BitSet pending;
+
+    private IntQueue queue = new IntQueue();
+    private IntQueue seeds = new IntQueue();
+
+    public VacancyIndex(NeighborTable neighbors, IndexedCellIndex occupied) {
+        this.neighbors = neighbors;
+        this.occupied = occupied;
+        reverse = neighbors.transpose();
+        pending = new BitSet(neighbors.size());
+    }
+
+    /**
+     * Record that the occupancy of the specified site may have changed.
+     */
+    public void markChanged(int site) {
+        if (distance != null) {
+            pending.set(site);
+        }
+    }
+
+    /**
+     * Returns the number of neighbor steps from the specified site to
+     * the nearest vacancy, or UNREACHABLE if there is none.
+     */
+    public int getDistance(int site) {
+        update();
+        return distance[site];
+    }
+
+    /**
+     * Applies any pending changes now. Until the next change, distances
+     * may then be read concurrently.
+     */
+    public void refresh() {
+        update();
+    }
+
+    private void update() {
+        if (distance == null) {
+            build();
+        } else if (!pending.isEmpty()) {
+            raise();
+            lower();
+        }
+    }
+
+    private void build() {
+        int n = neighbors.size();
+        distance = new int[n];
+        Arrays.fill(distance, UNREACHABLE);
+
+        queue.clear();
+        for (int i = 0; i < n; i++) {
+            if (!occupied.contains(i)) {
+                distance[i] = 0;
+                queue.add(i);
+            }
+        }
+
+        // All sources are at distance 0, so a plain breadth-first search
+        // visits sites in order of distance.
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            relax(u, queue);
+        }
+    }
+
+    /**
+     * Invalidate the distance of every site that depended on a vacancy that
+     * has since been filled, and collect the sites from which distances
+     * must be recomputed.
+     */
+    private void raise() {
+        queue.clear();
+        seeds.clear();
+
+        for (int s = pending.nextSetBit(0); s >= 0; s = pending.nextSetBit(s + 1)) {
+            boolean vacant = !occupied.contains(s);
+
+            if (vacant && distance[s] != 0) {
+                distance[s] = 0;
+                seeds.add(s);
+            } else if (!vacant && distance[s] == 0) {
+                distance[s] = UNREACHABLE;
+                queue.add(s);
+            }
+        }
+
+        pending.clear();
+
+        // Any site whose distance is no longer supported by a neighbor one
+        // step closer to a vacancy is invalidated in turn.
+        IntQueue cleared = new IntQueue();
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            cleared.add(u);
+            for (int k = 0; k < reverse.getDegree(u); k++) {
+                int t = reverse.getNeighbor(u, k);
+                if (distance[t] != 0 && distance[t] != UNREACHABLE && !isSupported(t)) {
+                    distance[t] = UNREACHABLE;
+                    queue.add(t);
+                }
+            }
+        }
+
+        // Distances into the invalidated region are recomputed from its
+        // valid frontier.
+        for (int i = 0; i < cleared.size(); i++) {
+            int c = cleared.get(i);
+            for (int k = 0; k < neighbors.getDegree(c); k++) {
+                int u = neighbors.getNeighbor(c, k);
+                if (distance[u] != UNREACHABLE) {
+                    seeds.add(u);
+                }
+            }
+        }
+    }
+
+    private boolean isSupported(int site) {
+        int target = distance[site] - 1;
+        for (int k = 0; k < neighbors.getDegree(site); k++) {
+            if (distance[neighbors.getNeighbor(site, k)] == target) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Propagate distances outward from the seed sites. Seeds may have
+     * different distances, so they are merged with the search queue in
+     * order of distance.
+     */
+    private void lower() {
+        seeds.sortBy(distance);
+        queue.clear();
+
+        int next = 0;
+        while (next < seeds.size() || !queue.isEmpty()) {
+            int u;
+            if (queue.isEmpty() || (next < seeds.size() &&
+                    distance[seeds.get(next)] <= distance[queue.peek()])) {
+                u = seeds.get(next++);
+            } else {
+                u = queue.poll();
+            }
+
+            relax(u, queue);
+        }
+    }
+
+    private void relax(int u, IntQueue queue) {
+        int d = distance[u] + 1;
+        for (int k = 0; k < reverse.getDegree(u); k++) {
+            int t = reverse.getNeighbor(u, k);
+            if (d < distance[t]) {
+                distance[t] = d;
+                queue.add(t);
+            }
+        }
+    }
+
+    /**
+     * Growable first-in, first-out queue of primitive ints.
+     */
+    private static class IntQueue {
+        private int[] values = new int[16];
+        private int head = 0;
+        private int tail = 0;
+
+        void add(int value) {
+            if (tail == values.length) {
+                values = Arrays.copyOf(values, 2 * values.length);
+            }
+            values[tail++] = value;
+        }
+
+        int poll() {
+            return values[head++];
+        }
+
+        int peek() {
+            return values[head];
+        }
+
+        int get(int i) {
+            return values[head + i];
+        }
+
+        int size() {
+            return tail - head;
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        void clear() {
+            head = 0;
+            tail = 0;
+        }
+
+        /**
+         * Sort the queued sites in order of their distances.
+         */
+        void sortBy(int[] distance) {
+            long[] keyed = new long[size()];
+            for (int i = 0; i < keyed.length; i++) {
+                int site = get(i);
+                keyed[i] = ((long) distance[site] << 32) | site;
+            }
+
+            Arrays.sort(keyed);
+            clear();
+            for (long key : keyed) {
+                add((int) key);
+            }
+        }
+    }
+}
@@ -6,18 +6,19 @@
 package layers.continuum;
 
 import control.identifiers.Coordinate;
-import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.DenseVector;
 
-import java.util.List;
-import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 /**
- * Converts injections and exponentiations scheduled
- * by agents to vectors and matrices that can be applied
- * to the schedule.
+ * Accumulates injections and exponentiations scheduled by agents into
+ * vectors that can be applied to the schedule. Exponents are only ever
+ * applied to the diagonal, so both are expressed as vectors.
+ * <p/>
+ * The vectors are maintained incrementally as relationships are added and
+ * removed. Each site also tracks the number of relationships it holds, so
+ * that a site whose agents have all departed returns to exactly zero
+ * rather than accumulating round-off.
  *
  * Created by dbborens on 12/31/14.
  */
@@ -29,33 +30,54 @@ public class AgentToOperatorHelper {
     // Converts coordinates to vector/matrix indices
     private Function<Coordinate, Integer> indexer;
 
+    private DenseVector exponents;
+    private DenseVector source;
+    private int[] counts;
+
     public AgentToOperatorHelper(Function<Coordinate, Integer> indexer, int n) {
         this.n = n;
         this.indexer = indexer;
+        reset();
+    }
+
+    public void add(RelationshipTuple relationship) {
+        int i = indexer.apply(relationship.getCoordinate());
+        counts[i]++;
+        exponents.add(i, relationship.getExp());
+        source.add(i, relationship.getInj());
+    }
+
+    public void remove(RelationshipTuple relationship) {
+        int i = indexer.apply(relationship.getCoordinate());
+        counts[i]--;
+        if (counts[i] < 0) {
+            throw new IllegalStateException("Attempted to remove a relationship that was never added");
+        }
+
+        if (counts[i] == 0) {
+            exponents.set(i, 0.0);
+            source.set(i, 0.0);
+        } else {
+            exponents.add(i, -relationship.getExp());
+            source.add(i, -relationship.getInj());
+        }
     }
 
-    public DenseMatrix getOperator(List<RelationshipTuple> relationships) {
-        DenseMatrix matrix = new DenseMatrix(n, n);
-        BiConsumer<Integer, Double> consumer = (i, v) -> matrix.add(i, i, v);
-        Function<RelationshipTuple, Double> expLookup = RelationshipTuple::getExp;
-        apply(relationships, expLookup, consumer);
-        return matrix;
+    /**
+     * Returns the exponents scheduled by agents, i.e., the terms to be
+     * added to the diagonal of the operator.
+     */
+    public DenseVector getExponents() {
+        return exponents;
     }
 
-    public DenseVector getSource(List<RelationshipTuple> relationships) {
-        DenseVector vector = new DenseVector(n);
-        BiConsumer<Integer, Double> consumer = (i, v) -> vector.add(i, v);
-        Function<RelationshipTuple, Double> injLookup = RelationshipTuple::getInj;
-        apply(relationships, injLookup, consumer);
-        return vector;
+    public DenseVector getSource() {
+        return source;
     }
 
-    private void apply(List<RelationshipTuple> relationships, Function<RelationshipTuple, Double> lookup, BiConsumer<Integer, Double> consumer) {
-        relationships.forEach(relationship -> {
-            Coordinate c = relationship.getCoordinate();
-            Double v = lookup.apply(relationship);
-            Integer i = indexer.apply(c);
-            consumer.accept(i, v);
-        });
+    public void reset() {
+        exponents = new DenseVector(n);
+        source = new DenseVector(n);
+        counts = new int[n];
     }
 }
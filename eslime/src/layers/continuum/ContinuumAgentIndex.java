@@ -7,29 +7,54 @@ package layers.continuum;
 
 import cells.BehaviorCell;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 /**
  * Agents can directly manipulate the continuum value at the coordinate where
  * they are located. This class tracks the set of all agents capable of
  * manipulating the state of this continuum in a particular way, such as by
  * exponentiating the local concentration, or directly adding to it.
+ * <p/>
+ * The index also tracks which relationships have changed since they were
+ * last accumulated: cells that have been added or relocated, and the last
+ * accumulated relationship of each cell that has been removed. Only these
+ * are visited on update, so the cost of keeping the accumulated reaction
+ * terms current is proportional to the number of cells that changed.
  *
+ * @test ContinuumAgentIndexTest
  */
 public class ContinuumAgentIndex {
 
     private IdentityHashMap<BehaviorCell, Supplier<RelationshipTuple>> map;
 
+    // The relationship of each cell as of the last update
+    private IdentityHashMap<BehaviorCell, RelationshipTuple> applied;
+
+    // Cells that have been added or relocated since the last update
+    private Set<BehaviorCell> stale;
+
+    // Relationships of removed cells that have yet to be retracted
+    private List<RelationshipTuple> retracted;
+
     public ContinuumAgentIndex(IdentityHashMap<BehaviorCell, Supplier<RelationshipTuple>> map) {
         this.map = map;
+        applied = new IdentityHashMap<>();
+        stale = Collections.newSetFromMap(new IdentityHashMap<>());
+        retracted = new ArrayList<>();
     }
 
     public void reset() {
         map.clear();
+        applied.clear();
+        stale.clear();
+        retracted.clear();
     }
 
     private void add(BehaviorCell cell, Supplier<RelationshipTuple> supplier) {
@@ -37,6 +62,10 @@ public class ContinuumAgentIndex {
             throw new IllegalStateException("Attempted to add existing cell to relationship index");
         }
         map.put(cell, supplier);
+
+        // Cells are usually added before they are placed, so the relationship
+        // is not resolved until the next update.
+        stale.add(cell);
     }
 
     private void remove(BehaviorCell cell) {
@@ -44,18 +73,49 @@ public class ContinuumAgentIndex {
             throw new IllegalStateException("Attempted to remove non-existent key from relationship index");
         }
         map.remove(cell);
+        stale.remove(cell);
+
+        RelationshipTuple previous = applied.remove(cell);
+        if (previous != null) {
+            retracted.add(previous);
+        }
     }
 
-    public Stream<RelationshipTuple> getRelationships() {
-        return map.values()
-                .stream()
-                .map(Supplier::get);
+    private void relocate(BehaviorCell cell) {
+        if (!map.containsKey(cell)) {
+            throw new IllegalStateException("Attempted to relocate non-existent key in relationship index");
+        }
+        stale.add(cell);
+    }
+
+    /**
+     * Bring the accumulated reaction terms up to date. The retractor is
+     * called with each relationship that no longer holds, and the
+     * accumulator with each relationship that has come to hold, since the
+     * last update.
+     */
+    public void update(Consumer<RelationshipTuple> retractor, Consumer<RelationshipTuple> accumulator) {
+        retracted.forEach(retractor);
+        retracted.clear();
+
+        stale.forEach(cell -> {
+            RelationshipTuple previous = applied.get(cell);
+            if (previous != null) {
+                retractor.accept(previous);
+            }
+
+            RelationshipTuple current = map.get(cell).get();
+            accumulator.accept(current);
+            applied.put(cell, current);
+        });
+        stale.clear();
     }
 
     public ContinuumAgentNotifier getNotifier() {
         BiConsumer<BehaviorCell, Supplier<RelationshipTuple>> adder = (cell, supplier) -> add(cell, supplier);
         Consumer<BehaviorCell> remover = cell -> remove(cell);
-        return new ContinuumAgentNotifier(adder, remover);
+        Consumer<BehaviorCell> relocator = cell -> relocate(cell);
+        return new ContinuumAgentNotifier(adder, remover, relocator);
     }
 
 }
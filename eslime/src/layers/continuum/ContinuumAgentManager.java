@@ -26,11 +26,13 @@ public class ContinuumAgentManager {
     }
 
     public void apply() {
-        loader.apply(index.getRelationships());
+        index.update(loader::remove, loader::add);
+        loader.apply();
     }
 
     public void reset() {
         index.reset();
+        loader.reset();
     }
 
     public ContinuumAgentLinker getLinker(Function<Coordinate, Double> stateLookup) {
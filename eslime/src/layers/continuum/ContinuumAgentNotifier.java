@@ -12,8 +12,8 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
- * Notifies a ContinuumAgentIndex that a related cell has been added or
- * removed.
+ * Notifies a ContinuumAgentIndex that a related cell has been added,
+ * removed or relocated.
  *
  * Created by dbborens on 12/31/14.
  */
@@ -21,10 +21,14 @@ public class ContinuumAgentNotifier {
 
     private BiConsumer<BehaviorCell, Supplier<RelationshipTuple>> adder;
     private Consumer<BehaviorCell> remover;
+    private Consumer<BehaviorCell> relocator;
 
-    public ContinuumAgentNotifier(BiConsumer<BehaviorCell, Supplier<RelationshipTuple>> adder, Consumer<BehaviorCell> remover) {
+    public ContinuumAgentNotifier(BiConsumer<BehaviorCell, Supplier<RelationshipTuple>> adder,
+                                  Consumer<BehaviorCell> remover,
+                                  Consumer<BehaviorCell> relocator) {
         this.adder = adder;
         this.remover = remover;
+        this.relocator = relocator;
     }
 
     public void add(BehaviorCell cell, Supplier<RelationshipTuple> supplier) {
@@ -34,4 +38,8 @@ public class ContinuumAgentNotifier {
     public void remove(BehaviorCell cell) {
         remover.accept(cell);
     }
+
+    public void relocate(BehaviorCell cell) {
+        relocator.accept(cell);
+    }
 }
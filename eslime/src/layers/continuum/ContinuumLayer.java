@@ -36,10 +36,29 @@ public class ContinuumLayer extends Layer {
         content.reset();
     }
 
+    /**
+     * Bring the state of the layer up to date with any pending operations.
+     */
+    public void flush() {
+        scheduler.flush();
+    }
+
+    public boolean isStale() {
+        return scheduler.isStale();
+    }
+
+    public void setBatched(boolean batched) {
+        scheduler.setBatched(batched);
+    }
+
     public ContinuumLayerScheduler getScheduler() {
         return scheduler;
     }
 
+    public ContinuumLayerContent getContent() {
+        return content;
+    }
+
     public ContinuumAgentLinker getLinker() {
         Function<Coordinate, Double> stateLookup = c -> content.get(c);
         return scheduler.getLinker(stateLookup);
@@ -57,6 +57,34 @@ public class ContinuumLayerScheduler {
         holdManager.solve();
     }
 
+    /**
+     * Solve the layer if it has scheduled operations that have not yet been
+     * solved.
+     */
+    public void flush() {
+        holdManager.flush();
+    }
+
+    public boolean isStale() {
+        return holdManager.isStale();
+    }
+
+    /**
+     * Inform the layer of the current simulation time, which determines
+     * how far a transient layer advances when it is next solved.
+     */
+    public void setTime(double time) {
+        holdManager.setTime(time);
+    }
+
+    /**
+     * Set whether solves are batched until the layer is next read or
+     * flushed, as when continuum layers are solved concurrently.
+     */
+    public void setBatched(boolean batched) {
+        holdManager.setBatched(batched);
+    }
+
     public void hold() {
         holdManager.hold();
     }
@@ -5,10 +5,9 @@
 
 package layers.continuum;
 
-import layers.continuum.solve.SteadyState;
+import layers.continuum.solve.StateSolver;
 import no.uib.cipr.matrix.Matrix;
 import no.uib.cipr.matrix.Vector;
-import structural.utilities.MatrixUtils;
 
 /**
  * Created by dbborens on 12/12/14.
@@ -17,28 +16,63 @@ public class ContinuumSolver {
 
     private ContinuumLayerContent content;
     private ScheduledOperations so;
-    private SteadyState steadyState;
+    private StateSolver stateSolver;
 
-    public ContinuumSolver(ContinuumLayerContent content, ScheduledOperations so, SteadyState steadyState) {
+    // Simulation time as of the most recent update, and as of the last solve
+    private double time;
+    private double solvedTime;
+
+    public ContinuumSolver(ContinuumLayerContent content, ScheduledOperations so, StateSolver stateSolver) {
         this.content = content;
         this.so = so;
-        this.steadyState = steadyState;
+        this.stateSolver = stateSolver;
+        time = 0.0;
+        solvedTime = 0.0;
     }
 
     /**
-     * Apply all scheduled operations, then reset the schedule.
+     * Apply all scheduled operations, then reset the schedule. If the
+     * solve is deferred (see isDeferred()), nothing happens, and the
+     * schedule is kept.
      */
     public void solve() {
+        if (isDeferred()) {
+            return;
+        }
+
         Vector source = so.getSource();
         Matrix operator = so.getOperator();
 
         Vector template = content.getState().copy();
 
-        Vector solution = steadyState.solve(source, operator, template);
+        Vector solution = stateSolver.solve(source, operator, template, time - solvedTime);
 
         content.setState(solution);
-        System.out.println(MatrixUtils.asMatrix(solution, 32));
         so.reset();
+        solvedTime = time;
+    }
+
+    /**
+     * A field that is integrated through time does not change while no
+     * time elapses, so its solve is deferred until the clock has advanced.
+     * Operations scheduled in the meantime accumulate, and take effect at
+     * the next solve.
+     */
+    public boolean isDeferred() {
+        return stateSolver.isTransient() && time <= solvedTime;
     }
 
+    /**
+     * Inform the solver of the current simulation time. Solvers that
+     * integrate through time advance the field by the time elapsed between
+     * one solve and the next.
+     */
+    public void setTime(double time) {
+        this.time = time;
+    }
+
+    public void reset() {
+        time = 0.0;
+        solvedTime = 0.0;
+    }
 }
@@ -10,6 +10,22 @@ import control.identifiers.Coordinate;
 import java.util.function.Function;
 
 /**
+ * Determines when a continuum layer is solved. While the layer is held,
+ * scheduled operations accumulate; the layer is solved when the hold is
+ * released. Operations scheduled while the layer is not held are solved
+ * immediately.
+ * <p/>
+ * In lazy mode, releasing the hold or scheduling an operation instead
+ * marks the layer as stale, and the layer is solved only when it is next
+ * read, or when it is flushed at the end of the step. Any number of
+ * operations therefore result in at most one solve between reads.
+ * <p/>
+ * In batched mode, which the layer manager sets when continuum layers are
+ * solved concurrently, releasing the hold, scheduling an operation and
+ * requesting a solve all mark the layer as stale. The layer is then
+ * solved when it is next read or, together with the other stale layers,
+ * at the end of the step.
+ *
  * Created by dbborens on 1/9/15.
  */
 public class HoldManager {
@@ -17,11 +33,20 @@ public class HoldManager {
     private ContinuumAgentManager manager;
     private ContinuumSolver solver;
     private boolean held;
+    private boolean lazy;
+    private boolean batched;
+    private boolean stale;
 
     public HoldManager(ContinuumAgentManager manager, ContinuumSolver solver) {
+        this(manager, solver, false);
+    }
+
+    public HoldManager(ContinuumAgentManager manager, ContinuumSolver solver, boolean lazy) {
         this.manager = manager;
         this.solver = solver;
+        this.lazy = lazy;
         this.held = false;
+        this.stale = false;
     }
 
     public void hold() {
@@ -39,7 +64,11 @@ public class HoldManager {
 
         held = false;
 
-        solve();
+        if (lazy || batched) {
+            stale = true;
+        } else {
+            solve();
+        }
     }
 
     private void solveIfNotHeld() {
@@ -51,7 +80,12 @@ public class HoldManager {
 
     public void resolve(Runnable runnable) {
         runnable.run();
-        solveIfNotHeld();
+
+        if (lazy || batched) {
+            stale = true;
+        } else {
+            solveIfNotHeld();
+        }
     }
 
     public void solve() {
@@ -59,17 +93,67 @@ public class HoldManager {
             throw new IllegalStateException("Attempting to solve while hold is in place.");
         }
 
+        if (batched) {
+            stale = true;
+            return;
+        }
+
+        doSolve();
+    }
+
+    private void doSolve() {
+        // Agent reactions are loaded into the schedule only when it is
+        // actually solved, so that a deferred solve does not load them
+        // twice. The layer remains stale until then.
+        if (solver.isDeferred()) {
+            stale = true;
+            return;
+        }
+
         manager.apply();
         solver.solve();
+        stale = false;
+    }
+
+    /**
+     * Solve the layer if operations have been scheduled since it was last
+     * solved. A held layer is not solved until its hold is released.
+     */
+    public void flush() {
+        if (stale && !held) {
+            doSolve();
+        }
+    }
+
+    /**
+     * Set whether solves are batched until the layer is next read or
+     * flushed. See class documentation.
+     */
+    public void setBatched(boolean batched) {
+        this.batched = batched;
     }
 
     public void reset() {
         manager.reset();
+        solver.reset();
         held = false;
+        stale = false;
+    }
+
+    public void setTime(double time) {
+        solver.setTime(time);
     }
 
+    /**
+     * Returns a linker whose state lookups first bring the layer up to
+     * date.
+     */
     public ContinuumAgentLinker getLinker(Function<Coordinate, Double> stateLookup) {
-        return manager.getLinker(stateLookup);
+        Function<Coordinate, Double> current = c -> {
+            flush();
+            return stateLookup.apply(c);
+        };
+        return manager.getLinker(current);
     }
 
     public String getId() {
@@ -79,4 +163,8 @@ public class HoldManager {
     public boolean isHeld() {
         return held;
     }
+
+    public boolean isStale() {
+        return stale;
+    }
 }
@@ -5,43 +5,43 @@
 
 package layers.continuum;
 
-import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.DenseVector;
 
-import java.util.List;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
+ * Loads the reaction terms accumulated from agents into the schedule.
+ * The schedule is cleared after every solve, whereas the accumulated terms
+ * persist until the agents responsible for them change.
+ *
  * Created by dbborens on 12/31/14.
  */
 public class ReactionLoader {
 
     private Consumer<DenseVector> injector;
-    private Consumer<DenseMatrix> exponentiator;
+    private Consumer<DenseVector> exponentiator;
     private AgentToOperatorHelper helper;
 
-    public ReactionLoader(Consumer<DenseVector> injector, Consumer<DenseMatrix> exponentiator, AgentToOperatorHelper helper) {
+    public ReactionLoader(Consumer<DenseVector> injector, Consumer<DenseVector> exponentiator, AgentToOperatorHelper helper) {
         this.injector = injector;
         this.exponentiator = exponentiator;
         this.helper = helper;
     }
 
-    private void inject(List<RelationshipTuple> relationships) {
-        DenseVector delta = helper.getSource(relationships);
-        injector.accept(delta);
+    public void add(RelationshipTuple relationship) {
+        helper.add(relationship);
     }
 
-    private void exponentiate(List<RelationshipTuple> relationshipTuples) {
-        DenseMatrix exponents = helper.getOperator(relationshipTuples);
-        exponentiator.accept(exponents);
+    public void remove(RelationshipTuple relationship) {
+        helper.remove(relationship);
     }
 
-    public void apply(Stream<RelationshipTuple> relationships) {
-        // TODO Refactor this hierarchy to pass through stream only once
-        List<RelationshipTuple> list = relationships.collect(Collectors.toList());
-        inject(list);
-        exponentiate(list);
+    public void apply() {
+        injector.accept(helper.getSource());
+        exponentiator.accept(helper.getExponents());
+    }
+
+    public void reset() {
+        helper.reset();
     }
 }
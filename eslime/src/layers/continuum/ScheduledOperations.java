@@ -6,33 +6,46 @@
 package layers.continuum;
 
 import control.identifiers.Coordinate;
-import no.uib.cipr.matrix.DenseMatrix;
+import layers.continuum.solve.StencilOperator;
 import no.uib.cipr.matrix.DenseVector;
 import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.MatrixEntry;
 import no.uib.cipr.matrix.Vector;
-import structural.utilities.MatrixUtils;
+import no.uib.cipr.matrix.sparse.FlexCompRowMatrix;
 
 import java.util.function.Function;
 
 /**
  * Helper class for continuum layers. Knows what transformations
  * have been scheduled since the last update.
+ * <p/>
+ * Exponents are accumulated as a vector of diagonal terms, and diffusion
+ * operators as a single matrix-free stencil, so that in the usual case the
+ * operator is never assembled. Any other matrix that is applied forces the
+ * operator to be materialized in a row-compressed sparse format, whose
+ * size is proportional to the number of non-zero entries.
+ *
  * Created by dbborens on 12/11/14.
  */
 public class ScheduledOperations {
 
-    private final Matrix identity;
-    private final DenseVector zeroVector;
-    private Matrix operator;
-    private Vector source;
+    private final int n;
     private Function<Coordinate, Integer> indexer;
 
+    // Terms to be added to the diagonal of the operator
+    private double[] exponents;
+
+    // Sum of the stencil operators applied, or null if none
+    private StencilOperator stencil;
+
+    // Sum of any other matrices applied, or null if none
+    private Matrix matrix;
+
+    private DenseVector source;
+
     public ScheduledOperations(Function<Coordinate, Integer> indexer, int n) {
         this.indexer = indexer;
-
-        Matrix bandIdentity = MatrixUtils.I(n);
-        identity = new DenseMatrix(bandIdentity);
-        zeroVector = new DenseVector(n);
+        this.n = n;
 
         reset();
     }
@@ -45,10 +58,7 @@ public class ScheduledOperations {
      */
     public void inject(Coordinate coordinate, double delta) {
         int index = indexer.apply(coordinate);
-        double current = source.get(index);
-        double next = current + delta;
-
-        source.set(index, next);
+        source.add(index, delta);
     }
 
     public void inject(DenseVector delta) {
@@ -63,9 +73,18 @@ public class ScheduledOperations {
      */
     public void exp(Coordinate coordinate, double b) {
         int index = indexer.apply(coordinate);
-        double current = operator.get(index, index);
-        double next = current + b;
-        operator.set(index, index, next);
+        exponents[index] += b;
+    }
+
+    /**
+     * Exponentiate every location by the corresponding entry of the
+     * specified vector (i.e., add it to the diagonal.)
+     */
+    public void exp(DenseVector b) {
+        double[] values = b.getData();
+        for (int i = 0; i < n; i++) {
+            exponents[i] += values[i];
+        }
     }
 
     /**
@@ -73,32 +92,72 @@ public class ScheduledOperations {
      * leave the current state of the field unaltered if applied.
      */
     public void reset() {
-        // Reset operator to identity
-        operator = identity.copy();
+        // Operator reverts to identity
+        exponents = new double[n];
+        stencil = null;
+        matrix = null;
 
         // Replace source vector with zero vector
-        source = zeroVector.copy();
+        source = new DenseVector(n);
     }
 
     /**
-     * If this is the first matrix operation being scheduled, REPLACE the
-     * default (identity) matrix with this matrix. Otherwise, ADD this matrix
-     * to the current matrix. Note that this means successive scalings will
-     * be additive in magnitude, not multiplicative.
+     * ADD this matrix to the current operator, which is initially the
+     * identity. Note that this means successive scalings will be additive
+     * in magnitude, not multiplicative.
      *
      * @param toApply The matrix to be applied
      */
     public void apply(Matrix toApply) {
-        operator.add(toApply);
+        if (toApply instanceof StencilOperator) {
+            StencilOperator other = (StencilOperator) toApply;
+            if (stencil == null) {
+                stencil = other;
+                return;
+            } else if (stencil.isCompatible(other)) {
+                stencil = stencil.plus(other);
+                return;
+            }
+        }
+
+        if (matrix == null) {
+            matrix = new FlexCompRowMatrix(n, n);
+        }
+
+        matrix.add(toApply);
     }
 
-
     public Vector getSource() {
         return source;
     }
 
+    /**
+     * Returns true if the operator can be represented without assembling
+     * a matrix, in which case getOperator() returns a StencilOperator.
+     */
+    public boolean isMatrixFree() {
+        return matrix == null;
+    }
+
     public Matrix getOperator() {
-        return operator;
+        double[] diagonal = new double[n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i] = 1.0 + exponents[i];
+        }
+
+        StencilOperator operator = (stencil == null) ?
+                StencilOperator.diagonal(diagonal) : stencil.plusDiagonal(diagonal);
+
+        if (isMatrixFree()) {
+            return operator;
+        }
+
+        Matrix ret = new FlexCompRowMatrix(n, n);
+        for (MatrixEntry entry : operator) {
+            ret.add(entry.row(), entry.column(), entry.get());
+        }
+        ret.add(matrix);
+        return ret;
     }
 
 }
@@ -0,0 +1,189 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+/**
+ * In-place discrete Fourier transform of complex data of a fixed length,
+ * stored as separate real and imaginary arrays. Lengths that are powers of
+ * two use an iterative radix-2 transform; other lengths are expressed as a
+ * circular convolution of power-of-two length (Bluestein's algorithm), so
+ * that every length is transformed in O(n log n).
+ * <p/>
+ * Instances keep scratch space, and so are not thread-safe.
+ */
+class FourierTransform {
+
+    private final int n;
+
+    // Length of the underlying radix-2 transform
+    private final int m;
+
+    // cos(2 pi k / m) and sin(2 pi k / m) for k < m / 2
+    private final double[] cos;
+    private final double[] sin;
+
+    // Bluestein chirp exp(-i pi k^2 / n), and the transform of its
+    // conjugate, wrapped to length m. Null if n is a power of two.
+    private final double[] chirpRe, chirpIm;
+    private final double[] kernelRe, kernelIm;
+    private final double[] bufferRe, bufferIm;
+
+    FourierTransform(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Transform length must be positive.");
+        }
+
+        this.n = n;
+        boolean radix2 = Integer.bitCount(n) == 1;
+        m = radix2 ? n : Integer.highestOneBit(2 * n - 1) << 1;
+
+        cos = new double[m / 2];
+        sin = new double[m / 2];
+        for (int k = 0; k < m / 2; k++) {
+            double theta = 2.0 * Math.PI * k / m;
+            cos[k] = Math.cos(theta);
+            sin[k] = Math.sin(theta);
+        }
+
+        if (radix2) {
+            chirpRe = chirpIm = kernelRe = kernelIm = bufferRe = bufferIm = null;
+            return;
+        }
+
+        chirpRe = new double[n];
+        chirpIm = new double[n];
+        kernelRe = new double[m];
+        kernelIm = new double[m];
+        for (int k = 0; k < n; k++) {
+            // k^2 is reduced modulo 2n so that the angle stays accurate
+            long square = ((long) k * k) % (2L * n);
+            double theta = Math.PI * square / n;
+            chirpRe[k] = Math.cos(theta);
+            chirpIm[k] = -Math.sin(theta);
+
+            kernelRe[k] = chirpRe[k];
+            kernelIm[k] = -chirpIm[k];
+            if (k > 0) {
+                kernelRe[m - k] = chirpRe[k];
+                kernelIm[m - k] = -chirpIm[k];
+            }
+        }
+        radix2(kernelRe, kernelIm);
+
+        bufferRe = new double[m];
+        bufferIm = new double[m];
+    }
+
+    int getLength() {
+        return n;
+    }
+
+    /**
+     * X_k = sum_j x_j exp(-2 pi i j k / n)
+     */
+    void forward(double[] re, double[] im) {
+        if (chirpRe == null) {
+            radix2(re, im);
+        } else {
+            bluestein(re, im);
+        }
+    }
+
+    /**
+     * x_j = (1/n) sum_k X_k exp(2 pi i j k / n)
+     */
+    void inverse(double[] re, double[] im) {
+        conjugate(im, n);
+        forward(re, im);
+        conjugate(im, n);
+        for (int k = 0; k < n; k++) {
+            re[k] /= n;
+            im[k] /= n;
+        }
+    }
+
+    private void bluestein(double[] re, double[] im) {
+        for (int k = 0; k < n; k++) {
+            bufferRe[k] = re[k] * chirpRe[k] - im[k] * chirpIm[k];
+            bufferIm[k] = re[k] * chirpIm[k] + im[k] * chirpRe[k];
+        }
+        for (int k = n; k < m; k++) {
+            bufferRe[k] = 0.0;
+            bufferIm[k] = 0.0;
+        }
+
+        // Circular convolution with the kernel
+        radix2(bufferRe, bufferIm);
+        for (int k = 0; k < m; k++) {
+            double r = bufferRe[k] * kernelRe[k] - bufferIm[k] * kernelIm[k];
+            double i = bufferRe[k] * kernelIm[k] + bufferIm[k] * kernelRe[k];
+            bufferRe[k] = r;
+            bufferIm[k] = -i;
+        }
+        radix2(bufferRe, bufferIm);
+
+        // The second transform was applied to the conjugate, which yields
+        // m times the conjugate of the inverse transform.
+        for (int k = 0; k < n; k++) {
+            double r = bufferRe[k] / m;
+            double i = -bufferIm[k] / m;
+            re[k] = r * chirpRe[k] - i * chirpIm[k];
+            im[k] = r * chirpIm[k] + i * chirpRe[k];
+        }
+    }
+
+    /**
+     * Iterative Cooley-Tukey transform of length m.
+     */
+    private void radix2(double[] re, double[] im) {
+        for (int i = 1, j = 0; i < m; i++) {
+            int bit = m >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+
+            if (i < j) {
+                swap(re, i, j);
+                swap(im, i, j);
+            }
+        }
+
+        for (int size = 2; size <= m; size <<= 1) {
+            int half = size >> 1;
+            int step = m / size;
+            for (int start = 0; start < m; start += size) {
+                for (int j = 0; j < half; j++) {
+                    int p = start + j;
+                    int q = p + half;
+                    double c = cos[j * step];
+                    double s = sin[j * step];
+
+                    // (re[q] + i im[q]) * exp(-i theta)
+                    double tr = re[q] * c + im[q] * s;
+                    double ti = im[q] * c - re[q] * s;
+
+                    re[q] = re[p] - tr;
+                    im[q] = im[p] - ti;
+                    re[p] += tr;
+                    im[p] += ti;
+                }
+            }
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    private static void conjugate(double[] im, int n) {
+        for (int k = 0; k < n; k++) {
+            im[k] = -im[k];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.*;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Solves the steady state system using one of MTJ's Krylov subspace
+ * methods, optionally preconditioned. The iteration begins from the
+ * current state of the field, which is typically close to the new steady
+ * state. The outcome of every solve is passed to a reporter, including
+ * solves that fail to converge, in which case the last iterate is returned.
+ *
+ * @test KrylovSolverTest
+ */
+public class KrylovSolver implements LinearSolver {
+
+    public static final double DEFAULT_TOLERANCE = 1e-5;
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private final String name;
+    private final Function<Vector, AbstractIterativeSolver> method;
+    private final Function<Matrix, Preconditioner> preconditioner;
+    private final double tolerance;
+    private final int maxIterations;
+    private final Consumer<SolveReport> reporter;
+
+    /**
+     * Jacobi-preconditioned conjugate gradient squared, with default
+     * tolerances.
+     */
+    public KrylovSolver() {
+        this("cgs", CGS::new, Preconditioners::jacobi, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS,
+                SolveReport.warnOnFailure("Continuum solver"));
+    }
+
+    /**
+     * @param name           identifies the method in reports.
+     * @param method         constructs an iterative solver from a template
+     *                       vector.
+     * @param preconditioner constructs a preconditioner for the system, or
+     *                       null if the system is not to be preconditioned.
+     * @param tolerance      the residual, relative to the norm of the source,
+     *                       at which the solution is accepted.
+     * @param maxIterations  the maximum number of iterations per solve.
+     * @param reporter       receives a report of every solve.
+     */
+    public KrylovSolver(String name,
+                        Function<Vector, AbstractIterativeSolver> method,
+                        Function<Matrix, Preconditioner> preconditioner,
+                        double tolerance,
+                        int maxIterations,
+                        Consumer<SolveReport> reporter) {
+
+        this.name = name;
+        this.method = method;
+        this.preconditioner = preconditioner;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public DenseVector solve(Matrix system, Vector source, Vector initial) {
+        long start = System.nanoTime();
+        int n = system.numRows();
+
+        AbstractIterativeSolver solver = method.apply(initial);
+        if (preconditioner != null) {
+            solver.setPreconditioner(preconditioner.apply(system));
+        }
+
+        // The residual is measured against the source rather than against
+        // the initial residual, so that a good initial guess is rewarded.
+        double atol = Math.max(tolerance * source.norm(Vector.Norm.Two), 1e-50);
+        IterationMonitor monitor = new DefaultIterationMonitor(maxIterations, tolerance, atol,
+                Double.POSITIVE_INFINITY);
+        solver.setIterationMonitor(monitor);
+
+        // Warm start from the current state
+        DenseVector sol = new DenseVector(initial);
+
+        boolean converged = true;
+        try {
+            solver.solve(system, source, sol);
+        } catch (IterativeSolverNotConvergedException ex) {
+            converged = false;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        reporter.accept(new SolveReport(name, n, monitor.iterations(), monitor.residual(), elapsed, converged));
+        return sol;
+    }
+}
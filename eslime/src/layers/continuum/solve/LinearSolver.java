@@ -0,0 +1,25 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+
+/**
+ * Strategy for solving the linear system A x = b that arises from the
+ * steady state equation of a continuum layer.
+ */
+public interface LinearSolver {
+
+    /**
+     * @param system  the matrix A. May be a matrix-free StencilOperator.
+     * @param source  the vector b.
+     * @param initial the current state of the field, which is a template
+     *                for the solution and may be used as an initial guess.
+     */
+    DenseVector solve(Matrix system, Vector source, Vector initial);
+}
@@ -0,0 +1,241 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.Geometry;
+import no.uib.cipr.matrix.DenseLU;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Geometric multigrid solver for the steady state system. Coarse levels
+ * are obtained by repeatedly halving the geometry of the layer using
+ * Geometry.cloneAtScale(...), and are related to one another by
+ * interpolation between canonical sites (see Prolongation). The operator
+ * of each coarse level is the Galerkin product of the level above it.
+ * <p/>
+ * Each iteration is a V-cycle with weighted Jacobi smoothing. The coarsest
+ * level is solved directly if it is small, and by the Krylov solver
+ * otherwise; if the geometry cannot be coarsened at all, the solver
+ * reduces to the Krylov solver. The number of V-cycles needed to reach a
+ * given tolerance is roughly independent of the size of the lattice.
+ *
+ * @test MultigridSolverTest
+ */
+public class MultigridSolver implements LinearSolver {
+
+    public static final double DEFAULT_TOLERANCE = 1e-5;
+    public static final int DEFAULT_MAX_CYCLES = 100;
+    public static final int DEFAULT_SWEEPS = 2;
+
+    // Coarsening stops once a level has no more than this many sites.
+    private static final int COARSEST_SIZE = 64;
+
+    // Coarsening stops if a level is not reduced by at least this factor.
+    private static final double MIN_REDUCTION = 0.75;
+
+    private static final double JACOBI_WEIGHT = 0.8;
+
+    private final double tolerance;
+    private final int maxCycles;
+    private final int sweeps;
+
+    // Element [k] interpolates from level k+1 to level k. Level 0 is finest.
+    private final List<Prolongation> transfers;
+
+    private final LinearSolver coarsestSolver;
+    private final Consumer<SolveReport> reporter;
+
+    // Per-solve state for each level
+    private Matrix[] operators;
+    private double[][] inverseDiagonals;
+    private double[][] residuals;
+    private DenseLU coarsestLU;
+
+    public MultigridSolver(Geometry geometry) {
+        this(geometry, DEFAULT_TOLERANCE, DEFAULT_MAX_CYCLES, DEFAULT_SWEEPS,
+                SolveReport.warnOnFailure("Continuum solver"));
+    }
+
+    /**
+     * @param tolerance the residual, relative to the norm of the source, at
+     *                  which a solution is accepted.
+     * @param maxCycles the maximum number of V-cycles per solve.
+     * @param sweeps    the number of smoothing sweeps before and after each
+     *                  coarse-level correction.
+     * @param reporter  receives a report of every solve.
+     */
+    public MultigridSolver(Geometry geometry, double tolerance, int maxCycles, int sweeps,
+                           Consumer<SolveReport> reporter) {
+        this.tolerance = tolerance;
+        this.maxCycles = maxCycles;
+        this.sweeps = sweeps;
+        this.reporter = reporter;
+        transfers = buildHierarchy(geometry);
+        coarsestSolver = new KrylovSolver();
+    }
+
+    private static List<Prolongation> buildHierarchy(Geometry geometry) {
+        List<Prolongation> ret = new ArrayList<>();
+        Geometry fine = geometry;
+        int n = fine.getCanonicalSites().length;
+        while (n > COARSEST_SIZE) {
+            Geometry coarse = fine.cloneAtScale(0.5);
+            int m = coarse.getCanonicalSites().length;
+            if (m == 0 || m > MIN_REDUCTION * n) {
+                break;
+            }
+
+            Prolongation transfer = Prolongation.build(fine, coarse);
+            if (transfer == null) {
+                break;
+            }
+
+            ret.add(transfer);
+            fine = coarse;
+            n = m;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the number of levels in the hierarchy, including the finest.
+     */
+    public int getLevelCount() {
+        return transfers.size() + 1;
+    }
+
+    @Override
+    public DenseVector solve(Matrix system, Vector source, Vector initial) {
+        if (transfers.isEmpty() && system.numRows() > COARSEST_SIZE) {
+            return coarsestSolver.solve(system, source, initial);
+        }
+
+        long start = System.nanoTime();
+        setup(system);
+
+        int n = system.numRows();
+        double[] b = new DenseVector(source).getData();
+        DenseVector x = new DenseVector(initial);
+        double[] xd = x.getData();
+
+        double threshold = tolerance * norm(b);
+        int cycles = 0;
+        residual(0, b, xd);
+        while (norm(residuals[0]) > threshold && cycles < maxCycles) {
+            cycle(0, b, xd);
+            cycles++;
+            residual(0, b, xd);
+        }
+
+        double r = norm(residuals[0]);
+        long elapsed = System.nanoTime() - start;
+        reporter.accept(new SolveReport("multigrid", n, cycles, r, elapsed, r <= threshold));
+        return x;
+    }
+
+    private void setup(Matrix system) {
+        int levels = getLevelCount();
+        operators = new Matrix[levels];
+        inverseDiagonals = new double[levels][];
+        residuals = new double[levels][];
+
+        operators[0] = system;
+        for (int k = 1; k < levels; k++) {
+            operators[k] = transfers.get(k - 1).coarsen(operators[k - 1]);
+        }
+
+        for (int k = 0; k < levels; k++) {
+            int n = operators[k].numRows();
+            residuals[k] = new double[n];
+            inverseDiagonals[k] = new double[n];
+            for (int i = 0; i < n; i++) {
+                double d = operators[k].get(i, i);
+                inverseDiagonals[k][i] = (d == 0.0) ? 0.0 : 1.0 / d;
+            }
+        }
+
+        Matrix coarsest = operators[levels - 1];
+        coarsestLU = null;
+        if (coarsest.numRows() <= COARSEST_SIZE) {
+            DenseLU lu = DenseLU.factorize(new DenseMatrix(coarsest));
+            if (!lu.isSingular()) {
+                coarsestLU = lu;
+            }
+        }
+    }
+
+    private void cycle(int level, double[] b, double[] x) {
+        if (level == transfers.size()) {
+            solveCoarsest(b, x);
+            return;
+        }
+
+        smooth(level, b, x);
+
+        residual(level, b, x);
+        Prolongation transfer = transfers.get(level);
+        double[] coarseB = new double[transfer.getCoarseSize()];
+        double[] coarseX = new double[transfer.getCoarseSize()];
+        transfer.restrict(residuals[level], coarseB);
+        cycle(level + 1, coarseB, coarseX);
+        transfer.interpolate(coarseX, x);
+
+        smooth(level, b, x);
+    }
+
+    private void solveCoarsest(double[] b, double[] x) {
+        int level = transfers.size();
+        if (coarsestLU != null) {
+            DenseMatrix rhs = new DenseMatrix(new DenseVector(b, false));
+            coarsestLU.solve(rhs);
+            System.arraycopy(rhs.getData(), 0, x, 0, x.length);
+        } else {
+            DenseVector solution = coarsestSolver.solve(operators[level],
+                    new DenseVector(b, false), new DenseVector(x, false));
+            System.arraycopy(solution.getData(), 0, x, 0, x.length);
+        }
+    }
+
+    /**
+     * Weighted Jacobi sweeps: x += w D^-1 (b - A x)
+     */
+    private void smooth(int level, double[] b, double[] x) {
+        double[] r = residuals[level];
+        double[] inverse = inverseDiagonals[level];
+        for (int sweep = 0; sweep < sweeps; sweep++) {
+            residual(level, b, x);
+            for (int i = 0; i < x.length; i++) {
+                x[i] += JACOBI_WEIGHT * inverse[i] * r[i];
+            }
+        }
+    }
+
+    /**
+     * Stores b - A x in the residual vector of the specified level.
+     */
+    private void residual(int level, double[] b, double[] x) {
+        double[] r = residuals[level];
+        System.arraycopy(b, 0, r, 0, r.length);
+        operators[level].multAdd(-1.0, new DenseVector(x, false), new DenseVector(r, false));
+    }
+
+    private double norm(double[] v) {
+        double sum = 0.0;
+        for (double value : v) {
+            sum += value * value;
+        }
+
+        return Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.CompRowMatrix;
+import no.uib.cipr.matrix.sparse.DiagonalPreconditioner;
+import no.uib.cipr.matrix.sparse.ILU;
+import no.uib.cipr.matrix.sparse.Preconditioner;
+import no.uib.cipr.matrix.sparse.SSOR;
+
+/**
+ * Constructs preconditioners for the steady state system. The incomplete
+ * factorizations require explicit compressed-row entries, so a matrix-free
+ * system is assembled for them; the factorization itself does not alter
+ * the system.
+ */
+public abstract class Preconditioners {
+
+    public static Preconditioner jacobi(Matrix system) {
+        Preconditioner ret = new DiagonalPreconditioner(system.numRows());
+        ret.setMatrix(system);
+        return ret;
+    }
+
+    /**
+     * Symmetric Gauss-Seidel. MTJ's SSOR performs a sweep starting from the
+     * contents of its output vector, which the Krylov methods do not clear;
+     * the sweep must start from zero to apply a fixed preconditioner.
+     */
+    public static Preconditioner ssor(Matrix system) {
+        CompRowMatrix assembled = assemble(system);
+        Preconditioner ssor = new SSOR(assembled.copy());
+        ssor.setMatrix(assembled);
+
+        return new Preconditioner() {
+            @Override
+            public Vector apply(Vector b, Vector x) {
+                return ssor.apply(b, x.zero());
+            }
+
+            @Override
+            public Vector transApply(Vector b, Vector x) {
+                return ssor.transApply(b, x.zero());
+            }
+
+            @Override
+            public void setMatrix(Matrix matrix) {
+                ssor.setMatrix(matrix);
+            }
+        };
+    }
+
+    /**
+     * ILU(0): an incomplete LU factorization with the same non-zero
+     * structure as the system.
+     */
+    public static Preconditioner ilu(Matrix system) {
+        CompRowMatrix assembled = assemble(system);
+        Preconditioner ret = new ILU(assembled.copy());
+        ret.setMatrix(assembled);
+        return ret;
+    }
+
+    private static CompRowMatrix assemble(Matrix system) {
+        if (system instanceof StencilOperator) {
+            return ((StencilOperator) system).assemble();
+        } else if (system instanceof CompRowMatrix) {
+            return (CompRowMatrix) system;
+        } else {
+            return new CompRowMatrix(system);
+        }
+    }
+}
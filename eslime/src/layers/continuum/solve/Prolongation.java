@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import control.identifiers.Coordinate;
+import control.identifiers.Flags;
+import geometry.CanonicalSiteIndex;
+import geometry.Geometry;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.MatrixEntry;
+import no.uib.cipr.matrix.sparse.CompRowMatrix;
+import no.uib.cipr.matrix.sparse.FlexCompRowMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Interpolation from the canonical sites of a coarse geometry to those of
+ * a fine geometry at twice its scale. Each fine coordinate is compared to
+ * the coarse coordinate at half its displacement from the center; along
+ * each axis on which the displacement is odd, the fine site lies midway
+ * between two coarse sites and receives half of each. Coarse sites that
+ * do not exist (e.g., beyond an absorbing boundary) are dropped, and the
+ * remaining weights renormalized.
+ * <p/>
+ * Restriction is the transpose of interpolation, so that the coarse
+ * operator P^T A P is symmetric whenever A is.
+ */
+class Prolongation {
+
+    private final int coarseSize;
+
+    // Coarse parents of fine site i are columns[offsets[i]] ... columns[offsets[i+1] - 1]
+    private final int[] offsets;
+    private final int[] columns;
+    private final double[] weights;
+
+    private Prolongation(int coarseSize, int[] offsets, int[] columns, double[] weights) {
+        this.coarseSize = coarseSize;
+        this.offsets = offsets;
+        this.columns = columns;
+        this.weights = weights;
+    }
+
+    /**
+     * Construct the interpolation from the coarse geometry to the fine
+     * geometry. Returns null if any fine site has no coarse parent, in which
+     * case the geometries cannot be related by interpolation.
+     */
+    static Prolongation build(Geometry fine, Geometry coarse) {
+        Coordinate[] sites = fine.getCanonicalSites();
+        CanonicalSiteIndex coarseIndex = coarse.getSiteIndex();
+        Coordinate fineCenter = fine.getCenter();
+        Coordinate coarseCenter = coarse.getCenter();
+
+        int n = sites.length;
+        int[] offsets = new int[n + 1];
+        int[] columns = new int[8 * n];
+        double[] weights = new double[8 * n];
+
+        int[] parents = new int[8];
+        for (int i = 0; i < n; i++) {
+            int m = findParents(sites[i], fineCenter, coarseCenter, coarse, coarseIndex, parents);
+            if (m == 0) {
+                return null;
+            }
+
+            int start = offsets[i];
+            for (int k = 0; k < m; k++) {
+                columns[start + k] = parents[k];
+                weights[start + k] = 1.0 / m;
+            }
+            offsets[i + 1] = start + m;
+        }
+
+        return new Prolongation(coarseIndex.size(), offsets,
+                Arrays.copyOf(columns, offsets[n]),
+                Arrays.copyOf(weights, offsets[n]));
+    }
+
+    /**
+     * Writes the indices of the coarse parents of a fine site to the
+     * specified array, and returns the number found.
+     */
+    private static int findParents(Coordinate site, Coordinate fineCenter, Coordinate coarseCenter,
+                                   Geometry coarse, CanonicalSiteIndex coarseIndex, int[] parents) {
+
+        boolean planar = site.hasFlag(Flags.PLANAR);
+        int[] lo = new int[3];
+        int[] hi = new int[3];
+        int[] f = {site.x() - fineCenter.x(), site.y() - fineCenter.y(), planar ? 0 : site.z() - fineCenter.z()};
+        int[] c = {coarseCenter.x(), coarseCenter.y(), planar ? 0 : coarseCenter.z()};
+        for (int d = 0; d < 3; d++) {
+            lo[d] = c[d] + Math.floorDiv(f[d], 2);
+            hi[d] = c[d] + Math.floorDiv(f[d] + 1, 2);
+        }
+
+        int m = 0;
+        for (int x = lo[0]; x <= hi[0]; x++) {
+            for (int y = lo[1]; y <= hi[1]; y++) {
+                for (int z = lo[2]; z <= hi[2]; z++) {
+                    Coordinate candidate = planar ? new Coordinate(x, y, 0) : new Coordinate(x, y, z, 0);
+                    Coordinate applied = coarse.apply(candidate, Geometry.APPLY_BOUNDARIES);
+                    if (applied == null) {
+                        continue;
+                    }
+
+                    int index = coarseIndex.indexOf(applied);
+                    if (index >= 0) {
+                        parents[m++] = index;
+                    }
+                }
+            }
+        }
+
+        return m;
+    }
+
+    int getFineSize() {
+        return offsets.length - 1;
+    }
+
+    int getCoarseSize() {
+        return coarseSize;
+    }
+
+    /**
+     * fine += P coarse
+     */
+    void interpolate(double[] coarse, double[] fine) {
+        int n = getFineSize();
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                sum += weights[k] * coarse[columns[k]];
+            }
+            fine[i] += sum;
+        }
+    }
+
+    /**
+     * coarse = P^T fine
+     */
+    void restrict(double[] fine, double[] coarse) {
+        Arrays.fill(coarse, 0.0);
+        int n = getFineSize();
+        for (int i = 0; i < n; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                coarse[columns[k]] += weights[k] * fine[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the Galerkin coarse operator P^T A P.
+     */
+    CompRowMatrix coarsen(Matrix a) {
+        FlexCompRowMatrix ret = new FlexCompRowMatrix(coarseSize, coarseSize);
+        for (MatrixEntry entry : a) {
+            double value = entry.get();
+            if (value == 0.0) {
+                continue;
+            }
+
+            int i = entry.row();
+            int j = entry.column();
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                double left = weights[p] * value;
+                for (int q = offsets[j]; q < offsets[j + 1]; q++) {
+                    ret.add(columns[p], columns[q], left * weights[q]);
+                }
+            }
+        }
+
+        return new CompRowMatrix(ret);
+    }
+}
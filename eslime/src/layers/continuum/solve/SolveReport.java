@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import java.util.function.Consumer;
+
+/**
+ * Summary of a single solution of the steady state system, passed to the
+ * reporter of a LinearSolver after every solve.
+ */
+public class SolveReport {
+
+    private final String method;
+    private final int size;
+    private final int iterations;
+    private final double residual;
+    private final long elapsedNanos;
+    private final boolean converged;
+
+    public SolveReport(String method, int size, int iterations, double residual,
+                       long elapsedNanos, boolean converged) {
+        this.method = method;
+        this.size = size;
+        this.iterations = iterations;
+        this.residual = residual;
+        this.elapsedNanos = elapsedNanos;
+        this.converged = converged;
+    }
+
+    /**
+     * Returns a reporter that writes every report to standard output.
+     */
+    public static Consumer<SolveReport> printAll(String label) {
+        return report -> print(label, report);
+    }
+
+    /**
+     * Returns a reporter that writes only those reports in which the solve
+     * failed to converge to standard output, alongside the rest of the
+     * simulation's progress, and otherwise does nothing.
+     */
+    public static Consumer<SolveReport> warnOnFailure(String label) {
+        return report -> {
+            if (!report.isConverged()) {
+                print(label, report);
+            }
+        };
+    }
+
+    private static void print(String label, SolveReport report) {
+        System.out.println(label + ": " + report);
+    }
+
+    /**
+     * Returns the name of the method that produced the solution.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the number of unknowns in the system.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the norm of the residual of the final solution, as measured
+     * by the method.
+     */
+    public double getResidual() {
+        return residual;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s after %d iterations (n = %d, residual = %.3e, %.3f ms)",
+                method,
+                converged ? "converged" : "did not converge",
+                iterations,
+                size,
+                residual,
+                elapsedNanos / 1e6);
+    }
+}
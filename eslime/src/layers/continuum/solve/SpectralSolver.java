@@ -0,0 +1,372 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+import geometry.Geometry;
+import geometry.boundaries.Periodic;
+import geometry.lattice.CubicLattice;
+import geometry.lattice.LinearLattice;
+import geometry.lattice.RectangularLattice;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.CGS;
+import no.uib.cipr.matrix.sparse.Preconditioner;
+
+import java.util.function.Consumer;
+
+/**
+ * Direct solver for periodic layers. On a line, rectangle or cuboid with
+ * periodic boundaries and an orthogonal lattice, a stencil operator with a
+ * uniform diagonal is circulant: it acts on the field as a circular
+ * convolution. Its eigenvalues are the discrete Fourier transform of any
+ * one of its columns, so the system can be solved exactly with two
+ * transforms of the field, in O(n log n).
+ * <p/>
+ * Agent reactions make the diagonal non-uniform, in which case the system
+ * is solved by the Krylov solver, preconditioned by the inverse of the
+ * circulant operator with the mean diagonal. The Krylov solver is likewise
+ * used for any other geometry or operator, and whenever the spectral
+ * solution fails to satisfy the system to the specified tolerance.
+ *
+ * @test SpectralSolverTest
+ */
+public class SpectralSolver implements LinearSolver {
+
+    public static final double DEFAULT_TOLERANCE = 1e-5;
+
+    // Eigenvalues smaller than this, relative to the largest, are treated
+    // as zero; the operator is then singular and has no inverse.
+    private static final double SINGULAR_THRESHOLD = 1e-12;
+
+    private final double tolerance;
+    private final Consumer<SolveReport> reporter;
+    private final LinearSolver fallback;
+
+    // Dimensions of the periodic box, or null if not applicable
+    private final int[] dimensions;
+
+    // Position in the box of each canonical site, and vice versa
+    private final int[] positions;
+    private final int[] sites;
+
+    private final FourierTransform[] transforms;
+
+    // Scratch space, in box order
+    private final double[] re;
+    private final double[] im;
+
+    // Eigenvalues of the last uniform operator, and its coefficients
+    private double[] eigenRe, eigenIm;
+    private double eigenDiagonal, eigenNeighbor;
+
+    public SpectralSolver(Geometry geometry) {
+        this(geometry, DEFAULT_TOLERANCE, SolveReport.warnOnFailure("Continuum solver"));
+    }
+
+    /**
+     * @param tolerance the residual, relative to the norm of the source, at
+     *                  which a solution is accepted.
+     * @param reporter  receives a report of every solve.
+     */
+    public SpectralSolver(Geometry geometry, double tolerance, Consumer<SolveReport> reporter) {
+        this.tolerance = tolerance;
+        this.reporter = reporter;
+        fallback = new KrylovSolver("cgs", CGS::new, this::precondition, tolerance,
+                KrylovSolver.DEFAULT_MAX_ITERATIONS, reporter);
+
+        CanonicalSiteIndex index = geometry.getSiteIndex();
+        int n = index.size();
+        int[] box = isPeriodicBox(geometry) ? bound(index) : null;
+        if (box == null || box[0] * box[1] * box[2] != n) {
+            dimensions = null;
+            positions = sites = null;
+            transforms = null;
+            re = im = null;
+            return;
+        }
+
+        positions = new int[n];
+        sites = new int[n];
+        int[] min = min(index);
+        for (int i = 0; i < n; i++) {
+            Coordinate c = index.getSite(i);
+            int x = c.x() - min[0];
+            int y = c.y() - min[1];
+            int z = c.z() - min[2];
+            int position = x + box[0] * (y + box[1] * z);
+            positions[i] = position;
+            sites[position] = i;
+        }
+
+        dimensions = box;
+        transforms = new FourierTransform[3];
+        for (int d = 0; d < 3; d++) {
+            transforms[d] = new FourierTransform(box[d]);
+        }
+        re = new double[n];
+        im = new double[n];
+    }
+
+    private static boolean isPeriodicBox(Geometry geometry) {
+        Class<?>[] components = geometry.getComponentClasses();
+        Class<?> lattice = components[0];
+        boolean orthogonal = lattice == LinearLattice.class ||
+                lattice == RectangularLattice.class ||
+                lattice == CubicLattice.class;
+
+        return orthogonal && components[2] == Periodic.class;
+    }
+
+    private static int[] min(CanonicalSiteIndex index) {
+        int[] ret = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        for (int i = 0; i < index.size(); i++) {
+            Coordinate c = index.getSite(i);
+            ret[0] = Math.min(ret[0], c.x());
+            ret[1] = Math.min(ret[1], c.y());
+            ret[2] = Math.min(ret[2], c.z());
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the extent of the bounding box of the canonical sites along
+     * each axis, or null if there are no sites.
+     */
+    private static int[] bound(CanonicalSiteIndex index) {
+        if (index.size() == 0) {
+            return null;
+        }
+
+        int[] lo = min(index);
+        int[] ret = new int[3];
+        for (int i = 0; i < index.size(); i++) {
+            Coordinate c = index.getSite(i);
+            ret[0] = Math.max(ret[0], c.x() - lo[0] + 1);
+            ret[1] = Math.max(ret[1], c.y() - lo[1] + 1);
+            ret[2] = Math.max(ret[2], c.z() - lo[2] + 1);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns true if the geometry admits a spectral solution, i.e., its
+     * canonical sites fill a periodic box.
+     */
+    public boolean isApplicable() {
+        return dimensions != null;
+    }
+
+    @Override
+    public DenseVector solve(Matrix system, Vector source, Vector initial) {
+        long start = System.nanoTime();
+        if (isApplicable() && isUniform(system)) {
+            StencilOperator operator = (StencilOperator) system;
+            if (loadEigenvalues(operator)) {
+                DenseVector x = new DenseVector(system.numRows());
+                invert(source, x, false);
+
+                Vector residual = source.copy();
+                system.multAdd(-1.0, x, residual);
+                double r = residual.norm(Vector.Norm.Two);
+                if (r <= tolerance * source.norm(Vector.Norm.Two)) {
+                    long elapsed = System.nanoTime() - start;
+                    reporter.accept(new SolveReport("spectral", system.numRows(), 1, r, elapsed, true));
+                    return x;
+                }
+            }
+        }
+
+        return fallback.solve(system, source, initial);
+    }
+
+    private boolean isUniform(Matrix system) {
+        if (!(system instanceof StencilOperator) || system.numRows() != positions.length) {
+            return false;
+        }
+
+        StencilOperator operator = (StencilOperator) system;
+        double d = operator.getDiagonal(0);
+        for (int i = 1; i < operator.numRows(); i++) {
+            if (operator.getDiagonal(i) != d) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Constructs a preconditioner for the Krylov solver. For a stencil
+     * operator on a periodic box, this is the inverse of the circulant
+     * operator obtained by replacing the diagonal with its mean; otherwise,
+     * it is the Jacobi preconditioner.
+     */
+    private Preconditioner precondition(Matrix system) {
+        if (!isApplicable() || !(system instanceof StencilOperator) || system.numRows() != positions.length) {
+            return Preconditioners.jacobi(system);
+        }
+
+        StencilOperator operator = (StencilOperator) system;
+        int n = operator.numRows();
+        double mean = 0.0;
+        for (int i = 0; i < n; i++) {
+            mean += operator.getDiagonal(i);
+        }
+        mean /= n;
+
+        double[] shift = new double[n];
+        for (int i = 0; i < n; i++) {
+            shift[i] = mean - operator.getDiagonal(i);
+        }
+
+        if (!loadEigenvalues(operator.plusDiagonal(shift))) {
+            return Preconditioners.jacobi(system);
+        }
+
+        double[] pRe = eigenRe.clone();
+        double[] pIm = eigenIm.clone();
+        return new Preconditioner() {
+            @Override
+            public Vector apply(Vector b, Vector x) {
+                return invert(b, x, pRe, pIm, false);
+            }
+
+            @Override
+            public Vector transApply(Vector b, Vector x) {
+                return invert(b, x, pRe, pIm, true);
+            }
+
+            @Override
+            public void setMatrix(Matrix matrix) {
+            }
+        };
+    }
+
+    /**
+     * Computes the eigenvalues of a uniform stencil operator, unless they
+     * are already known. Returns false if the operator is singular.
+     */
+    private boolean loadEigenvalues(StencilOperator operator) {
+        double d = operator.getDiagonal(0);
+        double b = operator.getNeighborValue();
+        if (eigenRe != null && d == eigenDiagonal && b == eigenNeighbor) {
+            return true;
+        }
+
+        // The eigenvalues of a circulant operator are the transform of
+        // its first column.
+        int n = operator.numRows();
+        DenseVector delta = new DenseVector(n);
+        delta.set(sites[0], 1.0);
+        DenseVector column = new DenseVector(n);
+        operator.mult(delta, column);
+
+        double[] values = column.getData();
+        for (int i = 0; i < n; i++) {
+            re[positions[i]] = values[i];
+            im[positions[i]] = 0.0;
+        }
+        transform(false);
+
+        double max = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < n; k++) {
+            double magnitude = Math.hypot(re[k], im[k]);
+            max = Math.max(max, magnitude);
+            min = Math.min(min, magnitude);
+        }
+
+        if (min <= SINGULAR_THRESHOLD * max) {
+            eigenRe = eigenIm = null;
+            return false;
+        }
+
+        eigenRe = re.clone();
+        eigenIm = im.clone();
+        eigenDiagonal = d;
+        eigenNeighbor = b;
+        return true;
+    }
+
+    private Vector invert(Vector b, Vector x, boolean transpose) {
+        return invert(b, x, eigenRe, eigenIm, transpose);
+    }
+
+    /**
+     * x = A^-1 b, or x = A^-T b, where A is the circulant operator with the
+     * specified eigenvalues.
+     */
+    private Vector invert(Vector b, Vector x, double[] lRe, double[] lIm, boolean transpose) {
+        int n = positions.length;
+        for (int i = 0; i < n; i++) {
+            re[positions[i]] = b.get(i);
+            im[positions[i]] = 0.0;
+        }
+        transform(false);
+
+        // The transpose of a real circulant operator has conjugate eigenvalues
+        double sign = transpose ? -1.0 : 1.0;
+        for (int k = 0; k < n; k++) {
+            double a = lRe[k];
+            double c = sign * lIm[k];
+            double scale = 1.0 / (a * a + c * c);
+            double r = (re[k] * a + im[k] * c) * scale;
+            double i = (im[k] * a - re[k] * c) * scale;
+            re[k] = r;
+            im[k] = i;
+        }
+        transform(true);
+
+        for (int i = 0; i < n; i++) {
+            x.set(i, re[positions[i]]);
+        }
+
+        return x;
+    }
+
+    /**
+     * Transforms the scratch arrays along each axis of the box.
+     */
+    private void transform(boolean inverse) {
+        int[] strides = {1, dimensions[0], dimensions[0] * dimensions[1]};
+        for (int d = 0; d < 3; d++) {
+            int length = dimensions[d];
+            if (length == 1) {
+                continue;
+            }
+
+            FourierTransform transform = transforms[d];
+            double[] lineRe = new double[length];
+            double[] lineIm = new double[length];
+            int stride = strides[d];
+            for (int first = 0; first < re.length; first++) {
+                // Visit each line once, from its first element
+                if ((first / stride) % length != 0) {
+                    continue;
+                }
+
+                for (int k = 0; k < length; k++) {
+                    lineRe[k] = re[first + k * stride];
+                    lineIm[k] = im[first + k * stride];
+                }
+
+                if (inverse) {
+                    transform.inverse(lineRe, lineIm);
+                } else {
+                    transform.forward(lineRe, lineIm);
+                }
+
+                for (int k = 0; k < length; k++) {
+                    re[first + k * stride] = lineRe[k];
+                    im[first + k * stride] = lineIm[k];
+                }
+            }
+        }
+    }
+}
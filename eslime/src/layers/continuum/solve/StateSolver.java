@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+
+/**
+ * Computes the new state of a continuum field from the operations
+ * scheduled since it was last solved: an operator Q and a source g, which
+ * together describe the difference relation
+ *
+ *     c_{n+1} = Q c_n + g
+ */
+public interface StateSolver {
+
+    /**
+     * @param source   the scheduled source vector g.
+     * @param operator the scheduled operator Q.
+     * @param initial  the current state of the field.
+     * @param dt       the simulation time elapsed since the field was last
+     *                 solved.
+     * @return the new state of the field.
+     */
+    Vector solve(Vector source, Matrix operator, Vector initial, double dt);
+
+    /**
+     * @return true if the new state depends on the elapsed time, in which
+     * case the field does not change while no time elapses.
+     */
+    boolean isTransient();
+}
@@ -7,8 +7,9 @@ package layers.continuum.solve;
 
 import no.uib.cipr.matrix.DenseVector;
 import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.MatrixEntry;
 import no.uib.cipr.matrix.Vector;
-import no.uib.cipr.matrix.sparse.*;
+import no.uib.cipr.matrix.sparse.CompRowMatrix;
 import structural.utilities.EpsilonUtil;
 import structural.utilities.MatrixUtils;
 
@@ -18,7 +19,31 @@ import java.util.stream.IntStream;
 /**
  * Created by dbborens on 12/26/14.
  */
-public class SteadyState {
+public class SteadyState implements StateSolver {
+
+    private final LinearSolver solver;
+
+    public SteadyState() {
+        this(new KrylovSolver());
+    }
+
+    public SteadyState(LinearSolver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * The steady state does not depend on the elapsed time.
+     */
+    @Override
+    public Vector solve(Vector source, Matrix operator, Vector initial, double dt) {
+        return solve(source, operator, initial);
+    }
+
+    @Override
+    public boolean isTransient() {
+        return false;
+    }
+
     /**
      * Solve the difference relation
      *
@@ -91,18 +116,19 @@ public class SteadyState {
     }
 
     private boolean isDoublyStochastic(Matrix operator) {
-        for (int i = 0; i < operator.numRows(); i++) {
-
-            double rowSum = 0.0;
-            double colSum = 0.0;
+        int n = operator.numRows();
+        double[] rowSums = new double[n];
+        double[] colSums = new double[n];
 
-            for (int j = 0; j < operator.numRows(); j++) {
-                rowSum += operator.get(i, j);
-                colSum += operator.get(j, i);
-            }
+        // Visits only the stored entries of a sparse operator
+        for (MatrixEntry entry : operator) {
+            rowSums[entry.row()] += entry.get();
+            colSums[entry.column()] += entry.get();
+        }
 
-            boolean rowEqualsOne = EpsilonUtil.epsilonEquals(1.0, rowSum);
-            boolean colEqualsOne = EpsilonUtil.epsilonEquals(1.0, colSum);
+        for (int i = 0; i < n; i++) {
+            boolean rowEqualsOne = EpsilonUtil.epsilonEquals(1.0, rowSums[i]);
+            boolean colEqualsOne = EpsilonUtil.epsilonEquals(1.0, colSums[i]);
 
             if (!(rowEqualsOne && colEqualsOne)) {
                 return false;
@@ -126,18 +152,24 @@ public class SteadyState {
     }
 
     private boolean isIdentity(Matrix matrix) {
-        for (int i = 0; i < matrix.numRows(); i++) {
-            for (int j = 0; j < matrix.numColumns(); j++) {
-
-                // All diagonals should be 1
-                if (i == j && !EpsilonUtil.epsilonEquals(1.0, matrix.get(i, j))) {
-                    return false;
-                }
-
-                // All others should be zero
-                else if (i != j && !EpsilonUtil.epsilonEquals(0.0, matrix.get(i, j))) {
-                    return false;
-                }
+        double[] diagonal = new double[matrix.numRows()];
+
+        for (MatrixEntry entry : matrix) {
+            int i = entry.row();
+            int j = entry.column();
+
+            // All off-diagonals should be zero
+            if (i != j && !EpsilonUtil.epsilonEquals(0.0, entry.get())) {
+                return false;
+            } else if (i == j) {
+                diagonal[i] += entry.get();
+            }
+        }
+
+        // All diagonals should be 1
+        for (double value : diagonal) {
+            if (!EpsilonUtil.epsilonEquals(1.0, value)) {
+                return false;
             }
         }
 
@@ -171,23 +203,23 @@ public class SteadyState {
      * @return
      */
     private DenseVector ssSolve(Vector source, Matrix operator, Vector initial) {
-        steadyState(operator);
-
-        int n = operator.numRows();
-
-        IterativeSolver solver = new CGS(initial);
-        Preconditioner preconditioner = new DiagonalPreconditioner(n);
-        preconditioner.setMatrix(operator);
-
-        DenseVector sol = new DenseVector(n);
+        Matrix system = getSystem(operator);
+        return solver.solve(system, source, initial);
+    }
 
-        try {
-            solver.solve(operator, source, sol);
-        } catch (IterativeSolverNotConvergedException ex) {
-            ex.printStackTrace();
+    /**
+     * Returns the matrix I - Q. A stencil operator is complemented without
+     * assembling a matrix. Any other operator is modified in place, then
+     * copied to compressed-row storage, which keeps each iteration O(nnz)
+     * rather than O(n^2).
+     */
+    private Matrix getSystem(Matrix operator) {
+        if (operator instanceof StencilOperator) {
+            return ((StencilOperator) operator).complement();
         }
 
-        return sol;
+        steadyState(operator);
+        return new CompRowMatrix(operator);
     }
 
     /**
@@ -0,0 +1,369 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.NeighborTable;
+import no.uib.cipr.matrix.AbstractMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.MatrixEntry;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.CompRowMatrix;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Matrix-free operator of the form
+ *
+ *     M = diag(d) + b A
+ *
+ * where A is the adjacency matrix of a neighbor table (A_ij is the number
+ * of times that site i is listed as a neighbor of site j) and b is a
+ * scalar. Diffusion operators have this form, as does any sum of diffusion
+ * operators and per-site exponents over the same lattice.
+ * <p/>
+ * Products with M are computed directly from the neighbor structure, so no
+ * matrix is ever assembled. Operators derived from one another share the
+ * same neighbor structure, so deriving an operator costs O(n). Instances
+ * are immutable.
+ *
+ * @test StencilOperatorTest
+ */
+public class StencilOperator extends AbstractMatrix {
+
+    // Off-diagonal columns of row i are columns[offsets[i]] ... columns[offsets[i+1] - 1].
+    // Sites that list themselves as neighbors are folded into the diagonal.
+    private final int[] offsets;
+    private final int[] columns;
+
+    private final double[] diagonal;
+    private final double neighborValue;
+
+    private StencilOperator(int[] offsets, int[] columns, double[] diagonal, double neighborValue) {
+        super(diagonal.length, diagonal.length);
+        this.offsets = offsets;
+        this.columns = columns;
+        this.diagonal = diagonal;
+        this.neighborValue = neighborValue;
+    }
+
+    /**
+     * Construct a diffusion operator over the specified neighbor table. Every
+     * site retains diagonalValue of its own content and receives
+     * neighborValue of the content of each site that lists it as a neighbor.
+     */
+    public static StencilOperator diffusion(NeighborTable neighbors, double diagonalValue, double neighborValue) {
+        NeighborTable reverse = neighbors.transpose();
+        int n = reverse.size();
+        int[] offsets = new int[n + 1];
+        int[] columns = new int[0];
+        double[] diagonal = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            int degree = reverse.getDegree(i);
+            if (offsets[i] + degree > columns.length) {
+                columns = Arrays.copyOf(columns, Math.max(2 * columns.length, offsets[i] + degree));
+            }
+
+            int cursor = offsets[i];
+            diagonal[i] = diagonalValue;
+            for (int k = 0; k < degree; k++) {
+                int j = reverse.getNeighbor(i, k);
+                if (j == i) {
+                    diagonal[i] += neighborValue;
+                } else {
+                    columns[cursor++] = j;
+                }
+            }
+
+            offsets[i + 1] = cursor;
+        }
+
+        return new StencilOperator(offsets, Arrays.copyOf(columns, offsets[n]), diagonal, neighborValue);
+    }
+
+    /**
+     * Construct a diagonal operator with the specified diagonal entries.
+     */
+    public static StencilOperator diagonal(double[] diagonal) {
+        int n = diagonal.length;
+        return new StencilOperator(new int[n + 1], new int[0], diagonal.clone(), 0.0);
+    }
+
+    /**
+     * Returns true if the specified operator can be added to this one
+     * without changing the neighbor structure. Operators built separately
+     * over the same neighbor table (e.g., by two diffusion processes) have
+     * equal structures, and are therefore compatible.
+     */
+    public boolean isCompatible(StencilOperator other) {
+        if (other.numRows != numRows) {
+            return false;
+        }
+
+        return isDiagonal() || other.isDiagonal() || hasSameStructure(other);
+    }
+
+    private boolean hasSameStructure(StencilOperator other) {
+        // Operators derived from one another share their structure arrays
+        if (offsets == other.offsets && columns == other.columns) {
+            return true;
+        }
+
+        return Arrays.equals(offsets, other.offsets) && Arrays.equals(columns, other.columns);
+    }
+
+    /**
+     * Returns true if the operator has no off-diagonal entries.
+     */
+    public boolean isDiagonal() {
+        return columns.length == 0 || neighborValue == 0.0;
+    }
+
+    /**
+     * Returns the sum of this operator and another compatible operator.
+     *
+     * @throws IllegalArgumentException if the operators have different
+     *                                  neighbor structures.
+     */
+    public StencilOperator plus(StencilOperator other) {
+        if (!isCompatible(other)) {
+            throw new IllegalArgumentException("Cannot add stencil operators with different neighbor structures.");
+        }
+
+        double[] sum = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            sum[i] = diagonal[i] + other.diagonal[i];
+        }
+
+        StencilOperator structure = isDiagonal() ? other : this;
+        double b = (isDiagonal() ? 0.0 : neighborValue) + (other.isDiagonal() ? 0.0 : other.neighborValue);
+        return new StencilOperator(structure.offsets, structure.columns, sum, b);
+    }
+
+    /**
+     * Returns a copy of this operator with the specified values added to
+     * the diagonal.
+     */
+    public StencilOperator plusDiagonal(double[] values) {
+        if (values.length != numRows) {
+            throw new IndexOutOfBoundsException("Diagonal length " + values.length + " does not match operator size " + numRows);
+        }
+
+        double[] sum = diagonal.clone();
+        for (int i = 0; i < numRows; i++) {
+            sum[i] += values[i];
+        }
+
+        return new StencilOperator(offsets, columns, sum, neighborValue);
+    }
+
+    /**
+     * Returns shift I + scale M.
+     */
+    public StencilOperator scaleAndShift(double scale, double shift) {
+        double[] d = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            d[i] = shift + scale * diagonal[i];
+        }
+
+        return new StencilOperator(offsets, columns, d, scale * neighborValue);
+    }
+
+    /**
+     * Returns I - M, the operator of the steady state equation.
+     */
+    public StencilOperator complement() {
+        double[] d = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            d[i] = 1.0 - diagonal[i];
+        }
+
+        return new StencilOperator(offsets, columns, d, -neighborValue);
+    }
+
+    /**
+     * Returns the equivalent matrix in compressed-row form, for use by
+     * methods (such as incomplete factorizations) that require explicit
+     * entries. Every diagonal entry is stored, even if it is zero.
+     */
+    public CompRowMatrix assemble() {
+        int[][] structure = new int[numRows][];
+        for (int i = 0; i < numRows; i++) {
+            int[] row = Arrays.copyOfRange(columns, offsets[i], offsets[i + 1] + 1);
+            row[row.length - 1] = i;
+            structure[i] = Arrays.stream(row).sorted().distinct().toArray();
+        }
+
+        CompRowMatrix ret = new CompRowMatrix(numRows, numColumns, structure);
+        for (MatrixEntry entry : this) {
+            ret.add(entry.row(), entry.column(), entry.get());
+        }
+
+        return ret;
+    }
+
+    public double getDiagonal(int i) {
+        return diagonal[i];
+    }
+
+    public double getNeighborValue() {
+        return neighborValue;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        check(row, column);
+        if (row == column) {
+            return diagonal[row];
+        }
+
+        int count = 0;
+        for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+            if (columns[k] == column) {
+                count++;
+            }
+        }
+
+        return count * neighborValue;
+    }
+
+    @Override
+    public StencilOperator copy() {
+        // Immutable, so a copy may share all of its state.
+        return this;
+    }
+
+    /**
+     * y = alpha M x + y
+     */
+    @Override
+    public Vector multAdd(double alpha, Vector x, Vector y) {
+        checkMultAdd(x, y);
+        if (!(x instanceof DenseVector) || !(y instanceof DenseVector)) {
+            return super.multAdd(alpha, x, y);
+        }
+
+        double[] xd = ((DenseVector) x).getData();
+        double[] yd = ((DenseVector) y).getData();
+        double ab = alpha * neighborValue;
+
+        for (int i = 0; i < numRows; i++) {
+            double sum = 0.0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                sum += xd[columns[k]];
+            }
+            yd[i] += alpha * diagonal[i] * xd[i] + ab * sum;
+        }
+
+        return y;
+    }
+
+    /**
+     * y = alpha M^T x + y
+     */
+    @Override
+    public Vector transMultAdd(double alpha, Vector x, Vector y) {
+        checkTransMultAdd(x, y);
+        if (!(x instanceof DenseVector) || !(y instanceof DenseVector)) {
+            return super.transMultAdd(alpha, x, y);
+        }
+
+        double[] xd = ((DenseVector) x).getData();
+        double[] yd = ((DenseVector) y).getData();
+        double ab = alpha * neighborValue;
+
+        for (int i = 0; i < numRows; i++) {
+            yd[i] += alpha * diagonal[i] * xd[i];
+            double contribution = ab * xd[i];
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                yd[columns[k]] += contribution;
+            }
+        }
+
+        return y;
+    }
+
+    /**
+     * Visits the diagonal of each row, followed by its off-diagonal entries.
+     * A neighbor listed more than once is visited once per listing.
+     */
+    @Override
+    public Iterator<MatrixEntry> iterator() {
+        return new Iterator<MatrixEntry>() {
+            private int row = 0;
+
+            // -1 indicates the diagonal of the current row
+            private int cursor = -1;
+
+            @Override
+            public boolean hasNext() {
+                return row < numRows;
+            }
+
+            @Override
+            public MatrixEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                StencilEntry entry;
+                if (cursor < 0) {
+                    entry = new StencilEntry(row, row, diagonal[row]);
+                    cursor = offsets[row];
+                } else {
+                    entry = new StencilEntry(row, columns[cursor], neighborValue);
+                    cursor++;
+                }
+
+                if (cursor >= offsets[row + 1]) {
+                    row++;
+                    cursor = -1;
+                }
+
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static class StencilEntry implements MatrixEntry {
+        private final int row;
+        private final int column;
+        private final double value;
+
+        StencilEntry(int row, int column, double value) {
+            this.row = row;
+            this.column = column;
+            this.value = value;
+        }
+
+        @Override
+        public int row() {
+            return row;
+        }
+
+        @Override
+        public int column() {
+            return column;
+        }
+
+        @Override
+        public double get() {
+            return value;
+        }
+
+        @Override
+        public void set(double value) {
+            throw new UnsupportedOperationException("Stencil operators are immutable.");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.CompRowMatrix;
+import no.uib.cipr.matrix.sparse.FlexCompRowMatrix;
+
+/**
+ * Advances the field through the elapsed time rather than jumping to its
+ * steady state. The scheduled difference relation is treated as a rate
+ * per unit time, i.e.,
+ *
+ *     dc/dt = (Q - I) c + g
+ *
+ * which has the same steady state. Each solve takes a single step of the
+ * theta method over the elapsed time dt:
+ *
+ *     [I + theta dt (I - Q)] c' = [I - (1 - theta) dt (I - Q)] c + dt g
+ *
+ * Theta = 1 is backward Euler, which is unconditionally stable and damps
+ * all transients; theta = 1/2 is Crank-Nicolson, which is second-order
+ * accurate in time. Since the system is close to the identity for small
+ * dt, and the iteration starts from the current state, each step costs
+ * only a few iterations of the linear solver.
+ *
+ * @test TransientTest
+ */
+public class Transient implements StateSolver {
+
+    public static final double BACKWARD_EULER = 1.0;
+    public static final double CRANK_NICOLSON = 0.5;
+
+    private final LinearSolver solver;
+    private final double theta;
+
+    public Transient(LinearSolver solver, double theta) {
+        if (theta < 0.5 || theta > 1.0) {
+            throw new IllegalArgumentException("Implicit weight must be between 0.5 and 1 for an unconditionally stable step.");
+        }
+
+        this.solver = solver;
+        this.theta = theta;
+    }
+
+    @Override
+    public Vector solve(Vector source, Matrix operator, Vector initial, double dt) {
+        if (dt <= 0.0) {
+            return initial.copy();
+        }
+
+        double implicit = theta * dt;
+        double explicit = (1.0 - theta) * dt;
+
+        // rhs = (1 - explicit) c + explicit Q c + dt g
+        DenseVector rhs = new DenseVector(initial);
+        rhs.scale(1.0 - explicit);
+        if (explicit > 0.0) {
+            operator.multAdd(explicit, initial, rhs);
+        }
+        rhs.add(dt, source);
+
+        Matrix system = getSystem(operator, implicit);
+        return solver.solve(system, rhs, initial);
+    }
+
+    @Override
+    public boolean isTransient() {
+        return true;
+    }
+
+    /**
+     * Returns I + implicit (I - Q) = (1 + implicit) I - implicit Q.
+     */
+    private Matrix getSystem(Matrix operator, double implicit) {
+        if (operator instanceof StencilOperator) {
+            return ((StencilOperator) operator).scaleAndShift(-implicit, 1.0 + implicit);
+        }
+
+        FlexCompRowMatrix system = new FlexCompRowMatrix(operator);
+        system.scale(-implicit);
+        for (int i = 0; i < system.numRows(); i++) {
+            system.add(i, i, 1.0 + implicit);
+        }
+        return new CompRowMatrix(system);
+    }
+}
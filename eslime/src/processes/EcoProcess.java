@@ -82,4 +82,11 @@ public abstract class EcoProcess {
         return arguments.getGeneralParameters();
     }
     public abstract void init();
+
+    /**
+     * Releases any resources held by the process once the simulation has
+     * concluded. The process may be initialized and used again afterward.
+     */
+    public void close() {
+    }
 }
@@ -70,6 +70,11 @@ public class StepState {
         return recorded;
     }
 
+    /**
+     * Record a snapshot of the cell layer for output. For finite layers,
+     * the snapshot shares storage with the live layer until the latter
+     * is modified, so recording does not copy the whole lattice.
+     */
     public void record(CellLayer cellLayer) {
         recordedCellLayer = cellLayer.clone();
         recorded = true;
@@ -7,46 +7,120 @@ package processes.continuum;
 
 import control.identifiers.Coordinate;
 import geometry.Geometry;
-import no.uib.cipr.matrix.DenseMatrix;
+import geometry.NeighborTable;
+import layers.continuum.solve.StencilOperator;
+import no.uib.cipr.matrix.sparse.CompRowMatrix;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
 /**
+ * Diffusion operator stored in compressed-row form. Each row has at most
+ * (connectivity + 1) non-zero entries, so the memory required by the
+ * operator is linear in the number of canonical sites.
+ * <p/>
+ * Continuum layers do not require the assembled matrix; the equivalent
+ * matrix-free operator is constructed by stencil(...). The assembled form
+ * is kept as the explicit reference for the stencil, against which it is
+ * tested, and for callers that need a general matrix, e.g. to combine
+ * diffusion with other terms in ScheduledOperations.apply(...).
+ *
  * Created by dbborens on 1/24/15.
  */
-public class DiffusionOperator extends DenseMatrix {
+public class DiffusionOperator extends CompRowMatrix {
 
     public DiffusionOperator(DiffusionConstantHelper helper, Geometry geometry) {
-        this(geometry.getCanonicalSites().length);
-        load(helper, geometry);
+        this(helper, getNeighborIndices(geometry));
     }
 
-    private void load(DiffusionConstantHelper helper, Geometry geometry) {
-        Coordinate[] sites = geometry.getCanonicalSites();
-        int n = sites.length;
-        Function<Coordinate, Integer> indexer = geometry.getIndexer();
+    private DiffusionOperator(DiffusionConstantHelper helper, int[][] neighbors) {
+        super(neighbors.length, neighbors.length, getStructure(neighbors));
+        load(helper, neighbors);
+    }
+
+    private void load(DiffusionConstantHelper helper, int[][] neighbors) {
+        int n = neighbors.length;
         IntStream.range(0, n)
-                .boxed()
                 .forEach(j -> {
-                    Coordinate coord = sites[j];
-
                     // Set the diagonal value
                     add(j, j, helper.getDiagonalValue());
 
                     // Set each neighbor. For reflecting boundary conditions, one or
                     // more neighbors may be the diagonal.
-                    Arrays.asList(geometry.getNeighbors(coord, Geometry.APPLY_BOUNDARIES))
-                            .stream()
-                            .map(indexer)
+                    Arrays.stream(neighbors[j])
                             .forEach(i -> add(i, j, helper.getNeighborValue()));
-
                 });
     }
 
-    private DiffusionOperator(int n) {
-        super(n, n);
+    /**
+     * Construct the matrix-free equivalent of the diffusion operator for the
+     * specified geometry.
+     */
+    public static StencilOperator stencil(DiffusionConstantHelper helper, Geometry geometry) {
+        return StencilOperator.diffusion(getNeighborTable(geometry),
+                helper.getDiagonalValue(),
+                helper.getNeighborValue());
+    }
+
+    private static NeighborTable getNeighborTable(Geometry geometry) {
+        NeighborTable table = geometry.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        if (table != null) {
+            return table;
+        }
+
+        return NeighborTable.fromRows(resolveNeighbors(geometry));
+    }
+
+    /**
+     * Resolve the neighbors of each canonical site to vector indices.
+     * Element [j] contains the indices of the neighbors of site j.
+     */
+    private static int[][] getNeighborIndices(Geometry geometry) {
+        NeighborTable table = geometry.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        if (table != null) {
+            return IntStream.range(0, table.size())
+                    .mapToObj(table::getNeighbors)
+                    .toArray(int[][]::new);
+        }
+
+        return resolveNeighbors(geometry);
+    }
+
+    private static int[][] resolveNeighbors(Geometry geometry) {
+        Coordinate[] sites = geometry.getCanonicalSites();
+        Function<Coordinate, Integer> indexer = geometry.getIndexer();
+        return Arrays.stream(sites)
+                .map(coord -> Arrays.stream(geometry.getNeighbors(coord, Geometry.APPLY_BOUNDARIES))
+                        .mapToInt(indexer::apply)
+                        .toArray())
+                .toArray(int[][]::new);
+    }
+
+    /**
+     * Construct the non-zero structure of the operator. Row i has a non-zero
+     * entry in column j if i == j, or if site i is a neighbor of site j.
+     */
+    private static int[][] getStructure(int[][] neighbors) {
+        int n = neighbors.length;
+        List<TreeSet<Integer>> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            TreeSet<Integer> row = new TreeSet<>();
+            row.add(i);
+            rows.add(row);
+        }
+
+        for (int j = 0; j < n; j++) {
+            for (int i : neighbors[j]) {
+                rows.get(i).add(j);
+            }
+        }
 
+        return rows.stream()
+                .map(row -> row.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
     }
 }
@@ -28,6 +28,7 @@ public class Integrate extends ContinuumProcess {
 
     @Override
     public void fire(StepState state) throws HaltCondition {
+        scheduler.setTime(state.getTime());
         scheduler.solve();
     }
 
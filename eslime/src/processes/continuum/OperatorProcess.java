@@ -6,7 +6,7 @@
 package processes.continuum;
 
 import control.halt.HaltCondition;
-import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.Matrix;
 import processes.BaseProcessArguments;
 import processes.StepState;
 
@@ -20,10 +20,10 @@ import java.util.function.Consumer;
  */
 public class OperatorProcess extends ContinuumProcess {
 
-    private DenseMatrix operator;
-    private Consumer<DenseMatrix> target;
+    private Matrix operator;
+    private Consumer<Matrix> target;
 
-    public OperatorProcess(BaseProcessArguments arguments, DenseMatrix operator, Consumer<DenseMatrix> target) {
+    public OperatorProcess(BaseProcessArguments arguments, Matrix operator, Consumer<Matrix> target) {
         super(arguments);
         this.target = target;
         this.operator = operator;
@@ -23,6 +23,7 @@ public class ScheduleRelease extends ContinuumProcess {
 
     @Override
     public void fire(StepState state) throws HaltCondition {
+        scheduler.setTime(state.getTime());
         scheduler.release();
     }
 
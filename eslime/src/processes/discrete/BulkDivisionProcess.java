@@ -8,37 +8,89 @@ package processes.discrete;
 import cells.Cell;
 import control.halt.HaltCondition;
 import control.identifiers.Coordinate;
+import layers.cell.CellIndexViewer;
 import layers.cell.CellLookupManager;
 import layers.cell.CellUpdateManager;
 import processes.BaseProcessArguments;
-import processes.MaxTargetHelper;
 
+import java.util.List;
 import java.util.Random;
 
+/**
+ * Base class for processes that cause cells to divide, shoving their
+ * neighbors aside to make room. If more than one thread is specified, each
+ * batch of divisions is planned concurrently, as described in
+ * DivisionScheduler. The result is then reproducible for a given random
+ * number seed regardless of the number of threads, but differs from that
+ * of one thread, in which divisions take place strictly one at a time.
+ */
 public abstract class BulkDivisionProcess extends CellProcess {
 
 
     protected Random random;
     private ShoveHelper shoveHelper;
+    private DivisionScheduler scheduler;
+    private final int threads;
 
     public BulkDivisionProcess(BaseProcessArguments arguments, CellProcessArguments cpArguments) {
+        this(arguments, cpArguments, 1);
+    }
+
+    public BulkDivisionProcess(BaseProcessArguments arguments, CellProcessArguments cpArguments, int threads) {
         super(arguments, cpArguments);
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+        }
+
+        this.threads = threads;
     }
 
     @Override
     public void init() {
         random = getGeneralParameters().getRandom();
         shoveHelper = new ShoveHelper(getLayerManager(), random);
+        close();
+        if (threads > 1) {
+            scheduler = new DivisionScheduler(layer, shoveHelper, threads);
+        }
     }
 
-    protected void execute(Coordinate[] candidates) throws HaltCondition {
-        Object[] chosen = MaxTargetHelper.respectMaxTargets(candidates, maxTargets.next(), getGeneralParameters().getRandom());
-        Cell[] chosenCells = toCellArray(chosen);
-        for (int i = 0; i < chosenCells.length; i++) {
-            Cell cell = chosenCells[i];
-            CellLookupManager lm = layer.getLookupManager();
-            Coordinate currentLocation = lm.getCellLocation(cell);
-            doDivision(currentLocation);
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.close();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Divide up to the maximum number of targets, sampled directly from
+     * the specified index of candidate sites.
+     * <p/>
+     * Targets used to be chosen by MaxTargetHelper, which shuffled a copy
+     * of every candidate. Sampling draws different random numbers, so when
+     * the maximum number of targets is smaller than the number of
+     * candidates, a given random number seed selects different targets
+     * than it did before. Uncapped divisions are unaffected.
+     */
+    protected void execute(CellIndexViewer candidates) throws HaltCondition {
+        int max = maxTargets.next();
+        int k = (max < 0) ? candidates.size() : max;
+        List<Coordinate> chosen = candidates.sample(getGeneralParameters().getRandom(), k);
+        execute(toCellArray(chosen.toArray()));
+    }
+
+    private void execute(Cell[] chosenCells) throws HaltCondition {
+        if (scheduler != null) {
+            scheduler.execute(chosenCells, random.nextLong());
+        } else {
+            for (int i = 0; i < chosenCells.length; i++) {
+                Cell cell = chosenCells[i];
+                CellLookupManager lm = layer.getLookupManager();
+                Coordinate currentLocation = lm.getCellLocation(cell);
+                doDivision(currentLocation);
+            }
         }
 
         // The shoving process complete, look for cells that have gotten pushed
@@ -47,6 +99,10 @@ public abstract class BulkDivisionProcess extends CellProcess {
         shoveHelper.removeImaginary();
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
     private Cell[] toCellArray(Object[] chosen) {
         int n = chosen.length;
         Cell[] cells = new Cell[n];
@@ -35,8 +35,8 @@ public class DiagnosticProcess extends CellProcess {
 
     @Override
     public void fire(StepState state) throws HaltCondition {
-        System.out.println("Occupied sites:" + layer.getViewer().getOccupiedSites().size());
-        System.out.println("Divisible sites:" + layer.getViewer().getDivisibleSites().size());
+        System.out.println("Occupied sites:" + layer.getViewer().getOccupiedCount());
+        System.out.println("Divisible sites:" + layer.getViewer().getDivisibleCount());
 
         System.out.println("Cells by type:");
         StateMapViewer smv = layer.getViewer().getStateMapViewer();
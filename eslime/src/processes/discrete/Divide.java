@@ -6,38 +6,31 @@
 package processes.discrete;
 
 import control.halt.HaltCondition;
-import control.identifiers.Coordinate;
 import processes.BaseProcessArguments;
 import processes.StepState;
 import processes.gillespie.GillespieState;
 
-import java.util.HashSet;
-
 public class Divide extends BulkDivisionProcess {
 
-    private Coordinate[] candidates;
-
     public Divide(BaseProcessArguments arguments, CellProcessArguments cpArguments) {
         super(arguments, cpArguments);
     }
 
-
-    @Override
-    public void init() {
-        candidates = null;
+    public Divide(BaseProcessArguments arguments, CellProcessArguments cpArguments, int threads) {
+        super(arguments, cpArguments, threads);
     }
 
     public void target(GillespieState gs) throws HaltCondition {
-        HashSet<Coordinate> candSet = layer.getViewer().getDivisibleSites();
-        candidates = candSet.toArray(new Coordinate[0]);
+        // Candidates are drawn from the divisible sites when the process
+        // fires, so only the count is needed here.
+        int n = layer.getViewer().getDivisibleCount();
         if (gs != null) {
-            gs.add(getID(), candidates.length, candidates.length * 1.0D);
+            gs.add(getID(), n, n * 1.0D);
         }
     }
 
     public void fire(StepState state) throws HaltCondition {
-        execute(candidates);
-        candidates = null;
+        execute(layer.getViewer().getDivisibleView());
     }
 
 }
@@ -0,0 +1,216 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete;
+
+import cells.Cell;
+import control.GeneralParameters;
+import control.halt.HaltCondition;
+import control.halt.LatticeFullEvent;
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+import layers.cell.CellLayer;
+import layers.cell.CellLookupManager;
+import layers.cell.CellUpdateManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Carries out a batch of divisions with shoving, planning them on several
+ * threads at once. Divisions take place in rounds:
+ * <p/>
+ * 1. Every pending division is planned against the current state of the
+ * lattice: a vacancy is chosen among those nearest to the parent, and a
+ * shove path is drawn from the parent to the vacancy. Plans are made
+ * concurrently, as they do not modify the layer.
+ * <p/>
+ * 2. In order, each plan is accepted unless its path (which includes the
+ * parent and the vacancy) shares a site with a plan accepted earlier in
+ * the round. The accepted plans touch disjoint sets of sites, so none of
+ * them can invalidate another. They are carried out in order; the rest are
+ * deferred to the next round, and planned again.
+ * <p/>
+ * The first pending division is always accepted, so every round makes
+ * progress. Each division draws its random numbers from its own generator,
+ * seeded from the batch seed, its position in the batch and the round, so
+ * the outcome for a given seed does not depend on the number of threads.
+ * Plans are carried out on the calling thread, as the indices of the cell
+ * layer are not safe for concurrent modification. With a single thread,
+ * plans are also made on the calling thread, and no pool is created.
+ * <p/>
+ * If any division in a round has no vacancy, a LatticeFullEvent is thrown
+ * before any plan in that round is carried out. Divisions completed in
+ * earlier rounds remain, just as divisions carried out one at a time
+ * remain when a later one finds the lattice full.
+ *
+ * @test DivisionSchedulerTest
+ */
+class DivisionScheduler {
+
+    private final CellLayer layer;
+    private final ShoveHelper shoveHelper;
+
+    // Null if plans are made on the calling thread
+    private ForkJoinPool pool;
+
+    // claims[i] == stamp iff canonical site i is claimed in this round
+    private int[] claims;
+    private int stamp;
+
+    // Claimed sites that lie outside of the canonical sites (e.g., beyond
+    // an arena boundary)
+    private final HashSet<Coordinate> offLattice;
+
+    public DivisionScheduler(CellLayer layer, ShoveHelper shoveHelper, int threads) {
+        this.layer = layer;
+        this.shoveHelper = shoveHelper;
+        pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+        offLattice = new HashSet<>();
+    }
+
+    /**
+     * Causes each of the specified cells to divide once.
+     */
+    public void execute(Cell[] cells, long seed) throws HaltCondition {
+        List<Integer> pending = new ArrayList<>(cells.length);
+        for (int k = 0; k < cells.length; k++) {
+            pending.add(k);
+        }
+
+        int round = 0;
+        while (!pending.isEmpty()) {
+            Plan[] plans = plan(cells, pending, seed, round);
+            pending = commit(plans);
+            round++;
+        }
+    }
+
+    private Plan[] plan(Cell[] cells, List<Integer> pending, long seed, int round) {
+        CellLookupManager lookup = layer.getLookupManager();
+        lookup.refresh();
+
+        Plan[] plans = new Plan[pending.size()];
+        for (int j = 0; j < plans.length; j++) {
+            int k = pending.get(j);
+            plans[j] = new Plan(k, lookup.getCellLocation(cells[k]));
+        }
+
+        IntConsumer planner = j -> {
+            Plan plan = plans[j];
+            long planSeed = GeneralParameters.deriveSeed(GeneralParameters.deriveSeed(seed, plan.ordinal), round);
+            Random random = new Random(planSeed);
+            Coordinate target = shoveHelper.chooseVacancy(plan.origin, random);
+            if (target != null) {
+                plan.path = shoveHelper.getPath(plan.origin, target, random);
+            }
+        };
+
+        if (pool == null) {
+            IntStream.range(0, plans.length).forEach(planner);
+        } else {
+            pool.submit(() -> IntStream.range(0, plans.length)
+                    .parallel()
+                    .forEach(planner))
+                    .join();
+        }
+
+        return plans;
+    }
+
+    /**
+     * Carries out each plan whose path is disjoint from those of the plans
+     * before it, and returns the divisions that must be deferred.
+     */
+    private List<Integer> commit(Plan[] plans) throws HaltCondition {
+        for (Plan plan : plans) {
+            if (plan.path == null) {
+                throw new LatticeFullEvent();
+            }
+        }
+
+        List<Integer> deferred = new ArrayList<>();
+        nextRound();
+
+        CellUpdateManager um = layer.getUpdateManager();
+        for (Plan plan : plans) {
+            if (!claim(plan.path)) {
+                deferred.add(plan.ordinal);
+                continue;
+            }
+
+            Cell child = um.divide(plan.origin);
+            shoveHelper.shove(plan.path);
+            um.place(child, plan.origin);
+        }
+
+        return deferred;
+    }
+
+    /**
+     * Shuts down the threads on which divisions are planned, if any.
+     */
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private void nextRound() {
+        CanonicalSiteIndex siteIndex = layer.getGeometry().getSiteIndex();
+        if (claims == null || claims.length != siteIndex.size() || stamp == Integer.MAX_VALUE) {
+            claims = new int[siteIndex.size()];
+            stamp = 0;
+        }
+
+        stamp++;
+        offLattice.clear();
+    }
+
+    /**
+     * Claims every site in the path, unless any of them has already been
+     * claimed in this round.
+     */
+    private boolean claim(List<Coordinate> path) {
+        CanonicalSiteIndex siteIndex = layer.getGeometry().getSiteIndex();
+        for (Coordinate c : path) {
+            int i = siteIndex.indexOf(c);
+            if (i >= 0 ? claims[i] == stamp : offLattice.contains(c)) {
+                return false;
+            }
+        }
+
+        for (Coordinate c : path) {
+            int i = siteIndex.indexOf(c);
+            if (i >= 0) {
+                claims[i] = stamp;
+            } else {
+                offLattice.add(c);
+            }
+        }
+
+        return true;
+    }
+
+    private static class Plan {
+        // Position of the division within the batch
+        private final int ordinal;
+        private final Coordinate origin;
+
+        // Null if there is no vacancy
+        private List<Coordinate> path;
+
+        private Plan(int ordinal, Coordinate origin) {
+            this.ordinal = ordinal;
+            this.origin = origin;
+        }
+    }
+}
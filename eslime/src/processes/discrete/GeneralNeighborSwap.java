@@ -8,6 +8,7 @@ package processes.discrete;
 import control.halt.HaltCondition;
 import control.identifiers.Coordinate;
 import geometry.Geometry;
+import geometry.NeighborTable;
 import processes.BaseProcessArguments;
 import processes.StepState;
 import processes.gillespie.GillespieState;
@@ -48,16 +49,7 @@ public class GeneralNeighborSwap extends CellProcess {
             int o = getGeneralParameters().getRandom().nextInt(activeSitesArr.length);
 
             Coordinate first = activeSitesArr[o];
-
-            System.out.println(first);
-            Coordinate[] neighbors = layer.getGeometry().
-                    getNeighbors(first, Geometry.APPLY_BOUNDARIES);
-
-            int m = getGeneralParameters().getRandom().nextInt(neighbors.length);
-
-            Coordinate second = neighbors[m];
-
-            System.out.println(second);
+            Coordinate second = chooseNeighbor(first);
 
             layer.getUpdateManager().swap(first, second);
         }
@@ -66,6 +58,21 @@ public class GeneralNeighborSwap extends CellProcess {
         removeImaginary();
     }
 
+    private Coordinate chooseNeighbor(Coordinate first) {
+        Geometry geom = layer.getGeometry();
+        NeighborTable table = geom.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        int site = (table == null) ? -1 : geom.getSiteIndex().indexOf(first);
+
+        if (site < 0) {
+            Coordinate[] neighbors = geom.getNeighbors(first, Geometry.APPLY_BOUNDARIES);
+            int m = getGeneralParameters().getRandom().nextInt(neighbors.length);
+            return neighbors[m];
+        }
+
+        int m = getGeneralParameters().getRandom().nextInt(table.getDegree(site));
+        return geom.getSiteIndex().getSite(table.getNeighbor(site, m));
+    }
+
     @Override
     public void target(GillespieState gs) throws HaltCondition {
         if (gs != null) {
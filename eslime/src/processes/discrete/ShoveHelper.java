@@ -11,9 +11,10 @@ import control.identifiers.Coordinate;
 import control.identifiers.Flags;
 import geometry.Geometry;
 import layers.LayerManager;
-import processes.StepState;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
@@ -43,14 +44,9 @@ public class ShoveHelper {
      * @return A set of coordinates that were affected by the shove operation.
      */
     public HashSet<Coordinate> shove(Coordinate origin, Coordinate target) throws HaltCondition {
-        HashSet<Coordinate> affectedSites = new HashSet<>();
-
-        Coordinate displacement = layerManager.getCellLayer().getGeometry().
-                getDisplacement(origin,
-                        target, Geometry.APPLY_BOUNDARIES);
-
-        doShove(origin, displacement, affectedSites);
-        return affectedSites;
+        List<Coordinate> path = getPath(origin, target, random);
+        shove(path);
+        return new HashSet<>(path.subList(1, path.size()));
     }
 
     /**
@@ -74,72 +70,89 @@ public class ShoveHelper {
      * @throws HaltCondition
      */
     public Coordinate chooseVacancy(Coordinate origin) throws HaltCondition {
-        StepState state = layerManager.getStepState();
-        Coordinate target;
-        // Get nearest vacancies to the cell
-        Coordinate[] targets = layerManager.getCellLayer().getLookupManager().getNearestVacancies(origin, -1);
-        if (targets.length == 0) {
+        Coordinate target = chooseVacancy(origin, random);
+        if (target == null) {
             throw new LatticeFullEvent();
-        } else {
-            int i = random.nextInt(targets.length);
-            target = targets[i];
         }
 
         return target;
     }
 
     /**
-     * @param currentLocation: starting location. the child will be placed in this
-     *                position after the parent is shoved.
-     * @param d:      displacement vector to target, in natural basis of lattice.
-     * @param sites:  list of affected sites (for highlighting)
-     *                <p/>
-     *                TODO: This is so cloodgy and terrible.
+     * Chooses randomly among the nearest vacancies to the cell, drawing from
+     * the specified random number generator. Returns null if there are no
+     * vacancies. This does not modify the layer, so it may be called
+     * concurrently provided that the layer is not modified meanwhile (see
+     * CellLookupManager.refresh()).
      */
-    private void doShove(Coordinate currentLocation, Coordinate d, HashSet<Coordinate> sites) throws HaltCondition {
-
-        // Base case 0: we've reached the target
-        if (d.norm() == 0) {
-            return;
+    public Coordinate chooseVacancy(Coordinate origin, Random random) {
+        // Get nearest vacancies to the cell
+        Coordinate[] targets = layerManager.getCellLayer().getLookupManager().getNearestVacancies(origin, -1);
+        if (targets.length == 0) {
+            return null;
         }
 
-        // Choose whether to go horizontally or vertically, weighted
-        // by the number of steps remaining in each direction
-        int nv = d.norm();
-
-        // Take a step in the chosen direction.
-        int[] nextDisplacement;                // Displacement vector, one step closer
-        Coordinate nextLocation;
-
-        int[] rel = new int[3];            // Will contain a unit vector specifying
-        // step direction
-
-        // Loop if the move is illegal.
-        do {
-
-            nextDisplacement = new int[]{d.x(), d.y(), d.z()};
+        int i = random.nextInt(targets.length);
+        return targets[i];
+    }
 
-            nextLocation = getNextLocation(currentLocation, d, nv, nextDisplacement, rel);
+    /**
+     * Returns the sites through which a shove from origin to target would
+     * push cells, beginning with the origin and ending with the target.
+     * The path depends only on the geometry and on the random number
+     * generator, so it may be computed concurrently.
+     */
+    public List<Coordinate> getPath(Coordinate origin, Coordinate target, Random random) {
+        Coordinate d = layerManager.getCellLayer().getGeometry().
+                getDisplacement(origin,
+                        target, Geometry.APPLY_BOUNDARIES);
 
-            if (nextLocation == null) {
-                continue;
-            } else if (nextLocation.hasFlag(Flags.BEYOND_BOUNDS) && nv == 1) {
-                throw new IllegalStateException("There's only one place to push cells and it's illegal!");
-            } else if (!nextLocation.hasFlag(Flags.BEYOND_BOUNDS)) {
-                break;
+        List<Coordinate> path = new ArrayList<>(d.norm() + 1);
+        path.add(origin);
+
+        Coordinate currentLocation = origin;
+        int[] rel = new int[3];
+        while (d.norm() != 0) {
+            int nv = d.norm();
+            int[] nextDisplacement;
+            Coordinate nextLocation;
+
+            // Loop if the move is illegal.
+            while (true) {
+                nextDisplacement = new int[]{d.x(), d.y(), d.z()};
+                nextLocation = getNextLocation(currentLocation, d, nv, nextDisplacement, rel, random);
+
+                if (nextLocation == null) {
+                    continue;
+                } else if (nextLocation.hasFlag(Flags.BEYOND_BOUNDS) && nv == 1) {
+                    throw new IllegalStateException("There's only one place to push cells and it's illegal!");
+                } else if (!nextLocation.hasFlag(Flags.BEYOND_BOUNDS)) {
+                    break;
+                }
             }
-        } while (true);
 
-        Coordinate du = new Coordinate(nextDisplacement, d.flags());
-        doShove(nextLocation, du, sites);
+            d = new Coordinate(nextDisplacement, d.flags());
+            currentLocation = nextLocation;
+            path.add(nextLocation);
+        }
+
+        return path;
+    }
 
-        layerManager.getCellLayer().getUpdateManager().swap(currentLocation,
-                nextLocation);
+    /**
+     * Pushes each cell along the specified path (see getPath(...)) one site
+     * toward its end, such that the first site winds up vacant. The last
+     * site must be vacant.
+     */
+    public void shove(List<Coordinate> path) throws HaltCondition {
+        if (path.size() < 2) {
+            return;
+        }
 
-        sites.add(nextLocation);
+        layerManager.getCellLayer().getUpdateManager().shift(path);
     }
 
-    private Coordinate getNextLocation(Coordinate curLoc, Coordinate d, int nv, int[] dNext, int[] rel) {
+    private Coordinate getNextLocation(Coordinate curLoc, Coordinate d, int nv, int[] dNext, int[] rel, Random random) {
         Coordinate nextLoc;
         int o = random.nextInt(nv);
         Coordinate disp = calcDisp(d, dNext, rel, o);
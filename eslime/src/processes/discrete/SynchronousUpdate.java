@@ -0,0 +1,247 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete;
+
+import cells.Cell;
+import control.GeneralParameters;
+import control.halt.HaltCondition;
+import control.identifiers.Coordinate;
+import geometry.NeighborTable;
+import layers.cell.CellUpdateManager;
+import processes.BaseProcessArguments;
+import processes.StepState;
+import processes.discrete.synchronous.LatticeSnapshot;
+import processes.discrete.synchronous.Proposal;
+import processes.discrete.synchronous.UpdateRule;
+import processes.gillespie.GillespieState;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Updates every cell in the active area simultaneously, as in a cellular
+ * automaton. The update takes place in two phases, corresponding to
+ * consider() and apply() on the cell update manager:
+ * <p/>
+ * 1. Each occupied site considers its next state against a snapshot of
+ * the lattice, using the update rule. Sites are evaluated in parallel if
+ * more than one thread is specified.
+ * <p/>
+ * 2. The changes are applied. If several cells propose to occupy the same
+ * vacant site, one of them is chosen uniformly at random; the others
+ * remain unchanged.
+ * <p/>
+ * Each site draws its random numbers from its own generator, seeded from
+ * the process seed, the frame and the site index, and contested sites are
+ * resolved in the same way. The outcome is therefore reproducible for a
+ * given random number seed, regardless of the number of threads.
+ *
+ * @test SynchronousUpdateTest
+ */
+public class SynchronousUpdate extends CellProcess {
+
+    private final UpdateRule rule;
+    private final int threads;
+
+    private ForkJoinPool pool;
+    private NeighborTable neighbors;
+    private long seed;
+
+    public SynchronousUpdate(BaseProcessArguments arguments, CellProcessArguments cpArguments,
+                             UpdateRule rule, int threads) {
+        super(arguments, cpArguments);
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+        }
+
+        this.rule = rule;
+        this.threads = threads;
+    }
+
+    @Override
+    public void init() {
+        seed = getGeneralParameters().getRandom().nextLong();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    @Override
+    public void target(GillespieState gs) throws HaltCondition {
+        if (gs != null) {
+            gs.add(getID(), 1, 1D);
+        }
+    }
+
+    @Override
+    public void fire(StepState state) throws HaltCondition {
+        if (neighbors == null) {
+            neighbors = LatticeSnapshot.getNeighborTable(layer.getGeometry());
+        }
+
+        LatticeSnapshot snapshot = LatticeSnapshot.capture(layer, neighbors);
+        int[] sites = getParticipants(snapshot);
+        long stepSeed = GeneralParameters.deriveSeed(seed, state.getFrame());
+
+        Proposal[] proposals = consider(snapshot, sites, stepSeed);
+        apply(snapshot, sites, proposals, stepSeed);
+    }
+
+    /**
+     * Returns the occupied sites in the active area, in ascending order.
+     */
+    private int[] getParticipants(LatticeSnapshot snapshot) {
+        int[] sites = new int[snapshot.size()];
+        int count = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (snapshot.isOccupied(i) && activeSites.contains(snapshot.getSite(i))) {
+                sites[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(sites, count);
+    }
+
+    private Proposal[] consider(LatticeSnapshot snapshot, int[] sites, long stepSeed) {
+        CellUpdateManager um = layer.getUpdateManager();
+        Proposal[] proposals = new Proposal[sites.length];
+
+        IntConsumer evaluate = j -> {
+            int site = sites[j];
+            um.consider(snapshot.getSite(site));
+            Random random = new Random(GeneralParameters.deriveSeed(stepSeed, site));
+            proposals[j] = rule.propose(site, snapshot, random);
+        };
+
+        if (threads == 1 || sites.length < 2) {
+            for (int j = 0; j < sites.length; j++) {
+                evaluate.accept(j);
+            }
+        } else {
+            getPool().submit(() -> IntStream.range(0, sites.length)
+                    .parallel()
+                    .forEach(evaluate))
+                    .join();
+        }
+
+        return proposals;
+    }
+
+    private void apply(LatticeSnapshot snapshot, int[] sites, Proposal[] proposals,
+                       long stepSeed) throws HaltCondition {
+
+        boolean[] accepted = resolveConflicts(snapshot, proposals, stepSeed);
+
+        CellUpdateManager um = layer.getUpdateManager();
+        for (int site : sites) {
+            um.apply(snapshot.getSite(site));
+        }
+
+        // Accepted proposals have distinct targets, all of which were
+        // vacant in the snapshot, so the order of application does not
+        // matter.
+        for (int j = 0; j < proposals.length; j++) {
+            if (!accepted[j]) {
+                continue;
+            }
+
+            Proposal proposal = proposals[j];
+            Coordinate origin = snapshot.getSite(proposal.getOrigin());
+            Coordinate target = snapshot.getSite(proposal.getTarget());
+
+            if (proposal.getKind() == Proposal.Kind.DIVIDE) {
+                Cell child = um.divide(origin);
+                um.place(child, target);
+            } else {
+                um.move(origin, target);
+            }
+        }
+    }
+
+    /**
+     * Chooses one proposal for each target site, uniformly among those
+     * that claim it, and returns which proposals were accepted.
+     */
+    private boolean[] resolveConflicts(LatticeSnapshot snapshot, Proposal[] proposals,
+                                       long stepSeed) {
+
+        int[] claims = new int[snapshot.size()];
+        for (Proposal proposal : proposals) {
+            if (proposal != null) {
+                claims[proposal.getTarget()]++;
+            }
+        }
+
+        // Rank (in order of origin) of the winning claim on each site
+        int[] winners = new int[snapshot.size()];
+        for (int target = 0; target < claims.length; target++) {
+            if (claims[target] > 1) {
+                Random random = new Random(GeneralParameters.deriveSeed(~stepSeed, target));
+                winners[target] = random.nextInt(claims[target]);
+            }
+        }
+
+        boolean[] accepted = new boolean[proposals.length];
+        for (int j = 0; j < proposals.length; j++) {
+            if (proposals[j] == null) {
+                continue;
+            }
+
+            int target = proposals[j].getTarget();
+            accepted[j] = (winners[target] == 0);
+            winners[target]--;
+        }
+
+        return accepted;
+    }
+
+    private ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+
+        return pool;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SynchronousUpdate)) {
+            return false;
+        }
+
+        SynchronousUpdate other = (SynchronousUpdate) obj;
+
+        if (!rule.equals(other.rule)) {
+            return false;
+        }
+
+        if (threads != other.threads) {
+            return false;
+        }
+
+        if (activeSites != null ? !activeSites.equals(other.activeSites) : other.activeSites != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = rule.hashCode();
+        result = 31 * result + threads;
+        result = 31 * result + (activeSites != null ? activeSites.hashCode() : 0);
+        return result;
+    }
+}
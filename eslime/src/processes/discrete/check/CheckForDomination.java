@@ -80,7 +80,7 @@ public class CheckForDomination extends CellProcess {
 
     private void doCheck(int target, StepState stepState) throws HaltCondition {
         double numTargetCells = layer.getViewer().getStateMapViewer().getCount(target);
-        double numCells = layer.getViewer().getOccupiedSites().size();
+        double numCells = layer.getViewer().getOccupiedCount();
 
         double fraction = numTargetCells / numCells;
 
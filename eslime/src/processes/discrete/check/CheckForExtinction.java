@@ -49,13 +49,13 @@ public class CheckForExtinction extends CellProcess {
     public void fire(StepState state) throws HaltCondition {
         // Handle true extinction exactly
         boolean thresholdIsZero = getGeneralParameters().epsilonEquals(threshold, 0.0);
-        boolean noOccupiedSites = layer.getViewer().getOccupiedSites().size() == 0;
+        boolean noOccupiedSites = layer.getViewer().getOccupiedCount() == 0;
         if (thresholdIsZero && noOccupiedSites) {
             throw new ExtinctionEvent();
         }
 
         double totalSites = layer.getGeometry().getCanonicalSites().length * 1.0;
-        double sitesOccupied = layer.getViewer().getOccupiedSites().size() * 1.0;
+        double sitesOccupied = layer.getViewer().getOccupiedCount() * 1.0;
 
         double occupancy = sitesOccupied / totalSites;
 
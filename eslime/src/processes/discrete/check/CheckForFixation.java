@@ -42,7 +42,7 @@ public class CheckForFixation extends CellProcess {
         StateMapViewer smv = layer.getViewer().getStateMapViewer();
 
         for (Integer s : smv.getStates()) {
-            if (smv.getCount(s) == layer.getViewer().getOccupiedSites().size()) {
+            if (smv.getCount(s) == layer.getViewer().getOccupiedCount()) {
                 throw new FixationEvent(s);
             }
         }
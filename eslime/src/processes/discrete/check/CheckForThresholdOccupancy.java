@@ -54,7 +54,7 @@ public class CheckForThresholdOccupancy extends CellProcess {
 
     @Override
     public void fire(StepState state) throws HaltCondition {
-        int numOccupied = layer.getViewer().getOccupiedSites().size();
+        int numOccupied = layer.getViewer().getOccupiedCount();
 
         if (numOccupied >= thresholdCount) {
             throw new ThresholdOccupancyReachedEvent();
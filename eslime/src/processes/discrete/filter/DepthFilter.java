@@ -41,16 +41,15 @@ public class DepthFilter extends Filter {
         // Consider each set in the unfiltered pool.
         for (Coordinate c : toFilter) {
 
-            // Find the nearest vacancies within a radius up to and including
-            // the maximum permissible. If a cell has vacant neighbors, it is at
+            // Look for vacancies within a radius up to and including the
+            // maximum permissible. If a cell has vacant neighbors, it is at
             // the surface (depth = 0), and if it is next to cells with vacant
-            // neigbhors, it is at depth 1. But the argument for getNearestVacancies
-            // is an exclusive boundary, so add 1 to the argument.
-            Coordinate[] vacancies = layer.getLookupManager().getNearestVacancies(c, depth + 1);
+            // neigbhors, it is at depth 1. So a cell at the maximum depth is
+            // (depth + 1) steps from the nearest vacancy.
 
             // If any vacancies were found within the permissible depth, then
             // the coordinate meets requirements.
-            if (vacancies.length > 0) {
+            if (layer.getLookupManager().hasVacancyWithin(c, depth + 1)) {
                 set.add(c);
             }
         }
@@ -0,0 +1,29 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete.synchronous;
+
+import java.util.Random;
+
+/**
+ * Every divisible cell with a vacant neighbor proposes to place a daughter
+ * cell into one of them, chosen uniformly at random.
+ */
+public class DivideToVacancy extends UpdateRule {
+
+    @Override
+    public Proposal propose(int site, LatticeSnapshot snapshot, Random random) {
+        if (!snapshot.isDivisible(site)) {
+            return null;
+        }
+
+        int target = snapshot.chooseVacantNeighbor(site, random);
+        if (target < 0) {
+            return null;
+        }
+
+        return new Proposal(Proposal.Kind.DIVIDE, site, target);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete.synchronous;
+
+import cells.Cell;
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+import geometry.Geometry;
+import geometry.NeighborTable;
+import layers.cell.CellLayer;
+import layers.cell.CellLayerViewer;
+
+import java.util.Random;
+
+/**
+ * Read-only copy of the cell lattice at the start of a synchronous update,
+ * expressed in canonical site indices. Every cell evaluates its next state
+ * against the same snapshot, so the result does not depend on the order
+ * in which cells are evaluated, and the snapshot can be shared safely
+ * between threads.
+ *
+ * @test LatticeSnapshotTest
+ */
+public class LatticeSnapshot {
+
+    private final CanonicalSiteIndex siteIndex;
+    private final NeighborTable neighbors;
+
+    // State of the cell at each site, or 0 if the site is vacant
+    private final int[] states;
+    private final boolean[] divisible;
+
+    public LatticeSnapshot(CanonicalSiteIndex siteIndex, NeighborTable neighbors,
+                           int[] states, boolean[] divisible) {
+        this.siteIndex = siteIndex;
+        this.neighbors = neighbors;
+        this.states = states;
+        this.divisible = divisible;
+    }
+
+    /**
+     * Captures the current state of the specified cell layer. Cells outside
+     * of the canonical sites (e.g., those pushed beyond an arena boundary)
+     * are not captured.
+     *
+     * @param neighbors the neighbor table of the layer's geometry; see
+     *                  getNeighborTable(...)
+     */
+    public static LatticeSnapshot capture(CellLayer layer, NeighborTable neighbors) {
+        CanonicalSiteIndex siteIndex = layer.getGeometry().getSiteIndex();
+
+        int n = siteIndex.size();
+        int[] states = new int[n];
+        boolean[] divisible = new boolean[n];
+
+        CellLayerViewer viewer = layer.getViewer();
+        for (Coordinate c : viewer.getOccupiedSites()) {
+            int i = siteIndex.indexOf(c);
+            if (i < 0) {
+                continue;
+            }
+
+            Cell cell = viewer.getCell(c);
+            states[i] = cell.getState();
+            divisible[i] = cell.isDivisible();
+        }
+
+        return new LatticeSnapshot(siteIndex, neighbors, states, divisible);
+    }
+
+    /**
+     * Returns a table of the neighbors of each canonical site of the
+     * specified geometry. Neighbors that lie outside of the canonical sites,
+     * such as those beyond an arena boundary, are omitted. The geometry's
+     * own table is used where one is available; otherwise, a table is built,
+     * which callers should retain.
+     */
+    public static NeighborTable getNeighborTable(Geometry geom) {
+        NeighborTable neighbors = geom.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        if (neighbors != null) {
+            return neighbors;
+        }
+
+        neighbors = geom.getNeighborTable(Geometry.EXCLUDE_BOUNDARIES);
+        if (neighbors != null) {
+            return neighbors;
+        }
+
+        neighbors = NeighborTable.build(geom.getSiteIndex(),
+                c -> geom.getNeighbors(c, Geometry.EXCLUDE_BOUNDARIES));
+
+        if (neighbors == null) {
+            throw new IllegalStateException("Synchronous updates require a lattice with finitely many sites.");
+        }
+
+        return neighbors;
+    }
+
+    public int size() {
+        return states.length;
+    }
+
+    public Coordinate getSite(int site) {
+        return siteIndex.getSite(site);
+    }
+
+    public int getState(int site) {
+        return states[site];
+    }
+
+    public boolean isOccupied(int site) {
+        return states[site] != 0;
+    }
+
+    public boolean isDivisible(int site) {
+        return divisible[site];
+    }
+
+    public int getDegree(int site) {
+        return neighbors.getDegree(site);
+    }
+
+    public int getNeighbor(int site, int k) {
+        return neighbors.getNeighbor(site, k);
+    }
+
+    /**
+     * Returns a vacant neighbor of the specified site, chosen uniformly at
+     * random, or -1 if there is none.
+     */
+    public int chooseVacantNeighbor(int site, Random random) {
+        int degree = neighbors.getDegree(site);
+        int vacant = 0;
+        for (int k = 0; k < degree; k++) {
+            if (!isOccupied(neighbors.getNeighbor(site, k))) {
+                vacant++;
+            }
+        }
+
+        if (vacant == 0) {
+            return -1;
+        }
+
+        int r = random.nextInt(vacant);
+        for (int k = 0; k < degree; k++) {
+            int neighbor = neighbors.getNeighbor(site, k);
+            if (!isOccupied(neighbor) && r-- == 0) {
+                return neighbor;
+            }
+        }
+
+        throw new IllegalStateException("Unreachable");
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete.synchronous;
+
+import java.util.Random;
+
+/**
+ * Every cell with a vacant neighbor proposes to move into one of them,
+ * chosen uniformly at random.
+ */
+public class MoveToVacancy extends UpdateRule {
+
+    @Override
+    public Proposal propose(int site, LatticeSnapshot snapshot, Random random) {
+        int target = snapshot.chooseVacantNeighbor(site, random);
+        if (target < 0) {
+            return null;
+        }
+
+        return new Proposal(Proposal.Kind.MOVE, site, target);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete.synchronous;
+
+/**
+ * A change that a cell proposes to make during a synchronous update: to
+ * place a daughter cell into, or to move into, a target site that was
+ * vacant in the snapshot. Sites are canonical site indices.
+ */
+public class Proposal {
+
+    public enum Kind {
+        DIVIDE,
+        MOVE
+    }
+
+    private final Kind kind;
+    private final int origin;
+    private final int target;
+
+    public Proposal(Kind kind, int origin, int target) {
+        this.kind = kind;
+        this.origin = origin;
+        this.target = target;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getOrigin() {
+        return origin;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Proposal other = (Proposal) o;
+        return kind == other.kind && origin == other.origin && target == other.target;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = kind.hashCode();
+        result = 31 * result + origin;
+        result = 31 * result + target;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + origin + " -> " + target;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete.synchronous;
+
+import java.util.Random;
+
+/**
+ * Determines the next state of a cell during a synchronous update.
+ * <p/>
+ * Rules are evaluated concurrently for different cells. They must depend
+ * only on the snapshot and on the random number generator supplied, which
+ * belongs to the site being evaluated, and must not modify shared state.
+ */
+public abstract class UpdateRule {
+
+    /**
+     * Returns the change proposed by the cell at the specified site, or
+     * null if it proposes no change.
+     */
+    public abstract Proposal propose(int site, LatticeSnapshot snapshot, Random random);
+
+    /**
+     * Rules are equal if and only if they are of the same class.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && obj.getClass().equals(getClass());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
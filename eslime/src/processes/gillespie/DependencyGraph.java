@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.gillespie;
+
+import processes.EcoProcess;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Records, for each process, the reactions whose propensity may change when
+ * that process fires. Reactions are identified by their position in the
+ * list of reactions. A process for which no dependencies were declared is
+ * assumed to affect every reaction.
+ *
+ * @test DependencyGraphTest
+ */
+public class DependencyGraph {
+
+    private final int reactionCount;
+    private final int[] all;
+    private final IdentityHashMap<EcoProcess, int[]> affected;
+
+    public DependencyGraph(int reactionCount) {
+        this.reactionCount = reactionCount;
+        all = new int[reactionCount];
+        for (int i = 0; i < reactionCount; i++) {
+            all[i] = i;
+        }
+        affected = new IdentityHashMap<>();
+    }
+
+    public void declare(EcoProcess source, int[] reactions) {
+        for (int reaction : reactions) {
+            if (reaction < 0 || reaction >= reactionCount) {
+                throw new IllegalArgumentException("Process " + source.getID() +
+                        " declares a dependency on unknown reaction " + reaction + ".");
+            }
+        }
+
+        affected.put(source, reactions.clone());
+    }
+
+    /**
+     * Returns the reactions whose propensity may change when the specified
+     * process fires.
+     */
+    public int[] getAffected(EcoProcess source) {
+        if (!affected.containsKey(source)) {
+            return all;
+        }
+
+        return affected.get(source);
+    }
+
+    public int getReactionCount() {
+        return reactionCount;
+    }
+}
@@ -5,7 +5,7 @@
 
 package processes.gillespie;
 
-import structural.RangeMap;
+import structural.WeightedSampler;
 
 /**
  * @author dbborens
@@ -13,14 +13,16 @@ import structural.RangeMap;
  */
 public class GillespieChooser {
 
-    private RangeMap<Integer> chooser;
+    private Integer[] keys;
+    private WeightedSampler chooser;
 
     public GillespieChooser(GillespieState state) {
-        chooser = new RangeMap<>();
+        keys = state.getKeys();
+        chooser = new WeightedSampler(keys.length);
 
-        for (Integer processId : state.getKeys()) {
+        for (Integer processId : keys) {
             double weight = state.getWeight(processId);
-            chooser.add(processId, weight);
+            chooser.add(weight);
         }
     }
 
@@ -39,6 +41,6 @@ public class GillespieChooser {
      * @return
      */
     public Integer selectTarget(double x) {
-        return chooser.selectTarget(x);
+        return keys[chooser.select(x)];
     }
 }
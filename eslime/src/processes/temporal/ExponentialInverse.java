@@ -32,7 +32,7 @@ public class ExponentialInverse extends TimeProcess {
 
     @Override
     public void fire(StepState state) throws HaltCondition {
-        double lambda = 1.0D / getLayerManager().getCellLayer().getViewer().getOccupiedSites().size();
+        double lambda = 1.0D / getLayerManager().getCellLayer().getViewer().getOccupiedCount();
         double dt = expRandom(lambda);
         state.advanceClock(dt);
     }
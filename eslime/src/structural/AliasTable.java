@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package structural;
+
+/**
+ * Samples from a fixed set of non-negative weights in constant time, using
+ * Walker's alias method (as constructed by Vose). Each of n columns holds
+ * an item and, possibly, an alias; a sample picks a column uniformly and
+ * then either the item or its alias.
+ * <p/>
+ * Unlike WeightedSampler, an input x in [0, total) does not correspond to
+ * contiguous ranges of weight. The item returned for a uniformly
+ * distributed x nonetheless has the same distribution.
+ *
+ * @test AliasTableTest
+ */
+public class AliasTable {
+
+    private final int n;
+    private final double total;
+
+    // Probability of keeping the column's own item, and its alias
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    public AliasTable(double[] weights) {
+        n = weights.length;
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        double sum = 0.0;
+        for (double weight : weights) {
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be finite and non-negative; got " + weight);
+            }
+            sum += weight;
+        }
+        total = sum;
+
+        if (total == 0.0) {
+            return;
+        }
+
+        // Columns filled below and above the mean, as stacks
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probabilities[s] = scaled[s];
+            aliases[s] = l;
+
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+
+        // Whatever remains is full, up to rounding.
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            probabilities[l] = 1.0;
+            aliases[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            probabilities[s] = 1.0;
+            aliases[s] = s;
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public double getTotalWeight() {
+        return total;
+    }
+
+    /**
+     * Returns an item, given 0 <= x <= getTotalWeight().
+     */
+    public int select(double x) {
+        if (x < 0 || x > total || total == 0.0) {
+            throw new IllegalStateException("Attempted to search range map beyond bounds");
+        }
+
+        double u = (x / total) * n;
+        int column = Math.min((int) u, n - 1);
+        double fraction = u - column;
+        return fraction < probabilities[column] ? column : aliases[column];
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package structural;
+
+/**
+ * Binary min-heap over a fixed set of indices 0..n-1, each with a double
+ * key. Unlike java.util.PriorityQueue, the key of any index can be changed
+ * in O(log n), because the position of each index in the heap is tracked.
+ * Every index is always present; an index that should never be chosen is
+ * given an infinite key. Ties are broken by index.
+ * <p/>
+ * In the next-reaction method, the indices are reactions and the keys are
+ * their putative firing times; in the process calendar, they are processes
+ * and the steps at which they next fire.
+ *
+ * @test IndexedPriorityQueueTest
+ */
+public class IndexedPriorityQueue {
+
+    private final double[] keys;
+
+    // heap[k] is the index at position k; positions[i] is the position of
+    // index i.
+    private final int[] heap;
+    private final int[] positions;
+
+    public IndexedPriorityQueue(int n) {
+        keys = new double[n];
+        heap = new int[n];
+        positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = Double.POSITIVE_INFINITY;
+            heap[i] = i;
+            positions[i] = i;
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the index with the smallest key.
+     */
+    public int peek() {
+        if (keys.length == 0) {
+            throw new IllegalStateException("Attempted to peek at an empty priority queue.");
+        }
+
+        return heap[0];
+    }
+
+    public double getKey(int index) {
+        return keys[index];
+    }
+
+    public void set(int index, double key) {
+        if (Double.isNaN(key)) {
+            throw new IllegalArgumentException("Priority queue key may not be NaN.");
+        }
+
+        double previous = keys[index];
+        keys[index] = key;
+        if (key < previous) {
+            siftUp(positions[index]);
+        } else if (key > previous) {
+            siftDown(positions[index]);
+        }
+    }
+
+    private boolean less(int a, int b) {
+        int i = heap[a];
+        int j = heap[b];
+        return keys[i] < keys[j] || (keys[i] == keys[j] && i < j);
+    }
+
+    private void siftUp(int k) {
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (!less(k, parent)) {
+                return;
+            }
+            swap(k, parent);
+            k = parent;
+        }
+    }
+
+    private void siftDown(int k) {
+        int n = heap.length;
+        while (true) {
+            int left = 2 * k + 1;
+            if (left >= n) {
+                return;
+            }
+
+            int child = left;
+            int right = left + 1;
+            if (right < n && less(right, left)) {
+                child = right;
+            }
+
+            if (!less(child, k)) {
+                return;
+            }
+            swap(k, child);
+            k = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int i = heap[a];
+        int j = heap[b];
+        heap[a] = j;
+        heap[b] = i;
+        positions[j] = a;
+        positions[i] = b;
+    }
+}
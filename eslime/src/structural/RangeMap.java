@@ -20,54 +20,30 @@ import java.util.ArrayList;
  * <p/>
  * After the collection is declared final (using the close() method), the user
  * may sample the collection by invoking the selectTarget(...) method, which
- * will retrieve items by range in the manner described above.
+ * will retrieve items by range in the manner described above. Items are
+ * located in O(log n) time (see WeightedSampler).
  * <p/>
  * One would like
  */
 public class RangeMap<T> {
 
-
-    //private HashMap<T, Double> weights;
-
-    // We track the floor of each element. It might seem easier to use, eg,
-    // a HashMap, but we want order to be preserved and for items to be
-    // loaded sequentially.
-
-    // The first element is pre-loaded as 0.0, but each ceiling is then
-    // appended. This means that floors has one too many elements, which is
-    // handled accordingly.
-    protected ArrayList<Double> floors;
-
-    // We track the value associated with each floor in the same order as
-    // the floors. Note that keys should always be one element shorter than
-    // floors.
-
+    // Items and their weights, in the order in which they were loaded.
     protected ArrayList<T> keys;
+    protected WeightedSampler weights;
 
     public RangeMap(int initialSize) {
-        floors = new ArrayList<>(initialSize + 1);
         keys = new ArrayList<>(initialSize);
-        floors.add(0.0);
+        weights = new WeightedSampler(initialSize);
     }
 
     public RangeMap() {
-        //weights = new HashMap<>();
-        floors = new ArrayList<>();
         keys = new ArrayList<>();
-        floors.add(0.0);
+        weights = new WeightedSampler();
     }
 
     public void add(T token, double weight) {
         keys.add(token);
-        appendBin(weight);
-//        weights.put(token, weight);
-
-    }
-
-    private void appendBin(double weight) {
-        int n = floors.size();
-        double lastBin = floors.get(n - 1);
-        floors.add(lastBin + weight);
+        weights.add(weight);
     }
 
     /**
@@ -85,33 +61,12 @@ public class RangeMap<T> {
      * @return
      */
     public T selectTarget(double x) {
-
-        if (x < 0 || x > getTotalWeight()) {
-            throw new IllegalStateException("Attempted to search range map beyond bounds");
-        }
-
-        RangeSearchHelper helper = new RangeSearchHelper(floors);
-
-        Integer target = helper.findKey(x);
-
-        T ret = keys.get(target);
-
-        return ret;
+        int target = weights.select(x);
+        return keys.get(target);
     }
 
     public double getTotalWeight() {
-
-        if (floors.size() == 1) {
-            return 0.0;
-        }
-
-        double totalWeight = 0;
-        for (int i = 0; i < floors.size() - 1; i++) {
-            double weight = floors.get(i + 1) - floors.get(i);
-            totalWeight += weight;
-        }
-
-        return totalWeight;
+        return weights.getTotalWeight();
     }
 
     @Override
@@ -148,17 +103,16 @@ public class RangeMap<T> {
     private boolean contentsEqual(RangeMap p, RangeMap q) {
         // If they have a different number of elements, we already know that 
         // they are unequal.
-        if (p.floors.size() != q.floors.size()) {
+        if (p.getNumBins() != q.getNumBins()) {
             return false;
         }
 
         // Test each subsequent bin by its midpoint value.
-        // The -1 is because the variable floors ends with the last ceiling added,
-        // but it is supposed to be a list of floors.
-        for (int i = 0; i < floors.size() - 1; i++) {
-            double range = floors.get(i + 1) - floors.get(i);
-            double floor = floors.get(i);
+        double floor = 0.0;
+        for (int i = 0; i < getNumBins(); i++) {
+            double range = weights.get(i);
             double midpoint = floor + (range / 2.0);
+            floor += range;
 
             if (!binsEqual(p, q, midpoint)) {
                 return false;
@@ -184,11 +138,8 @@ public class RangeMap<T> {
         int n = keys.size();
         RangeMap<T> cloned = new RangeMap(n);
 
-        for (int i = 1; i < floors.size(); i++) {
-            T key = keys.get(i - 1);
-            Double weight = floors.get(i);
-
-            cloned.add(key, weight);
+        for (int i = 0; i < n; i++) {
+            cloned.add(keys.get(i), weights.get(i));
         }
 
         return cloned;
@@ -200,8 +151,7 @@ public class RangeMap<T> {
      * @return
      */
     public int getNumBins() {
-        // The first bin is a dummy, so we want one fewer
-        return floors.size() - 1;
+        return keys.size();
     }
 
     public ArrayList<T> getKeys() {
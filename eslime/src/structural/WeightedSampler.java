@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package structural;
+
+import java.util.Arrays;
+
+/**
+ * A sequence of non-negative weights, indexed in the order in which they
+ * were added, that can be sampled in proportion to weight. The weights are
+ * stored in a Fenwick (binary indexed) tree, so that appending, changing a
+ * weight and sampling each take O(log n) time, and the total weight is
+ * available in constant time. No objects are allocated except when the
+ * capacity grows.
+ * <p/>
+ * As with RangeMap, item i is selected by any x such that
+ * w_0 + ... + w_(i-1) <= x < w_0 + ... + w_i. Items of zero weight are
+ * never selected.
+ * <p/>
+ * Repeated updates accumulate rounding error in the partial sums, so the
+ * tree is rebuilt from the weights themselves after every n updates.
+ *
+ * @test WeightedSamplerTest
+ */
+public class WeightedSampler {
+
+    private double[] weights;
+
+    // tree[i] holds the sum of weights (i - lowbit(i), i], 1-based
+    private double[] tree;
+
+    private int size;
+    private double total;
+    private int updatesSinceRebuild;
+
+    public WeightedSampler() {
+        this(8);
+    }
+
+    public WeightedSampler(int capacity) {
+        weights = new double[Math.max(capacity, 1)];
+        tree = new double[weights.length + 1];
+        size = 0;
+        total = 0.0;
+    }
+
+    /**
+     * Appends a weight, and returns its index.
+     */
+    public int add(double weight) {
+        check(weight);
+        if (size == weights.length) {
+            weights = Arrays.copyOf(weights, 2 * size);
+            tree = Arrays.copyOf(tree, 2 * size + 1);
+        }
+
+        int index = size;
+        weights[index] = weight;
+        size++;
+
+        // The new node covers itself and the nodes immediately below it
+        int i = index + 1;
+        double sum = weight;
+        for (int child = i - 1; child > i - lowbit(i); child -= lowbit(child)) {
+            sum += tree[child];
+        }
+        tree[i] = sum;
+
+        total += weight;
+        return index;
+    }
+
+    public void set(int index, double weight) {
+        check(weight);
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No weight at index " + index);
+        }
+
+        double delta = weight - weights[index];
+        if (delta == 0.0) {
+            return;
+        }
+
+        weights[index] = weight;
+        updatesSinceRebuild++;
+        if (updatesSinceRebuild >= size) {
+            rebuild();
+            return;
+        }
+
+        for (int i = index + 1; i <= size; i += lowbit(i)) {
+            tree[i] += delta;
+        }
+        total += delta;
+    }
+
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No weight at index " + index);
+        }
+
+        return weights[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getTotalWeight() {
+        return total;
+    }
+
+    /**
+     * Returns the index of the item whose weight range contains x, where
+     * 0 <= x <= getTotalWeight().
+     */
+    public int select(double x) {
+        if (x < 0 || x > total || size == 0) {
+            throw new IllegalStateException("Attempted to search range map beyond bounds");
+        }
+
+        int position = 0;
+        double remaining = x;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+
+        // x is the total weight, or past it due to rounding
+        if (position == size) {
+            position = size - 1;
+            while (position > 0 && weights[position] == 0.0) {
+                position--;
+            }
+        }
+
+        return position;
+    }
+
+    private void rebuild() {
+        total = 0.0;
+        for (int i = 1; i <= size; i++) {
+            tree[i] = weights[i - 1];
+            total += weights[i - 1];
+        }
+
+        for (int i = 1; i <= size; i++) {
+            int parent = i + lowbit(i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+
+        updatesSinceRebuild = 0;
+    }
+
+    private static int lowbit(int i) {
+        return i & -i;
+    }
+
+    private static void check(double weight) {
+        if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weights must be finite and non-negative; got " + weight);
+        }
+    }
+}
@@ -22,6 +22,9 @@ public abstract class FileConventions {
 
     public static final String TIME_FILENAME = "clock.bin";
 
+    public static final String CELL_STATE_FILENAME = "cells.state.bin";
+    public static final String CELL_METADATA_FILENAME = "cells.metadata.txt";
+
     public static final String INTERFACE_PREFIX = "interface_";
     public static final String INTERFACE_SUFFIX = ".txt";
 
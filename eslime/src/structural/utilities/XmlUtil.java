@@ -78,6 +78,20 @@ public abstract class XmlUtil {
         return ret;
     }
 
+    /**
+     * Returns the number of threads specified by the named element, or one
+     * thread per available processor if it is "*". If the element is
+     * absent, one thread is used.
+     */
+    public static int getThreads(Element e, String name) {
+        String threadStr = getString(e, name, "1");
+        if (threadStr.equals("*")) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        return Integer.valueOf(threadStr);
+    }
+
     public static int[] getIntegerArray(Element e, String tokenName) {
         if (e == null) {
             return new int[0];
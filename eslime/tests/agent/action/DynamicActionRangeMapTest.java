@@ -6,6 +6,7 @@
 package agent.action;
 
 
+import agent.action.stochastic.ConstantProbabilitySupplier;
 import agent.action.stochastic.ProbabilitySupplier;
 import cells.BehaviorCell;
 import layers.LayerManager;
@@ -79,6 +80,33 @@ public class DynamicActionRangeMapTest extends TestBase {
         doTargetCheck(cloned, ca1, 3, ca2, 12);
     }
 
+    @Test
+    public void refreshUpdatesChangedWeights() throws Exception {
+        when(p2.get()).thenReturn(0.5);
+        query.refresh();
+        assertEquals(1.0, query.getTotalWeight(), epsilon);
+        assertEquals(a1, query.selectTarget(0.4));
+        assertEquals(a2, query.selectTarget(0.5));
+        assertEquals(a2, query.selectTarget(0.9));
+    }
+
+    @Test
+    public void constantWeights() throws Exception {
+        DynamicActionRangeMap constant = new DynamicActionRangeMap(layerManager);
+        constant.add(a1, new ConstantProbabilitySupplier(1.0));
+        constant.add(a2, new ConstantProbabilitySupplier(3.0));
+        constant.refresh();
+        assertEquals(4.0, constant.getTotalWeight(), epsilon);
+
+        Map<Action, Long> resultCount = IntStream.range(0, 400)
+                .boxed()
+                .map(k -> (k + 0.5) / 100.0)
+                .map(x -> constant.selectTarget(x))
+                .collect(groupingBy(x -> x, counting()));
+
+        assertEquals(100, resultCount.get(a1).longValue());
+        assertEquals(300, resultCount.get(a2).longValue());
+    }
 
     private void doTargetCheck(DynamicActionRangeMap target,
                                Action aa1, long n1, Action aa2, long n2) {
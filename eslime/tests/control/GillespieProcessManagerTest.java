@@ -0,0 +1,203 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control;
+
+import control.arguments.ConstantInteger;
+import control.halt.HaltCondition;
+import control.halt.StasisEvent;
+import layers.MockLayerManager;
+import processes.BaseProcessArguments;
+import processes.EcoProcess;
+import processes.MockProcess;
+import processes.StepState;
+import processes.gillespie.DependencyGraph;
+import processes.gillespie.GillespieState;
+import test.EslimeTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class GillespieProcessManagerTest extends EslimeTestCase {
+
+    private MockLayerManager layerManager;
+    private GeneralParameters p;
+
+    @Override
+    protected void setUp() throws Exception {
+        layerManager = new MockLayerManager();
+        p = makeMockGeneralParameters();
+    }
+
+    /**
+     * Waiting times of a single reaction are exponentially distributed,
+     * with a mean equal to the reciprocal of its propensity.
+     */
+    public void testWaitingTime() throws Exception {
+        CountingProcess reaction = reaction(0, 4.0);
+        GillespieProcessManager query = build(new ArrayList<>(), reactions(reaction));
+        query.init();
+
+        int steps = 20000;
+        double time = run(query, steps);
+
+        assertEquals(steps, reaction.getTimesFired());
+        assertEquals(0.25, time / steps, 0.01);
+    }
+
+    /**
+     * Each reaction fires in proportion to its propensity.
+     */
+    public void testSelection() throws Exception {
+        CountingProcess a = reaction(0, 1.0);
+        CountingProcess b = reaction(1, 3.0);
+        GillespieProcessManager query = build(new ArrayList<>(), reactions(a, b));
+        query.init();
+
+        int steps = 20000;
+        double time = run(query, steps);
+
+        assertEquals(0.25, a.getTimesFired() / (double) steps, 0.01);
+        assertEquals(0.25, time / steps, 0.01);
+    }
+
+    /**
+     * Only the reaction that fired, and those that depend on it, are
+     * re-targeted after each event.
+     */
+    public void testOnlyDependentsRetargeted() throws Exception {
+        CountingProcess a = reaction(0, 1.0);
+        CountingProcess b = reaction(1, 1.0);
+        CountingProcess c = reaction(2, 1.0);
+        List<EcoProcess> reactions = reactions(a, b, c);
+        DependencyGraph dependencies = new DependencyGraph(3);
+        dependencies.declare(a, new int[]{1});
+        dependencies.declare(b, new int[0]);
+        dependencies.declare(c, new int[0]);
+        GillespieProcessManager query = new GillespieProcessManager(new ArrayList<>(), reactions,
+                dependencies, layerManager, p);
+        query.init();
+
+        int steps = 1000;
+        run(query, steps);
+
+        // One targeting each to start, then one per firing, plus one for b
+        // each time a fires
+        assertEquals(1 + a.getTimesFired(), a.getTimesTargeted());
+        assertEquals(1 + b.getTimesFired() + a.getTimesFired(), b.getTimesTargeted());
+        assertEquals(1 + c.getTimesFired(), c.getTimesTargeted());
+    }
+
+    /**
+     * Triggered processes fire before the reaction, and re-target the
+     * reactions that depend on them.
+     */
+    public void testTriggeredProcessRetargets() throws Exception {
+        BaseProcessArguments arguments = new BaseProcessArguments(layerManager, p, 0,
+                new ConstantInteger(0), new ConstantInteger(1));
+        MockProcess triggered = new MockProcess(arguments, "triggered", 0.0, 1);
+        CountingProcess a = reaction(0, 1.0);
+        GillespieProcessManager query = build(Arrays.asList(triggered), reactions(a));
+        query.init();
+
+        run(query, 10);
+        assertEquals(10, triggered.getTimesFired());
+
+        // Initial targeting, then once for the trigger and once for the
+        // firing in each step but the first
+        assertEquals(1 + 10 + 9, a.getTimesTargeted());
+    }
+
+    /**
+     * A reaction whose propensity drops to zero stops firing.
+     */
+    public void testZeroPropensity() throws Exception {
+        CountingProcess a = reaction(0, 1.0);
+        CountingProcess b = reaction(1, 1.0);
+        GillespieProcessManager query = build(new ArrayList<>(), reactions(a, b));
+        query.init();
+        run(query, 10);
+
+        int fired = b.getTimesFired();
+        b.setWeight(0.0);
+
+        // b is re-targeted when a fires
+        run(query, 100);
+        assertTrue(b.getTimesFired() <= fired + 1);
+    }
+
+    public void testStasis() throws Exception {
+        CountingProcess a = reaction(0, 0.0);
+        GillespieProcessManager query = build(new ArrayList<>(), reactions(a));
+        query.init();
+
+        try {
+            query.doTriggeredProcesses(new StepState(0.0, 0));
+            fail();
+        } catch (StasisEvent ex) {
+            // Expected
+        }
+    }
+
+    public void testHashCodeConsistentWithEquals() throws Exception {
+        CountingProcess a = reaction(0, 1.0);
+        GillespieProcessManager first = build(new ArrayList<>(), reactions(a));
+        GillespieProcessManager second = build(new ArrayList<>(), reactions(a));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    private double run(GillespieProcessManager query, int steps) throws HaltCondition {
+        double time = 0.0;
+        for (int n = 0; n < steps; n++) {
+            StepState state = new StepState(time, n);
+            query.doTriggeredProcesses(state);
+            assertTrue(state.getTime() >= time);
+            time = state.getTime();
+        }
+
+        return time;
+    }
+
+    private GillespieProcessManager build(List<EcoProcess> processes, List<EcoProcess> reactions) {
+        DependencyGraph dependencies = new DependencyGraph(reactions.size());
+        return new GillespieProcessManager(processes, reactions, dependencies, layerManager, p);
+    }
+
+    private List<EcoProcess> reactions(EcoProcess... reactions) {
+        return new ArrayList<>(Arrays.asList(reactions));
+    }
+
+    private CountingProcess reaction(int id, double weight) {
+        BaseProcessArguments arguments = new BaseProcessArguments(layerManager, p, id,
+                new ConstantInteger(0), new ConstantInteger(1));
+        return new CountingProcess(arguments, weight);
+    }
+
+    private static class CountingProcess extends MockProcess {
+        private int timesTargeted = 0;
+
+        public CountingProcess(BaseProcessArguments arguments, double weight) {
+            super(arguments, "", weight, 1);
+        }
+
+        @Override
+        public void target(GillespieState gs) throws HaltCondition {
+            timesTargeted++;
+            super.target(gs);
+        }
+
+        @Override
+        public void fire(StepState state) throws HaltCondition {
+            setTimesFired(getTimesFired() + 1);
+        }
+
+        public int getTimesTargeted() {
+            return timesTargeted;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control;
+
+import control.arguments.Argument;
+import control.arguments.ConstantInteger;
+import control.arguments.UniformInteger;
+import layers.MockLayerManager;
+import processes.BaseProcessArguments;
+import processes.EcoProcess;
+import processes.MockProcess;
+import test.EslimeTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ProcessCalendarTest extends EslimeTestCase {
+
+    private MockLayerManager layerManager;
+    private GeneralParameters p;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        layerManager = new MockLayerManager();
+        p = makeMockGeneralParameters();
+    }
+
+    public void testPeriodicProcess() throws Exception {
+        ProcessCalendar query = makeQuery(process(1, 3));
+
+        assertEquals(0, query.advance(0).size());
+        assertEquals(Arrays.asList(0), query.advance(1));
+        assertEquals(0, query.advance(2).size());
+        assertEquals(0, query.advance(3).size());
+        assertEquals(Arrays.asList(0), query.advance(4));
+        assertEquals(7, query.getNextStep(5));
+    }
+
+    public void testOneTimeProcessRetired() throws Exception {
+        ProcessCalendar query = makeQuery(process(2, 0));
+
+        assertEquals(2, query.getNextStep(0));
+        assertEquals(Arrays.asList(0), query.advance(2));
+        assertEquals(Integer.MAX_VALUE, query.getNextStep(3));
+        assertEquals(0, query.advance(3).size());
+    }
+
+    public void testSkippedOneTimeProcessRetired() throws Exception {
+        ProcessCalendar query = makeQuery(process(2, 0));
+
+        assertEquals(0, query.advance(3).size());
+        assertEquals(Integer.MAX_VALUE, query.getNextStep(3));
+    }
+
+    public void testCatchUpOverSkippedSteps() throws Exception {
+        ProcessCalendar query = makeQuery(process(0, 4));
+
+        // Steps 0 through 7 are skipped; the process is due again at 8.
+        assertEquals(Arrays.asList(0), query.advance(8));
+        assertEquals(12, query.getNextStep(9));
+
+        // Skipping to a step out of phase reports nothing.
+        assertEquals(0, query.advance(14).size());
+        assertEquals(16, query.getNextStep(15));
+    }
+
+    public void testOrderPreserved() throws Exception {
+        ProcessCalendar query = makeQuery(process(0, 2), process(0, 1), process(0, 0));
+
+        assertEquals(Arrays.asList(0, 1, 2), query.advance(0));
+        assertEquals(Arrays.asList(1), query.advance(1));
+        assertEquals(Arrays.asList(0, 1), query.advance(2));
+    }
+
+    public void testRandomProcessIsDynamic() throws Exception {
+        Argument<Integer> start = new UniformInteger(0, 5, new Random(0));
+        ProcessCalendar query = makeQuery(process(0, 1),
+                process(start, new ConstantInteger(1)));
+
+        assertEquals(Arrays.asList(1), query.getDynamic());
+        assertEquals(Arrays.asList(0), query.advance(0));
+    }
+
+    public void testNoProcesses() throws Exception {
+        ProcessCalendar query = makeQuery();
+        assertEquals(0, query.advance(0).size());
+        assertEquals(Integer.MAX_VALUE, query.getNextStep(0));
+    }
+
+    public void testReset() throws Exception {
+        ProcessCalendar query = makeQuery(process(1, 0));
+        query.advance(1);
+        assertEquals(Integer.MAX_VALUE, query.getNextStep(2));
+
+        query.reset();
+        assertEquals(1, query.getNextStep(0));
+    }
+
+    private ProcessCalendar makeQuery(EcoProcess... processes) throws Exception {
+        List<EcoProcess> list = new ArrayList<>(Arrays.asList(processes));
+        return new ProcessCalendar(list);
+    }
+
+    private EcoProcess process(int start, int period) {
+        return process(new ConstantInteger(start), new ConstantInteger(period));
+    }
+
+    private EcoProcess process(Argument<Integer> start, Argument<Integer> period) {
+        BaseProcessArguments args = new BaseProcessArguments(layerManager, p, 0, start, period);
+        return new MockProcess(args, "", 0.0, 1);
+    }
+}
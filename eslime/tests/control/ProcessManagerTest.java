@@ -8,6 +8,7 @@ package control;
 import control.arguments.Argument;
 import control.arguments.ConstantInteger;
 import layers.MockLayerManager;
+import layers.continuum.ContinuumLayer;
 import processes.BaseProcessArguments;
 import processes.EcoProcess;
 import processes.MockProcess;
@@ -17,6 +18,8 @@ import test.EslimeTestCase;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.Mockito.*;
+
 /**
  * Created by David B Borenstein on 1/7/14.
  */
@@ -110,6 +113,16 @@ public class ProcessManagerTest extends EslimeTestCase {
         assertEquals(1, yes.getTimesFired());
     }
 
+    public void testDoTriggeredProcessesFlushesLayers() throws Exception {
+        ContinuumLayer layer = mock(ContinuumLayer.class);
+        when(layer.getId()).thenReturn("test");
+        when(layer.isStale()).thenReturn(true);
+        layerManager.addContinuumLayer(layer);
+
+        query.doTriggeredProcesses(new StepState(CURRENT_TIME, CURRENT_N));
+        verify(layer).flush();
+    }
+
     public void testStepStateRenewal() throws Exception {
         StepState first = query.doTriggeredProcesses(new StepState(0.0, 0));
         StepState second = query.doTriggeredProcesses(new StepState(0.0, 0));
@@ -117,4 +130,10 @@ public class ProcessManagerTest extends EslimeTestCase {
         // First and second should be distinct objects (reference inequality)
         assertFalse(first == second);
     }
+
+    public void testCloseClosesProcesses() throws Exception {
+        query.close();
+        assertTrue(yes.isClosed());
+        assertTrue(no.isClosed());
+    }
 }
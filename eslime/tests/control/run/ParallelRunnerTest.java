@@ -0,0 +1,149 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package control.run;
+
+import control.GeneralParameters;
+import control.Integrator;
+import control.ProcessManager;
+import control.halt.HaltCondition;
+import factory.io.serialize.SerializationFactory;
+import io.serialize.SerializationManager;
+import io.serialize.Serializer;
+import layers.LayerManager;
+import layers.MockLayerManager;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import test.EslimeTestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ParallelRunnerTest extends EslimeTestCase {
+
+    private static final int INSTANCES = 20;
+
+    private GeneralParameters p;
+
+    // Instance number --> seed of the parameters it ran with
+    private Map<Integer, Long> seeds;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        p = makeParameters(4);
+        seeds = new ConcurrentHashMap<>();
+    }
+
+    public void testRunsEveryInstanceOnce() throws Exception {
+        ParallelRunner query = new ParallelRunner(p, RecordingIntegrator::new);
+        query.run();
+
+        assertEquals(INSTANCES, seeds.size());
+        for (int i = 0; i < INSTANCES; i++) {
+            assertEquals(GeneralParameters.deriveSeed(p.getRandomSeed(), i), (long) seeds.get(i));
+        }
+    }
+
+    public void testSeedsAreDistinct() throws Exception {
+        new ParallelRunner(p, RecordingIntegrator::new).run();
+        assertEquals(INSTANCES, seeds.values().stream().distinct().count());
+    }
+
+    public void testInstanceParametersAreIndependent() throws Exception {
+        GeneralParameters first = p.forInstance(3);
+        GeneralParameters second = p.forInstance(3);
+
+        assertEquals(3, first.getInstance());
+        assertEquals(0, p.getInstance());
+        assertEquals(first.getRandomSeed(), second.getRandomSeed());
+        assertEquals(first.getRandom().nextLong(), second.getRandom().nextLong());
+        assertFalse(first.getRandom() == second.getRandom());
+        assertEquals(p.getPath() + "/3/", first.getInstancePath());
+    }
+
+    public void testFailurePropagates() throws Exception {
+        ParallelRunner query = new ParallelRunner(p, instanceParameters -> {
+            throw new IllegalStateException("Expected");
+        });
+
+        try {
+            query.run();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+            return;
+        }
+
+        fail();
+    }
+
+    public void testHaltTimesAreAggregated() throws Exception {
+        Element we = DocumentHelper.parseText("<writers><halt-time-writer/></writers>").getRootElement();
+        List<Serializer> shared = SerializationFactory.makeSharedWriters(we, p);
+
+        ParallelRunner query = new ParallelRunner(p, instanceParameters -> {
+            LayerManager lm = new MockLayerManager();
+            ProcessManager processManager = new ProcessManager(new ArrayList<>(), lm);
+            SerializationManager serializationManager =
+                    SerializationFactory.makeManager(we, lm, instanceParameters, shared);
+            return new Integrator(instanceParameters, processManager, serializationManager);
+        }, shared);
+        query.run();
+
+        List<String> lines = Files.readAllLines(Paths.get(p.getPath(), "tth.txt"));
+        assertEquals(INSTANCES + 1, lines.size());
+        assertEquals("gillespie\thalt_info", lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            assertTrue(line.endsWith("StepMaxReachedEvent"));
+        }
+    }
+
+    public void testSequentialRunRejectsFixedSeed() throws Exception {
+        try {
+            makeParameters(1);
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+
+        fail();
+    }
+
+    private GeneralParameters makeParameters(int threads) throws Exception {
+        String xml = "<general>" +
+                "<random-seed>7</random-seed>" +
+                "<instances>" + INSTANCES + "</instances>" +
+                "<threads>" + threads + "</threads>" +
+                "<path>" + outputPath + "</path>" +
+                "<max-step>1</max-step>" +
+                "</general>";
+
+        Element root = DocumentHelper.parseText(xml).getRootElement();
+        return new GeneralParameters(root);
+    }
+
+    private class RecordingIntegrator extends Integrator {
+        private GeneralParameters instanceParameters;
+
+        public RecordingIntegrator(GeneralParameters instanceParameters) {
+            super(instanceParameters, null, null);
+            this.instanceParameters = instanceParameters;
+        }
+
+        @Override
+        public HaltCondition doNext() {
+            Long previous = seeds.put(instanceParameters.getInstance(), instanceParameters.getRandomSeed());
+            assertNull(previous);
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -6,11 +6,13 @@
 package factory.control;//import junit.framework.TestCase;
 
 import control.GeneralParameters;
+import control.GillespieProcessManager;
 import control.ProcessManager;
 import org.dom4j.Element;
 import processes.BaseProcessArguments;
 import processes.EcoProcess;
 import processes.MockProcess;
+import processes.gillespie.DependencyGraph;
 import test.EslimeLatticeTestCase;
 
 import java.util.ArrayList;
@@ -53,6 +55,32 @@ public class ProcessManagerFactoryTest extends EslimeLatticeTestCase {
         assertEquals(expected, actual);
     }
 
+    public void testGillespie() throws Exception {
+        Element gillespieRoot = root.element("gillespie-case");
+
+        ProcessManager actual = ProcessManagerFactory.instantiate(gillespieRoot, p, layerManager);
+
+        List<EcoProcess> processes = new ArrayList<>(1);
+        processes.add(mockProcess("test1"));
+        List<EcoProcess> reactions = new ArrayList<>(2);
+        reactions.add(mockProcess("test2"));
+        reactions.add(mockProcess("test3"));
+        DependencyGraph dependencies = new DependencyGraph(2);
+        ProcessManager expected = new GillespieProcessManager(processes, reactions, dependencies, layerManager, p);
+
+        assertEquals(expected, actual);
+    }
+
+    public void testGillespieIdsAreDistinct() throws Exception {
+        Element gillespieRoot = root.element("gillespie-case");
+
+        GillespieProcessManager actual = (GillespieProcessManager) ProcessManagerFactory.instantiate(gillespieRoot, p, layerManager);
+
+        List<EcoProcess> reactions = actual.getReactions();
+        assertEquals(1, reactions.get(0).getID());
+        assertEquals(2, reactions.get(1).getID());
+    }
+
     private EcoProcess mockProcess(String identifier) {
         BaseProcessArguments arguments = makeBaseProcessArguments(layerManager, p);
 
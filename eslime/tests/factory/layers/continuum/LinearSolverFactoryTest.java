@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package factory.layers.continuum;
+
+import geometry.Geometry;
+import geometry.boundaries.Arena;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.LinearLattice;
+import geometry.shape.Line;
+import geometry.shape.Shape;
+import layers.continuum.solve.KrylovSolver;
+import layers.continuum.solve.LinearSolver;
+import layers.continuum.solve.MultigridSolver;
+import layers.continuum.solve.SpectralSolver;
+import org.dom4j.Element;
+import org.dom4j.tree.BaseElement;
+import test.EslimeTestCase;
+
+public class LinearSolverFactoryTest extends EslimeTestCase {
+
+    private Geometry geometry;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Lattice lattice = new LinearLattice();
+        Shape shape = new Line(lattice, 10);
+        Boundary boundary = new Arena(shape, lattice);
+        geometry = new Geometry(lattice, shape, boundary);
+    }
+
+    public void testNullElementIsKrylov() throws Exception {
+        LinearSolver actual = LinearSolverFactory.instantiate(null, geometry, "test");
+        assertTrue(actual instanceof KrylovSolver);
+    }
+
+    public void testKrylov() throws Exception {
+        for (String className : new String[]{"cg", "bicgstab", "gmres", "cgs"}) {
+            for (String preconditioner : new String[]{"none", "jacobi", "ssor", "ilu"}) {
+                Element e = new BaseElement("solver");
+                addElement(e, "class", className);
+                addElement(e, "preconditioner", preconditioner);
+                addElement(e, "tolerance", "1e-8");
+                addElement(e, "max-iterations", "50");
+                LinearSolver actual = LinearSolverFactory.instantiate(e, geometry, "test");
+                assertTrue(actual instanceof KrylovSolver);
+            }
+        }
+    }
+
+    public void testMultigrid() throws Exception {
+        Element e = new BaseElement("solver");
+        addElement(e, "class", "multigrid");
+        addElement(e, "max-cycles", "10");
+        LinearSolver actual = LinearSolverFactory.instantiate(e, geometry, "test");
+        assertTrue(actual instanceof MultigridSolver);
+    }
+
+    public void testSpectral() throws Exception {
+        Element e = new BaseElement("solver");
+        addElement(e, "class", "spectral");
+        addElement(e, "tolerance", "1e-8");
+        LinearSolver actual = LinearSolverFactory.instantiate(e, geometry, "test");
+        assertTrue(actual instanceof SpectralSolver);
+    }
+
+    public void testUnrecognizedClassThrows() throws Exception {
+        Element e = new BaseElement("solver");
+        addElement(e, "class", "nonsense");
+        try {
+            LinearSolverFactory.instantiate(e, geometry, "test");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    public void testUnrecognizedPreconditionerThrows() throws Exception {
+        Element e = new BaseElement("solver");
+        addElement(e, "class", "cg");
+        addElement(e, "preconditioner", "nonsense");
+        try {
+            LinearSolverFactory.instantiate(e, geometry, "test");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+}
@@ -52,6 +52,13 @@ public class ProcessFactoryTest extends EslimeLatticeTestCase {
         doTest("divide", Divide.class);
     }
 
+    public void testDivideThreads() throws Exception {
+        Element element = new BaseElement("divide");
+        element.addElement("threads").setText("4");
+        Divide process = (Divide) ProcessFactory.instantiate(element, layerManager, p, 0);
+        assertEquals(4, process.getThreads());
+    }
+
     public void testOccupiedNeighborSwap() throws Exception {
         doTest("occupied-neighbor-swap", OccupiedNeighborSwap.class);
     }
@@ -76,6 +83,10 @@ public class ProcessFactoryTest extends EslimeLatticeTestCase {
         doTest("trigger", TriggerProcess.class);
     }
 
+    public void testSynchronousUpdate() throws Exception {
+        doTest("synchronous-update", SynchronousUpdate.class);
+    }
+
     public void testCull() throws Exception {
         doTest("cull", Cull.class);
     }
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package factory.processes.discrete;
+
+import control.GeneralParameters;
+import control.arguments.ConstantInteger;
+import control.identifiers.Coordinate;
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.LinearLattice;
+import geometry.set.CoordinateSet;
+import geometry.set.DiscSet;
+import geometry.shape.Line;
+import geometry.shape.Shape;
+import layers.LayerManager;
+import layers.MockLayerManager;
+import layers.cell.CellLayer;
+import org.dom4j.Element;
+import processes.BaseProcessArguments;
+import processes.discrete.CellProcessArguments;
+import processes.discrete.SynchronousUpdate;
+import processes.discrete.synchronous.DivideToVacancy;
+import processes.discrete.synchronous.MoveToVacancy;
+import test.EslimeTestCase;
+
+public class SynchronousUpdateFactoryTest extends EslimeTestCase {
+    private GeneralParameters p;
+    private Element root;
+    private LayerManager layerManager;
+    private Geometry geom;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        p = makeMockGeneralParameters();
+        root = readXmlFile("factories/processes/discrete/SynchronousUpdateFactoryTest.xml");
+
+        Lattice lattice = new LinearLattice();
+        Shape shape = new Line(lattice, 10);
+        Boundary boundary = new Absorbing(shape, lattice);
+        geom = new Geometry(lattice, shape, boundary);
+
+        CellLayer layer = new CellLayer(geom);
+        layerManager = new MockLayerManager();
+        layerManager.setCellLayer(layer);
+    }
+
+    public void testImplicit() throws Exception {
+        Element testElem = root.element("implicit-case");
+
+        BaseProcessArguments arguments = makeBaseProcessArguments(layerManager, p);
+        CellProcessArguments cpArguments = makeCellProcessArguments(geom);
+
+        SynchronousUpdate expected = new SynchronousUpdate(arguments, cpArguments, new DivideToVacancy(), 1);
+        SynchronousUpdate actual = SynchronousUpdateFactory.instantiate(testElem, layerManager, p, 0);
+
+        assertEquals(expected, actual);
+    }
+
+    public void testExplicit() throws Exception {
+        Element testElem = root.element("explicit-case");
+
+        CoordinateSet activeSites = new DiscSet(geom, new ConstantInteger(2), new Coordinate(0, 0, 0));
+        CellProcessArguments cpArguments = new CellProcessArguments(activeSites, new ConstantInteger(-1));
+        BaseProcessArguments arguments = makeBaseProcessArguments(layerManager, p);
+
+        SynchronousUpdate expected = new SynchronousUpdate(arguments, cpArguments, new MoveToVacancy(), 4);
+        SynchronousUpdate actual = SynchronousUpdateFactory.instantiate(testElem, layerManager, p, 0);
+
+        assertEquals(expected, actual);
+    }
+
+    public void testUnrecognizedRuleThrows() throws Exception {
+        Element testElem = root.element("bad-rule-case");
+        boolean thrown = false;
+        try {
+            SynchronousUpdateFactory.instantiate(testElem, layerManager, p, 0);
+        } catch (IllegalArgumentException ex) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package geometry;
+
+import control.identifiers.Coordinate;
+import control.identifiers.Flags;
+import geometry.lattice.CubicLattice;
+import geometry.lattice.RectangularLattice;
+import geometry.lattice.TriangularLattice;
+import geometry.shape.Cuboid;
+import geometry.shape.Hexagon;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CanonicalSiteIndexTest {
+
+    @Test
+    public void indexMatchesCanonicalSiteOrder() throws Exception {
+        checkShape(new Rectangle(new RectangularLattice(), 4, 3));
+        checkShape(new Rectangle(new TriangularLattice(), 5, 4));
+        checkShape(new Hexagon(new TriangularLattice(), 3));
+        checkShape(new Cuboid(new CubicLattice(), 3, 2, 4));
+    }
+
+    @Test
+    public void flagsAreIgnored() throws Exception {
+        Coordinate[] sites = new Rectangle(new RectangularLattice(), 4, 3).getCanonicalSites();
+        CanonicalSiteIndex query = new CanonicalSiteIndex(sites);
+        Coordinate flagged = sites[5].addFlags(Flags.BOUNDARY_APPLIED);
+        assertEquals(5, query.indexOf(flagged));
+    }
+
+    @Test
+    public void nonSitesReturnNegative() throws Exception {
+        Coordinate[] sites = new Rectangle(new RectangularLattice(), 4, 3).getCanonicalSites();
+        CanonicalSiteIndex query = new CanonicalSiteIndex(sites);
+        assertEquals(-1, query.indexOf(new Coordinate(-1, 0, 0)));
+        assertEquals(-1, query.indexOf(new Coordinate(4, 0, 0)));
+        assertEquals(-1, query.indexOf(new Coordinate(0, 3, 0)));
+
+        // A 3D coordinate is not a site in a 2D geometry
+        assertEquals(-1, query.indexOf(new Coordinate(0, 0, 0, 0)));
+    }
+
+    @Test
+    public void getSiteReturnsCanonicalForm() throws Exception {
+        Coordinate[] sites = new Coordinate[]{
+                new Coordinate(0, 0, Flags.BOUNDARY_APPLIED),
+                new Coordinate(1, 0, 0)
+        };
+        CanonicalSiteIndex query = new CanonicalSiteIndex(sites);
+        assertEquals(new Coordinate(0, 0, 0), query.getSite(0));
+        assertEquals(2, query.size());
+    }
+
+    @Test
+    public void canonicalizeReturnsSharedInstance() throws Exception {
+        Coordinate[] sites = new Rectangle(new RectangularLattice(), 4, 3).getCanonicalSites();
+        CanonicalSiteIndex query = new CanonicalSiteIndex(sites);
+        Coordinate flagged = new Coordinate(2, 1, Flags.BOUNDARY_APPLIED);
+        Coordinate copy = new Coordinate(2, 1, 0);
+        assertSame(query.canonicalize(flagged), query.canonicalize(copy));
+        assertEquals(copy, query.canonicalize(flagged));
+
+        // Non-sites are canonicalized, but not interned
+        Coordinate outside = new Coordinate(9, 9, Flags.BOUNDARY_APPLIED);
+        assertEquals(new Coordinate(9, 9, 0), query.canonicalize(outside));
+    }
+
+    @Test
+    public void emptyIndex() throws Exception {
+        CanonicalSiteIndex query = new CanonicalSiteIndex(new Coordinate[0]);
+        assertEquals(0, query.size());
+        assertEquals(-1, query.indexOf(new Coordinate(0, 0, 0)));
+    }
+
+    private void checkShape(Shape shape) {
+        Coordinate[] sites = shape.getCanonicalSites();
+        CanonicalSiteIndex query = new CanonicalSiteIndex(sites);
+        assertEquals(sites.length, query.size());
+        for (int i = 0; i < sites.length; i++) {
+            assertEquals(i, query.indexOf(sites[i]));
+            assertEquals(sites[i], query.getSite(i));
+        }
+    }
+}
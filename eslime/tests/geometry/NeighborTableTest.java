@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package geometry;
+
+import control.identifiers.Coordinate;
+import geometry.boundaries.*;
+import geometry.lattice.Lattice;
+import geometry.lattice.RectangularLattice;
+import geometry.lattice.TriangularLattice;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NeighborTableTest {
+
+    @Test
+    public void periodicMatchesNeighbors() throws Exception {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, 4, 3);
+        checkTable(new Geometry(lattice, shape, new Periodic(shape, lattice)));
+    }
+
+    @Test
+    public void absorbingMatchesNeighbors() throws Exception {
+        Lattice lattice = new TriangularLattice();
+        Shape shape = new Rectangle(lattice, 5, 4);
+        checkTable(new Geometry(lattice, shape, new Absorbing(shape, lattice)));
+    }
+
+    @Test
+    public void reflectingMatchesNeighbors() throws Exception {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, 4, 3);
+        checkTable(new Geometry(lattice, shape, new PlaneRingReflecting(shape, lattice)));
+    }
+
+    @Test
+    public void infiniteGeometryHasNoTable() throws Exception {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, 4, 3);
+        Geometry geom = new Geometry(lattice, shape, new Arena(shape, lattice));
+        assertNull(geom.getNeighborTable(Geometry.APPLY_BOUNDARIES));
+        assertNull(geom.getNeighborTable(Geometry.EXCLUDE_BOUNDARIES));
+    }
+
+    @Test
+    public void unsupportedModesHaveNoTable() throws Exception {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, 4, 3);
+        Geometry geom = new Geometry(lattice, shape, new Periodic(shape, lattice));
+        assertNull(geom.getNeighborTable(Geometry.IGNORE_BOUNDARIES));
+        assertNull(geom.getNeighborTable(Geometry.FLAG_BOUNDARIES));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void neighborOutOfRangeThrows() throws Exception {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, 4, 3);
+        Geometry geom = new Geometry(lattice, shape, new Periodic(shape, lattice));
+        NeighborTable table = geom.getNeighborTable(Geometry.APPLY_BOUNDARIES);
+        table.getNeighbor(0, table.getDegree(0));
+    }
+
+    private void checkTable(Geometry geom) {
+        checkTable(geom, Geometry.APPLY_BOUNDARIES);
+        checkTable(geom, Geometry.EXCLUDE_BOUNDARIES);
+    }
+
+    private void checkTable(Geometry geom, int mode) {
+        NeighborTable table = geom.getNeighborTable(mode);
+        CanonicalSiteIndex siteIndex = geom.getSiteIndex();
+        assertNotNull(table);
+        assertEquals(siteIndex.size(), table.size());
+
+        for (int i = 0; i < siteIndex.size(); i++) {
+            Coordinate[] expected = geom.getNeighbors(siteIndex.getSite(i), mode);
+            assertEquals(expected.length, table.getDegree(i));
+
+            int[] actual = table.getNeighbors(i);
+            for (int k = 0; k < expected.length; k++) {
+                assertEquals(siteIndex.indexOf(expected[k]), actual[k]);
+                assertEquals(actual[k], table.getNeighbor(i, k));
+            }
+        }
+    }
+}
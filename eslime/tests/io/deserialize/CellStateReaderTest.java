@@ -0,0 +1,177 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import cells.MockCell;
+import control.identifiers.Coordinate;
+import io.serialize.binary.CellStateWriter;
+import layers.LightweightSystemState;
+import processes.MockStepState;
+import structural.MockGeneralParameters;
+import test.EslimeLatticeTestCase;
+
+/**
+ * Round-trip tests for the binary cell state format. Each test writes a
+ * sequence of frames using the CellStateWriter, then reads them back.
+ */
+public class CellStateReaderTest extends EslimeLatticeTestCase {
+
+    private CellStateReader query;
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (query != null) {
+            query.close();
+        }
+        super.tearDown();
+    }
+
+    public void testKeyframes() throws Exception {
+        int[][] expected = writeFrames(false, false, 64);
+        query = new CellStateReader(outputPath);
+        checkAllFrames(expected, false);
+    }
+
+    public void testDeltas() throws Exception {
+        int[][] expected = writeFrames(true, false, 64);
+        query = new CellStateReader(outputPath);
+        checkAllFrames(expected, false);
+    }
+
+    public void testDeltasWithShortKeyframeInterval() throws Exception {
+        int[][] expected = writeFrames(true, false, 2);
+        query = new CellStateReader(outputPath);
+        checkAllFrames(expected, false);
+    }
+
+    public void testSinglePrecision() throws Exception {
+        int[][] expected = writeFrames(true, true, 64);
+        query = new CellStateReader(outputPath);
+        checkAllFrames(expected, true);
+    }
+
+    /**
+     * Frames may be read in any order, regardless of how they were encoded.
+     */
+    public void testRandomAccess() throws Exception {
+        int[][] expected = writeFrames(true, false, 3);
+        query = new CellStateReader(outputPath);
+
+        int[] order = new int[]{4, 1, 5, 0, 3, 2, 4};
+        for (int i : order) {
+            assertArraysEqual(expected[i], query.getStateVector(i), false);
+            assertEquals(health(expected[i][0]), query.getHealthVector(i)[0], epsilon);
+        }
+    }
+
+    /**
+     * Individual sites can be read from any frame without loading it.
+     */
+    public void testSingleSiteAccess() throws Exception {
+        int[][] expected = writeFrames(true, false, 3);
+        query = new CellStateReader(outputPath);
+
+        for (int i = expected.length - 1; i >= 0; i--) {
+            for (int j = 0; j < cc.length; j++) {
+                assertEquals(expected[i][j], query.getState(i, j));
+                assertEquals(health(expected[i][j]), query.getHealth(i, j), 0.0);
+            }
+        }
+    }
+
+    public void testFrameAndTime() throws Exception {
+        writeFrames(true, false, 64);
+        query = new CellStateReader(outputPath);
+        assertEquals(3, query.getFrame(3));
+        assertEquals(1.5, query.getTime(3), epsilon);
+    }
+
+    public void testPopulate() throws Exception {
+        int[][] expected = writeFrames(true, false, 64);
+        query = new CellStateReader(outputPath);
+
+        for (int[] states : expected) {
+            LightweightSystemState state = new LightweightSystemState(geom);
+            query.populate(state);
+            for (int i = 0; i < cc.length; i++) {
+                assertEquals(states[i], state.getLayerManager().getCellLayer().getViewer().getState(cc[i]));
+            }
+        }
+    }
+
+    public void testExists() throws Exception {
+        writeFrames(false, false, 64);
+        assertTrue(CellStateReader.exists(outputPath));
+        assertFalse(CellStateReader.exists(fixturePath + "SystemStateReader/"));
+    }
+
+    private void checkAllFrames(int[][] expected, boolean singlePrecision) {
+        assertEquals(expected.length, query.getFrameCount());
+        assertEquals(cc.length, query.getNumSites());
+
+        for (int i = 0; i < expected.length; i++) {
+            assertArraysEqual(expected[i], query.getStateVector(i), false);
+
+            double[] actual = query.getHealthVector(i);
+            for (int j = 0; j < cc.length; j++) {
+                double health = health(expected[i][j]);
+                if (singlePrecision) {
+                    health = (float) health;
+                }
+                assertEquals(health, actual[j], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Write a sequence of frames, in which cells are placed, changed and
+     * removed, and return the expected state vector of each frame.
+     */
+    private int[][] writeFrames(boolean deltas, boolean singlePrecision, int keyframeInterval) throws Exception {
+        MockGeneralParameters p = makeMockGeneralParameters();
+        CellStateWriter writer = new CellStateWriter(p, layerManager, deltas, singlePrecision, keyframeInterval);
+        writer.init();
+
+        int[][] expected = new int[][]{
+                {0, 0, 0, 0, 0},
+                {0, 0, 3, 0, 5},
+                {0, 0, 3, 0, 5},
+                {1, 2, 3, 4, 5},
+                {0, 2, 0, 4, 7},
+                {6, 6, 6, 6, 6}
+        };
+
+        for (int f = 0; f < expected.length; f++) {
+            setStates(expected[f]);
+            MockStepState stepState = new MockStepState(0.5 * f, f);
+            stepState.record(cellLayer);
+            writer.flush(stepState);
+        }
+
+        writer.dispatchHalt(null);
+        return expected;
+    }
+
+    private void setStates(int[] states) throws Exception {
+        for (int i = 0; i < cc.length; i++) {
+            Coordinate c = cc[i];
+            if (cellLayer.getViewer().isOccupied(c)) {
+                cellLayer.getUpdateManager().banish(c);
+            }
+
+            if (states[i] != 0) {
+                MockCell cell = new MockCell();
+                cell.setState(states[i]);
+                cell.setHealth(health(states[i]));
+                cellLayer.getUpdateManager().place(cell, c);
+            }
+        }
+    }
+
+    private double health(int state) {
+        return (state == 0) ? 0.0 : 1.0 / state;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import structural.utilities.FileConventions;
+import test.EslimeTestCase;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+public class MappedRecordsTest extends EslimeTestCase {
+
+    private static final String FILENAME = "records.bin";
+
+    private RandomAccessFile file;
+
+    // Records of one, two and three ints, the i-th int of each equal to i
+    private long[] offsets = new long[]{0, 4, 12};
+    private long end = 24;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        new File(outputPath).mkdirs();
+        DataOutputStream out = FileConventions.makeDataOutputStream(outputPath + FILENAME);
+        for (int length = 1; length <= 3; length++) {
+            for (int i = 0; i < length; i++) {
+                out.writeInt(i);
+            }
+        }
+        out.close();
+        file = new RandomAccessFile(outputPath + FILENAME, "r");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.close();
+        super.tearDown();
+    }
+
+    public void testSingleSegment() throws Exception {
+        MappedRecords query = new MappedRecords(file.getChannel(), offsets, end);
+        assertEquals(1, query.getSegmentCount());
+        checkRecords(query);
+    }
+
+    public void testMultipleSegments() throws Exception {
+        // Each segment can hold at most 12 bytes, so the second and third
+        // records cannot share a segment.
+        MappedRecords query = new MappedRecords(file.getChannel(), offsets, end, 12);
+        assertEquals(2, query.getSegmentCount());
+        checkRecords(query);
+    }
+
+    public void testOversizedRecordThrows() throws Exception {
+        try {
+            new MappedRecords(file.getChannel(), offsets, end, 8);
+        } catch (IllegalStateException ex) {
+            return;
+        }
+
+        fail();
+    }
+
+    private void checkRecords(MappedRecords query) {
+        assertEquals(3, query.size());
+        for (int r = 0; r < 3; r++) {
+            ByteBuffer buf = query.get(r);
+            assertEquals(4 * (r + 1), buf.remaining());
+            for (int i = 0; i <= r; i++) {
+                assertEquals(i, buf.getInt());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.deserialize;
+
+import cells.MockCell;
+import control.identifiers.Coordinate;
+import io.serialize.Serializer;
+import io.serialize.binary.CellStateWriter;
+import io.serialize.binary.HighlightWriter;
+import io.serialize.binary.TimeWriter;
+import io.serialize.text.CoordinateIndexer;
+import processes.MockStepState;
+import structural.MockGeneralParameters;
+import test.EslimeLatticeTestCase;
+
+public class MappedSystemStateReaderTest extends EslimeLatticeTestCase {
+
+    private MappedSystemStateReader query;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        writeFrames();
+        query = new MappedSystemStateReader(new int[]{0}, outputPath);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        query.close();
+        super.tearDown();
+    }
+
+    public void testSize() throws Exception {
+        assertEquals(3, query.size());
+    }
+
+    public void testTimeAndFrame() throws Exception {
+        FrameViewer viewer = query.get(2);
+        assertEquals(2, viewer.getIndex());
+        assertEquals(6, viewer.getFrame());
+        assertEquals(4.8, viewer.getTime(), epsilon);
+    }
+
+    public void testCellState() throws Exception {
+        // Read out of order
+        FrameViewer last = query.get(2);
+        assertFalse(last.isOccupied(x));
+        assertEquals(3, last.getState(y));
+        assertEquals(1.0, last.getHealth(y), epsilon);
+
+        FrameViewer first = query.get(0);
+        assertEquals(5, first.getState(x));
+        assertEquals(2.0, first.getHealth(x), epsilon);
+        assertFalse(first.isOccupied(origin));
+    }
+
+    public void testHighlights() throws Exception {
+        FrameViewer first = query.get(0);
+        assertTrue(first.isHighlighted(0, x));
+        assertFalse(first.isHighlighted(0, y));
+
+        FrameViewer last = query.get(2);
+        assertFalse(last.isHighlighted(0, x));
+        assertTrue(last.isHighlighted(0, y));
+        assertEquals(1, last.getHighlights(0).length);
+        assertEquals(y, last.getCoordinate(last.getHighlights(0)[0]));
+    }
+
+    public void testIterator() throws Exception {
+        int expected = 0;
+        for (FrameViewer viewer : query) {
+            assertEquals(expected, viewer.getIndex());
+            expected++;
+        }
+        assertEquals(3, expected);
+    }
+
+    private void writeFrames() throws Exception {
+        MockGeneralParameters p = makeMockGeneralParameters();
+        Serializer[] serializers = new Serializer[]{
+                new CoordinateIndexer(p, layerManager),
+                new TimeWriter(p, layerManager),
+                new CellStateWriter(p, layerManager, true, false, CellStateWriter.DEFAULT_KEYFRAME_INTERVAL),
+                new HighlightWriter(p, new int[]{0}, layerManager)
+        };
+
+        placeCell(x, 2.0, 5);
+        placeCell(y, 1.0, 3);
+
+        for (Serializer serializer : serializers) {
+            serializer.init();
+        }
+
+        MockStepState stepState = makeStepState(1.7, 2, x);
+        flush(serializers, stepState);
+        flush(serializers, stepState);
+
+        cellLayer.getUpdateManager().banish(x);
+        flush(serializers, makeStepState(4.8, 6, y));
+
+        for (Serializer serializer : serializers) {
+            serializer.dispatchHalt(null);
+        }
+    }
+
+    private MockStepState makeStepState(double time, int frame, Coordinate highlight) {
+        MockStepState stepState = new MockStepState(time, frame);
+        stepState.setHighlights(0, new Coordinate[]{highlight});
+        stepState.record(cellLayer);
+        return stepState;
+    }
+
+    private void flush(Serializer[] serializers, MockStepState stepState) {
+        for (Serializer serializer : serializers) {
+            serializer.flush(stepState);
+        }
+    }
+
+    private void placeCell(Coordinate coord, double health, int state) throws Exception {
+        MockCell cell = new MockCell();
+        cell.setHealth(health);
+        cell.setState(state);
+        cellLayer.getUpdateManager().place(cell, coord);
+    }
+}
@@ -5,17 +5,25 @@
 
 package io.serialize;
 
+import control.halt.StepMaxReachedEvent;
 import factory.io.serialize.SerializationFactory;
+import io.serialize.binary.CellStateWriter;
+import io.serialize.binary.ContinuumStateWriter;
 import io.serialize.binary.HighlightWriter;
 import io.serialize.binary.TimeWriter;
 import io.serialize.binary.VisualizationSerializer;
 import io.serialize.interactive.ProgressReporter;
 import io.serialize.text.*;
+import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
 import org.dom4j.tree.BaseElement;
 import structural.MockGeneralParameters;
 import test.EslimeLatticeTestCase;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
 /**
  * Created by dbborens on 1/17/14.
  */
@@ -42,6 +50,10 @@ public class SerializationFactoryTest extends EslimeLatticeTestCase {
         doTest("cell-state-writer", LegacyCellStateWriter.class);
     }
 
+    public void testBinaryCellStateWriter() {
+        doTest("binary-cell-state-writer", CellStateWriter.class);
+    }
+
     public void testHaltTimeWriter() {
         doTest("halt-time-writer", HaltTimeWriter.class);
     }
@@ -63,9 +75,9 @@ public class SerializationFactoryTest extends EslimeLatticeTestCase {
         doTest("interval-writer", IntervalWriter.class);
     }
 
-//    public void testContinuumStateWriter() {
-//        doTest("continuum-state-writer", ContinuumStateWriter.class);
-//    }
+    public void testContinuumStateWriter() {
+        doTest("continuum-state-writer", ContinuumStateWriter.class);
+    }
 
     public void testTimeWriter() {
         doTest("time-writer", TimeWriter.class);
@@ -121,4 +133,35 @@ public class SerializationFactoryTest extends EslimeLatticeTestCase {
 
     }
 
+    public void testSharedWritersAreReused() throws Exception {
+        Element we = DocumentHelper.parseText("<writers>" +
+                "<progress-reporter/>" +
+                "<halt-time-writer/>" +
+                "</writers>").getRootElement();
+
+        List<Serializer> shared = SerializationFactory.makeSharedWriters(we, p);
+        assertEquals(1, shared.size());
+        assertTrue(shared.get(0) instanceof SynchronizedSerializer);
+
+        // Both instances report to the same halt time file
+        for (int i = 0; i < 2; i++) {
+            SerializationManager instance = SerializationFactory.makeManager(we, layerManager, p, shared);
+            instance.dispatchHalt(new StepMaxReachedEvent());
+        }
+        shared.get(0).close();
+
+        List<String> lines = Files.readAllLines(Paths.get(outputPath, "tth.txt"));
+        assertEquals(3, lines.size());
+    }
+
+    public void testSharedWritersRejectCorrelationWriter() throws Exception {
+        Element we = DocumentHelper.parseText("<writers><correlation-writer/></writers>").getRootElement();
+        try {
+            SerializationFactory.makeSharedWriters(we, p);
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+
+        fail();
+    }
 }
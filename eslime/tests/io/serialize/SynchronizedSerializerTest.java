@@ -0,0 +1,47 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.serialize;
+
+import processes.MockStepState;
+import test.EslimeTestCase;
+
+public class SynchronizedSerializerTest extends EslimeTestCase {
+
+    private MockSerializer delegate;
+    private SynchronizedSerializer query;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        delegate = new MockSerializer(null);
+        query = new SynchronizedSerializer(delegate);
+    }
+
+    public void testInit() {
+        query.init();
+        assertTrue(delegate.isInit());
+    }
+
+    public void testFlush() {
+        query.flush(new MockStepState());
+        assertTrue(delegate.isFlush());
+    }
+
+    public void testDispatchHalt() {
+        query.dispatchHalt(null);
+        assertTrue(delegate.isDispatchHalt());
+    }
+
+    public void testClose() {
+        query.close();
+        assertTrue(delegate.isClose());
+    }
+
+    public void testEquals() {
+        assertEquals(query, new SynchronizedSerializer(new MockSerializer(null)));
+        assertFalse(query.equals(delegate));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.serialize.binary;
+
+import cells.MockCell;
+import control.identifiers.Extrema;
+import io.deserialize.ExtremaReader;
+import processes.MockStepState;
+import structural.MockGeneralParameters;
+import structural.utilities.FileConventions;
+import test.EslimeLatticeTestCase;
+
+import java.io.File;
+
+public class CellStateWriterTest extends EslimeLatticeTestCase {
+
+    // Bytes per frame header: kind, frame and time
+    private static final int FRAME_HEADER = 13;
+
+    public void testKeyframeLayout() throws Exception {
+        writeFrames(false, false);
+
+        // Header, three keyframes of five sites, index of three frames, trailer
+        int frame = FRAME_HEADER + 5 * (4 + 8);
+        long expected = CellStateWriter.HEADER_SIZE + 3 * frame + 4 + 3 * 9 + CellStateWriter.TRAILER_SIZE;
+        assertEquals(expected, outputLength());
+    }
+
+    public void testDeltaLayout() throws Exception {
+        writeFrames(true, false);
+
+        // The second frame changes nothing; the third changes one site.
+        int keyframe = FRAME_HEADER + 5 * (4 + 8);
+        int empty = FRAME_HEADER + 4;
+        int single = FRAME_HEADER + 4 + (4 + 4 + 8);
+        long expected = CellStateWriter.HEADER_SIZE + keyframe + empty + single + 4 + 3 * 9 + CellStateWriter.TRAILER_SIZE;
+        assertEquals(expected, outputLength());
+    }
+
+    public void testSinglePrecisionLayout() throws Exception {
+        writeFrames(false, true);
+        int frame = FRAME_HEADER + 5 * (4 + 4);
+        long expected = CellStateWriter.HEADER_SIZE + 3 * frame + 4 + 3 * 9 + CellStateWriter.TRAILER_SIZE;
+        assertEquals(expected, outputLength());
+    }
+
+    public void testMetadata() throws Exception {
+        writeFrames(true, false);
+        File file = new File(outputPath + FileConventions.CELL_METADATA_FILENAME);
+        Extrema extrema = new ExtremaReader(file).get("health");
+        assertEquals(0.0, extrema.min(), epsilon);
+        assertEquals(3.0, extrema.max(), epsilon);
+    }
+
+    private void writeFrames(boolean deltas, boolean singlePrecision) throws Exception {
+        MockGeneralParameters p = makeMockGeneralParameters();
+        CellStateWriter writer = new CellStateWriter(p, layerManager, deltas, singlePrecision,
+                CellStateWriter.DEFAULT_KEYFRAME_INTERVAL);
+        writer.init();
+
+        MockCell cell = new MockCell();
+        cell.setState(1);
+        cell.setHealth(2.0);
+        cellLayer.getUpdateManager().place(cell, x);
+        flush(writer, 0);
+        flush(writer, 1);
+
+        cell.setHealth(3.0);
+        flush(writer, 2);
+
+        writer.dispatchHalt(null);
+    }
+
+    private void flush(CellStateWriter writer, int frame) {
+        MockStepState stepState = new MockStepState(frame, frame);
+        stepState.record(cellLayer);
+        writer.flush(stepState);
+    }
+
+    private long outputLength() {
+        return new File(outputPath + FileConventions.CELL_STATE_FILENAME).length();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package io.serialize.binary;
+
+import control.identifiers.Extrema;
+import io.deserialize.ContinuumStateReader;
+import io.deserialize.ExtremaReader;
+import layers.MockLayerManager;
+import layers.continuum.ContinuumLayer;
+import layers.continuum.ContinuumLayerContent;
+import layers.continuum.ContinuumLayerScheduler;
+import no.uib.cipr.matrix.DenseVector;
+import processes.MockStepState;
+import structural.MockGeneralParameters;
+import structural.utilities.FileConventions;
+import test.EslimeLatticeTestCase;
+
+import java.io.File;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContinuumStateWriterTest extends EslimeLatticeTestCase {
+
+    private ContinuumLayerContent content;
+    private ContinuumStateWriter query;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        content = new ContinuumLayerContent(geom.getIndexer(), 5);
+        ContinuumLayerScheduler scheduler = mock(ContinuumLayerScheduler.class);
+        when(scheduler.getId()).thenReturn("42");
+        layerManager.addContinuumLayer(new ContinuumLayer(scheduler, content, geom));
+
+        MockGeneralParameters p = makeMockGeneralParameters();
+        query = new ContinuumStateWriter(p, layerManager);
+    }
+
+    public void testStateFile() throws Exception {
+        writeFrames();
+        assertBinaryFilesEqual(FileConventions.makeContinuumStateFilename("42"));
+    }
+
+    public void testMetadata() throws Exception {
+        writeFrames();
+        String filename = FileConventions.makeContinuumMetadataFilename("42");
+        Extrema expected = new ExtremaReader(new File(fixturePath + filename)).get("extrema");
+        Extrema actual = new ExtremaReader(new File(outputPath + filename)).get("extrema");
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Records span several mapped windows, and the file is truncated to
+     * the records actually written.
+     */
+    public void testManyRecords() throws Exception {
+        int frames = 2 * ContinuumStateWriter.RECORDS_PER_WINDOW + 1;
+        query.init();
+        for (int frame = 0; frame < frames; frame++) {
+            push(frame, frame, frame + 1.0, 0.0, 0.0, 0.0, 0.0);
+        }
+        query.dispatchHalt(null);
+
+        File file = new File(outputPath + FileConventions.makeContinuumStateFilename("42"));
+        assertEquals(frames * (ContinuumStateWriter.RECORD_OVERHEAD + 5 * 8), file.length());
+
+        ContinuumStateReader reader = new ContinuumStateReader(file);
+        for (int frame = 0; frame < frames; frame++) {
+            assertTrue(reader.hasNext());
+            assertEquals(frame + 1.0, reader.next()[0], epsilon);
+        }
+        assertFalse(reader.hasNext());
+        reader.close();
+    }
+
+    public void testNoContinuumLayersThrows() throws Exception {
+        ContinuumStateWriter writer = new ContinuumStateWriter(makeMockGeneralParameters(), new MockLayerManager());
+        boolean thrown = false;
+        try {
+            writer.init();
+        } catch (IllegalArgumentException ex) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+    }
+
+    private void writeFrames() {
+        query.init();
+        push(1.0, 1, 1.0, 2.0, 3.0, 4.0, 5.0);
+        push(2.0, 2, 0.0, 0.1, 0.2, 0.3, 0.4);
+        query.dispatchHalt(null);
+    }
+
+    private void push(double time, int frame, double... state) {
+        content.setState(new DenseVector(state));
+        query.flush(new MockStepState(time, frame));
+    }
+}
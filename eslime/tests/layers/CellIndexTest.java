@@ -8,8 +8,13 @@ package layers;
 import control.identifiers.Coordinate;
 import control.identifiers.Flags;
 import layers.cell.CellIndex;
+import layers.cell.CellIndexViewer;
 import test.EslimeTestCase;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
 public class CellIndexTest extends EslimeTestCase {
 
     private Coordinate p, q;
@@ -61,4 +66,45 @@ public class CellIndexTest extends EslimeTestCase {
         assertTrue(index.remove(p));
 
     }
+
+    public void testSampleOne() {
+        index.add(p);
+        assertEquals(p, index.sample(new Random(RANDOM_SEED)));
+    }
+
+    public void testSampleAllReturnsEveryMember() {
+        Coordinate r = new Coordinate(1, 0, 0);
+        index.add(p);
+        index.add(r);
+        List<Coordinate> actual = index.sample(new Random(RANDOM_SEED), 5);
+        assertEquals(2, actual.size());
+        assertTrue(actual.contains(p));
+        assertTrue(actual.contains(r));
+    }
+
+    public void testSampleEmptyThrows() {
+        try {
+            index.sample(new Random(RANDOM_SEED));
+            fail();
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    public void testViewIsReadOnlyAndLive() {
+        CellIndexViewer view = index.set();
+        assertEquals(0, view.size());
+        index.add(p);
+        assertEquals(1, view.size());
+        assertSame(view, index.set());
+
+        Iterator<Coordinate> it = view.iterator();
+        it.next();
+        try {
+            it.remove();
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+    }
 }
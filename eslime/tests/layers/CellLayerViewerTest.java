@@ -66,6 +66,32 @@ public class CellLayerViewerTest extends EslimeTestCase {
     }
 
 
+    public void testOccupiedView() {
+        CellIndex occupied = new CellIndex();
+        indices.setOccupiedSites(occupied);
+        assertEquals(0, query.getOccupiedCount());
+
+        occupied.add(c1);
+        assertEquals(1, query.getOccupiedCount());
+        assertEquals(1, query.getOccupiedView().size());
+        assertTrue(query.getOccupiedView().contains(c1));
+    }
+
+    public void testDivisibleView() {
+        CellIndex divisible = new CellIndex();
+        indices.setDivisibleSites(divisible);
+        divisible.add(c1);
+        divisible.add(c2);
+
+        assertEquals(2, query.getDivisibleCount());
+        try {
+            query.getDivisibleView().remove(c1);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+    }
+
     public void testGetCell() throws Exception {
 
         Cell cell = new MockCell();
@@ -14,6 +14,8 @@ import layers.cell.MockCellLayerContent;
 import layers.cell.MockCellLayerIndices;
 import test.EslimeTestCase;
 
+import java.util.Arrays;
+
 public class CellUpdateManagerTest extends EslimeTestCase {
     private MockGeometry geom;
     private MockCellLayerIndices indices;
@@ -122,6 +124,31 @@ public class CellUpdateManagerTest extends EslimeTestCase {
 
     }
 
+    public void testShift() throws Exception {
+        Cell cell = new MockCell(1);
+        query.place(cell, o);
+
+        query.shift(Arrays.asList(o, t));
+
+        assertFalse(content.has(o));
+        assertEquals(cell, content.get(t));
+        assertEquals(t, content.locate(cell));
+    }
+
+    public void testShiftIntoOccupiedSiteThrows() throws Exception {
+        query.place(new MockCell(1), o);
+        query.place(new MockCell(2), t);
+
+        boolean thrown = false;
+        try {
+            query.shift(Arrays.asList(o, t));
+        } catch (IllegalStateException ex) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+    }
+
     public void testPlace() throws Exception {
         Cell cell = new MockCell(1);
 
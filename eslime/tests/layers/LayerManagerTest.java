@@ -12,7 +12,12 @@ import org.junit.Before;
 import org.junit.Test;
 import processes.StepState;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.*;
 
 /**
@@ -58,6 +63,85 @@ public class LayerManagerTest {
         verify(continuumLayer).reset();
     }
 
+    @Test
+    public void flushFlushesStaleContinuumLayer() throws Exception {
+        when(continuumLayer.isStale()).thenReturn(true);
+        query.addContinuumLayer(continuumLayer);
+        query.flush();
+        verify(continuumLayer).flush();
+    }
+
+    @Test
+    public void flushSkipsCurrentContinuumLayer() throws Exception {
+        query.addContinuumLayer(continuumLayer);
+        query.flush();
+        verify(continuumLayer, never()).flush();
+    }
+
+    @Test
+    public void concurrentFlushSolvesAllStaleLayers() throws Exception {
+        query.setSolverThreads(2);
+        ContinuumLayer[] layers = staleLayers(4);
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        for (ContinuumLayer layer : layers) {
+            doAnswer(invocation -> threads.add(Thread.currentThread())).when(layer).flush();
+        }
+
+        query.flush();
+        for (ContinuumLayer layer : layers) {
+            verify(layer).flush();
+        }
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void concurrentFlushRethrowsFailure() throws Exception {
+        query.setSolverThreads(2);
+        ContinuumLayer[] layers = staleLayers(2);
+        doThrow(new IllegalStateException()).when(layers[1]).flush();
+        query.flush();
+    }
+
+    @Test
+    public void solverThreadsBatchEveryLayer() throws Exception {
+        query.addContinuumLayer(continuumLayer);
+        query.setSolverThreads(2);
+        verify(continuumLayer).setBatched(true);
+
+        query.setSolverThreads(1);
+        verify(continuumLayer, times(2)).setBatched(false);
+    }
+
+    @Test
+    public void closeReleasesSolverThreads() throws Exception {
+        query.setSolverThreads(2);
+        ContinuumLayer[] layers = staleLayers(2);
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        for (ContinuumLayer layer : layers) {
+            doAnswer(invocation -> threads.add(Thread.currentThread())).when(layer).flush();
+        }
+
+        query.close();
+        query.flush();
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSolverThreadsThrows() throws Exception {
+        query.setSolverThreads(0);
+    }
+
+    private ContinuumLayer[] staleLayers(int count) {
+        ContinuumLayer[] ret = new ContinuumLayer[count];
+        for (int i = 0; i < count; i++) {
+            ret[i] = mock(ContinuumLayer.class);
+            when(ret[i].getId()).thenReturn("layer" + i);
+            when(ret[i].isStale()).thenReturn(true);
+            query.addContinuumLayer(ret[i]);
+        }
+        return ret;
+    }
+
     @Test
     public void stepState() throws Exception {
         StepState stepState = mock(StepState.class);
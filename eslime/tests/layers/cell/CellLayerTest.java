@@ -31,6 +31,29 @@ public class CellLayerTest extends EslimeTestCase {
         assertFalse(query == clone);
     }
 
+    public void testCloneIsIndependent() throws Exception {
+        Geometry geom = makeLinearGeometry(10);
+        CellLayer query = new CellLayer(geom);
+        Coordinate c = new Coordinate(0, 3, 0);
+        Coordinate d = new Coordinate(0, 4, 0);
+        MockCell cell = new MockCell(1);
+        query.getUpdateManager().place(cell, c);
+
+        CellLayer clone = query.clone();
+        query.getUpdateManager().move(c, d);
+
+        // The clone reflects the layer as it stood when it was cloned
+        assertSame(cell, clone.getViewer().getCell(c));
+        assertNull(clone.getViewer().getCell(d));
+        assertEquals(c, clone.getLookupManager().getCellLocation(cell));
+        assertEquals(d, query.getLookupManager().getCellLocation(cell));
+
+        // ...and can be modified independently
+        clone.getUpdateManager().banish(c);
+        assertFalse(clone.getViewer().isOccupied(c));
+        assertSame(cell, query.getViewer().getCell(d));
+    }
+
     public void testHaltBoundaryCase() {
         Class[] componentClasses = new Class[] {
                 Object.class,
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import cells.Cell;
+import cells.MockCell;
+import test.EslimeTestCase;
+
+public class CopyOnWriteCellArrayTest extends EslimeTestCase {
+
+    // Long enough to span several chunks, with a partial last chunk
+    private static final int LENGTH = 1000;
+
+    private CopyOnWriteCellArray query;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        query = new CopyOnWriteCellArray(LENGTH);
+    }
+
+    public void testGetSet() {
+        Cell cell = new MockCell(1);
+        assertNull(query.get(LENGTH - 1));
+        query.set(LENGTH - 1, cell);
+        assertSame(cell, query.get(LENGTH - 1));
+        assertEquals(LENGTH, query.length());
+    }
+
+    public void testSnapshotUnaffectedByOriginal() {
+        Cell p = new MockCell(1);
+        Cell q = new MockCell(2);
+        query.set(3, p);
+
+        CopyOnWriteCellArray snapshot = query.snapshot();
+        query.set(3, q);
+        query.set(700, q);
+
+        assertSame(p, snapshot.get(3));
+        assertNull(snapshot.get(700));
+        assertSame(q, query.get(3));
+    }
+
+    public void testOriginalUnaffectedBySnapshot() {
+        Cell p = new MockCell(1);
+        Cell q = new MockCell(2);
+        query.set(3, p);
+
+        CopyOnWriteCellArray snapshot = query.snapshot();
+        snapshot.set(3, q);
+
+        assertSame(p, query.get(3));
+        assertSame(q, snapshot.get(3));
+    }
+
+    public void testRepeatedSnapshots() {
+        Cell[] cells = new Cell[3];
+        CopyOnWriteCellArray[] snapshots = new CopyOnWriteCellArray[3];
+        for (int i = 0; i < 3; i++) {
+            cells[i] = new MockCell(i + 1);
+            query.set(10, cells[i]);
+            snapshots[i] = query.snapshot();
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(cells[i], snapshots[i].get(10));
+        }
+    }
+}
@@ -19,6 +19,8 @@ import geometry.shape.Line;
 import geometry.shape.Shape;
 import test.EslimeTestCase;
 
+import java.util.Arrays;
+
 public class HaltCellLayerContentTest extends EslimeTestCase {
 
     private HaltCellLayerContent query;
@@ -54,4 +56,21 @@ public class HaltCellLayerContentTest extends EslimeTestCase {
 
         assertTrue(thrown);
     }
-}
\ No newline at end of file
+
+    public void testShiftOutOfBounds() throws Exception {
+        MockCell cell = new MockCell(1);
+        Coordinate c = new Coordinate(0, 0, 0);
+        query.put(c, cell);
+        Coordinate beyond = new Coordinate(-1, 0, Flags.END_OF_WORLD);
+
+        boolean thrown = false;
+        try {
+            query.shift(Arrays.asList(c, beyond));
+        } catch (BoundaryReachedEvent ex) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+        assertTrue(query.get(c) == cell);
+    }
+}
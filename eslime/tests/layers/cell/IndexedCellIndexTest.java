@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+import geometry.lattice.RectangularLattice;
+import geometry.shape.Rectangle;
+import test.EslimeTestCase;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class IndexedCellIndexTest extends EslimeTestCase {
+
+    private CanonicalSiteIndex siteIndex;
+    private IndexedCellIndex query;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Coordinate[] sites = new Rectangle(new RectangularLattice(), 5, 4).getCanonicalSites();
+        siteIndex = new CanonicalSiteIndex(sites);
+        query = new IndexedCellIndex(siteIndex);
+    }
+
+    public void testSampleReturnsOnlyMembers() {
+        // Add every other site, then remove some of them again
+        for (int i = 0; i < siteIndex.size(); i += 2) {
+            query.add(siteIndex.getSite(i));
+        }
+        query.remove(siteIndex.getSite(0));
+        query.remove(siteIndex.getSite(6));
+
+        Random random = new Random(RANDOM_SEED);
+        HashSet<Coordinate> observed = new HashSet<>();
+        for (int trial = 0; trial < 500; trial++) {
+            Coordinate c = query.sample(random);
+            assertTrue(query.contains(c));
+            observed.add(c);
+        }
+
+        // Every member should turn up eventually
+        assertEquals(query.size(), observed.size());
+    }
+
+    public void testSampleKIsDistinct() {
+        for (int i = 0; i < siteIndex.size(); i++) {
+            query.add(siteIndex.getSite(i));
+        }
+
+        Random random = new Random(RANDOM_SEED);
+        for (int trial = 0; trial < 50; trial++) {
+            List<Coordinate> sample = query.sample(random, 7);
+            assertEquals(7, sample.size());
+            assertEquals(7, new HashSet<>(sample).size());
+            for (Coordinate c : sample) {
+                assertTrue(query.contains(c));
+            }
+        }
+    }
+
+    public void testSampleKDoesNotModifyIndex() {
+        for (int i = 0; i < siteIndex.size(); i++) {
+            query.add(siteIndex.getSite(i));
+        }
+
+        // Were the members reordered by sampling, the same seed would
+        // select different sites the second time.
+        List<Coordinate> first = query.sample(new Random(RANDOM_SEED), 7);
+        List<Coordinate> second = query.sample(new Random(RANDOM_SEED), 7);
+        assertEquals(first, second);
+        assertEquals(query.sample(new Random(RANDOM_SEED)), query.sample(new Random(RANDOM_SEED)));
+    }
+
+    public void testSampleAfterIteratorRemove() {
+        query.add(siteIndex.getSite(3));
+        query.add(siteIndex.getSite(4));
+
+        Iterator<Coordinate> it = query.iterator();
+        it.next();
+        it.remove();
+
+        assertEquals(1, query.size());
+        assertEquals(siteIndex.getSite(4), query.sample(new Random(RANDOM_SEED)));
+    }
+
+    public void testCopyIsIndependent() {
+        query.add(siteIndex.getSite(1));
+        IndexedCellIndex copy = new IndexedCellIndex(query);
+        query.remove(siteIndex.getSite(1));
+        query.add(siteIndex.getSite(2));
+
+        assertEquals(siteIndex.getSite(1), copy.sample(new Random(RANDOM_SEED)));
+        assertEquals(siteIndex.getSite(2), query.sample(new Random(RANDOM_SEED)));
+    }
+}
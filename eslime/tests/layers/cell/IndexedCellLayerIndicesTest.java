@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import cells.Cell;
+import cells.MockCell;
+import control.identifiers.Coordinate;
+import control.identifiers.Flags;
+import geometry.CanonicalSiteIndex;
+import geometry.NeighborTable;
+import test.EslimeTestCase;
+
+import java.util.Arrays;
+
+public class IndexedCellLayerIndicesTest extends EslimeTestCase {
+
+    private Coordinate c, d;
+    private IndexedCellLayerIndices query;
+
+    @Override
+    protected void setUp() throws Exception {
+        c = new Coordinate(0, 0, 0);
+        d = new Coordinate(1, 0, 0);
+        CanonicalSiteIndex siteIndex = new CanonicalSiteIndex(new Coordinate[]{c, d});
+        query = new IndexedCellLayerIndices(siteIndex);
+    }
+
+    public void testNullToDivisible() {
+        MockCell cell = new MockCell();
+        cell.setDivisible(true);
+        cell.setState(2);
+        query.refresh(c, null, cell);
+
+        assertTrue(query.isOccupied(c));
+        assertTrue(query.isDivisible(c));
+        assertFalse(query.isOccupied(d));
+        assertEquals(c, query.locate(cell));
+        assertEquals((Integer) 1, query.getStateMap().get(2));
+        assertEquals(1, query.getOccupiedSites().size());
+    }
+
+    public void testNonNullToNull() {
+        MockCell cell = new MockCell();
+        cell.setDivisible(true);
+        cell.setState(2);
+        query.refresh(c, null, cell);
+        query.refresh(c, cell, null);
+
+        assertFalse(query.isIndexed(cell));
+        assertFalse(query.isOccupied(c));
+        assertFalse(query.isDivisible(c));
+        assertEquals((Integer) 0, query.getStateMap().get(2));
+        assertEquals(0, query.getStateMap().size());
+        assertEquals(0, query.getOccupiedSites().size());
+    }
+
+    public void testShift() {
+        MockCell cell = new MockCell();
+        cell.setDivisible(true);
+        cell.setState(2);
+        query.refresh(c, null, cell);
+
+        query.shift(Arrays.asList(c, d), new Cell[]{cell, null});
+
+        assertFalse(query.isOccupied(c));
+        assertFalse(query.isDivisible(c));
+        assertTrue(query.isOccupied(d));
+        assertTrue(query.isDivisible(d));
+        assertEquals(d, query.locate(cell));
+        assertEquals((Integer) 1, query.getStateMap().get(2));
+        assertEquals(1, query.getOccupiedSites().size());
+    }
+
+    public void testShiftUpdatesVacancyIndex() {
+        CanonicalSiteIndex siteIndex = new CanonicalSiteIndex(new Coordinate[]{c, d});
+        NeighborTable neighbors = NeighborTable.fromRows(new int[][]{{1}, {0}});
+        query = new IndexedCellLayerIndices(siteIndex, neighbors);
+
+        MockCell cell = new MockCell(1);
+        query.refresh(c, null, cell);
+        VacancyIndex vacancyIndex = query.getVacancyIndex();
+        assertEquals(1, vacancyIndex.getDistance(0));
+
+        query.shift(Arrays.asList(c, d), new Cell[]{cell, null});
+        assertEquals(0, vacancyIndex.getDistance(0));
+        assertEquals(1, vacancyIndex.getDistance(1));
+    }
+
+    public void testFlaggedCoordinateResolvesToSite() {
+        MockCell cell = new MockCell();
+        cell.setState(1);
+        query.refresh(d.addFlags(Flags.BOUNDARY_APPLIED), null, cell);
+        assertTrue(query.isOccupied(d));
+        assertTrue(query.getOccupiedSites().contains(d));
+        assertEquals(d, query.getOccupiedSites().iterator().next());
+    }
+
+    public void testNonSiteThrows() {
+        MockCell cell = new MockCell();
+        cell.setState(1);
+        boolean thrown = false;
+        try {
+            query.refresh(new Coordinate(5, 0, 0), null, cell);
+        } catch (IllegalStateException ex) {
+            thrown = true;
+        }
+        assertTrue(thrown);
+    }
+
+    public void testClone() {
+        MockCell cell = new MockCell();
+        cell.setState(1);
+        query.refresh(c, null, cell);
+
+        CellLayerIndices clone = query.clone();
+        assertEquals(query, clone);
+        assertFalse(query == clone);
+
+        // Changes to the clone do not affect the original
+        clone.refresh(c, cell, null);
+        assertTrue(query.isOccupied(c));
+        assertFalse(clone.isOccupied(c));
+    }
+}
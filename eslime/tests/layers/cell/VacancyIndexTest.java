@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.cell;
+
+import cells.MockCell;
+import control.identifiers.Coordinate;
+import geometry.CanonicalSiteIndex;
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Periodic;
+import geometry.lattice.Lattice;
+import geometry.lattice.RectangularLattice;
+import geometry.lattice.TriangularLattice;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import test.EslimeTestCase;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+public class VacancyIndexTest extends EslimeTestCase {
+
+    public void testEmptyLayerIsAllVacant() throws Exception {
+        CellLayer layer = makeLayer(new RectangularLattice(), true);
+        VacancyIndex query = layer.content.getVacancyIndex();
+        for (int i = 0; i < layer.getGeometry().getSiteIndex().size(); i++) {
+            assertEquals(0, query.getDistance(i));
+        }
+    }
+
+    public void testFullLayerIsUnreachable() throws Exception {
+        CellLayer layer = makeLayer(new RectangularLattice(), true);
+        for (Coordinate c : layer.getGeometry().getCanonicalSites()) {
+            layer.getUpdateManager().place(new MockCell(1), c);
+        }
+
+        VacancyIndex query = layer.content.getVacancyIndex();
+        assertEquals(VacancyIndex.UNREACHABLE, query.getDistance(0));
+    }
+
+    public void testPeriodicRandomUpdates() throws Exception {
+        checkRandomUpdates(makeLayer(new RectangularLattice(), true));
+    }
+
+    public void testAbsorbingRandomUpdates() throws Exception {
+        checkRandomUpdates(makeLayer(new TriangularLattice(), false));
+    }
+
+    public void testCloneTracksIndependently() throws Exception {
+        CellLayer layer = makeLayer(new RectangularLattice(), false);
+        Coordinate c = new Coordinate(0, 0, 0);
+        layer.getUpdateManager().place(new MockCell(1), c);
+        int site = layer.getGeometry().getSiteIndex().indexOf(c);
+        assertEquals(1, layer.content.getVacancyIndex().getDistance(site));
+
+        CellLayer clone = layer.clone();
+        layer.getUpdateManager().banish(c);
+        assertEquals(0, layer.content.getVacancyIndex().getDistance(site));
+        assertEquals(1, clone.content.getVacancyIndex().getDistance(site));
+    }
+
+    /**
+     * Fill and vacate sites at random, in batches of varying size, and
+     * compare each distance against a search from scratch.
+     */
+    private void checkRandomUpdates(CellLayer layer) throws Exception {
+        Random random = new Random(RANDOM_SEED);
+        CanonicalSiteIndex siteIndex = layer.getGeometry().getSiteIndex();
+        VacancyIndex query = layer.content.getVacancyIndex();
+        int n = siteIndex.size();
+
+        for (int round = 0; round < 50; round++) {
+            int changes = 1 + random.nextInt(8);
+            for (int k = 0; k < changes; k++) {
+                Coordinate c = siteIndex.getSite(random.nextInt(n));
+                if (layer.getViewer().isOccupied(c)) {
+                    // Vacate rarely, so that the layer tends to fill up
+                    if (random.nextInt(4) == 0) {
+                        layer.getUpdateManager().banish(c);
+                    }
+                } else {
+                    layer.getUpdateManager().place(new MockCell(1), c);
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                assertEquals(expected(layer, i), query.getDistance(i));
+            }
+        }
+    }
+
+    private int expected(CellLayer layer, int site) {
+        Geometry geom = layer.getGeometry();
+        CanonicalSiteIndex siteIndex = geom.getSiteIndex();
+        int[] distance = new int[siteIndex.size()];
+        Arrays.fill(distance, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        distance[site] = 0;
+        queue.add(site);
+
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            Coordinate c = siteIndex.getSite(u);
+            if (!layer.getViewer().isOccupied(c)) {
+                return distance[u];
+            }
+
+            for (Coordinate neighbor : geom.getNeighbors(c, Geometry.APPLY_BOUNDARIES)) {
+                int v = siteIndex.indexOf(neighbor);
+                if (distance[v] < 0) {
+                    distance[v] = distance[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+
+        return VacancyIndex.UNREACHABLE;
+    }
+
+    private CellLayer makeLayer(Lattice lattice, boolean periodic) {
+        Shape shape = new Rectangle(lattice, 9, 7);
+        Geometry geom = new Geometry(lattice, shape,
+                periodic ? new Periodic(shape, lattice) : new Absorbing(shape, lattice));
+        return new CellLayer(geom);
+    }
+}
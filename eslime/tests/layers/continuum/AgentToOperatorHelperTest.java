@@ -6,42 +6,81 @@
 package layers.continuum;
 
 import factory.cell.Reaction;
-import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.DenseVector;
 import org.junit.Before;
 import org.junit.Test;
 import test.LinearMocks;
 
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
 public class AgentToOperatorHelperTest extends LinearMocks {
 
     private AgentToOperatorHelper query;
-    private List<RelationshipTuple> list;
-    private Reaction reaction;
+    private RelationshipTuple relationship;
 
     @Before
     public void init() throws Exception {
-        reaction = new Reaction(1.0, 2.0, "test");
-        RelationshipTuple relationship = new RelationshipTuple(a, reaction);
-        list = Stream.of(relationship).collect(Collectors.toList());
+        Reaction reaction = new Reaction(1.0, 2.0, "test");
+        relationship = new RelationshipTuple(a, reaction);
         query = new AgentToOperatorHelper(indexer, 3);
     }
 
     @Test
     public void getSource() {
+        query.add(relationship);
         DenseVector expected = vector(1.0, 0.0, 0.0);
-        DenseVector actual = query.getSource(list);
-        assertVectorsEqual(expected, actual, epsilon);
+        assertVectorsEqual(expected, query.getSource(), epsilon);
+    }
+
+    @Test
+    public void getExponents() {
+        query.add(relationship);
+        DenseVector expected = vector(2.0, 0.0, 0.0);
+        assertVectorsEqual(expected, query.getExponents(), epsilon);
+    }
+
+    @Test
+    public void relationshipsAccumulate() {
+        query.add(relationship);
+        query.add(new RelationshipTuple(a, new Reaction(0.5, 0.25, "test")));
+        query.add(new RelationshipTuple(b, new Reaction(3.0, 4.0, "test")));
+        assertVectorsEqual(vector(1.5, 3.0, 0.0), query.getSource(), epsilon);
+        assertVectorsEqual(vector(2.25, 4.0, 0.0), query.getExponents(), epsilon);
     }
 
     @Test
-    public void getOperator() {
-        DenseMatrix expected = matrix(2.0, 0.0, 0.0);
-        DenseMatrix actual = query.getOperator(list);
-        assertMatricesEqual(expected, actual, epsilon);
+    public void removeRetractsRelationship() {
+        RelationshipTuple other = new RelationshipTuple(a, new Reaction(0.1, 0.3, "test"));
+        query.add(relationship);
+        query.add(other);
+        query.remove(relationship);
+        assertVectorsEqual(vector(0.1, 0.0, 0.0), query.getSource(), epsilon);
+        assertVectorsEqual(vector(0.3, 0.0, 0.0), query.getExponents(), epsilon);
     }
 
-}
\ No newline at end of file
+    /**
+     * A site with no remaining relationships should be exactly zero, rather
+     * than the round-off left over from adding and subtracting.
+     */
+    @Test
+    public void emptySiteIsExactlyZero() {
+        RelationshipTuple other = new RelationshipTuple(a, new Reaction(0.1, 0.3, "test"));
+        query.add(relationship);
+        query.add(other);
+        query.remove(relationship);
+        query.remove(other);
+        assertVectorsEqual(vector(0.0, 0.0, 0.0), query.getSource(), 0.0);
+        assertVectorsEqual(vector(0.0, 0.0, 0.0), query.getExponents(), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removeAbsentThrows() {
+        query.remove(relationship);
+    }
+
+    @Test
+    public void resetClearsVectors() {
+        query.add(relationship);
+        query.reset();
+        assertVectorsEqual(vector(0.0, 0.0, 0.0), query.getSource(), 0.0);
+        assertVectorsEqual(vector(0.0, 0.0, 0.0), query.getExponents(), 0.0);
+    }
+}
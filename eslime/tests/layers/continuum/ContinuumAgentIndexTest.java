@@ -10,6 +10,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.IdentityHashMap;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
@@ -19,6 +20,8 @@ public class ContinuumAgentIndexTest {
     private IdentityHashMap<BehaviorCell, Supplier<RelationshipTuple>> map;
     private BehaviorCell cell;
     private Supplier<RelationshipTuple> supplier;
+    private Consumer<RelationshipTuple> retractor;
+    private Consumer<RelationshipTuple> accumulator;
     private ContinuumAgentIndex query;
 
     @Before
@@ -26,8 +29,9 @@ public class ContinuumAgentIndexTest {
         map = (IdentityHashMap<BehaviorCell, Supplier<RelationshipTuple>>) mock(IdentityHashMap.class);
         cell = mock(BehaviorCell.class);
         supplier = (Supplier<RelationshipTuple>) mock(Supplier.class);
+        retractor = (Consumer<RelationshipTuple>) mock(Consumer.class);
+        accumulator = (Consumer<RelationshipTuple>) mock(Consumer.class);
         query = new ContinuumAgentIndex(map);
-
     }
 
     @Test
@@ -56,16 +60,76 @@ public class ContinuumAgentIndexTest {
     }
 
 
-    // I can't figure out how to mock this. Revisit later.
-//    @Test
-//    public void getRelationships() throws Exception {
-//        map = new IdentityHashMap<>();
-//        query = new ContinuumAgentIndex(map);
-//        map.put(cell, supplier);
-//        when(supplier.get()).thenReturn(tuple);
-//
-//        Stream<RelationshipTuple> expected = Stream.of(tuple);
-//        Stream<RelationshipTuple> actual = query.getRelationships();
-//        assertEquals(expected, actual);
-//    }
-}
\ No newline at end of file
+    @Test(expected = IllegalStateException.class)
+    public void relocateAbsentThrows() throws Exception {
+        when(map.containsKey(any())).thenReturn(false);
+        query.getNotifier().relocate(cell);
+    }
+
+    @Test
+    public void updateAccumulatesAddedCells() throws Exception {
+        useRealMap();
+        RelationshipTuple tuple = mock(RelationshipTuple.class);
+        when(supplier.get()).thenReturn(tuple);
+        query.getNotifier().add(cell, supplier);
+
+        query.update(retractor, accumulator);
+        verify(accumulator).accept(tuple);
+        verifyZeroInteractions(retractor);
+    }
+
+    @Test
+    public void updateSkipsUnchangedCells() throws Exception {
+        useRealMap();
+        when(supplier.get()).thenReturn(mock(RelationshipTuple.class));
+        query.getNotifier().add(cell, supplier);
+        query.update(retractor, accumulator);
+        reset(retractor, accumulator, supplier);
+
+        query.update(retractor, accumulator);
+        verifyZeroInteractions(retractor, accumulator, supplier);
+    }
+
+    @Test
+    public void updateReplacesRelocatedCells() throws Exception {
+        useRealMap();
+        RelationshipTuple before = mock(RelationshipTuple.class);
+        RelationshipTuple after = mock(RelationshipTuple.class);
+        when(supplier.get()).thenReturn(before, after);
+        query.getNotifier().add(cell, supplier);
+        query.update(retractor, accumulator);
+
+        query.getNotifier().relocate(cell);
+        query.update(retractor, accumulator);
+        verify(retractor).accept(before);
+        verify(accumulator).accept(after);
+    }
+
+    @Test
+    public void updateRetractsRemovedCells() throws Exception {
+        useRealMap();
+        RelationshipTuple tuple = mock(RelationshipTuple.class);
+        when(supplier.get()).thenReturn(tuple);
+        query.getNotifier().add(cell, supplier);
+        query.update(retractor, accumulator);
+
+        query.getNotifier().remove(cell);
+        query.update(retractor, accumulator);
+        verify(retractor).accept(tuple);
+    }
+
+    @Test
+    public void cellRemovedBeforeUpdateIsNeverResolved() throws Exception {
+        useRealMap();
+        query.getNotifier().add(cell, supplier);
+        query.getNotifier().remove(cell);
+
+        query.update(retractor, accumulator);
+        verifyZeroInteractions(retractor, accumulator, supplier);
+    }
+
+    private void useRealMap() {
+        map = new IdentityHashMap<>();
+        query = new ContinuumAgentIndex(map);
+    }
+}
@@ -7,10 +7,9 @@ package layers.continuum;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import test.LinearMocks;
 
-import java.util.stream.Stream;
-
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
 
@@ -33,11 +32,11 @@ public class ContinuumAgentManagerTest extends LinearMocks {
     }
 
     @Test
-    public void applyLoadsRelationshipsFromIndex() {
-        Stream<RelationshipTuple> relationships = (Stream<RelationshipTuple>) mock(Stream.class);
-        when(index.getRelationships()).thenReturn(relationships);
+    public void applyUpdatesIndexThenLoads() {
         query.apply();
-        verify(loader).apply(relationships);
+        InOrder inOrder = inOrder(index, loader);
+        inOrder.verify(index).update(any(), any());
+        inOrder.verify(loader).apply();
     }
 
 
@@ -45,6 +44,7 @@ public class ContinuumAgentManagerTest extends LinearMocks {
     public void resetCallsIndex() {
         query.reset();
         verify(index).reset();
+        verify(loader).reset();
     }
 
     public void getId() {
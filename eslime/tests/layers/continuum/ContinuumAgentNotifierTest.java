@@ -20,6 +20,7 @@ public class ContinuumAgentNotifierTest {
 
     private BiConsumer<BehaviorCell, Supplier<RelationshipTuple>> adder;
     private Consumer<BehaviorCell> remover;
+    private Consumer<BehaviorCell> relocator;
     private Supplier<RelationshipTuple> supplier;
     private ContinuumAgentNotifier query;
     private BehaviorCell cell;
@@ -29,10 +30,11 @@ public class ContinuumAgentNotifierTest {
         adder = (BiConsumer<BehaviorCell, Supplier<RelationshipTuple>>)
                 mock(BiConsumer.class);
         remover = (Consumer<BehaviorCell>) mock(Consumer.class);
+        relocator = (Consumer<BehaviorCell>) mock(Consumer.class);
         cell = mock(BehaviorCell.class);
         supplier = (Supplier<RelationshipTuple>) mock(Supplier.class);
 
-        query = new ContinuumAgentNotifier(adder, remover);
+        query = new ContinuumAgentNotifier(adder, remover, relocator);
     }
 
     @Test
@@ -47,4 +49,10 @@ public class ContinuumAgentNotifierTest {
         verify(remover).accept(cell);
 
     }
+
+    @Test
+    public void relocatePassesCell() {
+        query.relocate(cell);
+        verify(relocator).accept(cell);
+    }
 }
\ No newline at end of file
@@ -80,6 +80,12 @@ public class ContinuumLayerSchedulerTest extends LinearMocks {
         verify(holdManager).release();
     }
 
+    @Test
+    public void flushCallsHoldManager() throws Exception {
+        query.flush();
+        verify(holdManager).flush();
+    }
+
     @Test
     public void resetCallsScheduledOperations() throws Exception {
         // SO is not a mock, so we have to do this the hard way
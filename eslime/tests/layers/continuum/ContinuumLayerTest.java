@@ -43,6 +43,12 @@ public class ContinuumLayerTest extends LinearMocks {
         verify(content).reset();
     }
 
+    @Test
+    public void flushCallsScheduler() throws Exception {
+        query.flush();
+        verify(scheduler).flush();
+    }
+
     // TODO I can't figure out how to capture a lambda with Mockito.
     @Test
     public void linkerCanQueryContent() throws Exception {
@@ -5,13 +5,111 @@
 
 package layers.continuum;
 
+import layers.continuum.solve.StateSolver;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Vector;
 import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import test.LinearMocks;
 
-public class ContinuumSolverTest {
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
 
+public class ContinuumSolverTest extends LinearMocks {
+
+    private ContinuumLayerContent content;
+    private ScheduledOperations so;
+    private StateSolver stateSolver;
+    private DenseVector source;
+    private DenseMatrix operator;
+    private DenseVector state;
+    private DenseVector solution;
+
+    private ContinuumSolver query;
 
     @Before
     public void initQuery() throws Exception {
+        content = mock(ContinuumLayerContent.class);
+        so = mock(ScheduledOperations.class);
+        stateSolver = mock(StateSolver.class);
+
+        source = vector(1.0, 2.0, 3.0);
+        operator = matrix(0.5, 0.5, 0.5);
+        state = vector(1.0, 1.0, 1.0);
+        solution = vector(2.0, 2.0, 2.0);
+        when(so.getSource()).thenReturn(source);
+        when(so.getOperator()).thenReturn(operator);
+        when(content.getState()).thenReturn(state);
+        when(stateSolver.solve(any(), any(), any(), anyDouble())).thenReturn(solution);
+
+        query = new ContinuumSolver(content, so, stateSolver);
+    }
+
+    @Test
+    public void solveUpdatesStateAndResetsSchedule() throws Exception {
+        query.solve();
+        verify(content).setState(solution);
+        verify(so).reset();
+    }
+
+    @Test
+    public void solvePassesElapsedTime() throws Exception {
+        query.setTime(1.5);
+        query.solve();
+        verify(stateSolver).solve(eq(source), eq(operator), any(), eq(1.5));
+
+        query.setTime(2.0);
+        query.solve();
+        verify(stateSolver).solve(eq(source), eq(operator), any(), eq(0.5));
+    }
+
+    @Test
+    public void repeatedSolveHasNoElapsedTime() throws Exception {
+        query.setTime(1.5);
+        query.solve();
+        query.solve();
+        verify(stateSolver).solve(eq(source), eq(operator), any(), eq(0.0));
+    }
+
+    @Test
+    public void resetRestartsClock() throws Exception {
+        query.setTime(1.5);
+        query.reset();
+        query.solve();
+        verify(stateSolver).solve(eq(source), eq(operator), any(), eq(0.0));
+    }
+
+    @Test
+    public void transientSolveWithoutElapsedTimeKeepsSchedule() throws Exception {
+        when(stateSolver.isTransient()).thenReturn(true);
+        assertTrue(query.isDeferred());
+
+        query.solve();
+        verify(stateSolver, never()).solve(any(), any(), any(), anyDouble());
+        verify(content, never()).setState(any());
+        verify(so, never()).reset();
+    }
+
+    @Test
+    public void injectionWithoutElapsedTimeTakesEffectLater() throws Exception {
+        when(stateSolver.isTransient()).thenReturn(true);
+        so = new ScheduledOperations(indexer, 3);
+        query = new ContinuumSolver(content, so, stateSolver);
+
+        query.setTime(1.0);
+        query.solve();
+
+        // Injected within the same step, so no time has elapsed
+        so.inject(a, 2.0);
+        query.solve();
+        verify(stateSolver, times(1)).solve(any(), any(), any(), anyDouble());
 
+        query.setTime(1.5);
+        query.solve();
+        ArgumentCaptor<Vector> captor = ArgumentCaptor.forClass(Vector.class);
+        verify(stateSolver).solve(captor.capture(), any(), any(), eq(0.5));
+        checkVector(captor.getValue(), 2.0, 0.0, 0.0);
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,14 @@
 
 package layers.continuum;
 
+import control.identifiers.Coordinate;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+
+import java.util.function.Function;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -17,8 +23,12 @@ public class HoldManagerTest {
     private ContinuumSolver solver;
     private HoldManager query;
 
+    @Captor
+    private ArgumentCaptor<Function<Coordinate, Double>> captor;
+
     @Before
     public void init() {
+        MockitoAnnotations.initMocks(this);
         manager = mock(ContinuumAgentManager.class);
         solver = mock(ContinuumSolver.class);
 
@@ -74,6 +84,36 @@ public class HoldManagerTest {
         verify(manager).apply();
     }
 
+    @Test
+    public void deferredSolveKeepsLayerStale() throws Exception {
+        when(solver.isDeferred()).thenReturn(true);
+        query.resolve(() -> {});
+        verify(manager, never()).apply();
+        verify(solver, never()).solve();
+        assertTrue(query.isStale());
+
+        // Once time has elapsed, the accumulated operations are solved.
+        when(solver.isDeferred()).thenReturn(false);
+        query.flush();
+        verify(manager).apply();
+        verify(solver).solve();
+        assertFalse(query.isStale());
+    }
+
+    @Test
+    public void batchedReleaseAndSolveDeferUntilFlush() throws Exception {
+        query.setBatched(true);
+        query.hold();
+        query.release();
+        query.solve();
+        verify(solver, never()).solve();
+        assertTrue(query.isStale());
+
+        query.flush();
+        verify(solver, times(1)).solve();
+        assertFalse(query.isStale());
+    }
+
     @Test
     public void resetClearsHold() throws Exception {
         query.hold();
@@ -87,6 +127,18 @@ public class HoldManagerTest {
         verify(manager).reset();
     }
 
+    @Test
+    public void resetCallsSolver() throws Exception {
+        query.reset();
+        verify(solver).reset();
+    }
+
+    @Test
+    public void setTimePassesToSolver() throws Exception {
+        query.setTime(2.5);
+        verify(solver).setTime(2.5);
+    }
+
     @Test
     public void idComesFromManager() throws Exception {
         when(manager.getId()).thenReturn("test");
@@ -98,4 +150,69 @@ public class HoldManagerTest {
         ContinuumAgentLinker linker = mock(ContinuumAgentLinker.class);
         when(manager.getLinker(any())).thenReturn(linker);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void lazyResolveDefersSolve() throws Exception {
+        query = new HoldManager(manager, solver, true);
+        query.resolve(() -> {});
+        query.resolve(() -> {});
+        verify(solver, never()).solve();
+        assertTrue(query.isStale());
+    }
+
+    @Test
+    public void lazyReleaseDefersSolve() throws Exception {
+        query = new HoldManager(manager, solver, true);
+        query.hold();
+        query.release();
+        verify(solver, never()).solve();
+        assertTrue(query.isStale());
+    }
+
+    @Test
+    public void flushSolvesStaleLayerOnce() throws Exception {
+        query = new HoldManager(manager, solver, true);
+        query.resolve(() -> {});
+        query.resolve(() -> {});
+        query.flush();
+        query.flush();
+        verify(solver, times(1)).solve();
+        assertFalse(query.isStale());
+    }
+
+    @Test
+    public void flushDoesNotSolveHeldLayer() throws Exception {
+        query = new HoldManager(manager, solver, true);
+        query.resolve(() -> {});
+        query.hold();
+        query.flush();
+        verify(solver, never()).solve();
+    }
+
+    @Test
+    public void flushDoesNothingIfNotStale() throws Exception {
+        query.flush();
+        verify(solver, never()).solve();
+    }
+
+    @Test
+    public void linkerLookupFlushesStaleLayer() throws Exception {
+        query = new HoldManager(manager, solver, true);
+        query.resolve(() -> {});
+        Function<Coordinate, Double> lookup = c -> 1.0;
+        query.getLinker(lookup);
+
+        verify(manager).getLinker(captor.capture());
+        verify(solver, never()).solve();
+        assertEquals(1.0, captor.getValue().apply(null), 0.0);
+        verify(solver).solve();
+    }
+
+    @Test
+    public void resetClearsStale() throws Exception {
+        query = new HoldManager(manager, solver, true);
+        query.resolve(() -> {});
+        query.reset();
+        assertFalse(query.isStale());
+    }
+}
@@ -6,16 +6,13 @@
 package layers.continuum;
 
 
-import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.DenseVector;
-import no.uib.cipr.matrix.Matrix;
 import no.uib.cipr.matrix.Vector;
 import org.junit.Before;
 import org.junit.Test;
 import test.LinearMocks;
 
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
@@ -23,10 +20,10 @@ import static org.mockito.Mockito.*;
 public class ReactionLoaderTest extends LinearMocks {
 
     private Vector capturedVector;
-    private Matrix capturedMatrix;
+    private Vector capturedExponents;
 
     private AgentToOperatorHelper helper;
-    private Stream<RelationshipTuple> stream;
+    private RelationshipTuple relationship;
 
     private ReactionLoader query;
 
@@ -34,35 +31,53 @@ public class ReactionLoaderTest extends LinearMocks {
     public void init() {
         // For some reason, I can't set up a captor on a consumer, so I am doing this.
         Consumer<DenseVector> vectorCaptor = this::captureVector;
-        Consumer<DenseMatrix> matrixCaptor = this::captureMatrix;
+        Consumer<DenseVector> exponentCaptor = this::captureExponents;
 
         helper = mock(AgentToOperatorHelper.class);
-        stream = (Stream<RelationshipTuple>) mock(Stream.class);
+        relationship = mock(RelationshipTuple.class);
 
-        query = new ReactionLoader(vectorCaptor, matrixCaptor, helper);
+        query = new ReactionLoader(vectorCaptor, exponentCaptor, helper);
     }
 
     @Test
     public void applyResolvesInjections() throws Exception {
         DenseVector vector = vector(1.0, 2.0, 3.0);
-        when(helper.getSource(any())).thenReturn(vector);
-        query.apply(stream);
+        when(helper.getSource()).thenReturn(vector);
+        query.apply();
         assertEquals(vector, capturedVector);
     }
 
     @Test
     public void applyResolvesExponentiations() throws Exception {
-        DenseMatrix matrix = matrix(1.0, 2.0, 3.0);
-        when(helper.getOperator(any())).thenReturn(matrix);
-        query.apply(stream);
-        assertEquals(matrix, capturedMatrix);
+        DenseVector exponents = vector(1.0, 2.0, 3.0);
+        when(helper.getExponents()).thenReturn(exponents);
+        query.apply();
+        assertEquals(exponents, capturedExponents);
+    }
+
+    @Test
+    public void addPassesToHelper() throws Exception {
+        query.add(relationship);
+        verify(helper).add(relationship);
+    }
+
+    @Test
+    public void removePassesToHelper() throws Exception {
+        query.remove(relationship);
+        verify(helper).remove(relationship);
+    }
+
+    @Test
+    public void resetResetsHelper() throws Exception {
+        query.reset();
+        verify(helper).reset();
     }
 
     private void captureVector(Vector vector) {
         capturedVector = vector;
     }
 
-    private void captureMatrix(Matrix matrix) {
-        capturedMatrix = matrix;
+    private void captureExponents(Vector exponents) {
+        capturedExponents = exponents;
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,8 @@
 
 package layers.continuum;
 
+import geometry.NeighborTable;
+import layers.continuum.solve.StencilOperator;
 import no.uib.cipr.matrix.DenseVector;
 import no.uib.cipr.matrix.Matrix;
 import no.uib.cipr.matrix.Vector;
@@ -13,6 +15,8 @@ import org.junit.Test;
 import structural.utilities.MatrixUtils;
 import test.LinearMocks;
 
+import static org.junit.Assert.assertTrue;
+
 public class ScheduledOperationsTest extends LinearMocks {
 
     private ScheduledOperations query;
@@ -131,4 +135,14 @@ public class ScheduledOperationsTest extends LinearMocks {
 
         assertVectorsEqual(expected, actual, epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void separatelyBuiltStencilsCombineWithoutAssembly() throws Exception {
+        NeighborTable neighbors = NeighborTable.fromRows(new int[][]{{1}, {0, 2}, {1}});
+        query.apply(StencilOperator.diffusion(neighbors, -0.2, 0.1));
+        query.apply(StencilOperator.diffusion(NeighborTable.fromRows(new int[][]{{1}, {0, 2}, {1}}), -0.2, 0.1));
+
+        assertTrue(query.isMatrixFree());
+        assertTrue(query.getOperator() instanceof StencilOperator);
+    }
+}
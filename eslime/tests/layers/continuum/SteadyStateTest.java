@@ -5,11 +5,14 @@
 
 package layers.continuum;
 
+import geometry.NeighborTable;
+import layers.continuum.solve.StencilOperator;
 import layers.continuum.solve.SteadyState;
 import no.uib.cipr.matrix.DenseMatrix;
 import no.uib.cipr.matrix.DenseVector;
 import no.uib.cipr.matrix.Matrix;
 import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.FlexCompRowMatrix;
 import org.junit.Before;
 import org.junit.Test;
 import structural.utilities.MatrixUtils;
@@ -133,6 +136,33 @@ public class SteadyStateTest extends TestBase {
         doTest(source, operator, expected);
     }
 
+    /**
+     * The general case should produce the same solution when the operator
+     * is supplied in compressed-row form.
+     */
+    @Test
+    public void sparseOperatorSolvesMatrix() throws Exception {
+        DenseVector source = new DenseVector(3);
+        source.set(1, 1);
+        Matrix operator = new FlexCompRowMatrix(diffusion());
+        DenseVector expected = new DenseVector(new double[] {5.0, 10.0, 5.0});
+        doTest(source, operator, expected);
+    }
+
+    /**
+     * The general case should produce the same solution when the operator
+     * is supplied as a matrix-free stencil.
+     */
+    @Test
+    public void stencilOperatorSolvesMatrix() throws Exception {
+        DenseVector source = new DenseVector(3);
+        source.set(1, 1);
+        NeighborTable neighbors = NeighborTable.fromRows(new int[][]{{1}, {0, 2}, {1}});
+        Matrix operator = StencilOperator.diffusion(neighbors, 0.8, 0.1);
+        DenseVector expected = new DenseVector(new double[] {5.0, 10.0, 5.0});
+        doTest(source, operator, expected);
+    }
+
     private void doTest(DenseVector source, Matrix operator, DenseVector expected) {
         Vector actual = query.solve(source, operator, initial.copy());
         assertVectorsEqual(expected, actual, 1e-14);
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class FourierTransformTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void powerOfTwoMatchesDefinition() throws Exception {
+        for (int n : new int[]{1, 2, 4, 8, 64}) {
+            checkForward(n);
+        }
+    }
+
+    @Test
+    public void otherLengthsMatchDefinition() throws Exception {
+        for (int n : new int[]{3, 5, 6, 7, 12, 24, 100}) {
+            checkForward(n);
+        }
+    }
+
+    @Test
+    public void inverseRestoresInput() throws Exception {
+        for (int n : new int[]{8, 24}) {
+            double[] re = random(n, 1);
+            double[] im = random(n, 2);
+            double[] expectedRe = re.clone();
+            double[] expectedIm = im.clone();
+
+            FourierTransform query = new FourierTransform(n);
+            query.forward(re, im);
+            query.inverse(re, im);
+
+            assertArrayEquals(expectedRe, re, EPSILON);
+            assertArrayEquals(expectedIm, im, EPSILON);
+        }
+    }
+
+    private void checkForward(int n) {
+        double[] re = random(n, 1);
+        double[] im = random(n, 2);
+
+        double[] expectedRe = new double[n];
+        double[] expectedIm = new double[n];
+        for (int k = 0; k < n; k++) {
+            for (int j = 0; j < n; j++) {
+                double theta = -2.0 * Math.PI * j * k / n;
+                expectedRe[k] += re[j] * Math.cos(theta) - im[j] * Math.sin(theta);
+                expectedIm[k] += re[j] * Math.sin(theta) + im[j] * Math.cos(theta);
+            }
+        }
+
+        new FourierTransform(n).forward(re, im);
+        assertArrayEquals(expectedRe, re, EPSILON);
+        assertArrayEquals(expectedIm, im, EPSILON);
+    }
+
+    private double[] random(int n, long seed) {
+        Random random = new Random(seed);
+        double[] ret = new double[n];
+        for (int i = 0; i < n; i++) {
+            ret[i] = random.nextDouble() - 0.5;
+        }
+        return ret;
+    }
+}
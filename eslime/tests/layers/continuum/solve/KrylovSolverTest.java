@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.RectangularLattice;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.*;
+import org.junit.Before;
+import org.junit.Test;
+import processes.continuum.DiffusionConstantHelper;
+import processes.continuum.DiffusionOperator;
+import test.TestBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class KrylovSolverTest extends TestBase {
+
+    private Matrix system;
+    private Vector source;
+    private Vector expected;
+    private List<SolveReport> reports;
+
+    @Before
+    public void init() throws Exception {
+        system = system(absorbing(12));
+        int n = system.numRows();
+
+        Random random = new Random(0);
+        source = new DenseVector(n);
+        for (int i = 0; i < n; i++) {
+            source.set(i, random.nextDouble());
+        }
+
+        expected = new DenseVector(n);
+        new DenseMatrix(system).solve(source, expected);
+
+        reports = new ArrayList<>();
+    }
+
+    @Test
+    public void everyMethodAndPreconditionerSolves() throws Exception {
+        List<Function<Vector, AbstractIterativeSolver>> methods = new ArrayList<>();
+        methods.add(CG::new);
+        methods.add(BiCGstab::new);
+        methods.add(GMRES::new);
+        methods.add(CGS::new);
+
+        List<Function<Matrix, Preconditioner>> preconditioners = new ArrayList<>();
+        preconditioners.add(null);
+        preconditioners.add(Preconditioners::jacobi);
+        preconditioners.add(Preconditioners::ssor);
+        preconditioners.add(Preconditioners::ilu);
+
+        for (Function<Vector, AbstractIterativeSolver> method : methods) {
+            for (Function<Matrix, Preconditioner> preconditioner : preconditioners) {
+                KrylovSolver query = new KrylovSolver("test", method, preconditioner, 1e-12, 1000, reports::add);
+                Vector actual = query.solve(system, source, new DenseVector(system.numRows()));
+                assertVectorsEqual(expected, actual, 1e-8);
+            }
+        }
+
+        assertEquals(16, reports.size());
+        reports.forEach(report -> assertTrue(report.isConverged()));
+    }
+
+    @Test
+    public void preconditioningReducesIterations() throws Exception {
+        KrylovSolver plain = new KrylovSolver("plain", CG::new, null, 1e-10, 1000, reports::add);
+        KrylovSolver ilu = new KrylovSolver("ilu", CG::new, Preconditioners::ilu, 1e-10, 1000, reports::add);
+        plain.solve(system, source, new DenseVector(system.numRows()));
+        ilu.solve(system, source, new DenseVector(system.numRows()));
+
+        assertTrue(reports.get(1).getIterations() < reports.get(0).getIterations());
+    }
+
+    @Test
+    public void warmStartFromSolutionNeedsNoIterations() throws Exception {
+        KrylovSolver query = new KrylovSolver("test", CG::new, Preconditioners::jacobi, 1e-8, 1000, reports::add);
+        Vector actual = query.solve(system, source, expected);
+
+        assertVectorsEqual(expected, actual, 1e-8);
+        assertEquals(0, reports.get(0).getIterations());
+    }
+
+    @Test
+    public void nonConvergenceIsReported() throws Exception {
+        KrylovSolver query = new KrylovSolver("test", CG::new, null, 1e-12, 2, reports::add);
+        query.solve(system, source, new DenseVector(system.numRows()));
+
+        SolveReport report = reports.get(0);
+        assertFalse(report.isConverged());
+        assertEquals("test", report.getMethod());
+        assertEquals(system.numRows(), report.getSize());
+        assertTrue(report.getResidual() > 0.0);
+    }
+
+    private Matrix system(Geometry geometry) {
+        DiffusionConstantHelper helper = new DiffusionConstantHelper(0.2, geometry.getConnectivity(),
+                geometry.getDimensionality());
+        StencilOperator diffusion = DiffusionOperator.stencil(helper, geometry);
+        double[] diagonal = new double[diffusion.numRows()];
+        for (int i = 0; i < diagonal.length; i++) {
+            diagonal[i] = 1.0 - 0.01;
+        }
+
+        return diffusion.plusDiagonal(diagonal).complement();
+    }
+
+    private Geometry absorbing(int size) {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, size, size);
+        Boundary boundary = new Absorbing(shape, lattice);
+        return new Geometry(lattice, shape, boundary);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Boundary;
+import geometry.boundaries.Periodic;
+import geometry.lattice.Lattice;
+import geometry.lattice.RectangularLattice;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import org.junit.Test;
+import processes.continuum.DiffusionConstantHelper;
+import processes.continuum.DiffusionOperator;
+import test.TestBase;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MultigridSolverTest extends TestBase {
+
+    @Test
+    public void hierarchyHalvesGeometry() throws Exception {
+        MultigridSolver query = new MultigridSolver(absorbing(32));
+
+        // 1024 -> 256 -> 64
+        assertEquals(3, query.getLevelCount());
+    }
+
+    @Test
+    public void smallGeometryHasOneLevel() throws Exception {
+        MultigridSolver query = new MultigridSolver(absorbing(8));
+        assertEquals(1, query.getLevelCount());
+    }
+
+    @Test
+    public void absorbingMatchesDirectSolve() throws Exception {
+        doTest(absorbing(24));
+    }
+
+    @Test
+    public void periodicMatchesDirectSolve() throws Exception {
+        doTest(periodic(24));
+    }
+
+    /**
+     * A bounded number of V-cycles should suffice regardless of the size
+     * of the lattice.
+     */
+    @Test
+    public void cyclesIndependentOfSize() throws Exception {
+        for (int size : new int[]{16, 64, 128}) {
+            Geometry geometry = absorbing(size);
+            Matrix system = system(geometry);
+            Vector source = source(system.numRows());
+            MultigridSolver query = new MultigridSolver(geometry, 1e-8, 20, 2, report -> {});
+
+            Vector actual = query.solve(system, source, new DenseVector(system.numRows()));
+
+            Vector residual = source.copy();
+            system.multAdd(-1.0, actual, residual);
+            assertTrue(residual.norm(Vector.Norm.Two) <= 1e-8 * source.norm(Vector.Norm.Two));
+        }
+    }
+
+    private void doTest(Geometry geometry) {
+        Matrix system = system(geometry);
+        Vector source = source(system.numRows());
+        MultigridSolver query = new MultigridSolver(geometry, 1e-10, 100, 2, report -> {});
+        assertTrue(query.getLevelCount() > 1);
+
+        Vector expected = new DenseVector(system.numRows());
+        new DenseMatrix(system).solve(source, expected);
+        Vector actual = query.solve(system, source, new DenseVector(system.numRows()));
+
+        assertVectorsEqual(expected, actual, 1e-8);
+    }
+
+    /**
+     * I - Q, where Q is diffusion with a uniform decay.
+     */
+    private Matrix system(Geometry geometry) {
+        DiffusionConstantHelper helper = new DiffusionConstantHelper(0.2, geometry.getConnectivity(),
+                geometry.getDimensionality());
+        StencilOperator diffusion = DiffusionOperator.stencil(helper, geometry);
+        int n = diffusion.numRows();
+        double[] diagonal = new double[n];
+        for (int i = 0; i < n; i++) {
+            diagonal[i] = 1.0 - 0.01;
+        }
+
+        return diffusion.plusDiagonal(diagonal).complement();
+    }
+
+    private Vector source(int n) {
+        Random random = new Random(0);
+        DenseVector source = new DenseVector(n);
+        for (int i = 0; i < n; i++) {
+            source.set(i, random.nextDouble());
+        }
+
+        return source;
+    }
+
+    private Geometry absorbing(int size) {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, size, size);
+        Boundary boundary = new Absorbing(shape, lattice);
+        return new Geometry(lattice, shape, boundary);
+    }
+
+    private Geometry periodic(int size) {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, size, size);
+        Boundary boundary = new Periodic(shape, lattice);
+        return new Geometry(lattice, shape, boundary);
+    }
+}
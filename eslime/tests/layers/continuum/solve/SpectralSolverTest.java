@@ -0,0 +1,150 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Boundary;
+import geometry.boundaries.Periodic;
+import geometry.lattice.CubicLattice;
+import geometry.lattice.Lattice;
+import geometry.lattice.LinearLattice;
+import geometry.lattice.RectangularLattice;
+import geometry.shape.Cuboid;
+import geometry.shape.Line;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Vector;
+import org.junit.Test;
+import processes.continuum.DiffusionConstantHelper;
+import processes.continuum.DiffusionOperator;
+import test.TestBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpectralSolverTest extends TestBase {
+
+    private List<SolveReport> reports = new ArrayList<>();
+
+    @Test
+    public void rectangleIsApplicable() throws Exception {
+        assertTrue(new SpectralSolver(rectangle(8, 6, true)).isApplicable());
+    }
+
+    @Test
+    public void absorbingIsNotApplicable() throws Exception {
+        assertFalse(new SpectralSolver(rectangle(8, 6, false)).isApplicable());
+    }
+
+    @Test
+    public void line() throws Exception {
+        Lattice lattice = new LinearLattice();
+        Shape shape = new Line(lattice, 20);
+        doTest(new Geometry(lattice, shape, new Periodic(shape, lattice)), 0.01, "spectral");
+    }
+
+    @Test
+    public void powerOfTwoRectangle() throws Exception {
+        doTest(rectangle(16, 8, true), 0.01, "spectral");
+    }
+
+    @Test
+    public void arbitraryRectangle() throws Exception {
+        doTest(rectangle(12, 7, true), 0.01, "spectral");
+    }
+
+    @Test
+    public void cuboid() throws Exception {
+        Lattice lattice = new CubicLattice();
+        Shape shape = new Cuboid(lattice, 5, 6, 4);
+        doTest(new Geometry(lattice, shape, new Periodic(shape, lattice)), 0.01, "spectral");
+    }
+
+    /**
+     * Non-uniform decay, as produced by agents, is solved iteratively.
+     */
+    @Test
+    public void nonUniformFallsBack() throws Exception {
+        doTest(rectangle(12, 7, true), -1.0, "cgs");
+    }
+
+    @Test
+    public void absorbingFallsBack() throws Exception {
+        doTest(rectangle(12, 7, false), 0.01, "cgs");
+    }
+
+    /**
+     * With no decay, the periodic operator is singular.
+     */
+    @Test
+    public void singularFallsBack() throws Exception {
+        Geometry geometry = rectangle(8, 8, true);
+        StencilOperator system = system(geometry, 0.0);
+        SpectralSolver query = new SpectralSolver(geometry, 1e-10, reports::add);
+        DenseVector source = new DenseVector(system.numRows());
+        query.solve(system, source, new DenseVector(system.numRows()));
+        assertEquals("cgs", reports.get(0).getMethod());
+    }
+
+    /**
+     * @param decay the uniform decay rate, or a negative number for a
+     *              decay rate that varies from site to site.
+     */
+    private void doTest(Geometry geometry, double decay, String method) {
+        StencilOperator system = system(geometry, decay);
+        Vector source = source(system.numRows());
+        SpectralSolver query = new SpectralSolver(geometry, 1e-10, reports::add);
+
+        Vector expected = new DenseVector(system.numRows());
+        new DenseMatrix(system).solve(source, expected);
+        Vector actual = query.solve(system, source, new DenseVector(system.numRows()));
+
+        assertVectorsEqual(expected, actual, 1e-8);
+        assertEquals(1, reports.size());
+        assertEquals(method, reports.get(0).getMethod());
+    }
+
+    /**
+     * I - Q, where Q is diffusion with decay.
+     */
+    private StencilOperator system(Geometry geometry, double decay) {
+        DiffusionConstantHelper helper = new DiffusionConstantHelper(0.1, geometry.getConnectivity(),
+                geometry.getDimensionality());
+        StencilOperator diffusion = DiffusionOperator.stencil(helper, geometry);
+        int n = diffusion.numRows();
+        Random random = new Random(1);
+        double[] diagonal = new double[n];
+        for (int i = 0; i < n; i++) {
+            double rate = decay < 0.0 ? 0.1 * random.nextDouble() : decay;
+            diagonal[i] = 1.0 - rate;
+        }
+
+        return diffusion.plusDiagonal(diagonal).complement();
+    }
+
+    private Vector source(int n) {
+        Random random = new Random(0);
+        DenseVector source = new DenseVector(n);
+        for (int i = 0; i < n; i++) {
+            source.set(i, random.nextDouble());
+        }
+
+        return source;
+    }
+
+    private Geometry rectangle(int width, int height, boolean periodic) {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, width, height);
+        Boundary boundary = periodic ? new Periodic(shape, lattice) : new Absorbing(shape, lattice);
+        return new Geometry(lattice, shape, boundary);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.NeighborTable;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.MatrixEntry;
+import no.uib.cipr.matrix.Vector;
+import org.junit.Before;
+import org.junit.Test;
+import test.TestBase;
+
+import static org.junit.Assert.*;
+
+public class StencilOperatorTest extends TestBase {
+
+    private NeighborTable neighbors;
+    private StencilOperator query;
+
+    @Before
+    public void init() throws Exception {
+        // Site 0 reflects onto itself; site 2 is absorbing
+        neighbors = NeighborTable.fromRows(new int[][]{{0, 1}, {0, 2}, {1}});
+        query = StencilOperator.diffusion(neighbors, -0.2, 0.1);
+    }
+
+    @Test
+    public void contentsAsExpected() throws Exception {
+        assertMatricesEqual(expected(), query, epsilon);
+    }
+
+    @Test
+    public void multAddMatchesMatrix() throws Exception {
+        Vector x = new DenseVector(new double[]{1.0, 2.0, 3.0});
+        Vector expected = new DenseVector(new double[]{1.0, 1.0, 1.0});
+        Vector actual = expected.copy();
+
+        expected().multAdd(2.0, x, expected);
+        query.multAdd(2.0, x, actual);
+
+        assertVectorsEqual(expected, actual, epsilon);
+    }
+
+    @Test
+    public void transMultAddMatchesMatrix() throws Exception {
+        Vector x = new DenseVector(new double[]{1.0, 2.0, 3.0});
+        Vector expected = new DenseVector(3);
+        Vector actual = new DenseVector(3);
+
+        expected().transMultAdd(-1.0, x, expected);
+        query.transMultAdd(-1.0, x, actual);
+
+        assertVectorsEqual(expected, actual, epsilon);
+    }
+
+    @Test
+    public void iteratorVisitsEachStoredEntry() throws Exception {
+        Matrix actual = new DenseMatrix(3, 3);
+        int count = 0;
+        for (MatrixEntry entry : query) {
+            actual.add(entry.row(), entry.column(), entry.get());
+            count++;
+        }
+
+        // Three diagonals, plus four listings that are not self-references
+        assertEquals(7, count);
+        assertMatricesEqual(expected(), actual, epsilon);
+    }
+
+    @Test
+    public void plusAddsOperators() throws Exception {
+        StencilOperator sum = query.plus(query);
+        DenseMatrix expected = expected();
+        expected.scale(2.0);
+        assertMatricesEqual(expected, sum, epsilon);
+    }
+
+    @Test
+    public void plusDiagonalAddsToDiagonal() throws Exception {
+        StencilOperator actual = query.plusDiagonal(new double[]{1.0, 2.0, 3.0});
+        DenseMatrix expected = expected();
+        expected.add(0, 0, 1.0);
+        expected.add(1, 1, 2.0);
+        expected.add(2, 2, 3.0);
+        assertMatricesEqual(expected, actual, epsilon);
+    }
+
+    @Test
+    public void diagonalIsCompatibleWithStencil() throws Exception {
+        StencilOperator diagonal = StencilOperator.diagonal(new double[]{1.0, 1.0, 1.0});
+        assertTrue(diagonal.isCompatible(query));
+        assertTrue(query.isCompatible(diagonal));
+
+        DenseMatrix expected = expected();
+        for (int i = 0; i < 3; i++) {
+            expected.add(i, i, 1.0);
+        }
+        assertMatricesEqual(expected, diagonal.plus(query), epsilon);
+    }
+
+    @Test
+    public void separatelyBuiltOperatorsAreCompatible() throws Exception {
+        NeighborTable same = NeighborTable.fromRows(new int[][]{{0, 1}, {0, 2}, {1}});
+        StencilOperator other = StencilOperator.diffusion(same, -0.4, 0.2);
+        assertTrue(query.isCompatible(other));
+        assertMatricesEqual(query.scaleAndShift(3.0, 0.0), query.plus(other), epsilon);
+    }
+
+    @Test
+    public void differentStructuresAreIncompatible() throws Exception {
+        NeighborTable different = NeighborTable.fromRows(new int[][]{{2}, {0}, {1}});
+        StencilOperator other = StencilOperator.diffusion(different, -0.2, 0.1);
+        assertFalse(query.isCompatible(other));
+    }
+
+    @Test
+    public void complementIsIdentityMinusOperator() throws Exception {
+        DenseMatrix expected = expected();
+        expected.scale(-1.0);
+        for (int i = 0; i < 3; i++) {
+            expected.add(i, i, 1.0);
+        }
+
+        assertMatricesEqual(expected, query.complement(), epsilon);
+    }
+
+    private DenseMatrix expected() {
+        DenseMatrix ret = new DenseMatrix(3, 3);
+
+        // Site 0 lists itself once
+        ret.add(0, 0, -0.1);
+        ret.add(0, 1, 0.1);
+
+        ret.add(1, 0, 0.1);
+        ret.add(1, 1, -0.2);
+        ret.add(1, 2, 0.1);
+
+        ret.add(2, 1, 0.1);
+        ret.add(2, 2, -0.2);
+
+        return ret;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package layers.continuum.solve;
+
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.RectangularLattice;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.DenseVector;
+import no.uib.cipr.matrix.Matrix;
+import no.uib.cipr.matrix.Vector;
+import no.uib.cipr.matrix.sparse.CGS;
+import no.uib.cipr.matrix.sparse.FlexCompRowMatrix;
+import org.junit.Before;
+import org.junit.Test;
+import processes.continuum.DiffusionConstantHelper;
+import processes.continuum.DiffusionOperator;
+import test.LinearMocks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransientTest extends LinearMocks {
+
+    private LinearSolver solver;
+
+    @Before
+    public void init() throws Exception {
+        solver = new KrylovSolver("cgs", CGS::new, Preconditioners::jacobi,
+                1e-12, 1000, report -> {});
+    }
+
+    @Test
+    public void zeroElapsedTimeReturnsInitial() throws Exception {
+        Transient query = new Transient(solver, Transient.BACKWARD_EULER);
+        DenseVector initial = vector(1.0, 2.0, 3.0);
+        Vector actual = query.solve(vector(1.0, 1.0, 1.0), matrix(0.5, 0.5, 0.5), initial, 0.0);
+        assertVectorsEqual(initial, actual, epsilon);
+    }
+
+    @Test
+    public void backwardEulerStencil() throws Exception {
+        Matrix operator = operator();
+        doStepTest(operator, Transient.BACKWARD_EULER);
+    }
+
+    @Test
+    public void backwardEulerMatrix() throws Exception {
+        Matrix operator = new FlexCompRowMatrix(operator());
+        doStepTest(operator, Transient.BACKWARD_EULER);
+    }
+
+    @Test
+    public void crankNicolsonStencil() throws Exception {
+        doStepTest(operator(), Transient.CRANK_NICOLSON);
+    }
+
+    /**
+     * Pure decay at rate k has the solution c(t) = c(0) exp(-kt). Crank-
+     * Nicolson is second-order accurate, so halving the step should reduce
+     * the error roughly four-fold.
+     */
+    @Test
+    public void crankNicolsonIsSecondOrder() throws Exception {
+        double coarse = decayError(0.2);
+        double fine = decayError(0.1);
+        assertEquals(4.0, coarse / fine, 0.1);
+    }
+
+    /**
+     * Given enough time, the field reaches its steady state.
+     */
+    @Test
+    public void approachesSteadyState() throws Exception {
+        Matrix operator = operator();
+        Vector source = source(operator.numRows());
+        Vector expected = new SteadyState(solver).solve(source, operator.copy(), new DenseVector(operator.numRows()));
+
+        Transient query = new Transient(solver, Transient.BACKWARD_EULER);
+        Vector actual = new DenseVector(operator.numRows());
+        for (int i = 0; i < 50; i++) {
+            actual = query.solve(source, operator, actual, 100.0);
+        }
+
+        assertVectorsEqual(expected, actual, 1e-6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void explicitWeightThrows() throws Exception {
+        new Transient(solver, 0.0);
+    }
+
+    private double decayError(double dt) {
+        double k = 0.5;
+        Matrix operator = StencilOperator.diagonal(new double[]{1.0 - k, 1.0 - k, 1.0 - k});
+        Transient query = new Transient(solver, Transient.CRANK_NICOLSON);
+        Vector state = vector(1.0, 1.0, 1.0);
+        int steps = (int) Math.round(2.0 / dt);
+        for (int i = 0; i < steps; i++) {
+            state = query.solve(new DenseVector(3), operator, state, dt);
+        }
+
+        return Math.abs(state.get(0) - Math.exp(-k * 2.0));
+    }
+
+    /**
+     * [I + theta dt (I - Q)] c' = [I - (1 - theta) dt (I - Q)] c + dt g
+     */
+    private void doStepTest(Matrix operator, double theta) {
+        int n = operator.numRows();
+        double dt = 0.7;
+        Vector source = source(n);
+        Vector initial = source(n).scale(2.0);
+
+        DenseMatrix s = new DenseMatrix(operator);
+        s.scale(-1.0);
+        for (int i = 0; i < n; i++) {
+            s.add(i, i, 1.0);
+        }
+
+        DenseMatrix left = s.copy();
+        left.scale(theta * dt);
+        DenseMatrix right = s.copy();
+        right.scale(-(1.0 - theta) * dt);
+        for (int i = 0; i < n; i++) {
+            left.add(i, i, 1.0);
+            right.add(i, i, 1.0);
+        }
+
+        DenseVector rhs = new DenseVector(n);
+        right.mult(initial, rhs);
+        rhs.add(dt, source);
+        DenseVector expected = new DenseVector(n);
+        left.solve(rhs, expected);
+
+        Vector actual = new Transient(solver, theta).solve(source, operator, initial, dt);
+        assertVectorsEqual(expected, actual, 1e-8);
+    }
+
+    /**
+     * Diffusion with a uniform decay, Q
+     */
+    private StencilOperator operator() {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, 6, 5);
+        Boundary boundary = new Absorbing(shape, lattice);
+        Geometry geometry = new Geometry(lattice, shape, boundary);
+        DiffusionConstantHelper helper = new DiffusionConstantHelper(0.2, geometry.getConnectivity(),
+                geometry.getDimensionality());
+        StencilOperator diffusion = DiffusionOperator.stencil(helper, geometry);
+        double[] diagonal = new double[diffusion.numRows()];
+        Arrays.fill(diagonal, 1.0 - 0.05);
+        return diffusion.plusDiagonal(diagonal);
+    }
+
+    private Vector source(int n) {
+        Random random = new Random(0);
+        DenseVector source = new DenseVector(n);
+        for (int i = 0; i < n; i++) {
+            source.set(i, random.nextDouble());
+        }
+
+        return source;
+    }
+}
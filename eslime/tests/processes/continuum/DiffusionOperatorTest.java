@@ -5,6 +5,7 @@
 
 package processes.continuum;
 
+import layers.continuum.solve.StencilOperator;
 import no.uib.cipr.matrix.DenseMatrix;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +40,15 @@ public class DiffusionOperatorTest extends LinearMocks {
         assertMatricesEqual(expected, query, epsilon);
     }
 
+    /**
+     * The matrix-free operator has the same contents as the matrix.
+     */
+    @Test
+    public void stencilMatchesMatrix() throws Exception {
+        StencilOperator stencil = DiffusionOperator.stencil(helper, geom);
+        assertMatricesEqual(query, stencil, epsilon);
+    }
+
     private DenseMatrix makeMatrix() {
         DenseMatrix ret = new DenseMatrix(3, 3);
 
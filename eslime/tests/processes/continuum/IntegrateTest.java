@@ -13,6 +13,7 @@ package processes.continuum;
 import layers.continuum.ContinuumLayerScheduler;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import processes.BaseProcessArguments;
 import processes.StepState;
 
@@ -39,6 +40,15 @@ public class IntegrateTest {
         verify(scheduler).solve();
     }
 
+    @Test
+    public void fireSetsTimeBeforeSolving() throws Exception {
+        when(state.getTime()).thenReturn(3.0);
+        query.fire(state);
+        InOrder inOrder = inOrder(scheduler);
+        inOrder.verify(scheduler).setTime(3.0);
+        inOrder.verify(scheduler).solve();
+    }
+
     @Test
     public void initDoesNothing() throws Exception {
         query.init();
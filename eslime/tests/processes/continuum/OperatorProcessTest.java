@@ -5,7 +5,7 @@
 
 package processes.continuum;
 
-import no.uib.cipr.matrix.DenseMatrix;
+import no.uib.cipr.matrix.Matrix;
 import org.junit.Before;
 import org.junit.Test;
 import processes.BaseProcessArguments;
@@ -17,15 +17,15 @@ import static org.mockito.Mockito.*;
 public class OperatorProcessTest {
 
     private BaseProcessArguments arguments;
-    private DenseMatrix operator;
-    private Consumer<DenseMatrix> target;
+    private Matrix operator;
+    private Consumer<Matrix> target;
     private OperatorProcess query;
 
     @Before
     public void init() {
         arguments = mock(BaseProcessArguments.class);
-        operator = mock(DenseMatrix.class);
-        target = (Consumer<DenseMatrix>) mock(Consumer.class);
+        operator = mock(Matrix.class);
+        target = (Consumer<Matrix>) mock(Consumer.class);
         query = new OperatorProcess(arguments, operator, target);
     }
 
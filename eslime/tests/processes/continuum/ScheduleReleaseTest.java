@@ -11,6 +11,7 @@ import static org.mockito.Mockito.*;
 import layers.continuum.ContinuumLayerScheduler;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import processes.BaseProcessArguments;
 import processes.StepState;
 
@@ -34,6 +35,15 @@ public class ScheduleReleaseTest {
         verify(scheduler).release();
     }
 
+    @Test
+    public void fireSetsTimeBeforeRelease() throws Exception {
+        when(state.getTime()).thenReturn(3.0);
+        query.fire(state);
+        InOrder inOrder = inOrder(scheduler);
+        inOrder.verify(scheduler).setTime(3.0);
+        inOrder.verify(scheduler).release();
+    }
+
     @Test
     public void initDoesNothing() throws Exception {
         query.init();
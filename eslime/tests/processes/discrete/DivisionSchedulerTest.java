@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete;
+
+import cells.Cell;
+import cells.MockCell;
+import control.halt.LatticeFullEvent;
+import control.identifiers.Coordinate;
+import geometry.Geometry;
+import geometry.boundaries.Absorbing;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.RectangularLattice;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import layers.MockLayerManager;
+import layers.cell.CellLayer;
+import test.EslimeTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DivisionSchedulerTest extends EslimeTestCase {
+
+    // Daughters are distinguished from their parents by their state
+    private static final int DAUGHTER_OFFSET = 1000;
+
+    private CellLayer layer;
+    private MockLayerManager layerManager;
+
+    private void makeLayer(int width, int height) {
+        Lattice lattice = new RectangularLattice();
+        Shape shape = new Rectangle(lattice, width, height);
+        Boundary boundary = new Absorbing(shape, lattice);
+        Geometry geom = new Geometry(lattice, shape, boundary);
+        layer = new CellLayer(geom);
+        layerManager = new MockLayerManager();
+        layerManager.setCellLayer(layer);
+    }
+
+    private DivisionScheduler makeQuery(int threads) {
+        ShoveHelper shoveHelper = new ShoveHelper(layerManager, new Random(RANDOM_SEED));
+        return new DivisionScheduler(layer, shoveHelper, threads);
+    }
+
+    private MockCell place(int state, int x, int y) throws Exception {
+        MockCell cell = new MockCell(state);
+        cell.setDivisible(true);
+        cell.setChild(new MockCell(state + DAUGHTER_OFFSET));
+        layer.getUpdateManager().place(cell, new Coordinate(x, y, 0));
+        return cell;
+    }
+
+    /**
+     * Both cells would push toward the same vacancy. The second division
+     * must wait for the first, and then push into the remaining vacancy.
+     * Daughters are shown primed.
+     *
+     *   1  2  .  .   Initial condition
+     *   1  2' 2  .   b divides into the vacancy beside it
+     *   1' 1  2' 2   a, deferred to the second round, pushes the row
+     */
+    public void testConflictingDivisionDeferred() throws Exception {
+        makeLayer(4, 1);
+        MockCell a = place(1, 0, 0);
+        MockCell b = place(2, 1, 0);
+
+        makeQuery(2).execute(new Cell[]{b, a}, 0L);
+
+        int[] expected = new int[]{1001, 1, 1002, 2};
+        int[] actual = layer.getViewer().getStateVector();
+        assertTrue(Arrays.toString(actual), Arrays.equals(expected, actual));
+    }
+
+    public void testLatticeFullThrows() throws Exception {
+        makeLayer(2, 1);
+        MockCell a = place(1, 0, 0);
+        MockCell b = place(2, 1, 0);
+
+        boolean thrown = false;
+        try {
+            makeQuery(2).execute(new Cell[]{a, b}, 0L);
+        } catch (LatticeFullEvent ex) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+    }
+
+    /**
+     * Only one of the two divisions fits. It is carried out in the first
+     * round, and the lattice is found to be full in the second.
+     */
+    public void testLatticeFullKeepsEarlierRounds() throws Exception {
+        makeLayer(3, 1);
+        MockCell a = place(1, 0, 0);
+        MockCell b = place(2, 1, 0);
+
+        boolean thrown = false;
+        try {
+            makeQuery(2).execute(new Cell[]{b, a}, 0L);
+        } catch (LatticeFullEvent ex) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+        int[] expected = new int[]{1, 1002, 2};
+        int[] actual = layer.getViewer().getStateVector();
+        assertTrue(Arrays.toString(actual), Arrays.equals(expected, actual));
+    }
+
+    public void testEveryCellDivides() throws Exception {
+        int[] states = runColony(2);
+
+        int occupied = 0;
+        for (int state : states) {
+            if (state != 0) {
+                occupied++;
+            }
+        }
+
+        assertEquals(2 * countColony(), occupied);
+    }
+
+    /**
+     * The outcome must depend only on the seed, not on the number of
+     * threads on which divisions are planned.
+     */
+    public void testThreadCountDoesNotAffectOutcome() throws Exception {
+        int[] one = runColony(1);
+        int[] two = runColony(2);
+        int[] four = runColony(4);
+        assertTrue(Arrays.equals(one, two));
+        assertTrue(Arrays.equals(two, four));
+    }
+
+    /**
+     * Closing the scheduler releases its threads; it may still be used
+     * afterward, planning on the calling thread.
+     */
+    public void testCloseThenExecute() throws Exception {
+        makeLayer(4, 1);
+        MockCell a = place(1, 0, 0);
+        MockCell b = place(2, 1, 0);
+
+        DivisionScheduler query = makeQuery(2);
+        query.close();
+        query.execute(new Cell[]{b, a}, 0L);
+
+        int[] expected = new int[]{1001, 1, 1002, 2};
+        int[] actual = layer.getViewer().getStateVector();
+        assertTrue(Arrays.toString(actual), Arrays.equals(expected, actual));
+    }
+
+    private int countColony() {
+        int count = 0;
+        for (int x = 5; x < 15; x++) {
+            for (int y = 5; y < 15; y++) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int[] runColony(int threads) throws Exception {
+        makeLayer(20, 20);
+        List<Cell> cells = new ArrayList<>();
+        int state = 1;
+        for (int x = 5; x < 15; x++) {
+            for (int y = 5; y < 15; y++) {
+                cells.add(place(state++, x, y));
+            }
+        }
+
+        makeQuery(threads).execute(cells.toArray(new Cell[0]), 0L);
+        return layer.getViewer().getStateVector();
+    }
+}
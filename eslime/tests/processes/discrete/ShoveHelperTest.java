@@ -21,7 +21,9 @@ import layers.cell.CellLayer;
 import structural.MockRandom;
 import test.EslimeTestCase;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 public class ShoveHelperTest extends EslimeTestCase {
@@ -125,6 +127,30 @@ public class ShoveHelperTest extends EslimeTestCase {
         assertFalse(layer.getViewer().isOccupied(origin));
     }
 
+    public void testGetPath() throws Exception {
+        Coordinate origin = new Coordinate(4, 0, 0);
+        Coordinate target = new Coordinate(7, 0, 0);
+        List<Coordinate> actual = query.getPath(origin, target, new Random(RANDOM_SEED));
+
+        List<Coordinate> expected = new ArrayList<>();
+        for (int x = 4; x <= 7; x++) {
+            expected.add(new Coordinate(x, 0, 0));
+        }
+        assertEquals(expected, actual);
+    }
+
+    public void testShoveAlongPath() throws Exception {
+        Coordinate origin = new Coordinate(4, 0, 0);
+        Coordinate target = new Coordinate(7, 0, 0);
+        query.shove(query.getPath(origin, target, new Random(RANDOM_SEED)));
+
+        assertFalse(layer.getViewer().isOccupied(origin));
+        for (int x = 5; x <= 7; x++) {
+            Coordinate c = new Coordinate(x, 0, 0);
+            assertEquals(x - 1, layer.getViewer().getCell(c).getState());
+        }
+    }
+
     public void testGetTarget() throws Exception {
         Coordinate origin = new Coordinate(4, 0, 0);
 
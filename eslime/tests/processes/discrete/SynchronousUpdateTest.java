@@ -0,0 +1,188 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete;
+
+import cells.MockCell;
+import control.arguments.ConstantInteger;
+import control.identifiers.Coordinate;
+import geometry.Geometry;
+import geometry.boundaries.Arena;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.LinearLattice;
+import geometry.lattice.RectangularLattice;
+import geometry.set.CompleteSet;
+import geometry.set.CustomSet;
+import geometry.shape.Line;
+import geometry.shape.Rectangle;
+import geometry.shape.Shape;
+import layers.MockLayerManager;
+import layers.cell.CellLayer;
+import processes.BaseProcessArguments;
+import processes.MockStepState;
+import processes.discrete.synchronous.DivideToVacancy;
+import processes.discrete.synchronous.MoveToVacancy;
+import processes.discrete.synchronous.UpdateRule;
+import structural.MockGeneralParameters;
+import test.EslimeTestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SynchronousUpdateTest extends EslimeTestCase {
+
+    private MockLayerManager layerManager;
+    private CellLayer cellLayer;
+    private Geometry geom;
+
+    private void makeLayer(Lattice lattice, Shape shape) {
+        Boundary boundary = new Arena(shape, lattice);
+        geom = new Geometry(lattice, shape, boundary);
+        cellLayer = new CellLayer(geom);
+        layerManager = new MockLayerManager();
+        layerManager.setCellLayer(cellLayer);
+    }
+
+    private void makeLine(int length) {
+        Lattice lattice = new LinearLattice();
+        makeLayer(lattice, new Line(lattice, length));
+    }
+
+    private SynchronousUpdate makeQuery(UpdateRule rule, int threads, long seed) {
+        MockGeneralParameters p = makeMockGeneralParameters();
+        p.initializeRandom(seed);
+        BaseProcessArguments arguments = makeBaseProcessArguments(layerManager, p);
+        CellProcessArguments cpArguments = new CellProcessArguments(new CompleteSet(geom), new ConstantInteger(-1));
+        SynchronousUpdate query = new SynchronousUpdate(arguments, cpArguments, rule, threads);
+        query.init();
+        return query;
+    }
+
+    private MockCell place(int state, Coordinate c, boolean divisible) throws Exception {
+        MockCell cell = new MockCell(state);
+        cell.setDivisible(divisible);
+        cell.setChild(new MockCell(state));
+        cellLayer.getUpdateManager().place(cell, c);
+        return cell;
+    }
+
+    public void testDivisionFillsVacancy() throws Exception {
+        makeLine(3);
+        Coordinate origin = new Coordinate(0, 0, 0);
+        MockCell cell = place(1, origin, true);
+
+        SynchronousUpdate query = makeQuery(new DivideToVacancy(), 1, 0);
+        query.target(null);
+        query.fire(new MockStepState(0.0, 0));
+
+        assertEquals(cell, cellLayer.getViewer().getCell(origin));
+        assertTrue(cellLayer.getViewer().isOccupied(new Coordinate(0, 1, 0)));
+        assertEquals(2, cellLayer.getViewer().getOccupiedCount());
+    }
+
+    public void testNonDivisibleCellUnchanged() throws Exception {
+        makeLine(3);
+        place(1, new Coordinate(0, 0, 0), false);
+
+        SynchronousUpdate query = makeQuery(new DivideToVacancy(), 1, 0);
+        query.fire(new MockStepState(0.0, 0));
+
+        assertEquals(1, cellLayer.getViewer().getOccupiedCount());
+    }
+
+    /**
+     * Two cells contend for the vacancy between them. Exactly one of them
+     * may fill it; the daughter of the other cell is not placed.
+     */
+    public void testContestedSiteHasSingleWinner() throws Exception {
+        makeLine(3);
+        Coordinate left = new Coordinate(0, 0, 0);
+        Coordinate right = new Coordinate(0, 2, 0);
+        Coordinate middle = new Coordinate(0, 1, 0);
+        place(1, left, true);
+        place(2, right, true);
+
+        for (long seed = 0; seed < 20; seed++) {
+            SynchronousUpdate query = makeQuery(new DivideToVacancy(), 1, seed);
+            query.fire(new MockStepState(0.0, 0));
+
+            assertEquals(3, cellLayer.getViewer().getOccupiedCount());
+            int winner = cellLayer.getViewer().getState(middle);
+            assertTrue(winner == 1 || winner == 2);
+
+            cellLayer.getUpdateManager().banish(middle);
+        }
+    }
+
+    public void testMoveVacatesOrigin() throws Exception {
+        makeLine(2);
+        Coordinate origin = new Coordinate(0, 0, 0);
+        Coordinate target = new Coordinate(0, 1, 0);
+        MockCell cell = place(1, origin, false);
+
+        SynchronousUpdate query = makeQuery(new MoveToVacancy(), 1, 0);
+        query.fire(new MockStepState(0.0, 0));
+
+        assertFalse(cellLayer.getViewer().isOccupied(origin));
+        assertEquals(cell, cellLayer.getViewer().getCell(target));
+    }
+
+    public void testInactiveSitesIgnored() throws Exception {
+        makeLine(3);
+        Coordinate origin = new Coordinate(0, 0, 0);
+        place(1, origin, true);
+
+        MockGeneralParameters p = makeMockGeneralParameters();
+        BaseProcessArguments arguments = makeBaseProcessArguments(layerManager, p);
+        CustomSet activeSites = new CustomSet();
+        activeSites.add(new Coordinate(0, 2, 0));
+        CellProcessArguments cpArguments = new CellProcessArguments(activeSites, new ConstantInteger(-1));
+        SynchronousUpdate query = new SynchronousUpdate(arguments, cpArguments, new DivideToVacancy(), 1);
+        query.init();
+        query.fire(new MockStepState(0.0, 0));
+
+        assertEquals(1, cellLayer.getViewer().getOccupiedCount());
+    }
+
+    /**
+     * The outcome must depend only on the random number seed, not on the
+     * number of threads on which cells are evaluated.
+     */
+    public void testThreadCountDoesNotAffectOutcome() throws Exception {
+        int[] serial = runCrowd(1);
+        int[] parallel = runCrowd(4);
+        assertTrue(Arrays.equals(serial, parallel));
+    }
+
+    private int[] runCrowd(int threads) throws Exception {
+        Lattice lattice = new RectangularLattice();
+        makeLayer(lattice, new Rectangle(lattice, 20, 20));
+
+        Random random = new Random(0);
+        for (Coordinate c : geom.getCanonicalSites()) {
+            if (random.nextDouble() < 0.4) {
+                place(1 + random.nextInt(3), c, false);
+            }
+        }
+
+        SynchronousUpdate query = makeQuery(new MoveToVacancy(), threads, 0);
+        for (int frame = 0; frame < 10; frame++) {
+            query.fire(new MockStepState(0.0, frame));
+        }
+
+        return cellLayer.getViewer().getStateVector();
+    }
+
+    public void testEquality() throws Exception {
+        makeLine(3);
+        SynchronousUpdate query = makeQuery(new DivideToVacancy(), 1, 0);
+
+        assertEquals(query, makeQuery(new DivideToVacancy(), 1, 0));
+        assertEquals(query.hashCode(), makeQuery(new DivideToVacancy(), 1, 0).hashCode());
+        assertFalse(query.equals(makeQuery(new MoveToVacancy(), 1, 0)));
+        assertFalse(query.equals(makeQuery(new DivideToVacancy(), 2, 0)));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.discrete.synchronous;
+
+import cells.MockCell;
+import control.identifiers.Coordinate;
+import geometry.Geometry;
+import geometry.boundaries.Arena;
+import geometry.boundaries.Boundary;
+import geometry.lattice.Lattice;
+import geometry.lattice.LinearLattice;
+import geometry.shape.Line;
+import geometry.shape.Shape;
+import layers.cell.CellLayer;
+import test.EslimeTestCase;
+
+import java.util.Random;
+
+public class LatticeSnapshotTest extends EslimeTestCase {
+
+    private CellLayer cellLayer;
+    private Geometry geom;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Lattice lattice = new LinearLattice();
+        Shape shape = new Line(lattice, 4);
+        Boundary boundary = new Arena(shape, lattice);
+        geom = new Geometry(lattice, shape, boundary);
+        cellLayer = new CellLayer(geom);
+    }
+
+    private int site(int y) {
+        return geom.getSiteIndex().indexOf(new Coordinate(0, y, 0));
+    }
+
+    private LatticeSnapshot capture() {
+        return LatticeSnapshot.capture(cellLayer, LatticeSnapshot.getNeighborTable(geom));
+    }
+
+    public void testCapture() throws Exception {
+        MockCell cell = new MockCell(3);
+        cell.setDivisible(true);
+        cellLayer.getUpdateManager().place(cell, new Coordinate(0, 1, 0));
+
+        LatticeSnapshot query = capture();
+
+        assertEquals(4, query.size());
+        assertEquals(3, query.getState(site(1)));
+        assertTrue(query.isOccupied(site(1)));
+        assertTrue(query.isDivisible(site(1)));
+        assertFalse(query.isOccupied(site(0)));
+    }
+
+    public void testSnapshotUnaffectedByLaterChanges() throws Exception {
+        LatticeSnapshot query = capture();
+        cellLayer.getUpdateManager().place(new MockCell(1), new Coordinate(0, 1, 0));
+        assertFalse(query.isOccupied(site(1)));
+    }
+
+    public void testNeighborsBeyondArenaOmitted() throws Exception {
+        LatticeSnapshot query = capture();
+        assertEquals(1, query.getDegree(site(0)));
+        assertEquals(site(1), query.getNeighbor(site(0), 0));
+        assertEquals(2, query.getDegree(site(1)));
+    }
+
+    public void testChooseVacantNeighbor() throws Exception {
+        cellLayer.getUpdateManager().place(new MockCell(1), new Coordinate(0, 0, 0));
+        LatticeSnapshot query = capture();
+
+        // Site 1 has only one vacant neighbor.
+        Random random = new Random(0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(site(2), query.chooseVacantNeighbor(site(1), random));
+        }
+    }
+
+    public void testNoVacantNeighbor() throws Exception {
+        cellLayer.getUpdateManager().place(new MockCell(1), new Coordinate(0, 1, 0));
+        LatticeSnapshot query = capture();
+        assertEquals(-1, query.chooseVacantNeighbor(site(0), new Random(0)));
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package processes.gillespie;
+
+import org.junit.Test;
+import processes.MockProcess;
+
+import static org.junit.Assert.*;
+
+public class DependencyGraphTest {
+
+    @Test
+    public void undeclaredAffectsAll() throws Exception {
+        DependencyGraph query = new DependencyGraph(3);
+        assertArrayEquals(new int[]{0, 1, 2}, query.getAffected(new MockProcess()));
+    }
+
+    @Test
+    public void declaredAffectsListed() throws Exception {
+        DependencyGraph query = new DependencyGraph(3);
+        MockProcess process = new MockProcess();
+        query.declare(process, new int[]{2});
+        assertArrayEquals(new int[]{2}, query.getAffected(process));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownReactionThrows() throws Exception {
+        new DependencyGraph(2).declare(new MockProcess(), new int[]{2});
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package structural;
+
+import org.junit.Test;
+import test.TestBase;
+
+import static org.junit.Assert.*;
+
+public class AliasTableTest extends TestBase {
+
+    @Test
+    public void totalWeight() throws Exception {
+        AliasTable query = new AliasTable(new double[]{0.5, 1.0, 0.5});
+        assertEquals(3, query.size());
+        assertEquals(2.0, query.getTotalWeight(), epsilon);
+    }
+
+    /**
+     * A uniform grid of inputs selects each item in proportion to its
+     * weight.
+     */
+    @Test
+    public void selectionProportionalToWeight() throws Exception {
+        double[] weights = {1.0, 0.0, 3.0, 0.5, 2.5, 1.0};
+        AliasTable query = new AliasTable(weights);
+
+        int samples = 80000;
+        int[] counts = new int[weights.length];
+        for (int k = 0; k < samples; k++) {
+            double x = (k + 0.5) / samples * query.getTotalWeight();
+            counts[query.select(x)]++;
+        }
+
+        for (int i = 0; i < weights.length; i++) {
+            double expected = weights[i] / query.getTotalWeight();
+            assertEquals(expected, counts[i] / (double) samples, 1e-3);
+        }
+    }
+
+    @Test
+    public void upperBoundInclusive() throws Exception {
+        AliasTable query = new AliasTable(new double[]{1.0, 1.0});
+        query.select(2.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void emptyTableThrows() throws Exception {
+        new AliasTable(new double[]{0.0}).select(0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightThrows() throws Exception {
+        new AliasTable(new double[]{1.0, -1.0});
+    }
+}
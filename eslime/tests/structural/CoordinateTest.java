@@ -188,4 +188,15 @@ public class CoordinateTest extends TestCase {
         assertEquals(0, b1.flags());
 
     }
+
+    public void testCanonicalizeReturnsSelfIfCanonical() {
+        Coordinate a = new Coordinate(1, 2, 0);
+        Coordinate b = new Coordinate(1, 2, 3, 0);
+        assertTrue(a == a.canonicalize());
+        assertTrue(b == b.canonicalize());
+
+        Coordinate c = new Coordinate(1, 2, Flags.BOUNDARY_APPLIED);
+        assertFalse(c.isCanonical());
+        assertTrue(c.canonicalize().isCanonical());
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package structural;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedPriorityQueueTest {
+
+    @Test
+    public void initiallyInfinite() throws Exception {
+        IndexedPriorityQueue query = new IndexedPriorityQueue(3);
+        assertEquals(0, query.peek());
+        assertEquals(Double.POSITIVE_INFINITY, query.getKey(2), 0.0);
+    }
+
+    @Test
+    public void peekReturnsMinimum() throws Exception {
+        IndexedPriorityQueue query = new IndexedPriorityQueue(4);
+        query.set(0, 3.0);
+        query.set(1, 1.0);
+        query.set(2, 2.0);
+        query.set(3, 4.0);
+        assertEquals(1, query.peek());
+    }
+
+    @Test
+    public void increaseKeyReorders() throws Exception {
+        IndexedPriorityQueue query = new IndexedPriorityQueue(3);
+        query.set(0, 1.0);
+        query.set(1, 2.0);
+        query.set(2, 3.0);
+        query.set(0, 5.0);
+        assertEquals(1, query.peek());
+        query.set(1, Double.POSITIVE_INFINITY);
+        assertEquals(2, query.peek());
+    }
+
+    @Test
+    public void tiesBrokenByIndex() throws Exception {
+        IndexedPriorityQueue query = new IndexedPriorityQueue(3);
+        query.set(2, 1.0);
+        query.set(1, 1.0);
+        assertEquals(1, query.peek());
+    }
+
+    @Test
+    public void randomUpdatesMatchLinearScan() throws Exception {
+        int n = 50;
+        IndexedPriorityQueue query = new IndexedPriorityQueue(n);
+        double[] keys = new double[n];
+        Arrays.fill(keys, Double.POSITIVE_INFINITY);
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            int index = random.nextInt(n);
+            double key = random.nextDouble();
+            query.set(index, key);
+            keys[index] = key;
+
+            int expected = 0;
+            for (int j = 1; j < n; j++) {
+                if (keys[j] < keys[expected]) {
+                    expected = j;
+                }
+            }
+            assertEquals(expected, query.peek());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nanThrows() throws Exception {
+        new IndexedPriorityQueue(1).set(0, Double.NaN);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2014 David Bruce Borenstein and the Trustees of
+ *  Princeton University. All rights reserved.
+ */
+
+package structural;
+
+import org.junit.Before;
+import org.junit.Test;
+import test.TestBase;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WeightedSamplerTest extends TestBase {
+
+    private WeightedSampler query;
+
+    @Before
+    public void init() throws Exception {
+        query = new WeightedSampler(2);
+        query.add(0.5);
+        query.add(1.0);
+        query.add(0.5);
+    }
+
+    @Test
+    public void addReturnsIndex() throws Exception {
+        assertEquals(3, query.add(2.0));
+        assertEquals(4, query.size());
+        assertEquals(2.0, query.get(3), epsilon);
+    }
+
+    @Test
+    public void totalWeight() throws Exception {
+        assertEquals(2.0, query.getTotalWeight(), epsilon);
+    }
+
+    @Test
+    public void selectByRange() throws Exception {
+        assertEquals(0, query.select(0.0));
+        assertEquals(0, query.select(0.25));
+        assertEquals(1, query.select(0.5));
+        assertEquals(1, query.select(1.0));
+        assertEquals(2, query.select(1.5));
+        assertEquals(2, query.select(2.0));
+    }
+
+    @Test
+    public void setUpdatesRanges() throws Exception {
+        query.set(1, 0.0);
+        assertEquals(1.0, query.getTotalWeight(), epsilon);
+        assertEquals(2, query.select(0.5));
+        assertEquals(2, query.select(1.0));
+
+        query.set(0, 3.0);
+        assertEquals(3.5, query.getTotalWeight(), epsilon);
+        assertEquals(0, query.select(2.9));
+        assertEquals(2, query.select(3.0));
+    }
+
+    @Test
+    public void zeroWeightNeverSelected() throws Exception {
+        WeightedSampler sampler = new WeightedSampler();
+        sampler.add(1.0);
+        sampler.add(0.0);
+        sampler.add(0.0);
+        assertEquals(0, sampler.select(1.0));
+    }
+
+    /**
+     * After many updates, selection agrees with a linear scan of the
+     * cumulative weights.
+     */
+    @Test
+    public void randomUpdatesMatchLinearScan() throws Exception {
+        Random random = new Random(0);
+        int n = 37;
+        WeightedSampler sampler = new WeightedSampler();
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = random.nextDouble();
+            sampler.add(weights[i]);
+        }
+
+        for (int k = 0; k < 2000; k++) {
+            int index = random.nextInt(n);
+            weights[index] = random.nextInt(4) == 0 ? 0.0 : random.nextDouble();
+            sampler.set(index, weights[index]);
+
+            double total = 0.0;
+            for (double weight : weights) {
+                total += weight;
+            }
+            assertEquals(total, sampler.getTotalWeight(), 1e-10);
+
+            double x = random.nextDouble() * total;
+            int expected = 0;
+            double floor = 0.0;
+            while (floor + weights[expected] <= x) {
+                floor += weights[expected];
+                expected++;
+            }
+            assertEquals(expected, sampler.select(x));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void selectOutOfBoundsThrows() throws Exception {
+        query.select(2.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightThrows() throws Exception {
+        query.set(0, -1.0);
+    }
+}